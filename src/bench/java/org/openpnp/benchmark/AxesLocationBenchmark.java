@@ -0,0 +1,90 @@
+package org.openpnp.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openpnp.machine.reference.axis.ReferenceControllerAxis;
+import org.openpnp.model.AxesLocation;
+import org.openpnp.model.Length;
+import org.openpnp.spi.Axis;
+import org.openpnp.spi.ControllerAxis;
+
+/**
+ * Compares the array based {@link AxesLocation} with the former map based implementation on the typical
+ * sequence of operations the motion planner performs for each move: take the current location, put the
+ * target coordinates, get the motion segment, add backlash offsets, subtract, filter by driver and type and
+ * get the Euclidean distance.
+ *
+ * Run with: mvn -P benchmark verify -Djmh.args="AxesLocationBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AxesLocationBenchmark {
+    private List<ControllerAxis> axes;
+    private double[] current;
+    private double[] target;
+
+    @Setup
+    public void setup() {
+        Axis.Type[] types = new Axis.Type[] {
+                Axis.Type.X, Axis.Type.Y, Axis.Type.Z, Axis.Type.Rotation,
+                Axis.Type.Z, Axis.Type.Rotation, Axis.Type.Z, Axis.Type.Rotation };
+        String[] letters = new String[] { "X", "Y", "Z", "A", "B", "C", "U", "V" };
+        ControllerAxis[] array = new ControllerAxis[types.length];
+        current = new double[types.length];
+        target = new double[types.length];
+        for (int i = 0; i < types.length; i++) {
+            ReferenceControllerAxis axis = new ReferenceControllerAxis();
+            axis.setName(letters[i]);
+            axis.setLetter(letters[i]);
+            axis.setType(types[i]);
+            array[i] = axis;
+            current[i] = 10.0*i;
+            target[i] = 10.0*i + (i % 2 == 0 ? 25.5 : 0.0);
+        }
+        axes = Arrays.asList(array);
+    }
+
+    @Benchmark
+    public double axesLocation() {
+        AxesLocation location0 = new AxesLocation(axes, (axis) -> new Length(current[axes.indexOf(axis)],
+                AxesLocation.getUnits()));
+        AxesLocation location1 = location0;
+        AxesLocation backlash = AxesLocation.zero;
+        for (int i = 0; i < axes.size(); i++) {
+            location1 = location1.put(new AxesLocation(axes.get(i), target[i]));
+            backlash = backlash.add(new AxesLocation(axes.get(i), 0.05));
+        }
+        AxesLocation segment = location0.motionSegmentTo(location1);
+        AxesLocation backlashed = location1.add(backlash).subtract(location0);
+        return segment.getEuclideanMetric()
+                + backlashed.drivenBy(null).getEuclideanMetric()
+                + location1.byType(Axis.Type.Z).getEuclideanMetric();
+    }
+
+    @Benchmark
+    public double legacyAxesLocation() {
+        LegacyAxesLocation location0 = new LegacyAxesLocation(axes, (axis) -> new Length(current[axes.indexOf(axis)],
+                AxesLocation.getUnits()));
+        LegacyAxesLocation location1 = location0;
+        LegacyAxesLocation backlash = new LegacyAxesLocation(null, 0.0);
+        for (int i = 0; i < axes.size(); i++) {
+            location1 = location1.put(new LegacyAxesLocation(axes.get(i), target[i]));
+            backlash = backlash.add(new LegacyAxesLocation(axes.get(i), 0.05));
+        }
+        LegacyAxesLocation segment = location0.motionSegmentTo(location1);
+        LegacyAxesLocation backlashed = location1.add(backlash).subtract(location0);
+        return segment.getEuclideanMetric()
+                + backlashed.drivenBy(null).getEuclideanMetric()
+                + location1.byType(Axis.Type.Z).getEuclideanMetric();
+    }
+}
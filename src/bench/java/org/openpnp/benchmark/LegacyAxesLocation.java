@@ -0,0 +1,140 @@
+package org.openpnp.benchmark;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import org.openpnp.model.AxesLocation;
+import org.openpnp.model.Length;
+import org.openpnp.spi.Axis;
+import org.openpnp.spi.ControllerAxis;
+import org.openpnp.spi.Driver;
+
+/**
+ * The former LinkedHashMap based implementation of {@link AxesLocation}, reduced to the operations used on the
+ * motion planning path, kept as the baseline for {@link AxesLocationBenchmark}.
+ */
+public class LegacyAxesLocation {
+    final private LinkedHashMap<Axis, Double> location;
+
+    public LegacyAxesLocation(Axis axis, double coordinate) {
+        location = new LinkedHashMap<>(1);
+        if (axis != null) {
+            location.put(axis, coordinate);
+        }
+    }
+
+    public <T extends Axis> LegacyAxesLocation(Iterable<T> axes, Function<T, Length> initializer) {
+        location = new LinkedHashMap<>();
+        for (T axis : axes) {
+            Length coordinate = initializer.apply(axis);
+            if (coordinate != null) {
+                location.put(axis, coordinate.convertToUnits(AxesLocation.getUnits()).getValue());
+            }
+        }
+    }
+
+    public LegacyAxesLocation(BiFunction<Double, Double, Double> function, LegacyAxesLocation... axesLocation) {
+        location = new LinkedHashMap<>();
+        for (LegacyAxesLocation oneAxesLocation : axesLocation) {
+            if (oneAxesLocation != null) {
+                for (Axis axis : oneAxesLocation.getAxes()) {
+                    location.merge(axis, oneAxesLocation.getCoordinate(axis), function);
+                }
+            }
+        }
+    }
+
+    public LegacyAxesLocation add(LegacyAxesLocation other) {
+        return new LegacyAxesLocation((a, b) -> (a + b), this, other);
+    }
+
+    public LegacyAxesLocation subtract(LegacyAxesLocation other) {
+        return new LegacyAxesLocation((a, b) -> (a - b), this, other);
+    }
+
+    public LegacyAxesLocation put(LegacyAxesLocation other) {
+        return new LegacyAxesLocation((a, b) -> (b), this, other);
+    }
+
+    public LegacyAxesLocation drivenBy(Driver driver) {
+        return new LegacyAxesLocation(getAxes(driver), (axis) -> (getLengthCoordinate(axis)));
+    }
+
+    public LegacyAxesLocation byType(Axis.Type... types) {
+        final List<Axis.Type> typeList = Arrays.asList(types);
+        return  new LegacyAxesLocation(getAxes(),
+                (axis) -> (typeList.contains(axis.getType()) ?
+                        getLengthCoordinate(axis) : null));
+    }
+
+    public Set<Axis> getAxes() {
+        return location.keySet();
+    }
+
+    public LinkedHashSet<ControllerAxis> getAxes(Driver driver) {
+        LinkedHashSet<ControllerAxis> axes = new LinkedHashSet<>();
+        for (ControllerAxis axis : getAxes(ControllerAxis.class)) {
+            if (driver == null || ((ControllerAxis) axis).getDriver() == driver) {
+                axes.add((ControllerAxis) axis);
+            }
+        }
+        return axes;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends Axis> LinkedHashSet<T> getAxes(Class<T> axisClass) {
+        LinkedHashSet<T> axes = new LinkedHashSet<>();
+        for (Axis axis : getAxes()) {
+            if (axisClass.isInstance(axis)) {
+                axes.add((T) axis);
+            }
+        }
+        return axes;
+    }
+
+    public boolean contains(Axis axis) {
+        if (axis == null) {
+            return true;
+        }
+        return (location.containsKey(axis));
+    }
+
+    public double getCoordinate(Axis axis) {
+        if (axis != null) {
+            Double coordinate = location.get(axis);
+            if (coordinate != null) {
+                return coordinate;
+            }
+        }
+        return 0.0;
+    }
+
+    public Length getLengthCoordinate(Axis axis) {
+        return new Length(getCoordinate(axis), AxesLocation.getUnits());
+    }
+
+    public LegacyAxesLocation motionSegmentTo(LegacyAxesLocation location1) {
+        return new LegacyAxesLocation(getAxes(ControllerAxis.class),
+                (a) -> ( location1.contains(a) ?
+                        (!a.coordinatesMatch(getLengthCoordinate(a), location1.getLengthCoordinate(a)) ?
+                                new Length(location1.getCoordinate(a) - getCoordinate(a), AxesLocation.getUnits())
+                                :null)
+                        :null));
+    }
+
+    public double getEuclideanMetric() {
+        double sumSq = 0;
+        for (Entry<Axis, Double> entry : location.entrySet()) {
+            if (entry.getKey() instanceof ControllerAxis) {
+                sumSq += Math.pow(entry.getValue(), 2);
+            }
+        }
+        return Math.sqrt(sumSq);
+    }
+}
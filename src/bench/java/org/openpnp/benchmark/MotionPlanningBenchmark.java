@@ -0,0 +1,212 @@
+package org.openpnp.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openpnp.model.AbstractMotionPath;
+import org.openpnp.model.MotionProfile;
+import org.openpnp.model.MotionProfile.ProfileOption;
+
+/**
+ * Benchmarks the numerical core of motion planning over realistic move sets:
+ * <ul>
+ * <li>solve: solving the single lead axis profile of each move.</li>
+ * <li>coordinateProfiles: solving the lead axis and coordinating the other axes to it.</li>
+ * <li>synchronizeProfiles: solving all axes independently and synchronizing them, as for uncoordinated
+ * moves.</li>
+ * <li>optimizeExecutionPlan: solving the whole move sequence as a path, like
+ * ReferenceAdvancedMotionPlanner.optimizeExecutionPlan() does.</li>
+ * </ul>
+ * Besides the time per move set, the number of solver iterations (profile evaluations) is reported as an
+ * auxiliary counter. Run with -prof gc to get the allocation rate.
+ *
+ * Run with: mvn -P benchmark verify -Djmh.args="MotionPlanningBenchmark -prof gc"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MotionPlanningBenchmark {
+    static final double safeZ = -7;
+    static final double zPick = -15;
+
+    @Param({"shortJogs", "longDiagonals", "pickAndPlace", "uncoordinated"})
+    public String moveSet;
+
+    @Param({"0", "30000", "90000"})
+    public double jerk;
+
+    /**
+     * Waypoints as {x, y, z} triplets, each pair of subsequent waypoints is one move.
+     */
+    private double[][] waypoints;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Iterations {
+        public long evaluations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            evaluations = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        List<double[]> list = new ArrayList<>();
+        switch (moveSet) {
+            case "shortJogs":
+                for (int i = 0; i < 20; i++) {
+                    list.add(new double[] { 0.1*(i % 2), 0.1*(i/2 % 2), safeZ });
+                }
+                break;
+            case "longDiagonals":
+                for (int i = 0; i < 10; i++) {
+                    list.add(new double[] { (i % 2)*400, (i % 2)*300 + i, safeZ });
+                }
+                break;
+            case "pickAndPlace":
+                for (int i = 0; i < 5; i++) {
+                    // Pick from a feeder.
+                    list.add(new double[] { 200, 10*i, safeZ });
+                    list.add(new double[] { 200, 10*i, zPick });
+                    list.add(new double[] { 200, 10*i, safeZ });
+                    // Place on the board.
+                    list.add(new double[] { 20*i, 100, safeZ });
+                    list.add(new double[] { 20*i, 100, zPick + 2 });
+                    list.add(new double[] { 20*i, 100, safeZ });
+                }
+                break;
+            case "uncoordinated":
+                for (int i = 0; i < 10; i++) {
+                    list.add(new double[] { (i % 3)*150, (i % 2)*100, safeZ + (i % 2)*5 });
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown move set "+moveSet);
+        }
+        waypoints = list.toArray(new double[list.size()][]);
+    }
+
+    /**
+     * Create the axis profiles of the move between waypoint i-1 and waypoint i. Moves completely inside the
+     * Safe Z zone are uncoordinated when the move set is, all others are coordinated.
+     *
+     * @param i
+     * @return
+     */
+    private MotionProfile[] createProfiles(int i) {
+        double[] p0 = waypoints[i - 1];
+        double[] p1 = waypoints[i];
+        boolean uncoordinated = moveSet.equals("uncoordinated");
+        int options = (uncoordinated ?
+                ProfileOption.SynchronizeStraighten.flag()
+                : ProfileOption.Coordinated.flag());
+        return new MotionProfile[] {
+                new MotionProfile(p0[0], p1[0], 0, 0, 0, 0,
+                        0, 1000, 700, 2000, 2000, jerk, 0, Double.POSITIVE_INFINITY, options),
+                new MotionProfile(p0[1], p1[1], 0, 0, 0, 0,
+                        0, 500, 700, 1000, 1000, jerk, 0, Double.POSITIVE_INFINITY, options),
+                new MotionProfile(p0[2], p1[2], 0, 0, 0, 0,
+                        -20, 5, 700, 2000, 2000, jerk, 0, Double.POSITIVE_INFINITY, options),
+        };
+    }
+
+    private static long evaluations(MotionProfile[] profiles) {
+        long evaluations = 0;
+        for (MotionProfile profile : profiles) {
+            evaluations += profile.getEvaluations();
+        }
+        return evaluations;
+    }
+
+    @Benchmark
+    public double solve(Iterations iterations) {
+        double time = 0;
+        for (int i = 1; i < waypoints.length; i++) {
+            MotionProfile[] profiles = createProfiles(i);
+            MotionProfile lead = profiles[MotionProfile.getLeadAxisIndex(profiles)];
+            lead.solve();
+            iterations.evaluations += lead.getEvaluations();
+            time += lead.getTime();
+        }
+        return time;
+    }
+
+    @Benchmark
+    public double coordinateProfiles(Iterations iterations) {
+        double time = 0;
+        for (int i = 1; i < waypoints.length; i++) {
+            MotionProfile[] profiles = createProfiles(i);
+            MotionProfile lead = profiles[MotionProfile.getLeadAxisIndex(profiles)];
+            lead.solve();
+            iterations.evaluations += lead.getEvaluations();
+            MotionProfile.coordinateProfiles(profiles);
+            time += profiles[0].getTime();
+        }
+        return time;
+    }
+
+    @Benchmark
+    public double synchronizeProfiles(Iterations iterations) {
+        double time = 0;
+        for (int i = 1; i < waypoints.length; i++) {
+            MotionProfile[] profiles = createProfiles(i);
+            for (MotionProfile profile : profiles) {
+                profile.solve();
+            }
+            MotionProfile.synchronizeProfiles(profiles);
+            iterations.evaluations += evaluations(profiles);
+            time += profiles[0].getTime();
+        }
+        return time;
+    }
+
+    @Benchmark
+    public double optimizeExecutionPlan(Iterations iterations) throws Exception {
+        List<MotionProfile[]> executionPlan = new ArrayList<>();
+        for (int i = 1; i < waypoints.length; i++) {
+            MotionProfile[] profiles = createProfiles(i);
+            if (moveSet.equals("uncoordinated")) {
+                for (MotionProfile profile : profiles) {
+                    profile.solve();
+                }
+                MotionProfile.synchronizeProfiles(profiles);
+            }
+            else {
+                profiles[MotionProfile.getLeadAxisIndex(profiles)].solve();
+                MotionProfile.coordinateProfiles(profiles);
+            }
+            executionPlan.add(profiles);
+        }
+        AbstractMotionPath path = new AbstractMotionPath() {
+            @Override
+            public int size() {
+                return executionPlan.size();
+            }
+
+            @Override
+            public MotionProfile[] get(int i) {
+                return executionPlan.get(i);
+            }
+        };
+        path.solve();
+        double time = 0;
+        for (MotionProfile[] profiles : executionPlan) {
+            iterations.evaluations += evaluations(profiles);
+            time += profiles[0].getTime();
+        }
+        return time;
+    }
+}
@@ -104,6 +104,15 @@ public class Main {
         Configurator.currentConfig()
             .formatPattern("{date:yyyy-MM-dd HH:mm:ss.SSS} {class_name} {level}: {message}")
             .activate();
+        // Write the log entries on tinylog's background writing thread, so the machine threads
+        // (e.g. the GcodeDriver reader thread in trace mode) never block on file or console I/O.
+        // The thread is not bound to an observed thread, so it must be flushed on shutdown.
+        Configurator.currentConfig()
+            .writingThread(null)
+            .activate();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            Configurator.shutdownWritingThread(true);
+        }));
 
         // Redirect the stdout and stderr to the LogPanel
         SystemLogger out = new SystemLogger(System.out, Level.INFO);
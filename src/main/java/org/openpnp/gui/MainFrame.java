@@ -1114,6 +1114,7 @@ public class MainFrame extends JFrame {
         catch (Exception e) {
             e.printStackTrace();
         }
+        configuration.getScripting().close();
         Logger.info("Shutdown complete, exiting."); //$NON-NLS-1$
         System.exit(0);
         return true;
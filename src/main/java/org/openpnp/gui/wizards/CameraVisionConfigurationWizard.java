@@ -109,6 +109,8 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 RowSpec.decode("max(70dlu;default):grow"),}));
 
         lblSettleMethod = new JLabel(Translations.getString(
@@ -256,8 +258,17 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
         });
         panelVision.add(settleDiagnostics, "10, 12");
 
+        lblSettlePredictive = new JLabel(Translations.getString(
+                "CameraVisionConfigurationWizard.VisionPanel.PredictSettleLabel.text")); //$NON-NLS-1$
+        lblSettlePredictive.setToolTipText(Translations.getString(
+                "CameraVisionConfigurationWizard.VisionPanel.PredictSettleLabel.toolTipText")); //$NON-NLS-1$
+        panelVision.add(lblSettlePredictive, "2, 14, right, default");
+
+        settlePredictive = new JCheckBox("");
+        panelVision.add(settlePredictive, "4, 14");
+
         lblSettleGraph = new JLabel("<html>\r\n<body style=\"text-align:right\">\r\n<p>\r\nDifference <span style=\"color:#FF0000\">&mdash;&mdash;</span>\r\n</p>\r\n<p>\r\nThreshold <span style=\"color:#00BB00\">&mdash;&mdash;</span>\r\n</p>\r\n<p>\r\nCapture <span style=\"color:#005BD9\">&mdash;&mdash;</span>\r\n</p>\r\n</body>\r\n</html>");
-        panelVision.add(lblSettleGraph, "2, 14, right, default");
+        panelVision.add(lblSettleGraph, "2, 16, right, default");
 
         settleGraph = new SimpleGraphView();
         settleGraph.addPropertyChangeListener(new PropertyChangeListener() {
@@ -269,7 +280,7 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
             }
         });
         settleGraph.setFont(new Font("Dialog", Font.PLAIN, 11));
-        panelVision.add(settleGraph, "4, 14, 11, 1, default, fill");
+        panelVision.add(settleGraph, "4, 16, 11, 1, default, fill");
     }
 
     private void adaptDialog() {
@@ -305,6 +316,9 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
         lblSettleDiagnostics.setVisible(!fixedTime);
         settleDiagnostics.setVisible(!fixedTime);
 
+        lblSettlePredictive.setVisible(!fixedTime);
+        settlePredictive.setVisible(!fixedTime);
+
         lblSettleGraph.setVisible(settleDiagnostics.isSelected() && !fixedTime);
         settleGraph.setVisible(settleDiagnostics.isSelected() && !fixedTime);
         panelSettleTest.setVisible(settleDiagnostics.isSelected() && !fixedTime);
@@ -328,6 +342,7 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
         addWrappedBinding(camera, "settleMaskCircle", settleMaskCircle, "text", doubleConverter);
         addWrappedBinding(camera, "settleContrastEnhance", settleContrastEnhance, "text", doubleConverter);
         addWrappedBinding(camera, "settleDiagnostics", settleDiagnostics, "selected");
+        addWrappedBinding(camera, "settlePredictive", settlePredictive, "selected");
         addWrappedBinding(camera, "settleGraph", settleGraph, "graph");
 
         ComponentDecorators.decorateWithAutoSelect(settleTimeMs);
@@ -504,6 +519,8 @@ public class CameraVisionConfigurationWizard extends AbstractConfigurationWizard
     private JTextField settleMaskCircle;
     private JLabel lblSettleDiagnostics;
     private JCheckBox settleDiagnostics;
+    private JLabel lblSettlePredictive;
+    private JCheckBox settlePredictive;
     private SimpleGraphView settleGraph;
     private JLabel lblSettleGraph;
     private JLabel lblSettleGradient;
@@ -1,50 +1,152 @@
 package org.openpnp.logging;
 
+import java.lang.StackWalker.Option;
+import java.util.function.Supplier;
+
 import org.pmw.tinylog.Level;
+import org.pmw.tinylog.LogEntryForwarder;
 
+/**
+ * A level-aware logging facade on top of tinylog. The static methods can be used as a drop-in replacement
+ * for the tinylog Logger. In addition, it offers isTraceEnabled()/isDebugEnabled() guards and
+ * Supplier based messages, that are only composed if the entry is actually logged.
+ *
+ * The log entries are forwarded with the caller's stack trace depth, so the logged class name is
+ * that of the caller, and tinylog applies the level of the caller's package. Placeholder arguments
+ * are only formatted by tinylog if the entry is logged, so the calls need no guards. Only guard
+ * a call with isTraceEnabled()/isDebugEnabled(), if computing an argument is expensive.
+ */
 public class Logger {
-    public void error(String message, Object... args) {
-        org.pmw.tinylog.Logger.info(message, args);
-    }
-    
-    public void error(String message, Throwable t) {
-        org.pmw.tinylog.Logger.info(message, t);
-    }
-    
-    public void warn(String message, Object... args) {
-        org.pmw.tinylog.Logger.info(message, args);
-    }
-    
-    public void warn(String message, Throwable t) {
-        org.pmw.tinylog.Logger.info(message, t);
-    }
-    
-    public void info(String message, Object... args) {
-        org.pmw.tinylog.Logger.info(message, args);
-    }
-    
-    public void info(String message, Throwable t) {
-        org.pmw.tinylog.Logger.info(message, t);
-    }
-    
-    public void debug(String message, Object... args) {
-        org.pmw.tinylog.Logger.info(message, args);
-    }
-    
-    public void debug(String message, Throwable t) {
-        org.pmw.tinylog.Logger.info(message, t);
-    }
-    
-    public void trace(String message, Object... args) {
-        org.pmw.tinylog.Logger.info(message, args);
-    }
-    
-    public void trace(String message, Throwable t) {
-        org.pmw.tinylog.Logger.info(message, t);
-    }    
-    
-    public boolean isDebugEnabled() {
-        return org.pmw.tinylog.Logger.getLevel() == Level.DEBUG ||
-                org.pmw.tinylog.Logger.getLevel() == Level.TRACE;
+    private static final StackWalker stackWalker = StackWalker.getInstance(Option.RETAIN_CLASS_REFERENCE);
+
+    /**
+     * @return True if the trace level is enabled for the calling class, including any package specific
+     * level.
+     */
+    public static boolean isTraceEnabled() {
+        return isEnabled(Level.TRACE, stackWalker.getCallerClass());
+    }
+
+    /**
+     * @return True if the debug level is enabled for the calling class, including any package specific
+     * level.
+     */
+    public static boolean isDebugEnabled() {
+        return isEnabled(Level.DEBUG, stackWalker.getCallerClass());
+    }
+
+    private static boolean isEnabled(Level level, Class<?> caller) {
+        return org.pmw.tinylog.Logger.getLevel(caller).ordinal() <= level.ordinal();
+    }
+
+    /**
+     * Defers the composition of a Supplier message until tinylog formats the entry, i.e. after it
+     * has checked the level of the caller's package.
+     */
+    private static Object lazy(Supplier<?> message) {
+        return new Object() {
+            @Override
+            public String toString() {
+                return String.valueOf(message.get());
+            }
+        };
+    }
+
+    public static void error(String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.ERROR, message, args);
+    }
+
+    public static void error(String message, Throwable t) {
+        LogEntryForwarder.forward(1, Level.ERROR, t, message);
+    }
+
+    public static void error(Throwable t, String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.ERROR, t, message, args);
+    }
+
+    public static void error(Throwable t) {
+        LogEntryForwarder.forward(1, Level.ERROR, t, null);
+    }
+
+    public static void error(Supplier<?> message) {
+        LogEntryForwarder.forward(1, Level.ERROR, "{}", lazy(message));
+    }
+
+    public static void warn(String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.WARNING, message, args);
+    }
+
+    public static void warn(String message, Throwable t) {
+        LogEntryForwarder.forward(1, Level.WARNING, t, message);
+    }
+
+    public static void warn(Throwable t, String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.WARNING, t, message, args);
+    }
+
+    public static void warn(Throwable t) {
+        LogEntryForwarder.forward(1, Level.WARNING, t, null);
+    }
+
+    public static void warn(Supplier<?> message) {
+        LogEntryForwarder.forward(1, Level.WARNING, "{}", lazy(message));
+    }
+
+    public static void info(String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.INFO, message, args);
+    }
+
+    public static void info(String message, Throwable t) {
+        LogEntryForwarder.forward(1, Level.INFO, t, message);
+    }
+
+    public static void info(Throwable t, String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.INFO, t, message, args);
+    }
+
+    public static void info(Supplier<?> message) {
+        LogEntryForwarder.forward(1, Level.INFO, "{}", lazy(message));
+    }
+
+    public static void debug(String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.DEBUG, message, args);
+    }
+
+    public static void debug(String message, Throwable t) {
+        LogEntryForwarder.forward(1, Level.DEBUG, t, message);
+    }
+
+    public static void debug(Throwable t, String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.DEBUG, t, message, args);
+    }
+
+    /**
+     * Logs the message on the debug level. The message is only composed if the entry is logged.
+     *
+     * @param message
+     */
+    public static void debug(Supplier<?> message) {
+        LogEntryForwarder.forward(1, Level.DEBUG, "{}", lazy(message));
+    }
+
+    public static void trace(String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.TRACE, message, args);
+    }
+
+    public static void trace(String message, Throwable t) {
+        LogEntryForwarder.forward(1, Level.TRACE, t, message);
+    }
+
+    public static void trace(Throwable t, String message, Object... args) {
+        LogEntryForwarder.forward(1, Level.TRACE, t, message, args);
+    }
+
+    /**
+     * Logs the message on the trace level. The message is only composed if the entry is logged.
+     *
+     * @param message
+     */
+    public static void trace(Supplier<?> message) {
+        LogEntryForwarder.forward(1, Level.TRACE, "{}", lazy(message));
     }
 }
@@ -0,0 +1,439 @@
+/*
+ * Copyright (C) 2011 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openpnp.machine.reference.driver.AbstractReferenceDriver;
+import org.openpnp.machine.reference.driver.NullDriver;
+import org.openpnp.model.Configuration;
+import org.openpnp.model.Job;
+import org.openpnp.spi.Driver;
+import org.openpnp.spi.JobProcessor.TextStatusListener;
+import org.openpnp.spi.Machine;
+import org.openpnp.util.NanosecondTime;
+import org.pmw.tinylog.Logger;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Estimates the cycle time of a Job by running it headless on the configured machine with simulated
+ * drivers, in virtual time. The motion is timed by the motion planner and the simulated controller from the
+ * planned motion profiles, and the configured settle and dwell times are accounted for, but nothing is
+ * actually waited for, so a large job is estimated in a fraction of its run time.
+ *
+ * The time is broken down into phases, by the job processor step that is processed. The text status of
+ * the job processor is only recorded as the description of the events.
+ */
+public class CycleTimeEstimator {
+    public enum Phase {
+        Preparation,
+        Fiducials,
+        Planning,
+        NozzleTipChange,
+        NozzleTipCalibration,
+        /**
+         * Feeding and picking, including the move to the feeder.
+         */
+        Pick,
+        Align,
+        Place,
+        Cleanup,
+        Other;
+
+        /**
+         * Classify a job processor step.
+         *
+         * @param step
+         * @return
+         */
+        static Phase of(ReferencePnpJobProcessor.Step step) {
+            if (step instanceof ReferencePnpJobProcessor.PreFlight) {
+                return Preparation;
+            }
+            else if (step instanceof ReferencePnpJobProcessor.FiducialCheck) {
+                return Fiducials;
+            }
+            else if (step instanceof ReferencePnpJobProcessor.Plan) {
+                return Planning;
+            }
+            else if (step instanceof ReferencePnpJobProcessor.ChangeNozzleTips) {
+                return NozzleTipChange;
+            }
+            else if (step instanceof ReferencePnpJobProcessor.CalibrateNozzleTips) {
+                return NozzleTipCalibration;
+            }
+            else if (step instanceof ReferencePnpJobProcessor.OptimizeNozzlesForPick
+                    || step instanceof ReferencePnpJobProcessor.PrerotateAllNozzlesForPick
+                    || step instanceof ReferencePnpJobProcessor.Pick) {
+                return Pick;
+            }
+            else if (step instanceof ReferencePnpJobProcessor.OptimizeNozzlesForAlign
+                    || step instanceof ReferencePnpJobProcessor.PrerotateAllNozzlesForAlign
+                    || step instanceof ReferencePnpJobProcessor.Align) {
+                return Align;
+            }
+            else if (step instanceof ReferencePnpJobProcessor.OptimizeNozzlesForPlace
+                    || step instanceof ReferencePnpJobProcessor.PrerotateAllNozzlesForPlace
+                    || step instanceof ReferencePnpJobProcessor.Place) {
+                return Place;
+            }
+            else if (step instanceof ReferencePnpJobProcessor.FinishCycle
+                    || step instanceof ReferencePnpJobProcessor.Cleanup
+                    || step instanceof ReferencePnpJobProcessor.Finish
+                    || step instanceof ReferencePnpJobProcessor.Abort) {
+                return Cleanup;
+            }
+            return Other;
+        }
+    }
+
+    public static class Event {
+        final Phase phase;
+        String status;
+        final double startSeconds;
+        double durationSeconds;
+
+        Event(Phase phase, double startSeconds) {
+            this.phase = phase;
+            this.startSeconds = startSeconds;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+
+        /**
+         * @return The first text status the job processor reported in this event, or null if none.
+         */
+        public String getStatus() {
+            return status;
+        }
+
+        public double getStartSeconds() {
+            return startSeconds;
+        }
+
+        public double getDurationSeconds() {
+            return durationSeconds;
+        }
+    }
+
+    public static class PhaseTotal {
+        int count;
+        double totalSeconds;
+        double maxSeconds;
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getTotalSeconds() {
+            return totalSeconds;
+        }
+
+        public double getAverageSeconds() {
+            return count == 0 ? 0 : totalSeconds/count;
+        }
+
+        public double getMaxSeconds() {
+            return maxSeconds;
+        }
+    }
+
+    public static class Estimate {
+        String job;
+        int placements;
+        double totalSeconds;
+        double computeSeconds;
+        Map<Phase, PhaseTotal> phases = new EnumMap<>(Phase.class);
+        List<Event> events = new ArrayList<>();
+
+        public String getJob() {
+            return job;
+        }
+
+        /**
+         * @return The number of parts placed.
+         */
+        public int getPlacements() {
+            return placements;
+        }
+
+        /**
+         * @return The estimated (simulated) run time of the job.
+         */
+        public double getTotalSeconds() {
+            return totalSeconds;
+        }
+
+        /**
+         * @return The real time it took to compute the estimate.
+         */
+        public double getComputeSeconds() {
+            return computeSeconds;
+        }
+
+        public double getPartsPerHour() {
+            return totalSeconds <= 0 ? 0 : placements*3600/totalSeconds;
+        }
+
+        public Map<Phase, PhaseTotal> getPhases() {
+            return phases;
+        }
+
+        public List<Event> getEvents() {
+            return events;
+        }
+
+        /**
+         * Write the phase breakdown as CSV.
+         *
+         * @param writer
+         */
+        public void writeCsv(Writer writer) {
+            PrintWriter out = new PrintWriter(writer);
+            out.println("phase,count,total_s,average_s,max_s,share_percent");
+            for (Map.Entry<Phase, PhaseTotal> entry : phases.entrySet()) {
+                PhaseTotal total = entry.getValue();
+                out.println(String.format(Locale.US, "%s,%d,%.3f,%.3f,%.3f,%.1f",
+                        entry.getKey(), total.getCount(), total.getTotalSeconds(),
+                        total.getAverageSeconds(), total.getMaxSeconds(),
+                        totalSeconds > 0 ? total.getTotalSeconds()*100/totalSeconds : 0));
+            }
+            out.println(String.format(Locale.US, "Total,%d,%.3f,%.3f,,100.0",
+                    placements, totalSeconds, placements > 0 ? totalSeconds/placements : 0));
+            out.flush();
+        }
+
+        /**
+         * Write the estimate including the phase breakdown and all the events as JSON.
+         *
+         * @param writer
+         */
+        public void writeJson(Writer writer) {
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("job", job);
+            json.put("placements", placements);
+            json.put("totalSeconds", totalSeconds);
+            json.put("partsPerHour", getPartsPerHour());
+            json.put("computeSeconds", computeSeconds);
+            json.put("phases", phases);
+            json.put("events", events);
+            new GsonBuilder()
+                .setPrettyPrinting()
+                .serializeSpecialFloatingPointValues()
+                .create()
+                .toJson(json, writer);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d placements in %.1f s (%.0f parts per hour), estimated in %.1f s",
+                    placements, totalSeconds, getPartsPerHour(), computeSeconds);
+        }
+    }
+
+    private final Machine machine;
+
+    public CycleTimeEstimator(Machine machine) {
+        this.machine = machine;
+    }
+
+    /**
+     * Check that all the drivers of the machine are simulated, so running a job does not move a real
+     * machine.
+     *
+     * @throws Exception
+     */
+    protected void checkSimulated() throws Exception {
+        for (Driver driver : machine.getDrivers()) {
+            if (driver instanceof NullDriver) {
+                continue;
+            }
+            if (driver instanceof AbstractReferenceDriver
+                    && ((AbstractReferenceDriver) driver).isInSimulationMode()) {
+                continue;
+            }
+            throw new Exception("Driver "+driver.getName()+" is not simulated, the cycle time can only be "
+                    + "estimated with a NullDriver or in a simulation mode that replaces the drivers.");
+        }
+    }
+
+    /**
+     * Run the job on the machine in virtual time and return the estimate. The machine must be enabled and
+     * homed. This may be called from inside or outside a machine task.
+     *
+     * @param job
+     * @return
+     * @throws Exception
+     */
+    public Estimate estimate(Job job) throws Exception {
+        checkSimulated();
+        return machine.execute(() -> {
+            return estimateImpl(job);
+        }, true, Machine.DEFAULT_TASK_BUSY_TIMEOUT_MS);
+    }
+
+    protected Estimate estimateImpl(Job job) throws Exception {
+        Estimate estimate = new Estimate();
+        estimate.job = (job.getFile() != null ? job.getFile().getName() : job.toString());
+        if (!(machine.getPnpJobProcessor() instanceof ReferencePnpJobProcessor)) {
+            throw new Exception("The cycle time can only be estimated with the ReferencePnpJobProcessor.");
+        }
+        ReferencePnpJobProcessor jobProcessor = (ReferencePnpJobProcessor) machine.getPnpJobProcessor();
+        boolean virtualTime = NanosecondTime.isVirtualTime();
+        long realTime0 = System.nanoTime();
+        NanosecondTime.setVirtualTime(true);
+        long t0 = NanosecondTime.getRuntime();
+        Event [] current = new Event[1];
+        TextStatusListener listener = (status) -> {
+            if (current[0] != null && current[0].status == null) {
+                current[0].status = status;
+            }
+        };
+        jobProcessor.addTextStatusListener(listener);
+        try {
+            jobProcessor.initialize(job);
+            do {
+                // Each step is an event.
+                double t = (NanosecondTime.getRuntime() - t0)*1e-9;
+                endEvent(estimate, current[0], t);
+                current[0] = new Event(Phase.of(jobProcessor.getCurrentStep()), t);
+                estimate.events.add(current[0]);
+            }
+            while (jobProcessor.next());
+        }
+        finally {
+            jobProcessor.removeTextStatusListener(listener);
+            estimate.totalSeconds = (NanosecondTime.getRuntime() - t0)*1e-9;
+            endEvent(estimate, current[0], estimate.totalSeconds);
+            NanosecondTime.setVirtualTime(virtualTime);
+            estimate.computeSeconds = (System.nanoTime() - realTime0)*1e-9;
+        }
+        estimate.placements = jobProcessor.totalPartsPlaced;
+        Logger.info("Cycle time estimate: {}", estimate);
+        return estimate;
+    }
+
+    private void endEvent(Estimate estimate, Event event, double t) {
+        if (event == null) {
+            return;
+        }
+        event.durationSeconds = t - event.startSeconds;
+        PhaseTotal total = estimate.phases.computeIfAbsent(event.phase, (phase) -> new PhaseTotal());
+        total.count++;
+        total.totalSeconds += event.durationSeconds;
+        total.maxSeconds = Math.max(total.maxSeconds, event.durationSeconds);
+    }
+
+    /**
+     * Estimate the cycle time of a job headless.
+     *
+     * Usage: CycleTimeEstimator configurationDirectory jobFile [-csv file] [-json file]
+     */
+    public static void main(String[] args) throws Exception {
+        System.exit(run(args, System.out));
+    }
+
+    /**
+     * Estimate the cycle time of a job headless, see {@link #main(String[])}.
+     *
+     * @param args
+     * @param out Receives the estimate and, if no report file is given, the CSV phase breakdown.
+     * @return The exit status, 0 on success, 1 if the estimate failed, 2 if the arguments are invalid.
+     */
+    public static int run(String[] args, PrintStream out) {
+        if (args.length < 2 || args.length % 2 != 0) {
+            out.println("Usage: CycleTimeEstimator configurationDirectory jobFile [-csv file] [-json file]");
+            return 2;
+        }
+        File csvFile = null;
+        File jsonFile = null;
+        for (int i = 2; i < args.length - 1; i += 2) {
+            if (args[i].equals("-csv")) {
+                csvFile = new File(args[i + 1]);
+            }
+            else if (args[i].equals("-json")) {
+                jsonFile = new File(args[i + 1]);
+            }
+            else {
+                out.println("Unknown option "+args[i]);
+                return 2;
+            }
+        }
+        try {
+            Configuration.initialize(new File(args[0]));
+            Configuration.get().load();
+            Job job = Configuration.get().loadJob(new File(args[1]));
+            Machine machine = Configuration.get().getMachine();
+            CycleTimeEstimator estimator = new CycleTimeEstimator(machine);
+            estimator.checkSimulated();
+            Estimate estimate;
+            try {
+                machine.setEnabled(true);
+                // Homing is part of the setup, not of the cycle time.
+                machine.execute(() -> {
+                    machine.home();
+                    return null;
+                }, true, Machine.DEFAULT_TASK_BUSY_TIMEOUT_MS);
+                estimate = estimator.estimate(job);
+            }
+            finally {
+                machine.setEnabled(false);
+            }
+            out.println(estimate);
+            writeReport(estimate, csvFile, jsonFile);
+            if (csvFile == null && jsonFile == null) {
+                estimate.writeCsv(new PrintWriter(out));
+            }
+            return 0;
+        }
+        catch (Exception e) {
+            Logger.error(e);
+            out.println("Cycle time estimate failed: "+e);
+            return 1;
+        }
+    }
+
+    private static void writeReport(Estimate estimate, File csvFile, File jsonFile) throws IOException {
+        if (csvFile != null) {
+            try (Writer out = new FileWriter(csvFile)) {
+                estimate.writeCsv(out);
+            }
+        }
+        if (jsonFile != null) {
+            try (Writer out = new FileWriter(jsonFile)) {
+                estimate.writeJson(out);
+            }
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -156,6 +157,11 @@ public class ReferenceMachine extends AbstractMachine {
     @Element(required = false)
     private boolean poolScriptingEngines = false;
 
+    @Element(required = false)
+    private String asyncScriptingEvents = "";
+
+    private Set<String> asyncScriptingEventSet;
+
     @Element(required = false)
     private boolean autoLoadMostRecentJob = false;
 
@@ -348,6 +354,37 @@ public class ReferenceMachine extends AbstractMachine {
         this.poolScriptingEngines = poolScriptingEngines;
     }
 
+    /**
+     * @return The comma separated names of the scripting events that are run asynchronously.
+     */
+    public String getAsyncScriptingEvents() {
+        return asyncScriptingEvents;
+    }
+
+    public void setAsyncScriptingEvents(String asyncScriptingEvents) {
+        Object oldValue = this.asyncScriptingEvents;
+        this.asyncScriptingEvents = asyncScriptingEvents;
+        this.asyncScriptingEventSet = null;
+        firePropertyChange("asyncScriptingEvents", oldValue, asyncScriptingEvents);
+    }
+
+    @Override
+    public boolean isAsyncScriptingEvent(String event) {
+        Set<String> eventSet = asyncScriptingEventSet;
+        if (eventSet == null) {
+            eventSet = new HashSet<>();
+            if (asyncScriptingEvents != null) {
+                for (String name : asyncScriptingEvents.split(",")) {
+                    if (!name.trim().isEmpty()) {
+                        eventSet.add(name.trim());
+                    }
+                }
+            }
+            asyncScriptingEventSet = eventSet;
+        }
+        return eventSet.contains(event);
+    }
+
     public boolean isAutoLoadMostRecentJob() {
         return autoLoadMostRecentJob;
     }
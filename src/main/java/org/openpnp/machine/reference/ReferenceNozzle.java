@@ -46,6 +46,7 @@ import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.spi.base.AbstractActuator;
 import org.openpnp.spi.base.AbstractNozzle;
 import org.openpnp.util.MovableUtils;
+import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.SimpleGraph;
 import org.openpnp.util.UiUtils;
 import org.pmw.tinylog.Logger;
@@ -1142,7 +1143,7 @@ public class ReferenceNozzle extends AbstractNozzle implements HeadMountable {
         else {
             // simple method, just dwell
             Logger.trace(getName()+" dwell for pick vacuum "+milliseconds+"ms");
-            Thread.sleep(milliseconds);
+            NanosecondTime.sleep(milliseconds);
         }
     }
 
@@ -1177,7 +1178,7 @@ public class ReferenceNozzle extends AbstractNozzle implements HeadMountable {
         else {
             // simple method, just dwell
             Logger.trace(getName()+" dwell for place vacuum dissipation "+milliseconds+"ms");
-            Thread.sleep(milliseconds);
+            NanosecondTime.sleep(milliseconds);
         }
     }
 
@@ -1236,7 +1237,7 @@ public class ReferenceNozzle extends AbstractNozzle implements HeadMountable {
             else {
                 // simple method, just dwell 
                 Logger.trace(getName()+" dwell for part off probing, open valve "+probingMilliseconds+"ms");
-                Thread.sleep(probingMilliseconds);
+                NanosecondTime.sleep(probingMilliseconds);
                 if (dwellMilliseconds <= 0) {
                     returnedVacuumLevel = readVacuumLevel();
                 }
@@ -1275,7 +1276,7 @@ public class ReferenceNozzle extends AbstractNozzle implements HeadMountable {
             // simple method, just dwell and then read the level
             if (dwellMilliseconds > 0) {
                 Logger.trace(getName()+" dwell for part off probing, closed valve "+dwellMilliseconds+"ms");
-                Thread.sleep(dwellMilliseconds);
+                NanosecondTime.sleep(dwellMilliseconds);
                 returnedVacuumLevel = readVacuumLevel();
             }
             // return the vacuum level, either from before or after valve closed
@@ -20,7 +20,6 @@ import org.opencv.core.RotatedRect;
 import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
-import org.openpnp.gui.MainFrame;
 import org.openpnp.machine.reference.camera.ReferenceCamera;
 import org.openpnp.model.AbstractModelObject;
 import org.openpnp.model.Configuration;
@@ -37,6 +36,7 @@ import org.openpnp.util.MovableUtils;
 import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.Utils2D;
+import org.openpnp.util.VisionResultPublisher;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.FluentCv;
 import org.openpnp.vision.pipeline.CvPipeline;
@@ -929,11 +929,7 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
             List results = pipeline.getExpectedResult(stageName).getExpectedModel(List.class);
 
             //show result from pipeline in camera view, but only if GUI is present (not so in UnitTests).
-            MainFrame mainFrame = MainFrame.get();
-            if (mainFrame != null) {
-                mainFrame.getCameraViews().getCameraView(camera).showFilteredImage(
-                        OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), 1000);
-            }
+            VisionResultPublisher.publish(camera, pipeline.getWorkingImage(), 1000);
 
             // add all results from pipeline to a Location-list post processing
             // are there any results from the pipeline?
@@ -1688,6 +1684,8 @@ public class ReferenceNozzleTipCalibration extends AbstractModelObject {
         pipeline.setProperty("nozzleTip.center", measureLocation);
         Point maskCenter = VisionUtils.getLocationPixels(camera, measureLocation);
         pipeline.setProperty("MaskCircle.center", new org.opencv.core.Point(maskCenter.getX(), maskCenter.getY()));
+        // The captured image is used for the background calibration.
+        pipeline.setRetainingLastCapturedImage(true);
         return pipeline;
     }
 
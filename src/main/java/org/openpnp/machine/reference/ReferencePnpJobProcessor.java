@@ -177,6 +177,13 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
         currentStep = null;
     }
 
+    /**
+     * @return The step that is processed by the next call of {@link #next()}, or null if the job is finished.
+     */
+    synchronized Step getCurrentStep() {
+        return currentStep;
+    }
+
     /**
      * Create some internal shortcuts to various buried objects.
      * 
@@ -391,7 +398,9 @@ public class ReferencePnpJobProcessor extends AbstractPnpJobProcessor {
                     // no particular end location
                     null);
 
-            // Solve it using the default heuristics.
+            // Solve it using the default heuristics, with one annealing chain per core. The first chain is the
+            // single threaded one, so this is never worse.
+            tsm.setChains(Runtime.getRuntime().availableProcessors());
             tsm.solve();
 
             // Prepare feeders along the visit travel path.
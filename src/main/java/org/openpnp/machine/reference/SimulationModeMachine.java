@@ -116,6 +116,14 @@ public class SimulationModeMachine extends ReferenceMachine {
     @Attribute(required = false)
     private boolean replacingDrivers = true;
 
+    /**
+     * Run the simulation in virtual time, i.e. as fast as possible. Dwells, settle times and the simulated 
+     * motion in the GcodeServer advance the runtime clock instantly instead of sleeping, while the 
+     * simulated durations stay exact. Used for cycle-time estimation and regression testing. 
+     */
+    @Attribute(required = false)
+    private boolean virtualTime = false;
+
     /**
      * The simulated non-squareness is applied to what the simulated cameras see.
      * Works on the ImageCamera.
@@ -176,7 +184,13 @@ public class SimulationModeMachine extends ReferenceMachine {
     @Override
     public void setEnabled(boolean enabled) throws Exception {
         // TODO: re-wire drivers and cameras. 
+        if (enabled) {
+            NanosecondTime.setVirtualTime(isVirtualTimeEffective());
+        }
         super.setEnabled(enabled);
+        if (!enabled) {
+            NanosecondTime.setVirtualTime(false);
+        }
     }
 
     @Override
@@ -211,6 +225,27 @@ public class SimulationModeMachine extends ReferenceMachine {
         this.replacingDrivers = replacingDrivers;
     }
 
+    public boolean isVirtualTime() {
+        return virtualTime;
+    }
+
+    public void setVirtualTime(boolean virtualTime) {
+        Object oldValue = this.virtualTime;
+        this.virtualTime = virtualTime;
+        firePropertyChange("virtualTime", oldValue, virtualTime);
+        if (isEnabled()) {
+            NanosecondTime.setVirtualTime(isVirtualTimeEffective());
+        }
+    }
+
+    /**
+     * @return true if virtual time is enabled and the machine is actually simulated, i.e. never on a real 
+     * machine.
+     */
+    public boolean isVirtualTimeEffective() {
+        return virtualTime && simulationMode != SimulationMode.Off;
+    }
+
     public double getSimulatedNonSquarenessFactor() {
         return simulatedNonSquarenessFactor;
     }
@@ -407,7 +442,7 @@ public class SimulationModeMachine extends ReferenceMachine {
             if (realtime) {
                 try {
                     Logger.trace("{} simulate actuation, sleep 5ms", actuator.getName());
-                    Thread.sleep(5);
+                    NanosecondTime.sleep(5);
                 }
                 catch (InterruptedException e) {
                 }
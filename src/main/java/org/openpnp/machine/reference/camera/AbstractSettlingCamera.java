@@ -28,6 +28,9 @@ import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import org.opencv.core.Core;
 import org.opencv.core.Core.MinMaxLocResult;
@@ -40,13 +43,13 @@ import org.opencv.core.Size;
 import org.opencv.imgcodecs.Imgcodecs;
 import org.opencv.imgproc.Imgproc;
 import org.openpnp.gui.MainFrame;
+import org.openpnp.logging.Logger;
 import org.openpnp.model.Configuration;
 import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.openpnp.spi.base.AbstractCamera;
 import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.SimpleGraph;
-import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.core.Commit;
 
@@ -203,6 +206,9 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
     @Attribute(required = false)
     protected boolean settleDiagnostics = false;
 
+    @Attribute(required = false)
+    protected boolean settlePredictive = false;
+
     @Commit
     protected void commit() throws Exception {
         if (settleMethod == null) {
@@ -263,20 +269,214 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
         }
     }
 
-    private BufferedImage autoSettleAndCapture(double settleMaskCircle) throws Exception {
-        Mat mask = null;
-        Mat maskFullsize = null;
-        Mat lastSettleMat = null;
+    /**
+     * Working buffers of the auto settle at one image resolution level. The buffers are reused from frame to 
+     * frame and from one settle to the next. 
+     */
+    private static class SettleLevel {
+        int divisor;
+        int gaussianBlur;
+        int maskDiameter;
+        Rect crop;
+        Mat mask;
+        Mat resized = new Mat();
+        Mat blurred = new Mat();
+        Mat gradient = new Mat();
+        Mat frame = new Mat();
+        Mat lastFrame = new Mat();
+        boolean frameValid;
+        boolean lastFrameValid;
+
+        void swap() {
+            Mat tmp = lastFrame;
+            lastFrame = frame;
+            frame = tmp;
+            lastFrameValid = frameValid;
+            frameValid = false;
+        }
+
+        void releaseMask() {
+            if (mask != null) {
+                mask.release();
+                mask = null;
+            }
+        }
+
+        void release() {
+            releaseMask();
+            resized.release();
+            blurred.release();
+            gradient.release();
+            frame.release();
+            lastFrame.release();
+        }
+    }
+
+    /**
+     * The set of auto settle buffers, see {@link SettleLevel}.
+     */
+    private static class SettleBuffers {
+        final SettleLevel fine = new SettleLevel();
+        final SettleLevel coarse = new SettleLevel();
+        Mat gray = new Mat();
+        Mat contrast = new Mat();
+        Mat maskFullsize;
+
+        void release() {
+            fine.release();
+            coarse.release();
+            gray.release();
+            contrast.release();
+            if (maskFullsize != null) {
+                maskFullsize.release();
+            }
+        }
+    }
+
+    /**
+     * Idle auto settle buffers, taken while settling.
+     */
+    private final AtomicReference<SettleBuffers> idleSettleBuffers = new AtomicReference<>();
+
+    /**
+     * The coarse pyramid level must be at least this large (in pixels), to be meaningful.
+     */
+    private static final int coarseMinDimension = 64;
+
+    /**
+     * A coarse level difference must exceed the threshold by this factor, to call a frame unsettled without
+     * computing the full resolution difference. 
+     */
+    private static final double coarseThresholdMargin = 2.0;
+
+    /**
+     * Sets up the geometry of one settle level, for the given captured frame size.
+     * 
+     * @param level
+     * @param divisor
+     * @param width
+     * @param height
+     * @param settleMaskCircle
+     */
+    private void initSettleLevel(SettleLevel level, int divisor, int width, int height, double settleMaskCircle) {
+        level.divisor = divisor;
+        level.gaussianBlur = (divisor > 1) ? ((settleGaussianBlur)/divisor)|1 : settleGaussianBlur;
+        level.maskDiameter = 0;
+        level.crop = null;
+        level.releaseMask();
+        level.frameValid = false;
+        level.lastFrameValid = false;
+        if (settleMaskCircle > 0.0) {
+            // Crop the image to the mask dimension. 
+            int imageDimension = Math.min(width, height);
+            int maskDiameter = Math.max(1, (int)(settleMaskCircle*imageDimension));
+            int maskedWidth= Math.min(width, maskDiameter);
+            int maskedHeight= Math.min(height, maskDiameter);
+            // Make it multiples of the rescale divisor*2.
+            level.maskDiameter = (int)Math.floor(maskDiameter/divisor/2)*divisor*2;
+            maskedWidth = (int)Math.floor(maskedWidth/divisor/2)*divisor*2;
+            maskedHeight = (int)Math.floor(maskedHeight/divisor/2)*divisor*2;
+            level.crop = new Rect(
+                    (width - maskedWidth)/2, (height - maskedHeight)/2,
+                    maskedWidth, maskedHeight);
+        }
+    }
+
+    /**
+     * Processes the captured frame into the level's frame buffer, i.e. converts it to gray, crops it to the mask,
+     * enhances the contrast, scales it down, blurs it and computes the gradients, as configured. The captured
+     * frame is left untouched.
+     *  
+     * @param captured
+     * @param buffers
+     * @param level
+     */
+    private void processSettleFrame(Mat captured, SettleBuffers buffers, SettleLevel level) {
+        Mat mat = captured;
+        if (!settleFullColor) {
+            Imgproc.cvtColor(mat, buffers.gray, Imgproc.COLOR_BGR2GRAY);
+            mat = buffers.gray;
+        }
+        Mat cropMat = null;
+        if (level.crop != null) {
+            cropMat = mat.submat(level.crop);
+            mat = cropMat;
+            if (buffers.maskFullsize == null && settleContrastEnhance > 0.0) {
+                buffers.maskFullsize = createMask(mat, level.maskDiameter);
+            }
+        }
+
+        if (settleContrastEnhance > 0.0) {
+            // Enhance the contrast. Note we need to do this before scaling the image down, so mixed
+            // colors can be created in the full dynamic range. 
+            mat = enhanceContrast(mat, buffers.maskFullsize, buffers.contrast);
+        }
+
+        if (level.divisor > 1) {
+            // Scale the image down. This is effectively a box blur followed by the (smaller) Gaussian blur, 
+            // i.e. still reasonable quality. Rescaling will also make all subsequent steps significantly faster.
+            Imgproc.resize(mat, level.resized, new Size(mat.cols()/level.divisor, mat.rows()/level.divisor), 
+                    1.0/level.divisor, 1.0/level.divisor);
+            mat = level.resized;
+        }
+
+        if (level.maskDiameter > 0 && level.mask == null) {
+            // This must be the first frame, create the mask circle after rescale.
+            level.mask = createMask(mat, level.maskDiameter/level.divisor);
+        }
+
+        if (level.gaussianBlur > 1) {
+            // Apply the Gaussian blur, make the kernel size an odd number. 
+            Mat blurred = settleGradients ? level.blurred : level.frame;
+            Imgproc.GaussianBlur(mat, blurred, new Size(level.gaussianBlur|1, level.gaussianBlur|1), 0);
+            mat = blurred;
+        }
+
+        if (settleGradients) {
+            // Apply Laplacian transform.
+            Imgproc.Laplacian(mat, level.gradient, CvType.CV_16S, 3, 1, 0, Core.BORDER_REPLICATE );
+            Core.convertScaleAbs(level.gradient, level.frame);
+        }
+        else if (mat != level.frame) {
+            mat.copyTo(level.frame);
+        }
+        if (cropMat != null) {
+            cropMat.release();
+        }
+        level.frameValid = true;
+    }
+
+    /**
+     * Captures frames until the camera is settled, then returns the last frame. 
+     * 
+     * Each frame is first compared to the last one on a coarse pyramid level, which is much cheaper to process. 
+     * The coarse difference is a lower estimate of the full resolution difference, so if it is well above 
+     * the threshold, the frame is not settled and the full resolution is skipped. Otherwise, the full 
+     * resolution difference decides (processing the last frame lazily, if needed). 
+     * 
+     * @param settleMaskCircle
+     * @return The settled frame, owned by the caller. 
+     * @throws Exception
+     */
+    private Mat autoSettleAndCapture(double settleMaskCircle) throws Exception {
+        SettleBuffers buffers = idleSettleBuffers.getAndSet(null);
+        if (buffers == null) {
+            buffers = new SettleBuffers();
+        }
+        Mat lastCaptured = null;
+        Mat captured = null;
 
         try {
             long t0 = NanosecondTime.getRuntimeMilliseconds();
             long timeout = t0 + settleTimeoutMs;
             int debounceCount = 0;
+            double[] lastResults = new double[] { Double.NaN, Double.NaN };
             SimpleGraph settleGraph = startDiagnostics();
             TreeMap<Double, BufferedImage> settleImages = null;
             if (settleGraph != null) {
                 settleImages = new TreeMap<>();
             }
+            boolean coarseEnabled = false;
             while(true) {
                 // Capture an image. 
                 if (settleGraph != null) {
@@ -286,7 +486,7 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
                 }
 
                 // The actual capture.
-                BufferedImage image = capture();
+                captured = captureMat();
 
                 long t1 = NanosecondTime.getRuntimeMilliseconds();
                 double tCapture = 0.0; 
@@ -297,112 +497,88 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
                     settleGraph.getRow(BOOLEAN, CAPTURE).recordDataPoint(settleGraph.getT(), 0);
                 }
 
-                // Convert to Mat and if not full color, convert to gray.
-                Mat mat = OpenCvUtils.toMat(image);
-                if (!settleFullColor) {
-                    Imgproc.cvtColor(mat, mat, Imgproc.COLOR_BGR2GRAY);
+                if (lastCaptured == null) {
+                    // This must be the first frame, set up the levels.
+                    // Gaussian blur is the most expensive operation, so if it is large, we rescale the image instead.
+                    final int resizeToMaxGaussianKernelSize = 5;
+                    int divisor = (settleGaussianBlur > resizeToMaxGaussianKernelSize) ? 
+                            (settleGaussianBlur+resizeToMaxGaussianKernelSize/2)/resizeToMaxGaussianKernelSize
+                            : 1;
+                    initSettleLevel(buffers.fine, divisor, captured.cols(), captured.rows(), settleMaskCircle);
+                    // The coarse pyramid level only estimates plain difference norms of the (blurred) image from
+                    // below, and it would falsify the diagnostics.
+                    int coarseDivisor = divisor;
+                    int dimension = (buffers.fine.crop != null) ? 
+                            Math.min(buffers.fine.crop.width, buffers.fine.crop.height)
+                            : Math.min(captured.cols(), captured.rows());
+                    while (coarseDivisor < divisor*8 && dimension/(coarseDivisor*2) >= coarseMinDimension) {
+                        coarseDivisor *= 2;
+                    }
+                    coarseEnabled = (coarseDivisor > divisor 
+                            && settleMethod != SettleMethod.Motion 
+                            && !settleGradients
+                            && settleContrastEnhance == 0.0
+                            && settleGraph == null);
+                    if (coarseEnabled) {
+                        initSettleLevel(buffers.coarse, coarseDivisor, captured.cols(), captured.rows(), settleMaskCircle);
+                    }
                 }
 
-                // Gaussian blur is the most expensive operation, so if it is large, we rescale the image instead.
-                // This is effectively a box blur followed (later) by a Gaussian blur, i.e. still reasonable quality.
-                // Rescaling will also make all subsequent steps significantly faster.
-                // Do these calculations up front.
-                final int resizeToMaxGaussianKernelSize = 5;
-                int gaussianBlurEff = settleGaussianBlur;
-                int divisor = (gaussianBlurEff > resizeToMaxGaussianKernelSize) ? 
-                        (settleGaussianBlur+resizeToMaxGaussianKernelSize/2)/resizeToMaxGaussianKernelSize
-                        : 1;
-
-                int maskDiameter = 0;
-                if (settleMaskCircle > 0.0) {
-                    // Crop the image to the mask dimension. 
-                    int imageDimension = Math.min(mat.rows(), mat.cols());
-                    maskDiameter = Math.max(1, (int)(settleMaskCircle*imageDimension));
-                    int maskedWidth= Math.min(mat.cols(), maskDiameter);
-                    int maskedHeight= Math.min(mat.rows(), maskDiameter);
-                    // Make it multiples of the rescale divisor*2.
-                    maskDiameter = (int)Math.floor(maskDiameter/divisor/2)*divisor*2;
-                    maskedWidth = (int)Math.floor(maskedWidth/divisor/2)*divisor*2;
-                    maskedHeight = (int)Math.floor(maskedHeight/divisor/2)*divisor*2;
-                    Rect rectCrop = new Rect(
-                            (mat.cols() - maskedWidth)/2, (mat.rows() - maskedHeight)/2,
-                            maskedWidth, maskedHeight);
-                    Mat cropMat = mat.submat(rectCrop);
-                    mat.release();
-                    mat = cropMat;
-                    if (maskFullsize == null) {
-                        // This must be the first frame, also create the mask circle.
-                        maskFullsize = createMask(mat, maskDiameter);
-                        if (divisor == 1) {
-                            // also valid as the rescaled mask
-                            mask = maskFullsize;
+                double result = Double.NaN;
+                if (coarseEnabled) {
+                    processSettleFrame(captured, buffers, buffers.coarse);
+                    if (buffers.coarse.lastFrameValid) {
+                        double coarseResult = computeDifference(settleMethod, buffers.coarse.lastFrame, buffers.coarse.frame, 
+                                settleContrastEnhance, buffers.coarse.mask);
+                        if (coarseResult > settleThreshold*coarseThresholdMargin) {
+                            // Clearly not settled, no need to look closer.
+                            result = coarseResult;
                         }
                     }
                 }
+                if (Double.isNaN(result) && (lastCaptured != null || !coarseEnabled)) {
+                    if (lastCaptured != null && !buffers.fine.lastFrameValid) {
+                        // The last frame was only processed on the coarse level, catch up.
+                        processSettleFrame(lastCaptured, buffers, buffers.fine);
+                        buffers.fine.swap();
+                    }
+                    processSettleFrame(captured, buffers, buffers.fine);
 
-                if (settleContrastEnhance > 0.0) {
-                    // Enhance the contrast. Note we need to do this before scaling the image down, so mixed
-                    // colors can be created in the full dynamic range. 
-                    mat = enhanceContrast(mat, maskFullsize);
-                }
-
-                if (divisor > 1) {
-                    // Scale the image down, see the calculations further up.  
-                    gaussianBlurEff = ((settleGaussianBlur)/divisor)|1;
-                    Mat resizeMat = new Mat();
-                    Imgproc.resize(mat, resizeMat, new Size(mat.cols()/divisor, mat.rows()/divisor), 1.0/divisor, 1.0/divisor);
-                    mat.release();
-                    mat = resizeMat;
-                    maskDiameter /= divisor;
-                }
-
-                if (maskDiameter > 0 && mask == null) {
-                    // This must be the first frame, also create the mask circle after rescale.
-                    mask = createMask(mat, maskDiameter);
-                }
-
-                if (gaussianBlurEff > 1) {
-                    // Apply the Gaussian blur, make the kernel size an odd number. 
-                    Imgproc.GaussianBlur(mat, mat, new Size(gaussianBlurEff|1, gaussianBlurEff|1), 0);
-                }
-
-                if (settleGradients) {
-                    // Apply Laplacian transform.
-                    Mat gradientMat = new Mat();
-                    Imgproc.Laplacian(mat, gradientMat, CvType.CV_16S, 3, 1, 0, Core.BORDER_REPLICATE );
-                    Core.convertScaleAbs(gradientMat, gradientMat);
-                    mat.release();
-                    mat = gradientMat;
+                    // Record the image with the capture time.
+                    if (settleGraph != null) {
+                        settleImages.put(tCapture, OpenCvUtils.toBufferedImage(buffers.fine.frame));
+                    }
+                    if (lastCaptured != null) {
+                        // Compute the differences of the two images according to the method.
+                        result = computeDifference(settleMethod, buffers.fine.lastFrame, buffers.fine.frame, 
+                                settleContrastEnhance, buffers.fine.mask);
+                    }
                 }
 
-                // Record the image with the capture time.
-                if (settleGraph != null) {
-                    BufferedImage img;
-                    img = OpenCvUtils.toBufferedImage(mat);
-                    settleImages.put(tCapture, img);
-
+                // Store the new image as the last image.
+                buffers.fine.swap();
+                buffers.coarse.swap();
+                if (lastCaptured != null) {
+                    lastCaptured.release();
                 }
+                lastCaptured = captured;
+                captured = null;
 
-                // If this is the first time through the loop then assign the new image to
-                // the lastSettleMat and loop again. We need at least two images to check.
-                if (lastSettleMat == null) {
-                    lastSettleMat = mat;
+                // If this is the first time through the loop then loop again. We need at least two images to check.
+                if (Double.isNaN(result)) {
                     continue;
                 }
 
-                // Compute the differences of the two images according to the method.
-                double result = computeDifference(settleMethod, lastSettleMat, mat, settleContrastEnhance, mask);
                 if (settleGraph != null) {
                     settleGraph.getRow(DIFFERENCE, DATA).recordDataPoint(settleGraph.getT(), result);
                 }
 
-                // Release the lastSettleMat and store the new image as the lastSettleMat.
-                lastSettleMat.release();
-                lastSettleMat = mat;
-
                 long t = NanosecondTime.getRuntimeMilliseconds();
                 recordedComputeMilliseconds = (t-t1);
-                Logger.trace("autoSettleAndCapture t="+(t-t0)+" auto settle score: " + String.format("%.3f", result) +" compute time: "+(t-t1));
+                if (Logger.isTraceEnabled()) {
+                    Logger.trace("autoSettleAndCapture t={} auto settle score: {} compute time: {}", 
+                            (t-t0), String.format("%.3f", result), (t-t1));
+                }
 
                 // If the image changed at least a bit (due to noise) and less than our
                 // threshold, we have a winner. The check for > 0 is to ensure that we're not just
@@ -415,12 +591,21 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
                 else if (result > 0.0) {
                     // Register one "bounce" under the limit.
                     debounceCount++;
+                    if (settlePredictive && debounceCount <= settleDebounce
+                            && result < lastResults[1] && lastResults[1] < lastResults[0]) {
+                        // The difference is steadily decaying, rather than bouncing, so it is predicted to stay 
+                        // under the threshold. Skip the remaining debounce frames.
+                        Logger.trace("autoSettleAndCapture predicted settled, skipping {} debounce frames", 
+                                (settleDebounce + 1 - debounceCount));
+                        debounceCount = settleDebounce + 1;
+                    }
+                }
+                if (result > 0.0) {
+                    lastResults[0] = lastResults[1];
+                    lastResults[1] = result;
                 }
                 if (t > timeout || debounceCount > settleDebounce) {
                     // Timeout or debounced settleThreshold reached.
-                    // Cleanup.
-                    lastSettleMat.release();
-                    lastSettleMat = null;
                     if (settleGraph != null) {
                         // Record last points in the graph. 
                         double tEnd = settleGraph.getT()+1;
@@ -432,27 +617,34 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
                         setSettleGraph(settleGraph);
                         // Set recorded images along with the graph.
                         setRecordedImages(settleImages);
-                        recordedMaskDiameter = maskDiameter;
+                        recordedMaskDiameter = buffers.fine.maskDiameter/buffers.fine.divisor;
                     }
                     recordedSettleMilliseconds = NanosecondTime.getRuntimeMilliseconds() - t0;
                     Logger.debug("autoSettleAndCapture in {} ms", recordedSettleMilliseconds);
-                    return image;
+                    Mat settled = lastCaptured;
+                    lastCaptured = null;
+                    return settled;
                 }
             }
         }
         finally {
             // Whatever happens, always release these looping mats.
-            if (maskFullsize != null) {
-                maskFullsize.release();
-                if (mask == maskFullsize) {
-                    mask = null;
-                }
+            if (captured != null) {
+                captured.release();
             }
-            if (mask != null) {
-                mask.release();
+            if (lastCaptured != null) {
+                lastCaptured.release();
             }
-            if (lastSettleMat != null) {
-                lastSettleMat.release();
+            buffers.fine.releaseMask();
+            buffers.coarse.releaseMask();
+            if (buffers.maskFullsize != null) {
+                buffers.maskFullsize.release();
+                buffers.maskFullsize = null;
+            }
+            // Keep the buffers for the next settle.
+            buffers = idleSettleBuffers.getAndSet(buffers);
+            if (buffers != null) {
+                buffers.release();
             }
         }
     }
@@ -468,6 +660,20 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
     }
 
     protected Mat enhanceContrast(Mat mat, Mat mask) {
+        Mat tmpMat = enhanceContrast(mat, mask, new Mat());
+        mat.release();
+        return tmpMat;
+    }
+
+    /**
+     * Enhances the contrast of mat into dst, leaving mat untouched.
+     * 
+     * @param mat
+     * @param mask
+     * @param dst
+     * @return dst
+     */
+    protected Mat enhanceContrast(Mat mat, Mat mask, Mat dst) {
         // It's weirdly difficult to extract the minimum level (black point) from an image.
         // Core.norm(... NORM_MINMAX) does not seem to work and minMaxLoc() takes only single channel images. 
         // So we need to work with the channels individually here. I must be missing something.
@@ -491,11 +697,8 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
         }
         double scale = settleContrastEnhance/range + (1.0 - settleContrastEnhance);
         double offset = -(max-range)*settleContrastEnhance/range;
-        Mat tmpMat = new Mat();  
-        Core.convertScaleAbs(mat, tmpMat, scale, offset*255.0);
-        mat.release();
-        mat = tmpMat;
-        return mat;
+        Core.convertScaleAbs(mat, dst, scale, offset*255.0);
+        return dst;
     }
 
     protected BufferedImage createHeatMapDiagnosticImage(Mat mat0, Mat mat1) {
@@ -609,7 +812,7 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
         }
 
         // Save file to disk.
-        if (Logger.getLevel() == org.pmw.tinylog.Level.DEBUG || Logger.getLevel() == org.pmw.tinylog.Level.TRACE) {
+        if (Logger.isDebugEnabled()) {
             try {
                 File file = Configuration.get()
                         .createResourceFile(getClass(), "settle", ".png");
@@ -644,9 +847,26 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
 
     @Override
     public BufferedImage settleAndCapture(SettleOption settleOption) throws Exception {
+        return settleAndCapture(settleOption, this::capture, (mat) -> {
+            try {
+                return OpenCvUtils.toBufferedImage(mat);
+            }
+            finally {
+                mat.release();
+            }
+        });
+    }
+
+    @Override
+    public Mat settleAndCaptureMat(SettleOption settleOption) throws Exception {
+        return settleAndCapture(settleOption, this::captureMat, (mat) -> mat);
+    }
+
+    private <T> T settleAndCapture(SettleOption settleOption, Callable<T> capture, 
+            Function<Mat, T> autoSettled) throws Exception {
         if (settleOption == SettleOption.Skip) {
             // Skip settling.
-            return capture();
+            return capture.call();
         }
         Map<String, Object> globals = new HashMap<>();
         globals.put("camera", this);
@@ -662,16 +882,16 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
             }
             if (settleMethod == SettleMethod.FixedTime) {
                 try {
-                    Logger.trace(getName()+" settling fixed time "+getSettleTimeMs()+"ms");
-                    Thread.sleep(getSettleTimeMs());
+                    Logger.trace("{} settling fixed time {}ms", getName(), getSettleTimeMs());
+                    NanosecondTime.sleep(getSettleTimeMs());
                 }
                 catch (Exception e) {
 
                 }
-                return capture();
+                return capture.call();
             }
             else {
-                return autoSettleAndCapture(settleOption == SettleOption.SettleFullArea ? 0 : settleMaskCircle);
+                return autoSettled.apply(autoSettleAndCapture(settleOption == SettleOption.SettleFullArea ? 0 : settleMaskCircle));
             }
         }
         finally {
@@ -762,6 +982,14 @@ public abstract class AbstractSettlingCamera extends AbstractCamera {
         this.settleContrastEnhance = settleContrastEnhance;
     }
 
+    public boolean isSettlePredictive() {
+        return settlePredictive;
+    }
+
+    public void setSettlePredictive(boolean settlePredictive) {
+        this.settlePredictive = settlePredictive;
+    }
+
     public boolean isSettleDiagnostics() {
         return settleDiagnostics;
     }
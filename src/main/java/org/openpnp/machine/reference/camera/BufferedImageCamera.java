@@ -21,10 +21,11 @@ package org.openpnp.machine.reference.camera;
 
 import java.awt.image.BufferedImage;
 import java.util.WeakHashMap;
-
+import org.opencv.core.Mat;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.spi.Camera;
 import org.openpnp.spi.PropertySheetHolder;
+import org.openpnp.util.OpenCvUtils;
 
 public class BufferedImageCamera extends ReferenceCamera {
     private static WeakHashMap<Camera, BufferedImageCamera> bufferedCameras = new WeakHashMap<>(); 
@@ -62,6 +63,11 @@ public class BufferedImageCamera extends ReferenceCamera {
         return image;
     }
 
+    @Override
+    protected Mat transformMat(BufferedImage image) {
+        return image == null ? null : OpenCvUtils.toMat(image);
+    }
+
     @Override
     public Wizard getConfigurationWizard() {
         return null;
@@ -68,6 +68,7 @@ import org.openpnp.spi.Head;
 import org.openpnp.spi.HeadMountable;
 import org.openpnp.spi.Machine;
 import org.openpnp.util.Collect;
+import org.openpnp.util.MatPool;
 import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.SimpleGraph;
 import org.openpnp.util.VisionUtils;
@@ -186,6 +187,18 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
     private Mat undistortionMap2;
     private Mat lut;
 
+    /**
+     * The composed remap table of the geometric transforms, and the settings it was made for.
+     */
+    private Mat transformMap1;
+    private Mat transformMap2;
+    private double[] transformMapKey;
+
+    /**
+     * Pooled buffers for the image transforms, so they don't allocate native memory on each frame.
+     */
+    private final MatPool matPool = new MatPool(4);
+
     private LensCalibration lensCalibration;
 
     private Actuator lightActuator;
@@ -231,6 +244,22 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         return image;
     }
     
+    /**
+     * Same as capture() but returns the image as a Mat, owned by the caller.
+     * @throws Exception 
+     */
+    @Override
+    public Mat captureMat() throws Exception {
+        Map<String, Object> globals = new HashMap<>();
+        globals.put("camera", this);
+        Configuration.get().getScripting().on("Camera.BeforeCapture", globals);
+
+        Mat mat = captureTransformedMat();
+
+        Configuration.get().getScripting().on("Camera.AfterCapture", globals);
+        return mat;
+    }
+
     /**
      * Captures an image using captureRaw(), applies local transformations and returns the image.
      */
@@ -238,6 +267,15 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
     public BufferedImage captureTransformed() {
         return transformImage(captureRaw());
     }
+
+    /**
+     * Captures an image using captureRaw(), applies local transformations and returns the image as a Mat,
+     * owned by the caller.
+     */
+    @Override
+    public Mat captureTransformedMat() {
+        return transformMat(captureRaw());
+    }
     
     /**
      * Captures an image using safeInternalCapture() and returns it without any transformations
@@ -254,6 +292,12 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         return isOpen();
     }
 
+    @Override
+    public void close() throws IOException {
+        super.close();
+        matPool.clear();
+    }
+
     protected abstract BufferedImage internalCapture();
     
     /**
@@ -571,68 +615,107 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
             if (image == null) {
                 return null;
             }
+            Mat mat = transformPooledMat(image);
+            if (mat != null) {
+                image = OpenCvUtils.toBufferedImage(mat);
+                matPool.recycle(mat);
+            }
+            setTransformedImage(image);
+        }
+        catch (Exception e) {
+            Logger.error(e);
+        }
+        return image;
+    }
 
-            if (advancedCalibration.isOverridingOldTransformsAndDistortionCorrectionSettings()) {
-                //Skip all the old style image transforms and distortion corrections except for 
-                //deinterlacing, cropping, and white balancing
-                if (isDeinterlaced() || isCropped() || isWhiteBalanced() || advancedCalibration.isEnabled()) {
-                    Mat mat = OpenCvUtils.toMat(image);
-                    mat = deinterlace(mat);
-                    mat = crop(mat);
-                    mat = whiteBalance(mat);
-                    mat = advancedUndistort(mat);
-                    image = OpenCvUtils.toBufferedImage(mat);
-                    mat.release();
-                }
+    /**
+     * Same as transformImage() but returns the transformed image as a Mat, owned by the caller. This saves
+     * the conversion back from BufferedImage, when the image goes on to computer vision.
+     * 
+     * @param image
+     * @return
+     */
+    protected Mat transformMat(BufferedImage image) {
+        if (image == null) {
+            return null;
+        }
+        try {
+            Mat mat = transformPooledMat(image);
+            if (mat != null) {
+                // The pooled buffer is handed over to the caller.
+                setTransformedImage(OpenCvUtils.toBufferedImage(mat));
+                return mat;
             }
-            // Old style of image transforms and distortion correction
-            // We do skip the convert to and from Mat if no transforms are needed.
-            // But we must enter while performing original calibration.
-            else if (isDeinterlaced()
-                || isCropped() 
-                || isCalibrating()
-                || isUndistorted()
-                || isScaled()
-                || isRotated()
-                || isOffset()
-                || isFlipped()
-                || isWhiteBalanced()) {
-
-                Mat mat = OpenCvUtils.toMat(image);
+        }
+        catch (Exception e) {
+            Logger.error(e);
+        }
+        setTransformedImage(image);
+        return OpenCvUtils.toMat(image);
+    }
 
+    /**
+     * Applies the local transformations to the image, using pooled Mat buffers.
+     * 
+     * @param image
+     * @return The transformed image in a pooled buffer, or null if no transformations are needed. 
+     */
+    private Mat transformPooledMat(BufferedImage image) {
+        if (advancedCalibration.isOverridingOldTransformsAndDistortionCorrectionSettings()) {
+            //Skip all the old style image transforms and distortion corrections except for 
+            //deinterlacing, cropping, and white balancing
+            if (isDeinterlaced() || isCropped() || isWhiteBalanced() || advancedCalibration.isEnabled()) {
+                Mat mat = toPooledMat(image);
                 mat = deinterlace(mat);
-
                 mat = crop(mat);
-
                 mat = whiteBalance(mat);
+                mat = advancedUndistort(mat);
+                return mat;
+            }
+        }
+        // Old style of image transforms and distortion correction
+        // We do skip the convert to and from Mat if no transforms are needed.
+        // But we must enter while performing original calibration.
+        else if (isDeinterlaced()
+            || isCropped() 
+            || isCalibrating()
+            || isUndistorted()
+            || isScaled()
+            || isRotated()
+            || isOffset()
+            || isFlipped()
+            || isWhiteBalanced()) {
 
-                mat = calibrate(mat);
+            Mat mat = toPooledMat(image);
 
-                mat = undistort(mat);
+            mat = deinterlace(mat);
 
-                // apply affine transformations
-                mat = scale(mat);
+            mat = crop(mat);
 
-                mat = rotate(mat);
+            mat = whiteBalance(mat);
 
-                mat = offset(mat);
+            mat = calibrate(mat);
 
-                mat = flip(mat);
+            // apply undistortion and affine transformations in one remap
+            mat = transformGeometry(mat);
 
-                image = OpenCvUtils.toBufferedImage(mat);
-                mat.release();
-            }
-            if (image != null) {
-                // save the new image dimensions
-                width = image.getWidth();
-                height = image.getHeight();
-                setLastTransformedImage(image);
-            }
+            return mat;
         }
-        catch (Exception e) {
-            Logger.error(e);
+        return null;
+    }
+
+    private Mat toPooledMat(BufferedImage image) {
+        int type = (image.getType() == BufferedImage.TYPE_BYTE_GRAY ? CvType.CV_8UC1 : CvType.CV_8UC3);
+        return OpenCvUtils.toMat(image, matPool.take(image.getHeight(), image.getWidth(), type));
+    }
+
+    private void setTransformedImage(BufferedImage image) {
+        if (image != null) {
+            // save the new image dimensions
+            width = image.getWidth();
+            height = image.getHeight();
+            setLastTransformedImage(image);
         }
-        return image;
     }
 
     @Override
@@ -653,7 +736,6 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         if (!advancedCalibration.isEnabled()) {
             return mat;
         }
-        Mat dst = mat.clone();
         if (undistortionMap1 == null || undistortionMap2 == null) {
             if (undistortionMap1 == null) {
                 undistortionMap1 = new Mat();
@@ -663,8 +745,9 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
             }
             advancedCalibration.initUndistortRectifyMap(undistortionMap1, undistortionMap2);
         }
+        Mat dst = matPool.take(undistortionMap1.rows(), undistortionMap1.cols(), mat.type());
         Imgproc.remap(mat, dst, undistortionMap1, undistortionMap2, Imgproc.INTER_LINEAR);
-        mat.release();
+        matPool.recycle(mat);
 
         return dst;
     }
@@ -672,10 +755,8 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
     private Mat whiteBalance(Mat mat) {
         if (isWhiteBalanced() && mat.channels() == 3) {
             initWhiteBalanceLut();
-            Mat whiteBalanced = new Mat();
-            Core.LUT(mat, lut, whiteBalanced);
-            mat.release();
-            mat = whiteBalanced;
+            // Element-wise, can be done in-place.
+            Core.LUT(mat, lut, mat);
         }
         return mat;
     }
@@ -973,8 +1054,11 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
                     cw,
                     ch);
             Mat tmp = new Mat(mat, roi);
-            tmp.copyTo(mat);
+            Mat dst = matPool.take(ch, cw, mat.type());
+            tmp.copyTo(dst);
             tmp.release();
+            matPool.recycle(mat);
+            return dst;
         }
         return mat;
     }
@@ -987,12 +1071,12 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         if (!isDeinterlaced()) {
             return mat;
         }
-        Mat dst = new Mat(mat.size(), mat.type());
+        Mat dst = matPool.take(mat.rows(), mat.cols(), mat.type());
         for (int i = 0; i < mat.rows() / 2; i++) {
             mat.row(i).copyTo(dst.row(i * 2));
             mat.row(i + mat.rows() / 2).copyTo(dst.row(i * 2 + 1));
         }
-        mat.release();
+        matPool.recycle(mat);
         return dst;
     }
 
@@ -1000,101 +1084,169 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
         return deinterlace;
     }
 
-    private Mat rotate(Mat mat) {
-        if (!isRotated()) {
-            return mat;
+    /**
+     * Applies undistortion, scale, rotation, offset and flip as one single remap, so the image is only 
+     * resampled once. The composed remap table is cached and rebuilt whenever the image size or any of these 
+     * settings change.
+     * 
+     * @param mat
+     * @return
+     */
+    private synchronized Mat transformGeometry(Mat mat) {
+        if (!(isUndistorted() || isScaled() || isRotated() || isOffset())) {
+            // Nothing to resample, a flip is just a copy.
+            return flip(mat);
         }
-
-        // See:
-        // http://stackoverflow.com/questions/22041699/rotate-an-image-without-cropping-in-opencv-in-c
-        Point center = new Point(mat.width() / 2D, mat.height() / 2D);
-        Mat mapMatrix = Imgproc.getRotationMatrix2D(center, rotation, 1.0);
-
-        // determine bounding rectangle
-        Rect bbox = new RotatedRect(center, mat.size(), rotation).boundingRect();
-        // adjust transformation matrix
-        double[] cx = mapMatrix.get(0, 2);
-        double[] cy = mapMatrix.get(1, 2);
-        cx[0] += bbox.width / 2D - center.x;
-        cy[0] += bbox.height / 2D - center.y;
-        mapMatrix.put(0, 2, cx);
-        mapMatrix.put(1, 2, cy);
-
-        Mat dst = new Mat(bbox.width, bbox.height, mat.type());
-        Imgproc.warpAffine(mat, dst, mapMatrix, bbox.size(), Imgproc.INTER_LINEAR);
-        mat.release();
-
-        mapMatrix.release();
-
+        double[] key = new double[] { mat.cols(), mat.rows(), (isUndistorted() ? 1 : 0), 
+                scaleWidth, scaleHeight, rotation, offsetX, offsetY, (flipX ? 1 : 0), (flipY ? 1 : 0) };
+        if (transformMap1 == null || transformMap2 == null || !Arrays.equals(key, transformMapKey)) {
+            initTransformMap(mat.size());
+            transformMapKey = key;
+        }
+        Mat dst = matPool.take(transformMap1.rows(), transformMap1.cols(), mat.type());
+        Imgproc.remap(mat, dst, transformMap1, transformMap2, Imgproc.INTER_LINEAR);
+        matPool.recycle(mat);
         return dst;
     }
 
-    protected boolean isRotated() {
-        return rotation != 0D;
-    }
-
-    private Mat offset(Mat mat) {
-        if (!isOffset()) {
-            return mat;
+    /**
+     * Composes the remap table for transformGeometry(). For each destination pixel, the transformations are 
+     * inverted in reverse order, down to the source pixel coordinates.
+     * 
+     * @param size Size of the source image.
+     */
+    private void initTransformMap(Size size) {
+        clearTransformMap();
+        int width0 = (int) size.width;
+        int height0 = (int) size.height;
+        float[] undistortX = null;
+        float[] undistortY = null;
+        if (isUndistorted()) {
+            if (undistortionMap1 == null || undistortionMap2 == null
+                    || undistortionMap1.cols() != width0 || undistortionMap1.rows() != height0) {
+                clearCalibrationCache();
+                undistortionMap1 = new Mat();
+                undistortionMap2 = new Mat();
+                Mat rectification = Mat.eye(3, 3, CvType.CV_32F);
+                Calib3d.initUndistortRectifyMap(calibration.getCameraMatrixMat(),
+                        calibration.getDistortionCoefficientsMat(), rectification,
+                        calibration.getCameraMatrixMat(), size, CvType.CV_32FC1, undistortionMap1,
+                        undistortionMap2);
+                rectification.release();
+            }
+            undistortX = new float[width0*height0];
+            undistortY = new float[width0*height0];
+            undistortionMap1.get(0, 0, undistortX);
+            undistortionMap2.get(0, 0, undistortY);
         }
 
-        Mat mapMatrix = new Mat(2, 3, CvType.CV_32F) {
-            {
-                put(0, 0, 1, 0, offsetX);
-                put(1, 0, 0, 1, offsetY);
-            }
-        };
+        // Scale, like Imgproc.resize() does it.
+        int width1 = (isScaled() && scaleWidth > 0) ? scaleWidth : width0;
+        int height1 = (isScaled() && scaleHeight > 0) ? scaleHeight : height0;
+        double scaleX = (double) width0/width1;
+        double scaleY = (double) height0/height1;
 
-        Mat dst = mat.clone();
-        Imgproc.warpAffine(mat, dst, mapMatrix, mat.size(), Imgproc.INTER_LINEAR);
-        mat.release();
+        // Rotation about the center, onto the bounding box, like Imgproc.getRotationMatrix2D() with the 
+        // bounding box adjustment.
+        // See:
+        // http://stackoverflow.com/questions/22041699/rotate-an-image-without-cropping-in-opencv-in-c
+        int width2 = width1;
+        int height2 = height1;
+        double cos = 1;
+        double sin = 0;
+        double tx = 0;
+        double ty = 0;
+        if (isRotated()) {
+            Point center = new Point(width1 / 2D, height1 / 2D);
+            Rect bbox = new RotatedRect(center, new Size(width1, height1), rotation).boundingRect();
+            width2 = bbox.width;
+            height2 = bbox.height;
+            cos = Math.cos(Math.toRadians(rotation));
+            sin = Math.sin(Math.toRadians(rotation));
+            tx = (1 - cos)*center.x - sin*center.y + width2 / 2D - center.x;
+            ty = sin*center.x + (1 - cos)*center.y + height2 / 2D - center.y;
+        }
 
-        mapMatrix.release();
+        float[] mapX = new float[width2*height2];
+        float[] mapY = new float[width2*height2];
+        for (int y = 0, i = 0; y < height2; y++) {
+            for (int x = 0; x < width2; x++, i++) {
+                // Undo the flip. NOTE: flipX flips about the x-axis, i.e. it is a vertical flip.
+                double xd = flipY ? width2 - 1 - x : x;
+                double yd = flipX ? height2 - 1 - y : y;
+                // Undo the offset.
+                xd -= offsetX + tx;
+                yd -= offsetY + ty;
+                // Undo the rotation.
+                double xs = cos*xd - sin*yd;
+                double ys = sin*xd + cos*yd;
+                // Undo the scale.
+                xs = (xs + 0.5)*scaleX - 0.5;
+                ys = (ys + 0.5)*scaleY - 0.5;
+                if (xs < -1 || ys < -1 || xs > width0 || ys > height0) {
+                    // Outside, remap() will fill in the border.
+                    mapX[i] = -1;
+                    mapY[i] = -1;
+                    continue;
+                }
+                // Replicate the edge pixels within one pixel of the border, like the separate transforms did.
+                xs = Math.max(0, Math.min(width0 - 1, xs));
+                ys = Math.max(0, Math.min(height0 - 1, ys));
+                if (undistortX != null) {
+                    // Undo the undistortion, interpolating in its map.
+                    int x0 = Math.min((int) xs, width0 - 2);
+                    int y0 = Math.min((int) ys, height0 - 2);
+                    double fx = xs - x0;
+                    double fy = ys - y0;
+                    xs = interpolate(undistortX, width0, x0, y0, fx, fy);
+                    ys = interpolate(undistortY, width0, x0, y0, fx, fy);
+                }
+                mapX[i] = (float) xs;
+                mapY[i] = (float) ys;
+            }
+        }
+        Mat floatMap1 = new Mat(height2, width2, CvType.CV_32FC1);
+        Mat floatMap2 = new Mat(height2, width2, CvType.CV_32FC1);
+        floatMap1.put(0, 0, mapX);
+        floatMap2.put(0, 0, mapY);
+        // Fixed point maps remap considerably faster.
+        transformMap1 = new Mat();
+        transformMap2 = new Mat();
+        Imgproc.convertMaps(floatMap1, floatMap2, transformMap1, transformMap2, CvType.CV_16SC2);
+        floatMap1.release();
+        floatMap2.release();
+    }
+
+    private static double interpolate(float[] map, int width, int x0, int y0, double fx, double fy) {
+        int i = y0*width + x0;
+        return (map[i]*(1 - fx) + map[i + 1]*fx)*(1 - fy) 
+                + (map[i + width]*(1 - fx) + map[i + width + 1]*fx)*fy;
+    }
+
+    private synchronized void clearTransformMap() {
+        if (transformMap1 != null) {
+            transformMap1.release();
+            transformMap1 = null;
+        }
+        if (transformMap2 != null) {
+            transformMap2.release();
+            transformMap2 = null;
+        }
+        transformMapKey = null;
+    }
 
-        return dst;
+    protected boolean isRotated() {
+        return rotation != 0D;
     }
 
     protected boolean isOffset() {
         return offsetX != 0D || offsetY != 0D;
     }
     
-    private Mat scale(Mat mat) {
-        if (!isScaled()) {
-            return mat;
-        }
-        Mat dst = new Mat();
-        Imgproc.resize(mat, dst, new Size(scaleWidth, scaleHeight));
-        mat.release();
-        return dst;
-    }
-
     protected boolean isScaled() {
         return scaleWidth != 0D || scaleHeight != 0D;
     }
 
-    private Mat undistort(Mat mat) {
-        if (!isUndistorted()) {
-            return mat;
-        }
-
-        if (undistortionMap1 == null || undistortionMap2 == null) {
-            undistortionMap1 = new Mat();
-            undistortionMap2 = new Mat();
-            Mat rectification = Mat.eye(3, 3, CvType.CV_32F);
-            Calib3d.initUndistortRectifyMap(calibration.getCameraMatrixMat(),
-                    calibration.getDistortionCoefficientsMat(), rectification,
-                    calibration.getCameraMatrixMat(), mat.size(), CvType.CV_32FC1, undistortionMap1,
-                    undistortionMap2);
-            rectification.release();
-        }
-
-        Mat dst = mat.clone();
-        Imgproc.remap(mat, dst, undistortionMap1, undistortionMap2, Imgproc.INTER_LINEAR);
-        mat.release();
-
-        return dst;
-    }
-
     public void setUndistorted(boolean undistorted) {
         if (!undistorted) {
             clearCalibrationCache();
@@ -1178,6 +1330,7 @@ public abstract class ReferenceCamera extends AbstractBroadcastingCamera impleme
 
     public synchronized void clearCalibrationCache() {
         // Clear the calibration cache
+        clearTransformMap();
         if (undistortionMap1 != null) {
             undistortionMap1.release();
             undistortionMap1 = null;
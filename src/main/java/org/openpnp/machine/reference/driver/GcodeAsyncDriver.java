@@ -26,6 +26,7 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
+import org.openpnp.logging.Logger;
 import org.openpnp.machine.reference.driver.wizards.GcodeAsyncDriverSettings;
 import org.openpnp.model.Length;
 import org.openpnp.model.LengthUnit;
@@ -33,7 +34,6 @@ import org.openpnp.spi.HeadMountable;
 import org.openpnp.spi.Machine;
 import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.openpnp.util.Collect;
-import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 
@@ -325,7 +325,7 @@ public class GcodeAsyncDriver extends GcodeDriver {
         commandQueue.offer(commandLine, writerQueueTimeout, TimeUnit.MILLISECONDS);
         if (command.startsWith("$")) {
             waitForEmptyCommandQueue();
-            Logger.trace(getName()+" $-command, waiting "+dollarWaitTimeMilliseconds+"ms");
+            Logger.trace("{} $-command, waiting {}ms", getName(), dollarWaitTimeMilliseconds);
             Thread.sleep(dollarWaitTimeMilliseconds);
         }
     }
@@ -28,6 +28,8 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
@@ -52,6 +54,7 @@ import org.openpnp.machine.reference.driver.wizards.GcodeDriverGcodes;
 import org.openpnp.machine.reference.driver.wizards.GcodeDriverSettings;
 import org.openpnp.machine.reference.solutions.GcodeDriverSolutions;
 import org.openpnp.model.AxesLocation;
+import org.openpnp.logging.Logger;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.Length;
 import org.openpnp.model.LengthUnit;
@@ -63,6 +66,7 @@ import org.openpnp.spi.Actuator;
 import org.openpnp.spi.Axis.Type;
 import org.openpnp.spi.Camera;
 import org.openpnp.spi.ControllerAxis;
+import org.openpnp.spi.Driver;
 import org.openpnp.spi.Head;
 import org.openpnp.spi.HeadMountable;
 import org.openpnp.spi.Machine;
@@ -77,7 +81,6 @@ import org.openpnp.spi.base.AbstractSingleTransformedAxis;
 import org.openpnp.spi.base.AbstractTransformedAxis;
 import org.openpnp.util.NanosecondTime;
 import org.openpnp.util.TextUtils;
-import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.ElementList;
@@ -170,6 +173,17 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         @ElementList(required = false, inline = true, entry = "text", data = true)
         public ArrayList<String> commands = new ArrayList<>();
 
+        /**
+         * The command compiled as a regular expression Pattern, lazily created and invalidated when the 
+         * command is set. 
+         */
+        private volatile Pattern pattern;
+
+        /**
+         * The command compiled as a GcodeTemplate, lazily created and invalidated when the command is set. 
+         */
+        private volatile GcodeTemplate template;
+
         public Command(String headMountableId, CommandType type, String text) {
             this.headMountableId = headMountableId;
             this.type = type;
@@ -177,6 +191,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         }
 
         public void setCommand(String text) {
+            this.pattern = null;
+            this.template = null;
             this.commands.clear();
             if (text != null) {
                 text = text.trim();
@@ -190,6 +206,30 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
             return Joiner.on('\n').join(commands);
         }
 
+        /**
+         * @return The command compiled as a regular expression Pattern. Used for the _REGEX command types.
+         */
+        public Pattern getPattern() {
+            Pattern pattern = this.pattern;
+            if (pattern == null) {
+                pattern = Pattern.compile(getCommand());
+                this.pattern = pattern;
+            }
+            return pattern;
+        }
+
+        /**
+         * @return The command compiled as a GcodeTemplate. Used for the hot path commands that have many variables.
+         */
+        public GcodeTemplate getTemplate() {
+            GcodeTemplate template = this.template;
+            if (template == null) {
+                template = new GcodeTemplate(getCommand());
+                this.template = template;
+            }
+            return template;
+        }
+
         private Command() {
 
         }
@@ -253,6 +293,9 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
     @Attribute(required = false)
     protected boolean loggingGcode;
 
+    @Attribute(required = false)
+    protected boolean capturingTraffic;
+
     @Deprecated
     @Element(required = false)
     protected Location homingFiducialLocation = new Location(LengthUnit.Millimeters);
@@ -326,6 +369,11 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
 
     private PrintWriter gcodeLogger;
 
+    private GcodeTrafficCapture trafficCapture;
+
+    // Reused to render the compiled command templates.
+    private final StringBuilder commandBuilder = new StringBuilder();
+
     // create a class to group send-on-change behavior
     // used to support sending feedRate, acceleration and jerk only when they have changed
     static class SendOnChange {
@@ -363,24 +411,34 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
             this(null);
         }
         
-        public String substituteVariable(String command, Double value) {
-            // send/substitute string and value
+        // returns the value to be sent, or null if it is to be suppressed
+        private Double valueToSend(Double value) {
             if (!sendOnChange                                                         // .. if forced
                  || value == null                                                     // .. or value not initialized
                  || lastValue == null                                                 // .. or last value not initialized
                  || value == 0.0                                                      // .. of if the new value is 0 - avoid division by zero
                  || Math.abs((lastValue - value) / value) > relativeDeviation) {      // .. or if the value has changed by more then 1e-3 relative
                 lastValue = value;
-                command = GcodeDriver.substituteVariable(command, variable, value);   // call the substitute method of the outer class as used by the rest of the code
-            } else {
-                command = GcodeDriver.substituteVariable(command, variable, null);    // remove the variable
+                return value;
             }
+            return null;                                                              // remove the variable
+        }
+
+        public String substituteVariable(String command, Double value) {
+            // send/substitute string and value
+            command = GcodeDriver.substituteVariable(command, variable, valueToSend(value)); // call the substitute method of the outer class as used by the rest of the code
             // always substitute string + "F"
             command = GcodeDriver.substituteVariable(command, variable + "F", value); // call the substitute method of the outer class as used by the rest of the code
             
             return command;
         }
 
+        // same as above, but for a compiled GcodeTemplate
+        public void substituteVariable(GcodeTemplate.Substitution command, Double value) {
+            command.set(variable, valueToSend(value));
+            command.set(variable + "F", value);
+        }
+
         // reset the send on change behavior by invalidating lastValue
         public void reset() {
             lastValue = null;
@@ -459,6 +517,11 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         command = getSendOnChangeJerk().substituteVariable(command, jerk);
         return command;
     }
+    private void sendOnChangeSubstituteAllVariables(GcodeTemplate.Substitution command, Double feedRate, Double acceleration, Double jerk) {
+        getSendOnChangeFeedRate().substituteVariable(command, feedRate);
+        getSendOnChangeAcceleration().substituteVariable(command, acceleration);
+        getSendOnChangeJerk().substituteVariable(command, jerk);
+    }
     
     @Commit
     public void commit() {
@@ -500,12 +563,14 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         getCommunications().setDriverName(getName());
         Logger.debug("[{}] Connect", getCommunications().getConnectionName());
         getCommunications().connect();
+        getCommunications().resetStatistics();
         connected = false;
+        openTrafficCapture();
 
         connectThreads();
 
         // Wait a bit while the controller starts up
-        Logger.trace(getName()+" waiting for connection "+connectWaitTimeMilliseconds+"ms");
+        Logger.trace("{} waiting for connection {}ms", getName(), connectWaitTimeMilliseconds);
         Thread.sleep(connectWaitTimeMilliseconds);
 
         // Consume any startup messages
@@ -827,6 +892,23 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         return c.getCommand();
     }
 
+    /**
+     * Like {@link #getCommand(HeadMountable, CommandType)} but returns the command compiled as a regular 
+     * expression Pattern. The Pattern is cached on the command, so this is cheap to call for each received 
+     * line. 
+     * 
+     * @param hm
+     * @param type
+     * @return
+     */
+    public Pattern getCommandPattern(HeadMountable hm, CommandType type) {
+        Command c = getCommand(hm, type, true);
+        if (c == null) {
+            return null;
+        }
+        return c.getPattern();
+    }
+
     public void setCommand(HeadMountable hm, CommandType type, String text) {
         Command c = getCommand(hm, type, false);
         if (text == null || text.trim().length() == 0) {
@@ -862,8 +944,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
             movedAxesLocation.getLengthCoordinate(axis).convertToUnits(getUnits()).getValue() - axis.getDriverCoordinate()).third;
 
         // Start composing the command, will decide later, whether we actually send it.
-        String command = getCommand(hm, CommandType.MOVE_TO_COMMAND);
-        if (command == null) {
+        Command moveToCommand = getCommand(hm, CommandType.MOVE_TO_COMMAND, true);
+        if (moveToCommand == null) {
             if (movedAxesLocation.isEmpty()) {
                 return;
             }
@@ -875,7 +957,9 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 throw new Exception(getName()+" MOVE_TO_COMMAND missing, please use Issues & Solutions to propose proper G-code commands.");
             }
         }
-        if (hasVariable(command, "BacklashFeedRate")) {
+        // The command is compiled once into a template, and all the variables are then rendered in one pass.
+        GcodeTemplate.Substitution command = moveToCommand.getTemplate().substitution();
+        if (command.hasVariable("BacklashFeedRate")) {
             throw new Exception(getName()+" configuration upgrade needed: Please remove the extra backlash compensation move from your MOVE_TO_COMMAND. "
                     +"Backlash compensation is now done outside of the drivers and configured on the axes.");
         }
@@ -902,9 +986,9 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
             jerk *= driverUnitsFactor;
         }
 
-        command = substituteVariable(command, "Id", hm.getId());
-        command = substituteVariable(command, "Name", hm.getName());
-        command = sendOnChangeSubstituteAllVariables(command, feedRate, acceleration, jerk);
+        command.set("Id", hm.getId());
+        command.set("Name", hm.getName());
+        sendOnChangeSubstituteAllVariables(command, feedRate, acceleration, jerk);
 
         ReferenceMachine machine = (ReferenceMachine) hm.getHead().getMachine();
         // Get a map of the axes of ...
@@ -931,7 +1015,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 // position change after all. 
                 // Note, there is no need for separate backlash compensation variables, as these are always 
                 // substituted alongside. 
-                if (hasVariable(command, variable+"F")) {
+                if (command.hasVariable(variable+"F")) {
                     // Force it! Must get it from the mappedAxes. If the mappedAxes do not have it, it is 
                     // still suppressed (this never happens when using letter variables). 
                     axis = mappedAxes.getAxisByVariable(this, variable);
@@ -952,15 +1036,15 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 double previousCoordinate = axis.getDriverCoordinate(); 
                 int direction = ((Double)coordinate).compareTo(previousCoordinate);
                 // Substitute the axis variables.
-                command = substituteVariable(command, variable, coordinate);
-                command = substituteVariable(command, variable+"F", coordinate);
-                command = substituteVariable(command, variable+"L", axis.getLetter());
-                if (hasVariable(command, "BacklashOffset"+variable)) {
+                command.set(variable, coordinate);
+                command.set(variable+"F", coordinate);
+                command.set(variable+"L", axis.getLetter());
+                if (command.hasVariable("BacklashOffset"+variable)) {
                     throw new Exception(getName()+" configuration upgrade needed: Please remove the extra backlash compensation move from your MOVE_TO_COMMAND. "
                             +"Backlash compensation is now done outside of the drivers.");
                 }
-                command = substituteVariable(command, variable+"Decreasing", direction < 0 ? true : null);
-                command = substituteVariable(command, variable+"Increasing", direction > 0 ? true : null);
+                command.set(variable+"Decreasing", direction < 0 ? true : null);
+                command.set(variable+"Increasing", direction > 0 ? true : null);
                 if (isSupportingPreMove() && axis instanceof ReferenceControllerAxis) {
                     // Check for a pre-move command.
                     String preMoveCommand = ((ReferenceControllerAxis) axis).getPreMoveCommand();
@@ -972,27 +1056,27 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 // Axis specific jerk limits are needed on TinyG.
                 double axisDistance = coordinate - previousCoordinate;
                 double axisJerk = (jerk != null ? jerk : 0)*Math.abs(axisDistance)/driverDistance;
-                command = substituteVariable(command, variable+"Jerk", axisJerk > jMin ? axisJerk : null);
-                command = substituteVariable(command, variable+"JerkMupm3", axisJerk > jMin*4.63 ? axisJerk*1e-6*Math.pow(60, 3) : null); // TinyG: Megaunits/min^3 
+                command.set(variable+"Jerk", axisJerk > jMin ? axisJerk : null);
+                command.set(variable+"JerkMupm3", axisJerk > jMin*4.63 ? axisJerk*1e-6*Math.pow(60, 3) : null); // TinyG: Megaunits/min^3 
                 // Store the new driver coordinate on the axis.
                 axis.setDriverCoordinate(coordinate);
             }
             else {
                 // Delete the unused axis variables.
-                command = substituteVariable(command, variable, null);
-                command = substituteVariable(command, variable+"F", null);
-                command = substituteVariable(command, variable+"L", null); 
-                command = substituteVariable(command, "BacklashOffset"+variable, null);
-                command = substituteVariable(command, variable+"Decreasing", null);
-                command = substituteVariable(command, variable+"Increasing", null);
-                command = substituteVariable(command, variable+"Jerk", null);
-                command = substituteVariable(command, variable+"JerkMupm3", null);  
+                command.set(variable, null);
+                command.set(variable+"F", null);
+                command.set(variable+"L", null); 
+                command.set("BacklashOffset"+variable, null);
+                command.set(variable+"Decreasing", null);
+                command.set(variable+"Increasing", null);
+                command.set(variable+"Jerk", null);
+                command.set(variable+"JerkMupm3", null);  
             }
         }
         if (doesMove) {
             // We do actually send the command.
             motionPending = true;
-            sendGcode(command);
+            sendGcode(command.render(commandBuilder));
         }
     }
 
@@ -1045,9 +1129,9 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         }
     }
 
-    private boolean containsMatch(List<Line> responses, String regex) {
+    private boolean containsMatch(List<Line> responses, Pattern pattern) {
         for (Line response : responses) {
-            if (response.line.matches(regex)) {
+            if (pattern.matcher(response.line).matches()) {
                 return true;
             }
         }
@@ -1171,6 +1255,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         disconnectThreads();
 
         closeGcodeLogger();
+        closeTrafficCapture();
     }
 
     /**
@@ -1302,10 +1387,11 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         }
         long t0 = System.currentTimeMillis(); 
         long t1 = t0 + timeout;
+        Pattern pattern = Pattern.compile(regex);
         List<Line> responses = new ArrayList<>();
         do{ 
             responses.addAll(receiveResponses());
-            if (containsMatch(responses, regex)) {
+            if (containsMatch(responses, pattern)) {
                 long dt = System.currentTimeMillis() - t0;
                 if (dt > 1) {
                     Logger.trace("{} got response matching \"{}\" after {}ms", getName(), regex, dt);
@@ -1513,6 +1599,10 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
                 responseQueue.offer(line);
             }
             Logger.trace("[{}] disconnectRequested, bye-bye.", connectionName);
+            Logger.debug("[{}] received {} bytes, {} lines, {} bytes/s, {} lines/s.", connectionName,
+                    comms.getReceivedBytes(), comms.getReceivedLines(), 
+                    String.format("%.1f", comms.getReceivedBytesPerSecond()), 
+                    String.format("%.1f", comms.getReceivedLinesPerSecond()));
             if (connected) {
                 connected = false;
             }
@@ -1525,38 +1615,93 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
      * @param line
      */
     protected void processResponse(Line line) {
-        String regex = getCommand(null, CommandType.COMMAND_CONFIRM_REGEX);
-        if (regex != null && line.getLine().matches(regex)) {
+        Pattern pattern = getCommandPattern(null, CommandType.COMMAND_CONFIRM_REGEX);
+        if (pattern != null && pattern.matcher(line.getLine()).matches()) {
             receivedConfirmationsQueue.add(line);
         }
-        regex = getCommand(null, CommandType.COMMAND_ERROR_REGEX);
-        if (regex != null && line.getLine().matches(regex)) {
+        pattern = getCommandPattern(null, CommandType.COMMAND_ERROR_REGEX);
+        if (pattern != null && pattern.matcher(line.getLine()).matches()) {
             errorResponse = line;
         }
         processPositionReport(line);
     }
 
+    /**
+     * The axes of this driver with the group index of their letter in the POSITION_REPORT_REGEX. Rebuilt when
+     * the regex or the axes change. 
+     */
+    private static class PositionReportAxes {
+        final Pattern pattern;
+        final ControllerAxis[] axes;
+        final String[] letters;
+        final int[] groups;
+
+        PositionReportAxes(Machine machine, Driver driver, Pattern pattern) {
+            List<ControllerAxis> driverAxes = new ArrayList<>();
+            for (org.openpnp.spi.Axis axis : machine.getAxes()) {
+                if (axis instanceof ControllerAxis && ((ControllerAxis) axis).getDriver() == driver) {
+                    driverAxes.add((ControllerAxis) axis);
+                }
+            }
+            Map<String, Integer> namedGroups = TextUtils.getNamedGroups(pattern);
+            this.pattern = pattern;
+            this.axes = driverAxes.toArray(new ControllerAxis[driverAxes.size()]);
+            this.letters = new String[axes.length];
+            this.groups = new int[axes.length];
+            for (int i = 0; i < axes.length; i++) {
+                letters[i] = axes[i].getLetter();
+                Integer group = namedGroups.get(letters[i]);
+                // If not found, -1 falls back to lookup by name, which reports the missing group.
+                groups[i] = (group != null ? group : -1);
+            }
+        }
+
+        boolean isValidFor(Machine machine, Driver driver, Pattern pattern) {
+            if (pattern != this.pattern) {
+                return false;
+            }
+            int i = 0;
+            for (org.openpnp.spi.Axis axis : machine.getAxes()) {
+                if (axis instanceof ControllerAxis && ((ControllerAxis) axis).getDriver() == driver) {
+                    if (i >= axes.length 
+                            || axes[i] != axis 
+                            || !Objects.equals(letters[i], axes[i].getLetter())) {
+                        return false;
+                    }
+                    i++;
+                }
+            }
+            return i == axes.length;
+        }
+    }
+
+    private PositionReportAxes positionReportAxes;
+
     protected boolean processPositionReport(Line line) {
-        String regex = getCommand(null, CommandType.POSITION_REPORT_REGEX); 
-        if (regex == null) {
+        Pattern pattern = getCommandPattern(null, CommandType.POSITION_REPORT_REGEX); 
+        if (pattern == null) {
             return false;
         }
 
-        if (!line.getLine().matches(regex)) {
+        Matcher matcher = pattern.matcher(line.getLine());
+        if (!matcher.matches()) {
             return false;
         }
 
         Logger.trace("Position report: {}", line);
         ReferenceMachine machine = ((ReferenceMachine) Configuration.get().getMachine());
-        Matcher matcher =
-                Pattern.compile(regex).matcher(line.getLine());
-        matcher.matches();
+        PositionReportAxes reportAxes = positionReportAxes;
+        if (reportAxes == null || !reportAxes.isValidFor(machine, this, pattern)) {
+            reportAxes = new PositionReportAxes(machine, this, pattern);
+            positionReportAxes = reportAxes;
+        }
         AxesLocation position = AxesLocation.zero;
-        for (ControllerAxis axis : new AxesLocation(machine).getAxes(this)) {
+        for (int i = 0; i < reportAxes.axes.length; i++) {
+            ControllerAxis axis = reportAxes.axes[i];
             try {
-                String variable = axis.getLetter(); 
-                String s = matcher.group(variable);
-                Double d = Double.valueOf(s);
+                int group = reportAxes.groups[i];
+                String s = (group >= 0 ? matcher.group(group) : matcher.group(reportAxes.letters[i]));
+                double d = Double.parseDouble(s);
                 if (axis.getType() == Type.Rotation) {
                     // Rotation axis is not converted from driver units.
                     position = position.put(new AxesLocation(axis, new Length(d, AxesLocation.getUnits())));
@@ -1604,6 +1749,8 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         return TextUtils.substituteVar(command, name, value);
     }
 
+    private static final Pattern variablePattern = Pattern.compile("\\{(\\w+)(?::(.+?))?\\}");
+
     /**
      * Find matches of variables in the format {Name:Format} and return true if present.
      */
@@ -1611,7 +1758,7 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         if (command == null) {
             return false;
         }
-        Matcher matcher = Pattern.compile("\\{(\\w+)(?::(.+?))?\\}").matcher(command);
+        Matcher matcher = variablePattern.matcher(command);
         while (matcher.find()) {
             String n = matcher.group(1);
             if (!n.equals(name)) {
@@ -1751,6 +1898,24 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         }
     }
 
+    public boolean isCapturingTraffic() {
+        return capturingTraffic;
+    }
+
+    public void setCapturingTraffic(boolean capturingTraffic) {
+        if (this.capturingTraffic != capturingTraffic) {
+            this.capturingTraffic = capturingTraffic;
+            if (capturingTraffic) {
+                if (connected) {
+                    openTrafficCapture();
+                }
+            }
+            else {
+                closeTrafficCapture();
+            }
+        }
+    }
+
     public String getDetectedFirmware() {
         return detectedFirmware;
     }
@@ -1816,6 +1981,37 @@ public class GcodeDriver extends AbstractReferenceDriver implements Named {
         }
     }
 
+    /**
+     * Start capturing the sent and received lines into a binary {@link GcodeTrafficCapture} file in the 
+     * driver subdirectory, if enabled.
+     */
+    protected synchronized void openTrafficCapture() {
+        if (isCapturingTraffic() && trafficCapture == null) {
+            try {
+                File file = Configuration.get().createResourceFile(getClass(), "traffic", ".bin");
+                trafficCapture = new GcodeTrafficCapture(file);
+                getCommunications().setTrafficCapture(trafficCapture);
+                Logger.debug("[{}] capturing traffic to {}", getCommunications().getConnectionName(), file);
+            }
+            catch (IOException e) {
+                Logger.warn(e, "Cannot open traffic capture");
+            }
+        }
+    }
+
+    protected synchronized void closeTrafficCapture() {
+        if (trafficCapture != null) {
+            getCommunications().setTrafficCapture(null);
+            try {
+                trafficCapture.close();
+            }
+            catch (IOException e) {
+                Logger.warn(e, "Cannot close traffic capture");
+            }
+            trafficCapture = null;
+        }
+    }
+
     /**
      * Detect the firmware running on a controller using the M115 command. Also discover axes with M114. 
      * 
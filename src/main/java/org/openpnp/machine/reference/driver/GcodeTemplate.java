@@ -0,0 +1,192 @@
+package org.openpnp.machine.reference.driver;
+
+import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openpnp.util.TextUtils;
+
+/**
+ * A G-code command template compiled once into a token list of literals and variables, so it can be
+ * rendered with many variables in one pass, instead of rescanning and copying the whole command for each
+ * variable using {@link TextUtils#substituteVar(String, String, Object)}.
+ *
+ * The syntax is the same, variables are given in the format {Name:Format}, where the optional Format is
+ * applied using String.format(). Because a null value removes the whole variable including any literal text
+ * in its Format, a variable like {Acceleration:M204 S%.1f} also acts as a conditional block. Variables
+ * that are not substituted at all are rendered as is.
+ *
+ * Templates that use escaped nested variables i.e. <((Name:Format))> depend on the order of
+ * substitution and are therefore transparently handled the legacy way, by sequential substitution.
+ */
+public class GcodeTemplate {
+    private static final Pattern variablePattern = Pattern.compile("\\{(\\w+)(?::(.+?))?\\}");
+
+    private static class Token {
+        final String text;
+        final int variable;
+        final String format;
+
+        Token(String text, int variable, String format) {
+            this.text = text;
+            this.variable = variable;
+            this.format = format;
+        }
+    }
+
+    private final String text;
+    private final boolean legacy;
+    private final List<Token> tokens = new ArrayList<>();
+    private final Map<String, Integer> variables = new HashMap<>();
+
+    public GcodeTemplate(String text) {
+        this.text = text;
+        // appendReplacement() in the legacy substitution treats $ and \ in the format specially,
+        // keep these exotic templates on the legacy path as well.
+        this.legacy = text.contains("<((")
+                || text.contains("$")
+                || text.contains("\\");
+        if (!legacy) {
+            Matcher matcher = variablePattern.matcher(text);
+            int pos = 0;
+            while (matcher.find()) {
+                if (matcher.start() > pos) {
+                    tokens.add(new Token(text.substring(pos, matcher.start()), -1, null));
+                }
+                String name = matcher.group(1);
+                Integer variable = variables.get(name);
+                if (variable == null) {
+                    variable = variables.size();
+                    variables.put(name, variable);
+                }
+                String format = matcher.group(2);
+                tokens.add(new Token(matcher.group(), variable, format != null ? format : "%s"));
+                pos = matcher.end();
+            }
+            if (pos < text.length()) {
+                tokens.add(new Token(text.substring(pos), -1, null));
+            }
+        }
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @param name
+     * @return True if the template contains the variable.
+     */
+    public boolean hasVariable(String name) {
+        if (legacy) {
+            return GcodeDriver.hasVariable(text, name);
+        }
+        return variables.containsKey(name);
+    }
+
+    /**
+     * @return A new Substitution to set the variables of one rendering of the template.
+     */
+    public Substitution substitution() {
+        return new Substitution();
+    }
+
+    /**
+     * Collects variable values for one rendering of the template. Like with sequential substitution, the
+     * first value set for a variable wins.
+     */
+    public class Substitution {
+        private final Object[] values;
+        private final boolean[] assigned;
+        private String command;
+
+        private Substitution() {
+            if (legacy) {
+                values = null;
+                assigned = null;
+                command = text;
+            }
+            else {
+                values = new Object[variables.size()];
+                assigned = new boolean[variables.size()];
+            }
+        }
+
+        /**
+         * Set the variable to the value. A null value removes the variable from the rendered command.
+         *
+         * @param name
+         * @param value
+         * @return this
+         */
+        public Substitution set(String name, Object value) {
+            if (legacy) {
+                command = TextUtils.substituteVar(command, name, value);
+            }
+            else {
+                Integer variable = variables.get(name);
+                if (variable != null && !assigned[variable]) {
+                    values[variable] = value;
+                    assigned[variable] = true;
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @param name
+         * @return True if the variable is present and was not yet substituted.
+         */
+        public boolean hasVariable(String name) {
+            if (legacy) {
+                return GcodeDriver.hasVariable(command, name);
+            }
+            Integer variable = variables.get(name);
+            return variable != null && !assigned[variable];
+        }
+
+        /**
+         * Render the command into the given StringBuilder, which is cleared first.
+         *
+         * @param builder
+         * @return The rendered command.
+         */
+        public String render(StringBuilder builder) {
+            if (legacy) {
+                return command;
+            }
+            builder.setLength(0);
+            Formatter formatter = null;
+            for (Token token : tokens) {
+                if (token.variable < 0 || !assigned[token.variable]) {
+                    builder.append(token.text);
+                }
+                else {
+                    Object value = values[token.variable];
+                    if (value != null) {
+                        if (token.format.equals("%s")) {
+                            builder.append(value);
+                        }
+                        else {
+                            if (formatter == null) {
+                                formatter = new Formatter(builder, (Locale) null);
+                            }
+                            formatter.format(token.format, value);
+                        }
+                    }
+                }
+            }
+            return builder.toString();
+        }
+
+        @Override
+        public String toString() {
+            return render(new StringBuilder());
+        }
+    }
+}
@@ -0,0 +1,438 @@
+/*
+ * Copyright (C) 2011 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.machine.reference.driver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openpnp.util.NanosecondTime;
+import org.pmw.tinylog.Logger;
+
+/**
+ * Compact binary capture of the lines sent to and received from a controller, each stamped with the
+ * {@link NanosecondTime} runtime. Much cheaper than trace logging, so it can be left on in production,
+ * to analyze round-trip latencies and queue depth offline.
+ *
+ * The file starts with a header (magic, version, wall-clock milliseconds at the start), followed by
+ * records of (type byte, runtime nanoseconds, UTF-8 length, UTF-8 bytes). Records are buffered and flushed 
+ * periodically, so the capture can be read while it is still running, and at most the last flush interval is 
+ * lost on a crash.
+ *
+ * A capture can be replayed through the simulated {@link org.openpnp.util.GcodeServer}, see
+ * {@link SimulatedCommunications#setReplayFile(String)}.
+ */
+public class GcodeTrafficCapture implements AutoCloseable {
+    private static final int MAGIC = 0x4F505443; // "OPTC"
+    private static final short VERSION = 1;
+    private static final int bufferSize = 64*1024;
+    public static final long defaultFlushIntervalMs = 1000;
+
+    private static final ScheduledExecutorService flushExecutor = Executors.newSingleThreadScheduledExecutor((runnable) -> {
+        Thread thread = new Thread(runnable, "GcodeTrafficCapture flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public enum Direction {
+        Sent,
+        Received
+    }
+
+    public static class Entry {
+        final Direction direction;
+        final long nanoTime;
+        final String line;
+
+        public Entry(Direction direction, long nanoTime, String line) {
+            this.direction = direction;
+            this.nanoTime = nanoTime;
+            this.line = line;
+        }
+
+        public Direction getDirection() {
+            return direction;
+        }
+
+        public long getNanoTime() {
+            return nanoTime;
+        }
+
+        public String getLine() {
+            return line;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.6f %s %s", nanoTime*1e-9, (direction == Direction.Sent ? ">>" : "<<"), line);
+        }
+    }
+
+    private final File file;
+    private DataOutputStream output;
+    private long entries;
+    private boolean dirty;
+    private final ScheduledFuture<?> flushTask;
+
+    public GcodeTrafficCapture(File file) throws IOException {
+        this(file, defaultFlushIntervalMs);
+    }
+
+    /**
+     * @param file
+     * @param flushIntervalMs Maximum time the recorded lines are kept in the buffer before being flushed to the file.
+     * @throws IOException
+     */
+    public GcodeTrafficCapture(File file, long flushIntervalMs) throws IOException {
+        this.file = file;
+        output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), bufferSize));
+        output.writeInt(MAGIC);
+        output.writeShort(VERSION);
+        output.writeLong(System.currentTimeMillis());
+        output.flush();
+        flushTask = flushExecutor.scheduleWithFixedDelay(this::flushIfDirty, 
+                flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public synchronized long getEntries() {
+        return entries;
+    }
+
+    public void sent(String line) {
+        record(Direction.Sent, line);
+    }
+
+    public void received(String line) {
+        record(Direction.Received, line);
+    }
+
+    protected synchronized void record(Direction direction, String line) {
+        if (output == null) {
+            return;
+        }
+        long nanoTime = NanosecondTime.getRuntime();
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        try {
+            output.writeByte(direction.ordinal());
+            output.writeLong(nanoTime);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+            entries++;
+            dirty = true;
+        }
+        catch (IOException e) {
+            Logger.warn(e, "Traffic capture {} failed, stopped.", file);
+            closeQuietly();
+        }
+    }
+
+    public synchronized void flush() throws IOException {
+        if (output != null) {
+            output.flush();
+            dirty = false;
+        }
+    }
+
+    private synchronized void flushIfDirty() {
+        if (dirty) {
+            try {
+                flush();
+            }
+            catch (IOException e) {
+                Logger.warn(e, "Traffic capture {} failed, stopped.", file);
+                closeQuietly();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        flushTask.cancel(false);
+        if (output != null) {
+            try {
+                output.close();
+            }
+            finally {
+                output = null;
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        }
+        catch (IOException e) {
+        }
+    }
+
+    /**
+     * Read all the entries of a capture file.
+     *
+     * @param file
+     * @return
+     * @throws IOException
+     */
+    public static List<Entry> read(File file) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(file), bufferSize))) {
+            if (input.readInt() != MAGIC) {
+                throw new IOException(file+" is not a traffic capture file.");
+            }
+            short version = input.readShort();
+            if (version != VERSION) {
+                throw new IOException(file+" has unsupported traffic capture version "+version+".");
+            }
+            input.readLong(); // wall-clock start time
+            Direction[] directions = Direction.values();
+            while (true) {
+                int type;
+                try {
+                    type = input.readUnsignedByte();
+                }
+                catch (EOFException e) {
+                    break;
+                }
+                try {
+                    long nanoTime = input.readLong();
+                    byte[] bytes = new byte[input.readInt()];
+                    input.readFully(bytes);
+                    entries.add(new Entry(directions[type], nanoTime, new String(bytes, StandardCharsets.UTF_8)));
+                }
+                catch (EOFException e) {
+                    // Truncated last record, e.g. after a crash.
+                    break;
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Round-trip latency and queue depth statistics of a capture. Each received line matching the
+     * confirmation regex confirms the oldest unconfirmed sent line.
+     */
+    public static class Statistics {
+        private int sentLines;
+        private int receivedLines;
+        private int confirmations;
+        private int maxQueueDepth;
+        private double queueDepthSum;
+        private long totalLatencyNanos;
+        private long maxLatencyNanos;
+        private List<Long> latencies = new ArrayList<>();
+
+        public Statistics(List<Entry> entries, String confirmationRegex) {
+            Pattern confirmation = Pattern.compile(confirmationRegex);
+            ArrayDeque<Entry> pending = new ArrayDeque<>();
+            for (Entry entry : entries) {
+                if (entry.getDirection() == Direction.Sent) {
+                    sentLines++;
+                    pending.add(entry);
+                    maxQueueDepth = Math.max(maxQueueDepth, pending.size());
+                    queueDepthSum += pending.size();
+                }
+                else {
+                    receivedLines++;
+                    if (confirmation.matcher(entry.getLine()).matches() && !pending.isEmpty()) {
+                        long latency = entry.getNanoTime() - pending.poll().getNanoTime();
+                        confirmations++;
+                        totalLatencyNanos += latency;
+                        maxLatencyNanos = Math.max(maxLatencyNanos, latency);
+                        latencies.add(latency);
+                    }
+                }
+            }
+            Collections.sort(latencies);
+        }
+
+        public int getSentLines() {
+            return sentLines;
+        }
+
+        public int getReceivedLines() {
+            return receivedLines;
+        }
+
+        public int getConfirmations() {
+            return confirmations;
+        }
+
+        public int getMaxQueueDepth() {
+            return maxQueueDepth;
+        }
+
+        /**
+         * @return The average number of unconfirmed lines, as seen when sending a line.
+         */
+        public double getAverageQueueDepth() {
+            return sentLines == 0 ? 0 : queueDepthSum/sentLines;
+        }
+
+        public double getAverageLatencyMilliseconds() {
+            return confirmations == 0 ? 0 : totalLatencyNanos*1e-6/confirmations;
+        }
+
+        public double getMaxLatencyMilliseconds() {
+            return maxLatencyNanos*1e-6;
+        }
+
+        public double getLatencyPercentileMilliseconds(double percentile) {
+            if (latencies.isEmpty()) {
+                return 0;
+            }
+            int index = (int) Math.min(latencies.size() - 1, Math.round(percentile/100*(latencies.size() - 1)));
+            return latencies.get(index)*1e-6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sent %d lines, received %d lines, %d confirmations, "
+                    + "queue depth avg %.2f max %d, latency avg %.3fms median %.3fms 99%% %.3fms max %.3fms",
+                    sentLines, receivedLines, confirmations,
+                    getAverageQueueDepth(), maxQueueDepth,
+                    getAverageLatencyMilliseconds(), getLatencyPercentileMilliseconds(50),
+                    getLatencyPercentileMilliseconds(99), getMaxLatencyMilliseconds());
+        }
+    }
+
+    public interface LineWriter {
+        void write(String line) throws Exception;
+    }
+
+    /**
+     * Replays a capture, by answering each command with the lines that were received after the
+     * same command was sent in the capture, up to the next sent command. The original timing
+     * relative to the command is reproduced.
+     */
+    public static class Replay {
+        private final File file;
+        private final List<Entry> entries;
+        private int cursor;
+
+        public Replay(File file) throws IOException {
+            this.file = file;
+            this.entries = read(file);
+        }
+
+        public File getFile() {
+            return file;
+        }
+
+        /**
+         * Answer the given command with the captured responses, sleeping between the lines as captured.
+         *
+         * @param command
+         * @param writer
+         * @return false if the command was not found in the remaining capture.
+         * @throws Exception
+         */
+        public boolean respond(String command, LineWriter writer) throws Exception {
+            long t0 = NanosecondTime.getRuntime();
+            List<Entry> responses = new ArrayList<>();
+            long sentTime;
+            synchronized (this) {
+                int index = findSent(command.trim());
+                if (index < 0) {
+                    return false;
+                }
+                sentTime = entries.get(index).getNanoTime();
+                for (cursor = index + 1; cursor < entries.size(); cursor++) {
+                    Entry entry = entries.get(cursor);
+                    if (entry.getDirection() == Direction.Sent) {
+                        break;
+                    }
+                    responses.add(entry);
+                }
+            }
+            for (Entry response : responses) {
+                long wait = (response.getNanoTime() - sentTime) - (NanosecondTime.getRuntime() - t0);
+                if (wait > 0) {
+                    Thread.sleep(wait/1000000, (int) (wait % 1000000));
+                }
+                writer.write(response.getLine());
+            }
+            return true;
+        }
+
+        private int findSent(String command) {
+            for (int i = cursor; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                if (entry.getDirection() == Direction.Sent && entry.getLine().trim().equals(command)) {
+                    if (i > cursor) {
+                        Logger.trace("Replay {} skipped {} entries to find {}", file, i - cursor, command);
+                    }
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Prints the statistics and optionally the content of a capture file.
+     *
+     * Usage: GcodeTrafficCapture file [confirmationRegex] [-v]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: GcodeTrafficCapture file [confirmationRegex] [-v]");
+            return;
+        }
+        String confirmationRegex = "^ok.*";
+        boolean verbose = false;
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equals("-v")) {
+                verbose = true;
+            }
+            else {
+                confirmationRegex = args[i];
+            }
+        }
+        List<Entry> entries = read(new File(args[0]));
+        if (verbose) {
+            for (Entry entry : entries) {
+                System.out.println(entry);
+            }
+        }
+        System.out.println(new Statistics(entries, confirmationRegex));
+    }
+}
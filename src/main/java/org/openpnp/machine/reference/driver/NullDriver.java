@@ -137,7 +137,7 @@ public class NullDriver extends AbstractDriver {
         while (! machine.getMotionPlanner()
                 .getMomentaryMotion(NanosecondTime.getRuntimeSeconds())
                 .hasOption(Motion.MotionOption.Stillstand)) {
-            Thread.sleep(1);
+            NanosecondTime.sleep(1);
         }
         motionPending = false;
     }
@@ -172,7 +172,7 @@ public class NullDriver extends AbstractDriver {
         Logger.debug("actuate({}, {})", actuator, value); //$NON-NLS-1$
         checkEnabled();
         if (feedRateMmPerMinute > 0) {
-            Thread.sleep(10);
+            NanosecondTime.sleep(10);
         }
     }
 
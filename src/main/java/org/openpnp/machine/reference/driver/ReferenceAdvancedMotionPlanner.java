@@ -35,6 +35,7 @@ import org.openpnp.machine.reference.driver.wizards.ReferenceAdvancedMotionPlann
 import org.openpnp.machine.reference.driver.wizards.ReferenceAdvancedMotionPlannerDiagnosticsWizard;
 import org.openpnp.model.AbstractMotionPath;
 import org.openpnp.model.AxesLocation;
+import org.openpnp.model.Length;
 import org.openpnp.model.LengthUnit;
 import org.openpnp.model.Location;
 import org.openpnp.model.Motion;
@@ -71,6 +72,9 @@ public class ReferenceAdvancedMotionPlanner extends AbstractMotionPlanner {
     @Attribute(required = false)
     protected double minimumSpeed = 0.05;
 
+    @Attribute(required = false)
+    private int lookahead = 0;
+
     @Attribute(required = false)
     private boolean showApproximation = true;
 
@@ -155,6 +159,14 @@ public class ReferenceAdvancedMotionPlanner extends AbstractMotionPlanner {
         this.minimumSpeed = minimumSpeed;
     }
 
+    public int getLookahead() {
+        return lookahead;
+    }
+
+    public void setLookahead(int lookahead) {
+        this.lookahead = lookahead;
+    }
+
     public boolean isDiagnosticsEnabled() {
         return diagnosticsEnabled;
     }
@@ -353,6 +365,35 @@ public class ReferenceAdvancedMotionPlanner extends AbstractMotionPlanner {
         public MotionProfile[] get(int i) {
             return executionPlan.get(i).getAxesProfiles();
         }
+
+        @Override
+        public int getLookahead() {
+            return lookahead;
+        }
+
+        @Override
+        public double getJunctionDeviation(int i) {
+            // The corner can only be blended, if the same drivers move on both sides, and they all declare 
+            // their junction deviation.
+            Motion motion0 = executionPlan.get(i - 1);
+            Motion motion1 = executionPlan.get(i);
+            List<Driver> drivers = motion0.getLocation0().motionSegmentTo(motion0.getLocation1())
+                    .getAxesDrivers(getMachine());
+            if (drivers.isEmpty() || !drivers.equals(motion1.getLocation0().motionSegmentTo(motion1.getLocation1())
+                    .getAxesDrivers(getMachine()))) {
+                return 0;
+            }
+            double junctionDeviation = Double.POSITIVE_INFINITY;
+            for (Driver driver : drivers) {
+                Length driverJunctionDeviation = driver.getJunctionDeviation();
+                if (driverJunctionDeviation == null) {
+                    return 0;
+                }
+                junctionDeviation = Math.min(junctionDeviation, 
+                        driverJunctionDeviation.convertToUnits(AxesLocation.getUnits()).getValue());
+            }
+            return junctionDeviation;
+        }
     }
 
     @Override
@@ -20,6 +20,7 @@
 package org.openpnp.machine.reference.driver;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -28,6 +29,7 @@ import org.jfree.chart.util.ArrayUtils;
 import org.openpnp.model.Named;
 import org.openpnp.util.Collect;
 import org.openpnp.util.GcodeServer;
+import org.openpnp.util.NanosecondTime;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 
@@ -74,6 +76,43 @@ public abstract class ReferenceDriverCommunications {
 
     abstract public int read() throws TimeoutException, IOException;
 
+    /**
+     * Read a block of bytes into the remaining space of the buffer, advancing its position. Blocks 
+     * until at least one byte is available. Implementations reading from a channel block until data 
+     * arrives or the channel is closed, as channel reads do not observe the socket timeout. The 
+     * default implementation throws a TimeoutException if {@link #read()} times out. Any other 
+     * failure to read results in an IOExeption.
+     * 
+     * The default implementation falls back to reading a single byte through {@link #read()}. 
+     * Implementations should override this with a bulk read, as it is used by {@link #readLine()}.
+     * 
+     * Note, bytes read in blocks are buffered for {@link #readLine()}, therefore a connection 
+     * should either be read in lines or using {@link #read()}, but not both.
+     *
+     * @param buffer
+     * @return The number of bytes read, or -1 if the end of the stream was reached.
+     * @throws TimeoutException
+     * @throws IOException
+     */
+    protected int read(ByteBuffer buffer) throws TimeoutException, IOException {
+        int ch = read();
+        if (ch == -1) {
+            return -1;
+        }
+        buffer.put((byte) ch);
+        return 1;
+    }
+
+    private static final int receiveBufferSize = 4096;
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(receiveBufferSize).flip();
+    private final StringBuilder lineAssembler = new StringBuilder();
+
+    private volatile long receivedBytes;
+    private volatile long receivedLines;
+    private volatile long statisticsStartTime = NanosecondTime.getRuntime();
+
+    private volatile GcodeTrafficCapture trafficCapture;
+
     /**
      * Read a line from the input stream. Blocks for the default timeout. If the read times out a
      * TimeoutException is thrown. Any other failure to read results in an IOExeption;
@@ -89,11 +128,18 @@ public abstract class ReferenceDriverCommunications {
     public void writeLine(String data) throws IOException {
         byte [] line = Collect.concat(data.getBytes(), getLineEndingType().getLineEnding().getBytes());
         writeBytes(line);
+        GcodeTrafficCapture capture = trafficCapture;
+        if (capture != null) {
+            capture.sent(data);
+        }
     }
 
     /**
      * Read the input stream until one of the characters is found. Blocks for the default timeout. If the read times out
      * a TimeoutException is thrown. Any other failure to read results in an IOExeption;
+     * 
+     * The input is read in blocks and assembled into lines from the receive buffer, so the per byte 
+     * cost is just a buffer access. 
      *
      * @param characters list of ending characters
      * @return
@@ -101,28 +147,112 @@ public abstract class ReferenceDriverCommunications {
      * @throws IOException
      */
     protected String readUntil(String characters) throws TimeoutException, IOException {
-        StringBuffer line = new StringBuffer();
         while (true) {
-            int ch = -1;
+            while (receiveBuffer.hasRemaining()) {
+                char ch = (char) (receiveBuffer.get() & 0xFF);
+                if (characters.indexOf(ch) >= 0) {
+                    if (lineAssembler.length() > 0) {
+                        String line = lineAssembler.toString();
+                        lineAssembler.setLength(0);
+                        receivedLines++;
+                        GcodeTrafficCapture capture = trafficCapture;
+                        if (capture != null) {
+                            capture.received(line);
+                        }
+                        return line;
+                    }
+                }
+                else {
+                    lineAssembler.append(ch);
+                }
+            }
+            // Buffer exhausted, read the next block.
+            receiveBuffer.clear();
+            int count;
             try {
-                ch = read();
+                count = read(receiveBuffer);
             }
             catch (TimeoutException e) {
                 // In case an implementation has a read timeout, we must not stop reading.
                 continue;
             }
-            if (ch == -1) {
-                return null;
+            finally {
+                receiveBuffer.flip();
             }
-            else if (characters.indexOf((char)ch) >= 0) {
-                if (line.length() > 0) {
-                    return line.toString();
-                }
-            }
-            else {
-                line.append((char) ch);
+            if (count == -1) {
+                return null;
             }
+            receivedBytes += count;
+        }
+    }
+
+    /**
+     * Discard any buffered input, i.e. bytes received but not yet assembled into lines. Must be called
+     * by implementations when a new connection is established.
+     */
+    protected void resetReceiveBuffer() {
+        receiveBuffer.clear();
+        receiveBuffer.flip();
+        lineAssembler.setLength(0);
+    }
+
+    /**
+     * Reset the received bytes and lines statistics. 
+     */
+    public void resetStatistics() {
+        receivedBytes = 0;
+        receivedLines = 0;
+        statisticsStartTime = NanosecondTime.getRuntime();
+    }
+
+    /**
+     * @return The number of bytes received since the statistics were last reset. 
+     */
+    public long getReceivedBytes() {
+        return receivedBytes;
+    }
+
+    /**
+     * @return The number of lines received since the statistics were last reset. 
+     */
+    public long getReceivedLines() {
+        return receivedLines;
+    }
+
+    /**
+     * @return The average received bytes per second since the statistics were last reset. 
+     */
+    public double getReceivedBytesPerSecond() {
+        return perSecond(receivedBytes);
+    }
+
+    /**
+     * @return The average received lines per second since the statistics were last reset. 
+     */
+    public double getReceivedLinesPerSecond() {
+        return perSecond(receivedLines);
+    }
+
+    private double perSecond(long count) {
+        double seconds = (NanosecondTime.getRuntime() - statisticsStartTime)*1e-9;
+        if (seconds <= 0) {
+            return 0;
         }
+        return count/seconds;
+    }
+
+    public GcodeTrafficCapture getTrafficCapture() {
+        return trafficCapture;
+    }
+
+    /**
+     * Set the capture that records the lines written with {@link #writeLine(String)} and read with 
+     * {@link #readLine()}, or null to stop capturing.
+     * 
+     * @param trafficCapture
+     */
+    public void setTrafficCapture(GcodeTrafficCapture trafficCapture) {
+        this.trafficCapture = trafficCapture;
     }
 
     public void write(int d) throws IOException {
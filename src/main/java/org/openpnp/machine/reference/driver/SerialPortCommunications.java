@@ -1,6 +1,7 @@
 package org.openpnp.machine.reference.driver;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.concurrent.TimeoutException;
 
@@ -110,6 +111,7 @@ public class SerialPortCommunications extends ReferenceDriverCommunications {
         }
         serialPort.setComPortTimeouts(
                 SerialPort.TIMEOUT_READ_SEMI_BLOCKING | SerialPort.TIMEOUT_WRITE_BLOCKING, 0, 0);
+        resetReceiveBuffer();
     }
 
     @Override
@@ -155,6 +157,28 @@ public class SerialPortCommunications extends ReferenceDriverCommunications {
         return b[0];
     }
 
+    @Override
+    protected int read(ByteBuffer buffer) throws TimeoutException, IOException {
+        int l;
+        try {
+            // Semi-blocking: returns as soon as at least one byte is available, with as many bytes as 
+            // are available, up to the remaining buffer space.
+            l = serialPort.readBytes(buffer.array(), buffer.remaining(), 
+                    buffer.arrayOffset() + buffer.position());
+        }
+        catch (NullPointerException e) {
+            throw new IOException("Trying to read from a unconnected serial.");
+        }
+        if (l == -1) {
+            throw new IOException("Read error.");
+        }
+        if (l == 0) {
+            throw new TimeoutException("Read timeout.");
+        }
+        buffer.position(buffer.position() + l);
+        return l;
+    }
+
     @Override
     public void writeBytes(byte[] data) throws IOException {
         int l = serialPort.writeBytes(data, data.length);
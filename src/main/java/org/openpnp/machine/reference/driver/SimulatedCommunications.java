@@ -1,29 +1,40 @@
 package org.openpnp.machine.reference.driver;
 
-import java.io.BufferedReader;
 import java.io.DataOutputStream;
+import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.TimeoutException;
 
 import org.openpnp.spi.Driver;
 import org.openpnp.util.GcodeServer;
 import org.pmw.tinylog.Logger;
+import org.simpleframework.xml.Attribute;
 
 /**
  * A base class for basic TCP based Drivers. Includes functions for connecting,
  * disconnecting, reading and sending lines.
  */
 public class SimulatedCommunications extends ReferenceDriverCommunications {
+    protected SocketChannel clientChannel;
     protected Socket clientSocket;
-    protected BufferedReader input;
+    protected InputStream input;
     protected DataOutputStream output;
 
     protected GcodeServer gcodeServer;
     private Driver driver;
 
+    /**
+     * Optional {@link GcodeTrafficCapture} file to be replayed by the simulated controller.
+     */
+    @Attribute(required = false)
+    protected String replayFile;
+
     @Override
     public synchronized void connect() throws Exception {
         disconnect();
@@ -37,21 +48,26 @@ public class SimulatedCommunications extends ReferenceDriverCommunications {
         }
         if (gcodeServer != null) {
             gcodeServer.setDriver(driver);
+            if (replayFile != null && !replayFile.isEmpty()) {
+                gcodeServer.setReplay(new GcodeTrafficCapture.Replay(new File(replayFile)));
+                Logger.info("{} replaying traffic capture {}", getConnectionName(), replayFile);
+            }
         }
-        clientSocket = new Socket("localhost", getGcodeServer().getListenerPort());
-        input = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+        clientChannel = SocketChannel.open(new InetSocketAddress("localhost", getGcodeServer().getListenerPort()));
+        clientSocket = clientChannel.socket();
+        input = clientSocket.getInputStream();
         output = new DataOutputStream(clientSocket.getOutputStream());
+        resetReceiveBuffer();
     }
 
     @Override
     public synchronized void disconnect() throws Exception {
         if (clientSocket != null && clientSocket.isBound()) {
-            clientSocket.close();
-            input.close();
-            output.close();
+            clientChannel.close();
             input = null;
             output = null;
             clientSocket = null;
+            clientChannel = null;
         }
         if (gcodeServer != null) {
             gcodeServer.shutdown();
@@ -86,6 +102,15 @@ public class SimulatedCommunications extends ReferenceDriverCommunications {
         }
     }
 
+    @Override
+    protected int read(ByteBuffer buffer) throws IOException {
+        SocketChannel channel = clientChannel;
+        if (channel == null) {
+            throw new IOException("Trying to read from a unconnected socket.");
+        }
+        return channel.read(buffer);
+    }
+
     @Override
     public void write(int d) throws IOException {
         output.write(d);
@@ -95,6 +120,14 @@ public class SimulatedCommunications extends ReferenceDriverCommunications {
         this.driver = driver;
     }
 
+    public String getReplayFile() {
+        return replayFile;
+    }
+
+    public void setReplayFile(String replayFile) {
+        this.replayFile = replayFile;
+    }
+
     @Override
     public void writeBytes(byte[] data) throws IOException {
         output.write(data, 0, data.length);
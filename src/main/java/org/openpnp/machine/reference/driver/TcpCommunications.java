@@ -1,11 +1,13 @@
 package org.openpnp.machine.reference.driver;
 
-import java.io.BufferedReader;
 import java.io.DataOutputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
 import java.util.concurrent.TimeoutException;
 
 import org.openpnp.util.GcodeServer;
@@ -26,8 +28,9 @@ public class TcpCommunications extends ReferenceDriverCommunications {
     protected String name = "TcpCommunications";
 
 
+    protected SocketChannel clientChannel;
     protected Socket clientSocket;
-    protected BufferedReader input;
+    protected InputStream input;
     protected DataOutputStream output;
     protected GcodeServer gcodeServer;
     protected AbstractReferenceDriver driver;
@@ -39,22 +42,25 @@ public class TcpCommunications extends ReferenceDriverCommunications {
             gcodeServer = new GcodeServer();
             gcodeServer.setDriver(driver);
             port = gcodeServer.getListenerPort();
-            clientSocket = new Socket("localhost", port);
+            clientChannel = SocketChannel.open(new InetSocketAddress("localhost", port));
         }
         else {
-            clientSocket = new Socket(ipAddress,port);
+            clientChannel = SocketChannel.open(new InetSocketAddress(ipAddress, port));
         }
-        input = new BufferedReader(new InputStreamReader(clientSocket.getInputStream()));
+        clientSocket = clientChannel.socket();
+        input = clientSocket.getInputStream();
         output = new DataOutputStream(clientSocket.getOutputStream());
+        resetReceiveBuffer();
     }
 
     @Override
     public synchronized void disconnect() throws Exception {
         if (clientSocket != null && clientSocket.isBound()) {
-            clientSocket.close();
+            clientChannel.close();
             input = null;
             output = null;
             clientSocket = null;
+            clientChannel = null;
         }
         if (gcodeServer != null) {
             gcodeServer.shutdown();
@@ -83,6 +89,15 @@ public class TcpCommunications extends ReferenceDriverCommunications {
         }
     }
 
+    @Override
+    protected int read(ByteBuffer buffer) throws IOException {
+        SocketChannel channel = clientChannel;
+        if (channel == null) {
+            throw new IOException("Trying to read from a unconnected socket.");
+        }
+        return channel.read(buffer);
+    }
+
     @Override
     public void write(int d) throws IOException {
         output.write(d);
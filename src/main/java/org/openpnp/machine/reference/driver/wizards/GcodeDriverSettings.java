@@ -234,6 +234,14 @@ public class GcodeDriverSettings extends AbstractConfigurationWizard {
 
         loggingGcode = new JCheckBox("");
         settingsPanel.add(loggingGcode, "4, 16");
+
+        JLabel lblCaptureTraffic = new JLabel(Translations.getString("GcodeDriverSettings.SettingsPanel.CaptureTrafficLabel.text")); //$NON-NLS-1$
+        lblCaptureTraffic.setToolTipText(Translations.getString(
+                "GcodeDriverSettings.SettingsPanel.CaptureTrafficLabel.toolTipText")); //$NON-NLS-1$
+        settingsPanel.add(lblCaptureTraffic, "6, 16, right, default");
+
+        capturingTraffic = new JCheckBox("");
+        settingsPanel.add(capturingTraffic, "8, 16");
         
         JLabel lblSendOnChangeFeedRate = new JLabel(Translations.getString("GcodeDriverSettings.SettingsPanel.SendOnChangeFeedRate.text")); //$NON-NLS-1$
         lblSendOnChangeFeedRate.setToolTipText(Translations.getString(
@@ -293,6 +301,7 @@ public class GcodeDriverSettings extends AbstractConfigurationWizard {
         addWrappedBinding(driver, "supportingPreMove", supportingPreMove, "selected");
         addWrappedBinding(driver, "usingLetterVariables", letterVariables, "selected");
         addWrappedBinding(driver, "loggingGcode", loggingGcode, "selected");
+        addWrappedBinding(driver, "capturingTraffic", capturingTraffic, "selected");
         addWrappedBinding(driver, "sendOnChangeFeedRate", sendOnChangeFeedRate, "selected");
         addWrappedBinding(driver, "sendOnChangeAcceleration", sendOnChangeAcceleration, "selected");
         addWrappedBinding(driver, "sendOnChangeJerk", sendOnChangeJerk, "selected");
@@ -451,6 +460,7 @@ public class GcodeDriverSettings extends AbstractConfigurationWizard {
     private JCheckBox compressGcode;
 
     private JCheckBox loggingGcode;
+    private JCheckBox capturingTraffic;
 
     private JCheckBox sendOnChangeFeedRate;
     private JCheckBox sendOnChangeAcceleration;
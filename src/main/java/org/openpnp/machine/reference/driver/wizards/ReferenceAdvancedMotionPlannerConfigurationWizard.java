@@ -38,6 +38,7 @@ import org.openpnp.gui.components.ComponentDecorators;
 import org.openpnp.gui.components.LocationButtonsPanel;
 import org.openpnp.gui.support.AbstractConfigurationWizard;
 import org.openpnp.gui.support.DoubleConverter;
+import org.openpnp.gui.support.IntegerConverter;
 import org.openpnp.gui.support.LengthConverter;
 import org.openpnp.gui.support.MutableLocationProxy;
 import org.openpnp.gui.support.PercentConverter;
@@ -115,6 +116,8 @@ public class ReferenceAdvancedMotionPlannerConfigurationWizard extends AbstractC
     private JLabel lblCaution3;
     private JLabel lblMinimumSpeed;
     private JTextField minimumSpeed;
+    private JLabel lblLookahead;
+    private JTextField lookahead;
 
 
     public ReferenceAdvancedMotionPlannerConfigurationWizard(ReferenceAdvancedMotionPlanner motionPlanner) {
@@ -152,6 +155,8 @@ public class ReferenceAdvancedMotionPlannerConfigurationWizard extends AbstractC
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,}));
 
         JLabel lblContinuousMotion = new JLabel("Allow continous motion?");
@@ -183,6 +188,14 @@ public class ReferenceAdvancedMotionPlannerConfigurationWizard extends AbstractC
         panelSettings.add(minimumSpeed, "4, 8, fill, default");
         minimumSpeed.setColumns(10);
 
+        lblLookahead = new JLabel("Lookahead");
+        lblLookahead.setToolTipText("<html>\r\n<p>\r\nNumber of coordinated moves the planner looks ahead, when it blends corners<br/>\r\nbetween them. Corners are passed at a velocity that respects the acceleration and<br/>\r\njerk limits and the Maximum Junction Deviation of the driver(s), while the moves<br/>\r\nahead can still decelerate to still-stand.\r\n</p><p>\r\nSet to 0 to pass corners at still-stand. Only effective with continuous motion<br/>\r\nand drivers that declare their Maximum Junction Deviation.\r\n</p>\r\n</html>\r\n");
+        panelSettings.add(lblLookahead, "2, 10, right, default");
+
+        lookahead = new JTextField();
+        panelSettings.add(lookahead, "4, 10, fill, default");
+        lookahead.setColumns(10);
+
         panel = new JPanel();
         panel.setBorder(new TitledBorder(UIManager.getBorder("TitledBorder.border"), "Test Motion", TitledBorder.LEADING, TitledBorder.TOP, null));
         contentPanel.add(panel);
@@ -431,11 +444,13 @@ public class ReferenceAdvancedMotionPlannerConfigurationWizard extends AbstractC
         LengthConverter lengthConverter = new LengthConverter();
         DoubleConverter doubleConverter = new DoubleConverter(Configuration.get().getLengthDisplayFormat());
         PercentConverter percentConverter = new PercentConverter();
+        IntegerConverter intConverter = new IntegerConverter();
 
         addWrappedBinding(motionPlanner, "allowContinuousMotion", allowContinuousMotion, "selected");
         addWrappedBinding(motionPlanner, "allowUncoordinated", allowUncoordinated, "selected");
         addWrappedBinding(motionPlanner, "interpolationRetiming", interpolationRetiming, "selected");
         addWrappedBinding(motionPlanner, "minimumSpeed", minimumSpeed, "text", percentConverter);
+        addWrappedBinding(motionPlanner, "lookahead", lookahead, "text", intConverter);
 
         addWrappedBinding(motionPlanner, "startLocationEnabled", startLocationEnabled, "selected");
         addWrappedBinding(motionPlanner, "mid1LocationEnabled", mid1LocationEnabled, "selected");
@@ -502,6 +517,8 @@ public class ReferenceAdvancedMotionPlannerConfigurationWizard extends AbstractC
         addWrappedBinding(endLocation, "rotation", textFieldEndRotation, "text",
                 doubleConverter);
 
+        ComponentDecorators.decorateWithAutoSelect(lookahead);
+
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldStartX);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldStartY);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldStartZ);
@@ -25,7 +25,6 @@ import javax.swing.Action;
 
 import org.apache.commons.io.IOUtils;
 import org.opencv.core.RotatedRect;
-import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.ReferenceFeeder;
@@ -37,7 +36,7 @@ import org.openpnp.spi.MotionPlanner.CompletionType;
 import org.openpnp.spi.Nozzle;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.util.MovableUtils;
-import org.openpnp.util.OpenCvUtils;
+import org.openpnp.util.VisionResultPublisher;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.simpleframework.xml.Element;
@@ -117,8 +116,7 @@ public class AdvancedLoosePartFeeder extends ReferenceFeeder {
                     partLocation.derive(null, null,
                             this.location.convertToUnits(partLocation.getUnits()).getZ(),
                             null);
-            MainFrame.get().getCameraViews().getCameraView(camera)
-            .showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), 250);
+            VisionResultPublisher.publish(camera, pipeline.getWorkingImage(), 250);
             
             return checkIfInInitialView(camera, partLocation);
         }
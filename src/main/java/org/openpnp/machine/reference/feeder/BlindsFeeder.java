@@ -33,10 +33,10 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.Action;
 
-import org.apache.commons.io.IOUtils;
 import org.opencv.core.Mat;
 import org.opencv.core.RotatedRect;
 import org.opencv.core.Size;
@@ -75,12 +75,17 @@ import org.openpnp.vision.FluentCv;
 import org.openpnp.vision.Ransac.Line;
 import org.openpnp.vision.SimpleHistogram;
 import org.openpnp.vision.pipeline.CvPipeline;
+import org.openpnp.vision.pipeline.CvPipelineTemplates;
 import org.openpnp.vision.pipeline.CvStage.Result;
 import org.openpnp.vision.pipeline.stages.SimpleOcr;
 import org.openpnp.vision.pipeline.stages.SimpleOcr.OcrModel;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
+import org.simpleframework.xml.ElementMap;
+import org.simpleframework.xml.core.Commit;
+import org.simpleframework.xml.core.Complete;
+import org.simpleframework.xml.core.Persist;
 
 
 /**
@@ -120,7 +125,18 @@ public class BlindsFeeder extends ReferenceFeeder {
     private Length pocketSize = new Length(0, LengthUnit.Millimeters);
 
     @Element(required = false)
-    private CvPipeline pipeline = createDefaultPipeline();
+    private CvPipeline pipeline;
+
+    /**
+     * The stock pipeline template, if the pipeline is unmodified and therefore not stored inline.
+     * The pipeline is then only instantiated on first use.
+     */
+    @Attribute(required = false)
+    private String pipelineTemplate;
+    private CvPipeline persistedPipeline;
+
+    @ElementMap(required = false)
+    private Map<String, Object> pipelineParameterAssignments;
 
     @Attribute(required = false)
     private boolean visionEnabled = true;
@@ -907,7 +923,7 @@ public class BlindsFeeder extends ReferenceFeeder {
                         pocketPitchMm);
 
                 // Try to determine the pocket position from feeder zero X.
-                double pocketPitchPosMm = (getPocketPitch().getValue() != 0. ? 
+                double pocketPitchPosMm = (getPocketPitch().getValue() != 0. ?
                         getPocketPitch().convertToUnits(LengthUnit.Millimeters).getValue() 
                         :   pocketPitchMm); 
                 SimpleHistogram histogramDistance = new SimpleHistogram(0.05);
@@ -1612,7 +1628,7 @@ public class BlindsFeeder extends ReferenceFeeder {
 
             if (coverType == CoverType.BlindsCover) {
                 // Calculate the motion for the cover to be pushed in feeder local coordinates. 
-                Length feederX0 = (openState ^ isBlindsCoverAlignmentReversed() ? 
+                Length feederX0 = (openState ^ isBlindsCoverAlignmentReversed() ?
                         edgeOpenDistance.multiply(-1.0)
                         .subtract(pocketPitch.multiply(0.5))
                         .subtract(sprocketPitch.multiply(0.5)) // go half sprocket too far back
@@ -1624,7 +1640,7 @@ public class BlindsFeeder extends ReferenceFeeder {
                             .add(sprocketPitch.multiply(0.5)) // go half sprocket too far
                             .add(nozzleTipDiameter.multiply(0.5)))
                         .convertToUnits(location.getUnits());
-                Length feederX1 = (openState  ^ isBlindsCoverAlignmentReversed() ? 
+                Length feederX1 = (openState  ^ isBlindsCoverAlignmentReversed() ?
                         edgeOpenDistance.multiply(-1.0)
                         .subtract(nozzleTipDiameter.multiply(0.5))
                         : 
@@ -2062,7 +2078,45 @@ public class BlindsFeeder extends ReferenceFeeder {
         updateConnectedFeedersFromThis(fiducial1Location, true);
     }
 
+    @Commit
+    private void commit() throws Exception {
+        if (pipeline == null && pipelineTemplate != null && !CvPipelineTemplates.exists(pipelineTemplate)) {
+            throw new Exception("Feeder " + getId() + " references the unknown pipeline template " + pipelineTemplate + ".");
+        }
+        // Drop a loaded pipeline that is equal to the stock template, it is instantiated again on first use.
+        if (pipeline != null) {
+            pipelineTemplate = CvPipelineTemplates.findTemplate(pipeline, getPipelineTemplate());
+            if (pipelineTemplate != null) {
+                pipeline = null;
+            }
+        }
+    }
+
+    @Persist
+    private void persist() {
+        // Only store the template reference, if the pipeline is unmodified.
+        if (pipeline != null) {
+            pipelineTemplate = CvPipelineTemplates.findTemplate(pipeline, getPipelineTemplate());
+            if (pipelineTemplate != null) {
+                persistedPipeline = pipeline;
+                pipeline = null;
+            }
+        }
+    }
+
+    @Complete
+    private void complete() {
+        if (persistedPipeline != null) {
+            pipeline = persistedPipeline;
+            persistedPipeline = null;
+        }
+    }
+
     public CvPipeline getPipeline() {
+        if (pipeline == null) {
+            pipeline = CvPipelineTemplates.create(pipelineTemplate != null ?
+                    pipelineTemplate : getPipelineTemplate());
+        }
         return pipeline;
     }
 
@@ -2079,6 +2133,15 @@ public class BlindsFeeder extends ReferenceFeeder {
         setPipeline(createDefaultPipeline());
     }
 
+    public Map<String, Object> getPipelineParameterAssignments() {
+        return pipelineParameterAssignments;
+    }
+
+    public void setPipelineParameterAssignments(Map<String, Object> pipelineParameterAssignments) {
+        this.pipelineParameterAssignments = pipelineParameterAssignments;
+        firePropertyChange("pipelineParameterAssignments", null, pipelineParameterAssignments);
+    }
+
     public void setOcrSettingsToAllFeeders() {
         // Update all the BlindsFeeder instances' OCR settings from this one.
         for (BlindsFeeder feeder : getAllBlindsFeeders()) {
@@ -2096,7 +2159,7 @@ public class BlindsFeeder extends ReferenceFeeder {
         // Update all the BlindsFeeder instances' pipeline from this one.
         for (BlindsFeeder feeder : getAllBlindsFeeders()) {
             if (feeder != this) {
-                feeder.pipeline = pipeline.clone();
+                feeder.pipeline = getPipeline().clone();
             }
         }
     }
@@ -2107,26 +2170,7 @@ public class BlindsFeeder extends ReferenceFeeder {
             if (clone) {
                 pipeline = pipeline.clone();
             }
-            pipeline.setProperty("camera", camera);
-            pipeline.setProperty("feeder", this);
-            setupOcr(camera, pipeline, ocrAction);
-
-            /* TODO: read the override property in the FilterContours stage
-             * 
-             * // Provide pixel min/max area to pipeline.
-            // We restrict this to 24mm tape carrier having a 20.1mm max pocket size.
-            // See ANSI/EIA-48 1 -C p. 11.
-            double mm = VisionUtils.toPixels(new Length(1, LengthUnit.Millimeters), camera);
-            Integer minArea = (int) (0.8*mm*1*mm); // 2mm pitch punched paper carrier tape (0402). 
-            Integer maxArea = (int) (21*mm*21*mm); // 24mm tape carrier.
-            // feeder specific
-            double nominalArea = VisionUtils.toPixels(feeder.getPocketPitch(), camera)
-             *VisionUtils.toPixels(feeder.getPocketSize(), camera);
-            Integer minArea = (int) (0.75*nominalArea); 
-            Integer maxArea = (int) (1.25*nominalArea); 
-            pipeline.setProperty("FilterContours.minArea", minArea);
-            pipeline.setProperty("FilterContours.maxArea", maxArea);
-             */
+            preparePipeline(pipeline, getPipelineParameterAssignments(), camera, ocrAction);
             return pipeline;
         }
         catch (CloneNotSupportedException e) {
@@ -2134,6 +2178,39 @@ public class BlindsFeeder extends ReferenceFeeder {
         }
     }
 
+    /**
+     * Set the pipeline properties for the vision operations of this feeder.
+     * 
+     * @param pipeline
+     * @param pipelineParameterAssignments
+     * @param camera
+     * @param ocrAction
+     */
+    public void preparePipeline(CvPipeline pipeline, Map<String, Object> pipelineParameterAssignments, 
+            Camera camera, OcrAction ocrAction) {
+        pipeline.addProperties(pipelineParameterAssignments);
+        pipeline.setProperty("camera", camera);
+        pipeline.setProperty("feeder", this);
+        setupOcr(camera, pipeline, ocrAction);
+
+        /* TODO: read the override property in the FilterContours stage
+         * 
+         * // Provide pixel min/max area to pipeline.
+        // We restrict this to 24mm tape carrier having a 20.1mm max pocket size.
+        // See ANSI/EIA-48 1 -C p. 11.
+        double mm = VisionUtils.toPixels(new Length(1, LengthUnit.Millimeters), camera);
+        Integer minArea = (int) (0.8*mm*1*mm); // 2mm pitch punched paper carrier tape (0402). 
+        Integer maxArea = (int) (21*mm*21*mm); // 24mm tape carrier.
+        // feeder specific
+        double nominalArea = VisionUtils.toPixels(feeder.getPocketPitch(), camera)
+         *VisionUtils.toPixels(feeder.getPocketSize(), camera);
+        Integer minArea = (int) (0.75*nominalArea); 
+        Integer maxArea = (int) (1.25*nominalArea); 
+        pipeline.setProperty("FilterContours.minArea", minArea);
+        pipeline.setProperty("FilterContours.maxArea", maxArea);
+         */
+    }
+
     public boolean isCalibrating() {
         return calibrating;
     }
@@ -2644,14 +2721,11 @@ public class BlindsFeeder extends ReferenceFeeder {
     }
 
     private static CvPipeline createDefaultPipeline() {
-        try {
-            String xml = IOUtils.toString(BlindsFeeder.class
-                    .getResource("BlindsFeeder-DefaultPipeline.xml"));
-            return new CvPipeline(xml);
-        }
-        catch (Exception e) {
-            throw new Error(e);
-        }
+        return CvPipelineTemplates.create(getPipelineTemplate());
+    }
+
+    private static String getPipelineTemplate() {
+        return CvPipelineTemplates.getTemplateId(BlindsFeeder.class, "BlindsFeeder-DefaultPipeline.xml");
     }
 
 }
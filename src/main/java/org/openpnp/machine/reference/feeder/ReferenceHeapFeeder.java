@@ -1,13 +1,12 @@
 package org.openpnp.machine.reference.feeder;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.Action;
 
-import org.apache.commons.io.IOUtils;
 import org.opencv.core.RotatedRect;
 import org.openpnp.ConfigurationListener;
-import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.ReferenceFeeder;
 import org.openpnp.machine.reference.ReferenceNozzle;
@@ -29,15 +28,18 @@ import org.openpnp.spi.NozzleTip;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.util.IdentifiableList;
 import org.openpnp.util.MovableUtils;
-import org.openpnp.util.OpenCvUtils;
+import org.openpnp.util.VisionResultPublisher;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
+import org.openpnp.vision.pipeline.CvPipelineTemplates;
 import org.openpnp.vision.pipeline.CvStage.Result;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
 import org.simpleframework.xml.ElementList;
+import org.simpleframework.xml.ElementMap;
 import org.simpleframework.xml.Root;
 import org.simpleframework.xml.core.Commit;
+import org.simpleframework.xml.core.Complete;
 import org.simpleframework.xml.core.Persist;
 
 /**
@@ -109,13 +111,30 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
      * Pipeline to detect parts (correct laying).
      */
     @Element(required = false)
-    private CvPipeline feederPipeline = HeapFeederHelper.createPipeline("Part", dropBox);
+    private CvPipeline feederPipeline;
 
     /**
      * Pipeline for getting a reference image.
      */
     @Element(required = false)
-    private CvPipeline trainingPipeline = HeapFeederHelper.createPipeline("Training", dropBox);
+    private CvPipeline trainingPipeline;
+
+    /**
+     * The stock pipeline templates, if the pipelines are unmodified and therefore not stored inline.
+     * The pipelines are then only instantiated on first use.
+     */
+    @Attribute(required = false)
+    private String feederPipelineTemplate;
+    @Attribute(required = false)
+    private String trainingPipelineTemplate;
+    private CvPipeline persistedFeederPipeline;
+    private CvPipeline persistedTrainingPipeline;
+
+    /**
+     * Assigned values of the parameter stages of the feeder pipeline.
+     */
+    @ElementMap(required = false)
+    private Map<String, Object> pipelineParameterAssignments;
     
     /**
      * feed strategy
@@ -130,7 +149,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
      * After loading the configuration, set the dropBox with the stored id.
      */
     @Commit
-    public void commit() {
+    public void commit() throws Exception {
         Configuration.get().addListener(new ConfigurationListener() {
             @Override
             public void configurationComplete(Configuration configuration) throws Exception {
@@ -142,14 +161,65 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
                 // do nothing
             }
         });
+        if (feederPipeline == null && feederPipelineTemplate != null
+                && !CvPipelineTemplates.exists(feederPipelineTemplate)) {
+            throw new Exception("Feeder " + getId() + " references the unknown pipeline template " + feederPipelineTemplate + ".");
+        }
+        if (trainingPipeline == null && trainingPipelineTemplate != null
+                && !CvPipelineTemplates.exists(trainingPipelineTemplate)) {
+            throw new Exception("Feeder " + getId() + " references the unknown pipeline template " + trainingPipelineTemplate + ".");
+        }
+        // Drop loaded pipelines that are equal to a stock template, they are instantiated again on first use.
+        if (feederPipeline != null) {
+            feederPipelineTemplate = CvPipelineTemplates.findTemplate(feederPipeline,
+                    HeapFeederHelper.getPipelineTemplates("Part"));
+            if (feederPipelineTemplate != null) {
+                feederPipeline = null;
+            }
+        }
+        if (trainingPipeline != null) {
+            trainingPipelineTemplate = CvPipelineTemplates.findTemplate(trainingPipeline,
+                    HeapFeederHelper.getPipelineTemplates("Training"));
+            if (trainingPipelineTemplate != null) {
+                trainingPipeline = null;
+            }
+        }
     }
 
     /**
-     * on save set/update the DropBoxId.
+     * on save set/update the DropBoxId and store unmodified pipelines as template references only.
      */
     @Persist
     public void persist() {
         dropBoxId = getDropBox().getId();
+        if (feederPipeline != null) {
+            feederPipelineTemplate = CvPipelineTemplates.findTemplate(feederPipeline,
+                    HeapFeederHelper.getPipelineTemplates("Part"));
+            if (feederPipelineTemplate != null) {
+                persistedFeederPipeline = feederPipeline;
+                feederPipeline = null;
+            }
+        }
+        if (trainingPipeline != null) {
+            trainingPipelineTemplate = CvPipelineTemplates.findTemplate(trainingPipeline,
+                    HeapFeederHelper.getPipelineTemplates("Training"));
+            if (trainingPipelineTemplate != null) {
+                persistedTrainingPipeline = trainingPipeline;
+                trainingPipeline = null;
+            }
+        }
+    }
+
+    @Complete
+    public void complete() {
+        if (persistedFeederPipeline != null) {
+            feederPipeline = persistedFeederPipeline;
+            persistedFeederPipeline = null;
+        }
+        if (persistedTrainingPipeline != null) {
+            trainingPipeline = persistedTrainingPipeline;
+            persistedTrainingPipeline = null;
+        }
     }
 
     /**
@@ -498,6 +568,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
     private Location getFeederPart(Nozzle nozzle) throws Exception {
         Location location = dropBox.centerBottomLocation.derive(new Location(LengthUnit.Millimeters, 0, 0, 0, 0), false, false, false, true);
         CvPipeline pipeline = getFeederPipeline();
+        pipeline.addProperties(getPipelineParameterAssignments());
         Camera camera = nozzle.getHead().getDefaultCamera();
         // if there is a part, get a precise location
         for (int i = 0; i < 3 && location != null; i++) {
@@ -509,11 +580,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
                         + part.getHeight().convertToUnits(location.getUnits()).getValue(), 0), false, false, true, false);
             }
         }
-        MainFrame.get()
-        .getCameraViews()
-        .getCameraView(camera)
-        .showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()),
-                500);
+        VisionResultPublisher.publish(camera, pipeline.getWorkingImage(), 500);
         return location;
     }
 
@@ -544,7 +611,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
     }
     
     public void resetFeederPipeline() {
-        feederPipeline = HeapFeederHelper.createPipeline("Part", dropBox);
+        setFeederPipeline(HeapFeederHelper.createPipeline("Part", dropBox));
     }
 
     public void resetTrainingPipeline() {
@@ -607,17 +674,34 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
         this.requiredVacuumDifference = requiredVacuumDifference;
     }
     public CvPipeline getFeederPipeline() {
+        if (feederPipeline == null) {
+            feederPipeline = CvPipelineTemplates.create(feederPipelineTemplate != null ?
+                    feederPipelineTemplate : HeapFeederHelper.getPipelineTemplate("Part", "GREEN"));
+        }
         return feederPipeline;
     }
     public void setFeederPipeline(CvPipeline feederPipeline) {
+        Object oldValue = this.feederPipeline;
         this.feederPipeline = feederPipeline;
+        firePropertyChange("feederPipeline", oldValue, feederPipeline);
     }
     public CvPipeline getTrainingPipeline() {
+        if (trainingPipeline == null) {
+            trainingPipeline = CvPipelineTemplates.create(trainingPipelineTemplate != null ?
+                    trainingPipelineTemplate : HeapFeederHelper.getPipelineTemplate("Training", "GREEN"));
+        }
         return trainingPipeline;
     }
     public void setTrainingPipeline(CvPipeline trainingPipeline) {
         this.trainingPipeline = trainingPipeline;
     }
+    public Map<String, Object> getPipelineParameterAssignments() {
+        return pipelineParameterAssignments;
+    }
+    public void setPipelineParameterAssignments(Map<String, Object> pipelineParameterAssignments) {
+        this.pipelineParameterAssignments = pipelineParameterAssignments;
+        firePropertyChange("pipelineParameterAssignments", null, pipelineParameterAssignments);
+    }
     public DropBox getDropBox() {
         if (dropBox == null) {
             dropBox = getDropBoxes().get(getDropBoxes().size() - 1);
@@ -676,8 +760,16 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
         /**
          * The pipeline to detect all parts in a DropBox, should detect everything, despite orientation, wrong part and so on.
          */
-        @Element
-        private CvPipeline partPipeline = HeapFeederHelper.createPipeline("DropBox", this);
+        @Element(required = false)
+        private CvPipeline partPipeline;
+
+        /**
+         * The stock pipeline template, if the pipeline is unmodified and therefore not stored inline.
+         * The pipeline is then only instantiated on first use.
+         */
+        @Attribute(required = false)
+        private String partPipelineTemplate;
+        private CvPipeline persistedPartPipeline;
         
         /**
          * Center (xy) and bottom (z) of the DropBox
@@ -723,7 +815,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
          * Get the object reference for the dummy part after configuration load
          */
         @Commit
-        public void commit() {
+        public void commit() throws Exception {
             Configuration.get().addListener(new ConfigurationListener() {
                 @Override
                 public void configurationComplete(Configuration configuration) throws Exception {
@@ -736,6 +828,18 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
                     // do nothing
                 }
             });
+            if (partPipeline == null && partPipelineTemplate != null
+                    && !CvPipelineTemplates.exists(partPipelineTemplate)) {
+                throw new Exception("DropBox " + getId() + " references the unknown pipeline template " + partPipelineTemplate + ".");
+            }
+            // Drop a loaded pipeline that is equal to a stock template, it is instantiated again on first use.
+            if (partPipeline != null) {
+                partPipelineTemplate = CvPipelineTemplates.findTemplate(partPipeline,
+                        HeapFeederHelper.getPipelineTemplates("DropBox"));
+                if (partPipelineTemplate != null) {
+                    partPipeline = null;
+                }
+            }
         }
 
         /**
@@ -748,6 +852,23 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
             } else {
                 dummyPartIdForUnknown = dummyPartForUnknown.getId();
             }
+            // Only store the template reference, if the pipeline is unmodified.
+            if (partPipeline != null) {
+                partPipelineTemplate = CvPipelineTemplates.findTemplate(partPipeline,
+                        HeapFeederHelper.getPipelineTemplates("DropBox"));
+                if (partPipelineTemplate != null) {
+                    persistedPartPipeline = partPipeline;
+                    partPipeline = null;
+                }
+            }
+        }
+
+        @Complete
+        public void complete() {
+            if (persistedPartPipeline != null) {
+                partPipeline = persistedPartPipeline;
+                persistedPartPipeline = null;
+            }
         }
 
         /**
@@ -873,11 +994,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
                         throw new Exception("DropBox " + getName() + ": Part is not detected again, check Pipeline");
                     }
                 }
-                MainFrame.get()
-                .getCameraViews()
-                .getCameraView(camera)
-                .showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()),
-                        500);
+                VisionResultPublisher.publish(camera, pipeline.getWorkingImage(), 500);
             }
             return partLocation;
         }
@@ -893,6 +1010,10 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
         }
 
         public CvPipeline getPartPipeline() {
+            if (partPipeline == null) {
+                partPipeline = CvPipelineTemplates.create(partPipelineTemplate != null ?
+                        partPipelineTemplate : HeapFeederHelper.getPipelineTemplate("DropBox", "GREEN"));
+            }
             return partPipeline;
         }
 
@@ -1007,11 +1128,7 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
                 return null;
             }
             
-            MainFrame.get()
-            .getCameraViews()
-            .getCameraView(camera)
-            .showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()),
-                    250);
+            VisionResultPublisher.publish(camera, pipeline.getWorkingImage(), 250);
 
 
             return location;
@@ -1019,6 +1136,10 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
 
         
         static CvPipeline createPipeline(String type, DropBox dropBox) {
+            return CvPipelineTemplates.create(getPipelineTemplate(type, dropBox));
+        }
+
+        static String getPipelineTemplate(String type, DropBox dropBox) {
             String dropBoxColor = "GREEN";  // default
             if (dropBox  != null && dropBox.getName() != null) {
                 dropBoxColor = dropBox.getName().toUpperCase();
@@ -1026,15 +1147,24 @@ public class ReferenceHeapFeeder extends ReferenceFeeder {
             if (! (dropBoxColor.equals("GREEN") || dropBoxColor.equals("WHITE") || dropBoxColor.equals("BLACK") ) ) {
                 dropBoxColor = "GREEN"; // default if color could not be guessed from name
             }
+            return getPipelineTemplate(type, dropBoxColor);
+        }
+
+        static String getPipelineTemplate(String type, String dropBoxColor) {
             String ressource = "HeapFeeder-" + type + "-" + dropBoxColor + "-Pipeline.xml";
-            try {
-                String xml = IOUtils.toString(ReferenceHeapFeeder.class
-                        .getResource(ressource));
-                return new CvPipeline(xml);
-            }
-            catch (Exception e) {
-                throw new Error(e);
-            }       
+            return CvPipelineTemplates.getTemplateId(ReferenceHeapFeeder.class, ressource);
+        }
+
+        /**
+         * @param type
+         * @return The templates of the given type for all the DropBox colors.
+         */
+        static String[] getPipelineTemplates(String type) {
+            return new String[] {
+                    getPipelineTemplate(type, "GREEN"),
+                    getPipelineTemplate(type, "WHITE"),
+                    getPipelineTemplate(type, "BLACK")
+            };
         }
         
         /**
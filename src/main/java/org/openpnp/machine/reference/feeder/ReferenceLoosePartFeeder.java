@@ -25,7 +25,6 @@ import javax.swing.Action;
 
 import org.apache.commons.io.IOUtils;
 import org.opencv.core.RotatedRect;
-import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.ReferenceFeeder;
@@ -35,7 +34,7 @@ import org.openpnp.spi.Camera;
 import org.openpnp.spi.Nozzle;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.util.MovableUtils;
-import org.openpnp.util.OpenCvUtils;
+import org.openpnp.util.VisionResultPublisher;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.simpleframework.xml.Element;
@@ -62,11 +61,7 @@ public class ReferenceLoosePartFeeder extends ReferenceFeeder {
                 pickLocation = getPickLocation(pipeline, camera, nozzle);
                 camera.moveTo(pickLocation.derive(null, null, null, 0.0));
             }
-            MainFrame.get()
-                     .getCameraViews()
-                     .getCameraView(camera)
-                     .showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()),
-                             1000);
+            VisionResultPublisher.publish(camera, pipeline.getWorkingImage(), 1000);
         }
     }
 
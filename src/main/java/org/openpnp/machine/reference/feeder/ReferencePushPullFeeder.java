@@ -23,9 +23,11 @@ package org.openpnp.machine.reference.feeder;
 
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.Action;
 
@@ -61,10 +63,14 @@ import org.openpnp.util.MovableUtils;
 import org.openpnp.util.OcrUtils;
 import org.openpnp.util.TravellingSalesman;
 import org.openpnp.vision.pipeline.CvPipeline;
+import org.openpnp.vision.pipeline.CvPipelineTemplates;
 import org.openpnp.vision.pipeline.stages.SimpleOcr;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
+import org.simpleframework.xml.ElementMap;
+import org.simpleframework.xml.core.Commit;
+import org.simpleframework.xml.core.Complete;
 import org.simpleframework.xml.core.Persist;
 
 public class ReferencePushPullFeeder extends ReferenceFeeder {
@@ -176,9 +182,18 @@ public class ReferencePushPullFeeder extends ReferenceFeeder {
     private long feedCount = 0;
 
     @Element(required = false)
-    private CvPipeline pipeline = FeederVisionHelper.createDefaultPipeline(PipelineType.ColorKeyed);
+    private CvPipeline pipeline;
+    /**
+     * The stock pipeline template, if the pipeline is unmodified and therefore not stored inline.
+     * The pipeline is then only instantiated on first use.
+     */
+    @Attribute(required = false)
+    private String pipelineTemplate;
+    private CvPipeline persistedPipeline;
     @Attribute(required = false)
     protected PipelineType pipelineType = PipelineType.ColorKeyed;
+    @ElementMap(required = false)
+    private Map<String, Object> pipelineParameterAssignments;
 
     @Attribute(required = false)
     protected String ocrFontName = "Liberation Mono";
@@ -300,11 +315,47 @@ public class ReferencePushPullFeeder extends ReferenceFeeder {
         });
     }
 
+    @Commit
+    private void commit() throws Exception {
+        if (pipeline == null && pipelineTemplate != null && !CvPipelineTemplates.exists(pipelineTemplate)) {
+            throw new Exception("Feeder " + getId() + " references the unknown pipeline template " + pipelineTemplate + ".");
+        }
+        // Drop a loaded pipeline that is equal to a stock template, it is instantiated again on first use.
+        if (pipeline != null) {
+            pipelineTemplate = CvPipelineTemplates.findTemplate(pipeline, getPipelineTemplates());
+            if (pipelineTemplate != null) {
+                pipeline = null;
+            }
+        }
+    }
+
     @Persist
     private void persist() {
         // Make sure the newest names are persisted (legacy way).
         actuatorName = (actuator == null ? null : actuator.getName()); 
         peelOffActuatorName = (actuator2 == null ? null : actuator2.getName()); 
+        // Only store the template reference, if the pipeline is unmodified.
+        if (pipeline != null) {
+            pipelineTemplate = CvPipelineTemplates.findTemplate(pipeline, getPipelineTemplates());
+            if (pipelineTemplate != null) {
+                persistedPipeline = pipeline;
+                pipeline = null;
+            }
+        }
+    }
+
+    @Complete
+    private void complete() {
+        if (persistedPipeline != null) {
+            pipeline = persistedPipeline;
+            persistedPipeline = null;
+        }
+    }
+
+    private static String[] getPipelineTemplates() {
+        return Arrays.stream(PipelineType.values())
+                .map(type -> FeederVisionHelper.getPipelineTemplate(type))
+                .toArray(String[]::new);
     }
 
     public Camera getCamera() throws Exception {
@@ -1105,11 +1156,26 @@ public class ReferencePushPullFeeder extends ReferenceFeeder {
 
 
     public CvPipeline getPipeline() {
+        if (pipeline == null) {
+            pipeline = CvPipelineTemplates.create(pipelineTemplate != null ?
+                    pipelineTemplate : FeederVisionHelper.getPipelineTemplate(PipelineType.ColorKeyed));
+        }
         return pipeline;
     }
 
     public void setPipeline(CvPipeline pipeline) {
+        Object oldValue = this.pipeline;
         this.pipeline = pipeline;
+        firePropertyChange("pipeline", oldValue, pipeline);
+    }
+
+    public Map<String, Object> getPipelineParameterAssignments() {
+        return pipelineParameterAssignments;
+    }
+
+    public void setPipelineParameterAssignments(Map<String, Object> pipelineParameterAssignments) {
+        this.pipelineParameterAssignments = pipelineParameterAssignments;
+        firePropertyChange("pipelineParameterAssignments", null, pipelineParameterAssignments);
     }
 
     public PipelineType getPipelineType() {
@@ -1140,7 +1206,7 @@ public class ReferencePushPullFeeder extends ReferenceFeeder {
     }
 
     public void resetPipeline(PipelineType type) {
-        pipeline = FeederVisionHelper.createDefaultPipeline(type);
+        setPipeline(FeederVisionHelper.createDefaultPipeline(type));
         setPipelineType(type);
     }
 
@@ -1190,33 +1256,7 @@ public class ReferencePushPullFeeder extends ReferenceFeeder {
             if (clone) {
                 pipeline = pipeline.clone();
             }
-            pipeline.setProperty("camera", camera);
-            pipeline.setProperty("feeder", this);
-            pipeline.setProperty("sprocketHole.diameter", new Length(sprocketHoleDiameterMm, LengthUnit.Millimeters));
-            Length range;
-            if (autoSetup) {
-                // Auto-Setup: search range is set to be full camera resolution (bigger dimension is used)
-                // to be able to detect sprocket holes at the edge of the image. Search range defines circle's
-                // radius with origin in center. Full resolution is used as radius to cover image corners.
-                Location upp = camera.getUnitsPerPixelAtZ();
-                range = camera.getWidth() > camera.getHeight() ?
-                        upp.getLengthX().multiply(camera.getHeight())
-                        : upp.getLengthY().multiply(camera.getWidth());
-            }
-            else {
-                // Normal mode: search range is half the distance between the holes plus one pitch. 
-                range = getHole1Location().getLinearLengthTo(getHole2Location())
-                        .multiply(0.5)
-                        .add(new Length(sprocketHolePitchMm, LengthUnit.Millimeters));
-            }
-            pipeline.setProperty("sprocketHole.maxDistance", range);
-            if (performOcr && getOcrRegion() != null) {
-                setupOcr(camera, pipeline);
-            }
-            else {
-                disableOcr(camera, pipeline);
-            }
-
+            preparePipeline(pipeline, getPipelineParameterAssignments(), camera, performOcr, autoSetup);
             return pipeline;
         }
         catch (CloneNotSupportedException e) {
@@ -1224,6 +1264,46 @@ public class ReferencePushPullFeeder extends ReferenceFeeder {
         }
     }
 
+    /**
+     * Set the pipeline properties for the vision operations of this feeder.
+     * 
+     * @param pipeline
+     * @param pipelineParameterAssignments
+     * @param camera
+     * @param performOcr
+     * @param autoSetup
+     */
+    public void preparePipeline(CvPipeline pipeline, Map<String, Object> pipelineParameterAssignments, 
+            Camera camera, boolean performOcr, boolean autoSetup) {
+        pipeline.addProperties(pipelineParameterAssignments);
+        pipeline.setProperty("camera", camera);
+        pipeline.setProperty("feeder", this);
+        pipeline.setProperty("sprocketHole.diameter", new Length(sprocketHoleDiameterMm, LengthUnit.Millimeters));
+        Length range;
+        if (autoSetup) {
+            // Auto-Setup: search range is set to be full camera resolution (bigger dimension is used)
+            // to be able to detect sprocket holes at the edge of the image. Search range defines circle's
+            // radius with origin in center. Full resolution is used as radius to cover image corners.
+            Location upp = camera.getUnitsPerPixelAtZ();
+            range = camera.getWidth() > camera.getHeight() ?
+                    upp.getLengthX().multiply(camera.getHeight())
+                    : upp.getLengthY().multiply(camera.getWidth());
+        }
+        else {
+            // Normal mode: search range is half the distance between the holes plus one pitch. 
+            range = getHole1Location().getLinearLengthTo(getHole2Location())
+                    .multiply(0.5)
+                    .add(new Length(sprocketHolePitchMm, LengthUnit.Millimeters));
+        }
+        pipeline.setProperty("sprocketHole.maxDistance", range);
+        if (performOcr && getOcrRegion() != null) {
+            setupOcr(camera, pipeline);
+        }
+        else {
+            disableOcr(camera, pipeline);
+        }
+    }
+
     public void showFeatures() throws Exception {
         Camera camera = getCamera();
         ensureCameraZ(camera, true);
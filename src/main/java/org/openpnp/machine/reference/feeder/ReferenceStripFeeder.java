@@ -22,12 +22,11 @@ package org.openpnp.machine.reference.feeder;
 
 
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.Action;
 
-import org.apache.commons.io.IOUtils;
 import org.openpnp.ConfigurationListener;
-import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.support.Wizard;
 import org.openpnp.machine.reference.ReferenceFeeder;
 import org.openpnp.machine.reference.feeder.wizards.ReferenceStripFeederConfigurationWizard;
@@ -43,14 +42,17 @@ import org.openpnp.spi.Machine;
 import org.openpnp.spi.MachineListener;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.util.MovableUtils;
-import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.Utils2D;
+import org.openpnp.util.VisionResultPublisher;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
+import org.openpnp.vision.pipeline.CvPipelineTemplates;
 import org.openpnp.vision.pipeline.CvStage;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
+import org.simpleframework.xml.ElementMap;
 import org.simpleframework.xml.core.Commit;
+import org.simpleframework.xml.core.Complete;
 import org.simpleframework.xml.core.Persist;
 
 
@@ -113,7 +115,18 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
     private boolean visionEnabled = true;
 
     @Element(required = false)
-    private CvPipeline pipeline = createDefaultPipeline();
+    private CvPipeline pipeline;
+
+    /**
+     * The stock pipeline template, if the pipeline is unmodified and therefore not stored inline.
+     * The pipeline is then only instantiated on first use.
+     */
+    @Attribute(required = false)
+    private String pipelineTemplate;
+    private CvPipeline persistedPipeline;
+
+    @ElementMap(required = false)
+    private Map<String, Object> pipelineParameterAssignments;
 
     @Attribute
     private int feedCount = 0;
@@ -431,6 +444,7 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
             Integer pxMaxDiameter = (int) VisionUtils.toPixels(getHoleDiameterMax(), camera);
     
             // Process the pipeline to clean up the image and detect the tape holes
+            pipeline.addProperties(getPipelineParameterAssignments());
             pipeline.setProperty("camera", camera);
             pipeline.setProperty("feeder", this);
             pipeline.setProperty("DetectFixedCirclesHough.minDistance", pxMinDistance);
@@ -441,15 +455,7 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
             pipeline.setProperty("sprocketHole.maxDistance", getHolePitch().multiply(0.5));
             pipeline.process();
     
-            if (MainFrame.get() != null) {
-                try {
-                    MainFrame.get().getCameraViews().getCameraView(camera)
-                            .showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), 250);
-                }
-                catch (Exception e) {
-                    // if we aren't running in the UI this will fail, and that's okay
-                }
-            }
+            VisionResultPublisher.publish(camera, pipeline.getWorkingImage(), 250);
 
             // Grab the results
             List<CvStage.Result.Circle> results = pipeline.getExpectedResult(VisionUtils.PIPELINE_RESULTS_NAME)
@@ -512,11 +518,30 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
         
     
     public CvPipeline getPipeline() {
+        if (pipeline == null) {
+            pipeline = CvPipelineTemplates.create(pipelineTemplate != null ?
+                    pipelineTemplate : getPipelineTemplate());
+        }
         return pipeline;
     }
 
+    public void setPipeline(CvPipeline pipeline) {
+        Object oldValue = this.pipeline;
+        this.pipeline = pipeline;
+        firePropertyChange("pipeline", oldValue, pipeline);
+    }
+
     public void resetPipeline() {
-        pipeline = createDefaultPipeline();
+        setPipeline(createDefaultPipeline());
+    }
+
+    public Map<String, Object> getPipelineParameterAssignments() {
+        return pipelineParameterAssignments;
+    }
+
+    public void setPipelineParameterAssignments(Map<String, Object> pipelineParameterAssignments) {
+        this.pipelineParameterAssignments = pipelineParameterAssignments;
+        firePropertyChange("pipelineParameterAssignments", null, pipelineParameterAssignments);
     }
 
     private Length getHoleToPartLateral() {
@@ -639,7 +664,7 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
     }
 
     @Commit
-    void commit() {
+    void commit() throws Exception {
         if (standardEia481 == null) {
             // If loaded from old configuration, we must migrate it to the EIA-481-C industry 
             // standard rotation in tape, where tape 0° is with the sprocket holes on top.
@@ -647,12 +672,38 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
                     Utils2D.angleNorm(getLocation().getRotation() - 90, 180)));
             standardEia481 = true;
         }
+        if (pipeline == null && pipelineTemplate != null && !CvPipelineTemplates.exists(pipelineTemplate)) {
+            throw new Exception("Feeder " + getId() + " references the unknown pipeline template " + pipelineTemplate + ".");
+        }
+        // Drop a loaded pipeline that is equal to the stock template, it is instantiated again on first use.
+        if (pipeline != null) {
+            pipelineTemplate = CvPipelineTemplates.findTemplate(pipeline, getPipelineTemplate());
+            if (pipelineTemplate != null) {
+                pipeline = null;
+            }
+        }
     }
 
     @Persist
     private void persist() {
         // Make sure the EIA-481 flag is initialized before persisting.
         isStandardEia481(); // using side effect
+        // Only store the template reference, if the pipeline is unmodified.
+        if (pipeline != null) {
+            pipelineTemplate = CvPipelineTemplates.findTemplate(pipeline, getPipelineTemplate());
+            if (pipelineTemplate != null) {
+                persistedPipeline = pipeline;
+                pipeline = null;
+            }
+        }
+    }
+
+    @Complete
+    private void complete() {
+        if (persistedPipeline != null) {
+            pipeline = persistedPipeline;
+            persistedPipeline = null;
+        }
     }
 
     public boolean isStandardEia481() {
@@ -689,14 +740,11 @@ public class ReferenceStripFeeder extends ReferenceFeeder {
     }
 
     private static CvPipeline createDefaultPipeline() {
-        try {
-            String xml = IOUtils.toString(ReferenceStripFeeder.class
-                    .getResource("ReferenceStripFeeder-DefaultPipeline.xml"));
-            return new CvPipeline(xml);
-        }
-        catch (Exception e) {
-            throw new Error(e);
-        }
+        return CvPipelineTemplates.create(getPipelineTemplate());
+    }
+
+    private static String getPipelineTemplate() {
+        return CvPipelineTemplates.getTemplateId(ReferenceStripFeeder.class, "ReferenceStripFeeder-DefaultPipeline.xml");
     }
 }
 
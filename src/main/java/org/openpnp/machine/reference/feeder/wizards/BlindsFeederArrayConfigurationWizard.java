@@ -28,13 +28,13 @@ import java.awt.event.ItemListener;
 import java.io.File;
 import java.io.PrintWriter;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
-import javax.swing.JDialog;
 import javax.swing.JFileChooser;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -44,9 +44,9 @@ import javax.swing.border.TitledBorder;
 
 import org.apache.commons.io.IOUtils;
 import org.jdesktop.beansbinding.AutoBinding.UpdateStrategy;
-import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.components.ComponentDecorators;
 import org.openpnp.gui.components.LocationButtonsPanel;
+import org.openpnp.gui.components.PipelineControls;
 import org.openpnp.gui.support.AbstractConfigurationWizard;
 import org.openpnp.gui.support.DoubleConverter;
 import org.openpnp.gui.support.Icons;
@@ -54,12 +54,9 @@ import org.openpnp.gui.support.LengthConverter;
 import org.openpnp.gui.support.MutableLocationProxy;
 import org.openpnp.machine.reference.feeder.BlindsFeeder;
 import org.openpnp.model.Configuration;
-import org.openpnp.spi.Camera;
 import org.openpnp.util.OcrUtils;
 import org.openpnp.util.UiUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
-import org.openpnp.vision.pipeline.ui.CvPipelineEditor;
-import org.openpnp.vision.pipeline.ui.CvPipelineEditorDialog;
 import org.pmw.tinylog.Logger;
 
 import com.jgoodies.forms.layout.ColumnSpec;
@@ -89,6 +86,7 @@ public class BlindsFeederArrayConfigurationWizard extends AbstractConfigurationW
 
     private JButton btnCalibrateFiducials;
     private JButton btnPipelineToAllFeeders;
+    private PipelineControls pipelinePanel;
     private JButton btnExtractOpenscadModel;
 
     private JLabel lblOcrAction;
@@ -282,8 +280,6 @@ public class BlindsFeederArrayConfigurationWizard extends AbstractConfigurationW
         lblUseVision.setToolTipText("<html><p>Use vision for fiducial calibration when the feeder is first used. </p>\r\n<p>Even if fiducial vision is disabled, vision will still be used for setup and <br />\r\ncover open checking</p><html>");
         panelVision.add(lblUseVision, "2, 2, right, default");
 
-        JButton btnEditPipeline = new JButton(editPipelineAction);
-
         chckbxUseVision = new JCheckBox("");
         panelVision.add(chckbxUseVision, "4, 2");
 
@@ -332,14 +328,35 @@ public class BlindsFeederArrayConfigurationWizard extends AbstractConfigurationW
         panelVision.add(ocrFontSizePt, "8, 8, fill, default");
         ocrFontSizePt.setColumns(10);
 
-        panelVision.add(btnEditPipeline, "2, 12");
-
-        JButton btnResetPipeline = new JButton(resetPipelineAction);
-        panelVision.add(btnResetPipeline, "4, 12");
-
         btnPipelineToAllFeeders = new JButton(setPipelineToAllAction);
         btnPipelineToAllFeeders.setText("Set Pipeline to all");
-        panelVision.add(btnPipelineToAllFeeders, "8, 12");
+        panelVision.add(btnPipelineToAllFeeders, "8, 10");
+
+        pipelinePanel = new PipelineControls() {
+
+            @Override
+            public void configurePipeline(CvPipeline pipeline, Map<String, Object> pipelineParameterAssignments, boolean edit) throws Exception {
+                if (edit) {
+                    // Accept changes before edit.
+                    applyAction.actionPerformed(null);
+                    // Make sure we're editing a new common pipeline instance for all the feeders in this array.
+                    // The setPipeline() will make sure that all the feeders in the array have the same new clone referenced. 
+                    feeder.setPipeline(pipeline.clone());
+                    pipeline = feeder.getPipeline();
+                }
+                feeder.preparePipeline(pipeline, pipelineParameterAssignments, feeder.getCamera(), feeder.getOcrAction());
+                if (edit) {
+                    openPipelineEditor(feeder.getName() + " Pipeline", pipeline);
+                }
+            }
+
+            @Override
+            public void resetPipeline() throws Exception {
+                applyAction.actionPerformed(null);
+                feeder.resetPipeline();
+            }
+        };
+        panelVision.add(pipelinePanel, "1, 12, 12, 1, fill, fill");
 
     }
 
@@ -392,6 +409,8 @@ public class BlindsFeederArrayConfigurationWizard extends AbstractConfigurationW
         addWrappedBinding(feeder, "ocrFontName", ocrFontName, "selectedItem");
         addWrappedBinding(feeder, "ocrFontSizePt", ocrFontSizePt, "text", doubleConverter);
         addWrappedBinding(feeder, "ocrTextOrientation", ocrTextOrientation, "selectedItem");
+        bind(UpdateStrategy.READ_WRITE, feeder, "pipeline", pipelinePanel, "pipeline");
+        addWrappedBinding(feeder, "pipelineParameterAssignments", pipelinePanel, "pipelineParameterAssignments");
 
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldFiducial1X);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldFiducial1Y);
@@ -461,36 +480,6 @@ public class BlindsFeederArrayConfigurationWizard extends AbstractConfigurationW
         }
     };
 
-    private Action editPipelineAction =
-            new AbstractAction("Edit Pipeline") {
-        {
-            putValue(Action.SHORT_DESCRIPTION,
-                    "Edit the Pipeline to be used for all vision operations of this feeder.");
-        }
-
-        @Override
-        public void actionPerformed(ActionEvent e) {
-            UiUtils.messageBoxOnException(() -> {
-                editPipeline();
-            });
-        }
-    };
-
-    private Action resetPipelineAction =
-            new AbstractAction("Reset Pipeline") {
-        {
-            putValue(Action.SHORT_DESCRIPTION,
-                    "Reset the Pipeline for this feeder to the OpenPNP standard.");
-        }
-
-        @Override
-        public void actionPerformed(ActionEvent e) {
-            UiUtils.messageBoxOnException(() -> {
-                resetPipeline();
-            });
-        }
-    };
-
     private Action setOcrSettingsToAllAction =
             new AbstractAction("Set OCR Settings to all") {
         {
@@ -542,22 +531,6 @@ public class BlindsFeederArrayConfigurationWizard extends AbstractConfigurationW
         });
     }
 
-    private void editPipeline() throws Exception {
-        // Make sure we're editing a new common pipeline instance for all the feeders in this array.
-        // The setPipeline() will make sure that all the feeders in the array have the same new clone referenced. 
-        feeder.setPipeline(feeder.getPipeline().clone());
-        // Prepare and edit the pipeline.
-        Camera camera = feeder.getCamera();
-        CvPipeline pipeline = feeder.getCvPipeline(camera, false, feeder.getOcrAction());
-        CvPipelineEditor editor = new CvPipelineEditor(pipeline);
-        JDialog dialog = new CvPipelineEditorDialog(MainFrame.get(), feeder.getName() + " Pipeline", editor);
-        dialog.setVisible(true);
-    }
-
-    private void resetPipeline() {
-        feeder.resetPipeline();
-    }
-
     private void setOcrSettingsToAllFeeders() throws CloneNotSupportedException {
         feeder.setOcrSettingsToAllFeeders();
     }
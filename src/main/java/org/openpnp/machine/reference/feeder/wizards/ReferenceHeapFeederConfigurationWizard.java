@@ -28,6 +28,7 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Map;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -49,6 +50,7 @@ import org.jdesktop.beansbinding.Binding;
 import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.components.ComponentDecorators;
 import org.openpnp.gui.components.LocationButtonsPanel;
+import org.openpnp.gui.components.PipelineControls;
 import org.openpnp.gui.support.AbstractConfigurationWizard;
 import org.openpnp.gui.support.DoubleConverter;
 import org.openpnp.gui.support.IdentifiableComparator;
@@ -421,26 +423,42 @@ public class ReferenceHeapFeederConfigurationWizard
         chckbxPokeForParts.setToolTipText("If enabled the nozzle is lifted for each move inside the heap. Reduces the risk to damage (large) parts, but slower.");
         whateverPanel.add(chckbxPokeForParts, "8, 20");
         
-        lblDetectionPipeline = new JLabel("Detection Pipeline");
-        whateverPanel.add(lblDetectionPipeline, "2, 22");
-        
-        btnEditDetectionPipeline = new JButton(actionPipelineEditFeeder);
-        whateverPanel.add(btnEditDetectionPipeline, "4, 22");
-        
-        btnResetDetectionPipeline = new JButton(actionPipelineResetFeeder);
-        whateverPanel.add(btnResetDetectionPipeline, "6, 22");
-        
         lblTemplatePipeline = new JLabel("Template Pipeline");
-        whateverPanel.add(lblTemplatePipeline, "2, 24");
+        whateverPanel.add(lblTemplatePipeline, "2, 22");
         
         btnEditTemplatePipeline = new JButton(actionPipelineEditTraining);
-        whateverPanel.add(btnEditTemplatePipeline, "4, 24");
+        whateverPanel.add(btnEditTemplatePipeline, "4, 22");
         
         btnResetTemplatePipeline = new JButton(actionPipelineResetTraining);
-        whateverPanel.add(btnResetTemplatePipeline, "6, 24");
+        whateverPanel.add(btnResetTemplatePipeline, "6, 22");
         
         btnGetSamples = new JButton(actionGetSamples);
-        whateverPanel.add(btnGetSamples, "10, 24");
+        whateverPanel.add(btnGetSamples, "10, 22");
+        
+        detectionPipelinePanel = new PipelineControls() {
+
+            @Override
+            public void configurePipeline(CvPipeline pipeline, Map<String, Object> pipelineParameterAssignments, boolean edit) throws Exception {
+                if (edit) {
+                    // Accept changes before edit.
+                    applyAction.actionPerformed(null);
+                }
+                pipeline.addProperties(pipelineParameterAssignments);
+                pipeline.setProperty("camera", Configuration.get().getMachine().getDefaultHead().getDefaultCamera());
+                pipeline.setProperty("feeder", feeder);
+                if (edit) {
+                    openPipelineEditor(feeder.getPart().getId() + " Feeder-Pipeline", pipeline);
+                }
+            }
+
+            @Override
+            public void resetPipeline() throws Exception {
+                applyAction.actionPerformed(null);
+                feeder.resetFeederPipeline();
+            }
+        };
+        detectionPipelinePanel.setBorder(new TitledBorder(null, "Detection Pipeline", TitledBorder.LEADING, TitledBorder.TOP, null, null));
+        whateverPanel.add(detectionPipelinePanel, "1, 24, 11, 1, fill, fill");
     }
 
     @Override
@@ -458,6 +476,8 @@ public class ReferenceHeapFeederConfigurationWizard
         addWrappedBinding(feeder, "requiredVacuumDifference", vacuumDifferenceTf, "text", intConverter);
         addWrappedBinding(feeder, "part", partCb, "selectedItem");
         addWrappedBinding(feeder, "pokeForParts", chckbxPokeForParts, "selected");
+        bind(UpdateStrategy.READ_WRITE, feeder, "feederPipeline", detectionPipelinePanel, "pipeline");
+        addWrappedBinding(feeder, "pipelineParameterAssignments", detectionPipelinePanel, "pipelineParameterAssignments");
 
 
         ComponentDecorators.decorateWithAutoSelect(retryCountTf);
@@ -561,34 +581,6 @@ public class ReferenceHeapFeederConfigurationWizard
         });
     }
 
-    private void editFeederPipeline() throws Exception {
-        CvPipeline pipeline = feeder.getFeederPipeline();
-        pipeline.setProperty("camera", Configuration.get().getMachine().getDefaultHead().getDefaultCamera());
-        pipeline.setProperty("feeder", feeder);
-        CvPipelineEditor editor = new CvPipelineEditor(pipeline);
-        JDialog dialog = new CvPipelineEditorDialog(MainFrame.get(), feeder.getPart().getId() + " Feeder-Pipeline", editor);
-        dialog.setVisible(true);
-}
-
-    private Action actionPipelineEditFeeder = new AbstractAction("Edit") {
-        @Override
-        public void actionPerformed(ActionEvent e) {
-            UiUtils.messageBoxOnException(() -> {
-                editFeederPipeline();
-            });
-        }
-    };
-    
-    private Action actionPipelineResetFeeder = new AbstractAction("Reset") {
-        @Override
-        public void actionPerformed(ActionEvent e) {
-            UiUtils.messageBoxOnException(() -> {
-                feeder.resetFeederPipeline();
-            });
-        }
-    };
-
-    
     private void editTrainingPipeline() throws Exception {
         CvPipeline pipeline = feeder.getTrainingPipeline();
         pipeline.setProperty("camera", Configuration.get().getMachine().getDefaultHead().getDefaultCamera());
@@ -733,11 +725,9 @@ public class ReferenceHeapFeederConfigurationWizard
     private JButton btnResetLastFeedDepth;
     private JLabel lblVacuumDifference;
     private JTextField vacuumDifferenceTf;
-    private JLabel lblDetectionPipeline;
     private JLabel lblTemplatePipeline;
-    private JButton btnEditDetectionPipeline;
     private JButton btnEditTemplatePipeline;
-    private JButton btnResetDetectionPipeline;
+    private PipelineControls detectionPipelinePanel;
     private JButton btnResetTemplatePipeline;
     private JLabel lblPartsPipeline;
     private JLabel lblDummyPart;
@@ -23,10 +23,10 @@ package org.openpnp.machine.reference.feeder.wizards;
 
 import java.awt.Dimension;
 import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.AbstractAction;
 import javax.swing.Action;
@@ -34,7 +34,6 @@ import javax.swing.BoxLayout;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
-import javax.swing.JDialog;
 import javax.swing.JEditorPane;
 import javax.swing.JLabel;
 import javax.swing.JOptionPane;
@@ -50,6 +49,7 @@ import org.openpnp.events.FeederSelectedEvent;
 import org.openpnp.gui.MainFrame;
 import org.openpnp.gui.components.ComponentDecorators;
 import org.openpnp.gui.components.LocationButtonsPanel;
+import org.openpnp.gui.components.PipelineControls;
 import org.openpnp.gui.processes.RegionOfInterestProcess;
 import org.openpnp.gui.support.DoubleConverter;
 import org.openpnp.gui.support.Icons;
@@ -68,8 +68,6 @@ import org.openpnp.util.MovableUtils;
 import org.openpnp.util.OcrUtils;
 import org.openpnp.util.UiUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
-import org.openpnp.vision.pipeline.ui.CvPipelineEditor;
-import org.openpnp.vision.pipeline.ui.CvPipelineEditorDialog;
 import org.pmw.tinylog.Logger;
 
 import com.jgoodies.forms.layout.ColumnSpec;
@@ -333,6 +331,8 @@ extends AbstractReferenceFeederConfigurationWizard {
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,}));
 
         lblCalibrationTrigger = new JLabel("Calibration Trigger");
@@ -412,12 +412,6 @@ extends AbstractReferenceFeederConfigurationWizard {
         panelVisionEnabled.add(textFieldFontSizePt, "10, 10");
         textFieldFontSizePt.setColumns(10);
 
-        btnEditPipeline = new JButton(editPipelineAction);
-        btnEditPipeline.addActionListener(new ActionListener() {
-            public void actionPerformed(ActionEvent e) {
-            }
-        });
-
         btnSetPartByOcr = new JButton(performOcrAction);
         panelVisionEnabled.add(btnSetPartByOcr, "12, 10, 3, 1");
 
@@ -430,18 +424,44 @@ extends AbstractReferenceFeederConfigurationWizard {
 
         btnOcrAllFeeders = new JButton(allFeederOcrAction);
         panelVisionEnabled.add(btnOcrAllFeeders, "12, 12, 3, 1");
-        panelVisionEnabled.add(btnEditPipeline, "2, 16");
 
         lblVisionType = new JLabel("Vision Type");
         lblVisionType.setToolTipText("<html>\r\n<p>Choose the vision type, then press <strong>Reset Pipeline</strong> to assign the<br/>\r\ndefault pipeline of that type. Sprocket holes are detected as follows:</p>\r\n<ul>\r\n<li><strong>ColorKeyed</strong>: the background under the holes must be of a vivid color<br/>\r\n(green by default).</li>\r\n<li><strong>CircularSymmetry</strong>: the shape of the holes must be circular, their<br/>\r\ninside/outside must be plain.</li>\r\n</ul>\r\n<p>Both types of pipeline will further assess detected holes by size, alignment, pitch<br/>\r\nand expected distance.</p>\r\n</html>");
-        panelVisionEnabled.add(lblVisionType, "8, 16, right, default");
+        panelVisionEnabled.add(lblVisionType, "2, 16, right, default");
 
         pipelineType = new JComboBox(PipelineType.values());
 
-        panelVisionEnabled.add(pipelineType, "10, 16, fill, default");
+        panelVisionEnabled.add(pipelineType, "4, 16, fill, default");
+
+        pipelinePanel = new PipelineControls() {
 
-        btnResetPipeline = new JButton(resetPipelineAction);
-        panelVisionEnabled.add(btnResetPipeline, "12, 16, 3, 1");
+            @Override
+            public void configurePipeline(CvPipeline pipeline, Map<String, Object> pipelineParameterAssignments, boolean edit) throws Exception {
+                if (edit) {
+                    // Accept changes before edit.
+                    applyAction.actionPerformed(null);
+                }
+                feeder.preparePipeline(pipeline, pipelineParameterAssignments, feeder.getCamera(), true, edit);
+                if (edit) {
+                    openPipelineEditor(feeder.getName() + " Pipeline", pipeline, 
+                            "move the camera to the proper feeder vision location before editing the pipeline", 
+                            feeder.getCamera(), feeder.getNominalVisionLocation());
+                }
+            }
+
+            @Override
+            public void resetPipeline() throws Exception {
+                PipelineType type = (PipelineType) pipelineType.getSelectedItem();
+                int result = JOptionPane.showConfirmDialog(getTopLevelAncestor(),
+                        "This will reset the pipeline to the "+type+" type default. Are you sure?",
+                        null, JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
+                if (result == JOptionPane.YES_OPTION) {
+                    applyAction.actionPerformed(null);
+                    feeder.resetPipeline(type);
+                }
+            }
+        };
+        panelVisionEnabled.add(pipelinePanel, "1, 18, 14, 1, fill, fill");
 
         contentPanel.add(panelFields);
 
@@ -603,6 +623,8 @@ extends AbstractReferenceFeederConfigurationWizard {
         addWrappedBinding(feeder, "ocrFontName", comboBoxFontName, "selectedItem");
         addWrappedBinding(feeder, "ocrFontSizePt", textFieldFontSizePt, "text", doubleConverter);
         addWrappedBinding(feeder, "pipelineType", pipelineType, "selectedItem");
+        bind(UpdateStrategy.READ_WRITE, feeder, "pipeline", pipelinePanel, "pipeline");
+        addWrappedBinding(feeder, "pipelineParameterAssignments", pipelinePanel, "pipelineParameterAssignments");
 
         addWrappedBinding(feeder, "cloneTemplateStatus", textPaneCloneTemplateStatus, "text");
 
@@ -619,50 +641,6 @@ extends AbstractReferenceFeederConfigurationWizard {
         ComponentDecorators.decorateWithAutoSelect(textFieldFontSizePt);
     }
 
-    private Action editPipelineAction =
-            new AbstractAction("Edit Pipeline") {
-        {
-            putValue(Action.SHORT_DESCRIPTION,
-                    "Edit the Pipeline to be used for all vision operations of this feeder.");
-        }
-
-        @Override
-        public void actionPerformed(ActionEvent e) {
-            UiUtils.messageBoxOnException(() -> {
-                UiUtils.confirmMoveToLocationAndAct(
-                        getTopLevelAncestor(), 
-                        "move the camera to the proper feeder vision location before editing the pipeline", 
-                        feeder.getCamera(), 
-                        feeder.getNominalVisionLocation(), 
-                        true, () -> {
-                            editPipeline();
-                        });
-            });
-        }
-    };
-
-    private Action resetPipelineAction =
-            new AbstractAction("Reset Pipeline") {
-        {
-            putValue(Action.SHORT_DESCRIPTION,
-                    "Reset the Pipeline for this feeder to the selected type default.");
-        }
-
-        @Override
-        public void actionPerformed(ActionEvent e) {
-            PipelineType type = (PipelineType) pipelineType.getSelectedItem();
-            int result = JOptionPane.showConfirmDialog(getTopLevelAncestor(),
-                    "This will reset the pipeline to the "+type+" type default. Are you sure?",
-                    null, JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
-            if (result == JOptionPane.YES_OPTION) {
-                applyAction.actionPerformed(null);
-                UiUtils.messageBoxOnException(() -> {
-                    feeder.resetPipeline(type);
-                });
-            }
-        }
-    };
-
     private Action resetStatisticsAction =
             new AbstractAction("Reset Statistics") {
         {
@@ -944,14 +922,6 @@ extends AbstractReferenceFeederConfigurationWizard {
         }
     };
 
-    private void editPipeline() throws Exception {
-        Camera camera = feeder.getCamera();
-        CvPipeline pipeline = feeder.getCvPipeline(camera, false, true, true);
-        CvPipelineEditor editor = new CvPipelineEditor(pipeline);
-        JDialog dialog = new CvPipelineEditorDialog(MainFrame.get(), feeder.getName() + " Pipeline", editor);
-        dialog.setVisible(true);
-    }
-
     protected void initDataBindings() {
     }
 
@@ -980,8 +950,7 @@ extends AbstractReferenceFeederConfigurationWizard {
     private JTextField textFieldHole1LocationY;
     private JTextField textFieldHole2LocationX;
     private JTextField textFieldHole2LocationY;
-    private JButton btnEditPipeline;
-    private JButton btnResetPipeline;
+    private PipelineControls pipelinePanel;
     private JLabel lblFeedCount;
     private JTextField textFieldFeedCount;
     private JButton btnReset;
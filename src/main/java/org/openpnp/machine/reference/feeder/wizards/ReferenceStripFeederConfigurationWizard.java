@@ -26,6 +26,7 @@ import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
 import javax.swing.AbstractAction;
@@ -33,7 +34,6 @@ import javax.swing.Action;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JComboBox;
-import javax.swing.JDialog;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JTextField;
@@ -52,6 +52,7 @@ import org.openpnp.gui.components.CameraViewActionListener;
 import org.openpnp.gui.components.CameraViewFilter;
 import org.openpnp.gui.components.ComponentDecorators;
 import org.openpnp.gui.components.LocationButtonsPanel;
+import org.openpnp.gui.components.PipelineControls;
 import org.openpnp.gui.support.AbstractConfigurationWizard;
 import org.openpnp.gui.support.DoubleConverter;
 import org.openpnp.gui.support.Helpers;
@@ -81,8 +82,6 @@ import org.openpnp.vision.FluentCv;
 import org.openpnp.vision.Ransac;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.openpnp.vision.pipeline.CvStage;
-import org.openpnp.vision.pipeline.ui.CvPipelineEditor;
-import org.openpnp.vision.pipeline.ui.CvPipelineEditorDialog;
 import org.pmw.tinylog.Logger;
 
 import com.google.common.collect.Lists;
@@ -126,6 +125,7 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
     private JTextField textFieldLocationRotation;
     private JButton btnAutoSetup;
     private JCheckBox chckbxUseVision;
+    private PipelineControls pipelinePanel;
     private JLabel lblUseVision;
     private JLabel lblPart;
     private JLabel lblRetryCount;
@@ -315,6 +315,7 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
                         FormSpecs.RELATED_GAP_COLSPEC, FormSpecs.DEFAULT_COLSPEC,
                         FormSpecs.RELATED_GAP_COLSPEC, FormSpecs.DEFAULT_COLSPEC},
                 new RowSpec[] {FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
+                        FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
                         FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,
                         FormSpecs.RELATED_GAP_ROWSPEC, FormSpecs.DEFAULT_ROWSPEC,}));
 
@@ -325,25 +326,28 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
         chckbxUseVision = new JCheckBox("");
         panelVision.add(chckbxUseVision, "4, 2");
 
-        JButton btnEditPipeline = new JButton(Translations.getString(
-                "ReferenceStripFeederConfigurationWizard.PanelVision.EditPipelineButton.text")); //$NON-NLS-1$
-        btnEditPipeline.addActionListener(new ActionListener() {
-            public void actionPerformed(ActionEvent e) {
-                UiUtils.messageBoxOnException(() -> {
-                    editPipeline();
-                });
+        pipelinePanel = new PipelineControls() {
+
+            @Override
+            public void configurePipeline(CvPipeline pipeline, Map<String, Object> pipelineParameterAssignments, boolean edit) throws Exception {
+                if (edit) {
+                    // Accept changes before edit.
+                    applyAction.actionPerformed(null);
+                }
+                Camera camera = Configuration.get().getMachine().getDefaultHead().getDefaultCamera();
+                preparePipeline(pipeline, pipelineParameterAssignments, camera);
+                if (edit) {
+                    openPipelineEditor(feeder.getName() + " Pipeline", pipeline);
+                }
             }
-        });
-        panelVision.add(btnEditPipeline, "2, 4");
 
-        JButton btnResetPipeline = new JButton(Translations.getString(
-                "ReferenceStripFeederConfigurationWizard.PanelVision.ResetPipelineButton.text")); //$NON-NLS-1$
-        btnResetPipeline.addActionListener(new ActionListener() {
-            public void actionPerformed(ActionEvent e) {
-                resetPipeline();
+            @Override
+            public void resetPipeline() throws Exception {
+                applyAction.actionPerformed(null);
+                feeder.resetPipeline();
             }
-        });
-        panelVision.add(btnResetPipeline, "4, 4");
+        };
+        panelVision.add(pipelinePanel, "1, 4, 6, 1, fill, fill");
 
         JButton btnClearVisionCache = new JButton(Translations.getString(
                 "ReferenceStripFeederConfigurationWizard.PanelVision.ClearVisionCacheButton.text")); //$NON-NLS-1$
@@ -354,16 +358,16 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
                 clearVisionCache();
             }
         });
-        panelVision.add(btnClearVisionCache, "6, 4");
+        panelVision.add(btnClearVisionCache, "2, 6");
 
         lblExtrapolationDistance = new JLabel(Translations.getString(
                 "ReferenceStripFeederConfigurationWizard.PanelVision.ExtrapolationDistanceLabel.text")); //$NON-NLS-1$
-        panelVision.add(lblExtrapolationDistance, "2, 6, right, default");
+        panelVision.add(lblExtrapolationDistance, "2, 8, right, default");
 
         textFieldExtrapolationDistance = new JTextField();
         textFieldExtrapolationDistance.setToolTipText(Translations.getString(
                 "ReferenceStripFeederConfigurationWizard.PanelVision.ExtrapolationDistanceLabel.toolTipText")); //$NON-NLS-1$
-        panelVision.add(textFieldExtrapolationDistance, "4, 6");
+        panelVision.add(textFieldExtrapolationDistance, "4, 8");
         textFieldExtrapolationDistance.setColumns(5);
 
         panelLocations = new JPanel();
@@ -475,6 +479,8 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
 //        addWrappedBinding(feedEndLocation, "lengthZ", textFieldFeedEndZ, "text", lengthConverter);
 
         addWrappedBinding(feeder, "visionEnabled", chckbxUseVision, "selected");
+        bind(UpdateStrategy.READ_WRITE, feeder, "pipeline", pipelinePanel, "pipeline");
+        addWrappedBinding(feeder, "pipelineParameterAssignments", pipelinePanel, "pipelineParameterAssignments");
 
         ComponentDecorators.decorateWithAutoSelect(textFieldLocationRotation);
         ComponentDecorators.decorateWithAutoSelectAndLengthConversion(textFieldTapeWidth);
@@ -1043,39 +1049,13 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
         }
     }
 
-    private void editPipeline() throws Exception {
-        Camera camera = Configuration.get().getMachine().getDefaultHead().getDefaultCamera();
-        CvPipeline pipeline = getCvPipeline(camera, false);
-        CvPipelineEditor editor = new CvPipelineEditor(pipeline);
-        JDialog dialog = new CvPipelineEditorDialog(MainFrame.get(), feeder.getName() + " Pipeline", editor);
-        dialog.setVisible(true);
-    }
-
-    private void resetPipeline() {
-        feeder.resetPipeline();
-    }
-
     private CvPipeline getCvPipeline(Camera camera, boolean clone) {
-        Integer pxMinDistance = (int) VisionUtils.toPixels(feeder.getHolePitchMin(), camera);
-        Integer pxMinDiameter = (int) VisionUtils.toPixels(feeder.getHoleDiameterMin(), camera);
-        Integer pxMaxDiameter = (int) VisionUtils.toPixels(feeder.getHoleDiameterMax(), camera);
-
         try {
             CvPipeline pipeline = feeder.getPipeline();;
             if (clone) {
                 pipeline = pipeline.clone();
             }
-            pipeline.setProperty("camera", camera);
-            pipeline.setProperty("feeder", feeder);
-            pipeline.setProperty("DetectFixedCirclesHough.minDistance", pxMinDistance);
-            pipeline.setProperty("DetectFixedCirclesHough.minDiameter", pxMinDiameter);
-            pipeline.setProperty("DetectFixedCirclesHough.maxDiameter", pxMaxDiameter);
-            pipeline.setProperty("sprocketHole.diameter", feeder.getHoleDiameter());
-            // Search Range is half camera. 
-            Length range = camera.getWidth() > camera.getHeight() ? 
-                    camera.getUnitsPerPixelAtZ().getLengthY().multiply(camera.getHeight()/2)
-                    : camera.getUnitsPerPixelAtZ().getLengthX().multiply(camera.getWidth()/2);
-            pipeline.setProperty("sprocketHole.maxDistance", range);
+            preparePipeline(pipeline, feeder.getPipelineParameterAssignments(), camera);
             return pipeline;
         }
         catch (CloneNotSupportedException e) {
@@ -1083,6 +1063,25 @@ public class ReferenceStripFeederConfigurationWizard extends AbstractConfigurati
         }
     }
 
+    private void preparePipeline(CvPipeline pipeline, Map<String, Object> pipelineParameterAssignments, Camera camera) {
+        Integer pxMinDistance = (int) VisionUtils.toPixels(feeder.getHolePitchMin(), camera);
+        Integer pxMinDiameter = (int) VisionUtils.toPixels(feeder.getHoleDiameterMin(), camera);
+        Integer pxMaxDiameter = (int) VisionUtils.toPixels(feeder.getHoleDiameterMax(), camera);
+
+        pipeline.addProperties(pipelineParameterAssignments);
+        pipeline.setProperty("camera", camera);
+        pipeline.setProperty("feeder", feeder);
+        pipeline.setProperty("DetectFixedCirclesHough.minDistance", pxMinDistance);
+        pipeline.setProperty("DetectFixedCirclesHough.minDiameter", pxMinDiameter);
+        pipeline.setProperty("DetectFixedCirclesHough.maxDiameter", pxMaxDiameter);
+        pipeline.setProperty("sprocketHole.diameter", feeder.getHoleDiameter());
+        // Search Range is half camera. 
+        Length range = camera.getWidth() > camera.getHeight() ? 
+                camera.getUnitsPerPixelAtZ().getLengthY().multiply(camera.getHeight()/2)
+                : camera.getUnitsPerPixelAtZ().getLengthX().multiply(camera.getWidth()/2);
+        pipeline.setProperty("sprocketHole.maxDistance", range);
+    }
+
     private void clearVisionCache() {
         feeder.resetVision();
     }
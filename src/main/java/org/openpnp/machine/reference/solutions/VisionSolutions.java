@@ -1512,7 +1512,7 @@ public class VisionSolutions implements Solutions.Subject {
         List<Circle> results = DetectCircularSymmetry.findCircularSymmetry(image, 
                 expectedX, expectedY, 
                 minDiameter, maxDiameter, searchDiameter, searchDiameter, searchDiameter, 1,
-                minSymmetry, 0.0, subSampling, rough ? 1 : superSampling, symmetryScore, diagnostics != null, false, scoreRange);
+                minSymmetry, 0.0, subSampling, rough ? 1 : superSampling, symmetryScore, true, diagnostics != null, false, scoreRange);
         if (diagnostics != null) {
             if (LogUtils.isDebugEnabled()) {
                 File file = Configuration.get().createResourceFile(getClass(), "loc_", ".png");
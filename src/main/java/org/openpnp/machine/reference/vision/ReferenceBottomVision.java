@@ -6,6 +6,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.io.IOUtils;
+import org.opencv.core.Mat;
 import org.opencv.core.Point;
 import org.opencv.core.RotatedRect;
 import org.opencv.core.Size;
@@ -40,8 +41,8 @@ import org.openpnp.spi.NozzleTip;
 import org.openpnp.spi.PartAlignment;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.util.MovableUtils;
-import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.Utils2D;
+import org.openpnp.util.VisionResultPublisher;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.openpnp.vision.pipeline.CvPipeline.PipelineShot;
@@ -303,7 +304,7 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
             // subtract visionCenterOffset
             offsets = offsets.subtract(bottomVisionSettings.getVisionOffset().rotateXy(wantedAngle));
 
-            displayResult(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), part, offsets, camera, nozzle);
+            publishResult(pipeline.getWorkingImage(), part, offsets, camera, nozzle);
             offsetsCheck(part, nozzle, offsets);
 
             partSizeCheck(part, bottomVisionSettings, rect, camera);
@@ -348,7 +349,7 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
             // subtract visionCenterOffset
             offsets = offsets.subtract(bottomVisionSettings.getVisionOffset().rotateXy(offsets.getRotation()));
 
-            displayResult(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), part, offsets, camera, nozzle);
+            publishResult(pipeline.getWorkingImage(), part, offsets, camera, nozzle);
             offsetsCheck(part, nozzle, offsets);
 
             return new PartAlignmentOffset(offsets, false);
@@ -434,16 +435,7 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
 
     @Override
     public void displayResult(BufferedImage image, Part part, Location offsets, Camera camera, Nozzle nozzle) {
-        String s = part.getId();
-        if (offsets != null) {
-            LengthConverter lengthConverter = new LengthConverter();
-            DoubleConverter doubleConverter = new DoubleConverter(Configuration.get().getLengthDisplayFormat());
-            s += "  |  X:"+lengthConverter.convertForward(offsets.getLengthX())+" "
-                    +"Y:"+lengthConverter.convertForward(offsets.getLengthY())+" "
-                    +"C:"+doubleConverter.convertForward(offsets.getRotation())
-                    +" Δ:"+lengthConverter.convertForward(offsets.getLinearLengthTo(Location.origin));
-        }
-        Logger.debug("Alignment result: {}", s);
+        String s = getResultText(part, offsets);
         MainFrame mainFrame = MainFrame.get();
         if (mainFrame != null) {
             try {
@@ -461,6 +453,44 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
         }
     }
 
+    /**
+     * Display the result image from the machine task thread. The image is handed over to the 
+     * {@link VisionResultPublisher}, so the conversion and display do not hold up the alignment.
+     * 
+     * @param image
+     * @param part
+     * @param offsets
+     * @param camera
+     * @param nozzle
+     */
+    protected void publishResult(Mat image, Part part, Location offsets, Camera camera, Nozzle nozzle) {
+        String s = getResultText(part, offsets);
+        VisionResultPublisher.publish(camera, image, s, 2000);
+        if (MainFrame.get() != null) {
+            try {
+                // Also make sure the right nozzle is selected for correct cross-hair rotation.
+                MovableUtils.fireTargetedUserAction(nozzle);
+            }
+            catch (Exception e) {
+                // Throw away, just means we're running outside of the UI.
+            }
+        }
+    }
+
+    private String getResultText(Part part, Location offsets) {
+        String s = part.getId();
+        if (offsets != null) {
+            LengthConverter lengthConverter = new LengthConverter();
+            DoubleConverter doubleConverter = new DoubleConverter(Configuration.get().getLengthDisplayFormat());
+            s += "  |  X:"+lengthConverter.convertForward(offsets.getLengthX())+" "
+                    +"Y:"+lengthConverter.convertForward(offsets.getLengthY())+" "
+                    +"C:"+doubleConverter.convertForward(offsets.getRotation())
+                    +" Δ:"+lengthConverter.convertForward(offsets.getLinearLengthTo(Location.origin));
+        }
+        Logger.debug("Alignment result: {}", s);
+        return s;
+    }
+
     public void preparePipeline(CvPipeline pipeline, Map<String, Object> pipelineParameterAssignments, 
             Camera camera, Package pkg, Nozzle nozzle, NozzleTip nozzleTip, Location wantedLocation, 
             Location adjustedNozzleLocation, BottomVisionSettings bottomVisionSettings) throws Exception {
@@ -616,7 +646,7 @@ public class ReferenceBottomVision extends AbstractPartAlignment {
             }
             pipelineShot.processResult(result);
             // Display the shot result.   
-            displayResult(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()), part, null, camera, nozzle);
+            publishResult(pipeline.getWorkingImage(), part, null, camera, nozzle);
         }
         return (RotatedRect) pipeline.getCurrentPipelineShot().processCompositeResult().getModel();
     }
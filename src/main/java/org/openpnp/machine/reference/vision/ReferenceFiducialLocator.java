@@ -18,7 +18,6 @@ import org.apache.commons.io.IOUtils;
 import org.opencv.core.KeyPoint;
 import org.openpnp.ConfigurationListener;
 import org.openpnp.gui.MainFrame;
-import org.openpnp.gui.components.CameraView;
 import org.openpnp.gui.support.LengthConverter;
 import org.openpnp.gui.support.PropertySheetWizardAdapter;
 import org.openpnp.gui.support.Wizard;
@@ -46,10 +45,10 @@ import org.openpnp.spi.FiducialLocator;
 import org.openpnp.spi.PropertySheetHolder;
 import org.openpnp.util.IdentifiableList;
 import org.openpnp.util.MovableUtils;
-import org.openpnp.util.OpenCvUtils;
 import org.openpnp.util.QuickHull;
 import org.openpnp.util.TravellingSalesman;
 import org.openpnp.util.Utils2D;
+import org.openpnp.util.VisionResultPublisher;
 import org.openpnp.util.VisionUtils;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.pmw.tinylog.Logger;
@@ -186,7 +185,9 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
                 // and end at the board origin
                 endLocation);
 
-        // Solve it using the default heuristics.
+        // Solve it using the default heuristics, with one annealing chain per core. The first chain is the
+        // single threaded one, so this is never worse.
+        tsm.setChains(Runtime.getRuntime().availableProcessors());
         tsm.solve();
 
         // loop over all fiducial and visit/measure them
@@ -643,17 +644,13 @@ public class ReferenceFiducialLocator extends AbstractPartSettingsHolder impleme
             // And use the closest result
             Location newLocation = locations.get(0);
 
-            MainFrame frame = MainFrame.get();
-            if (frame != null) {
-                CameraView cameraView = frame.getCameraViews().getCameraView(camera);
-                if (cameraView != null) {
-                    LengthConverter lengthConverter = new LengthConverter();
-                    cameraView.showFilteredImage(OpenCvUtils.toBufferedImage(pipeline.getWorkingImage()),
-                            lengthConverter.convertForward(newLocation.getLengthX())+", "
-                                    +lengthConverter.convertForward(newLocation.getLengthY())+" "
-                                    +newLocation.getUnits().getShortName(),
-                                    1500);
-                }
+            if (MainFrame.get() != null) {
+                LengthConverter lengthConverter = new LengthConverter();
+                VisionResultPublisher.publish(camera, pipeline.getWorkingImage(),
+                        lengthConverter.convertForward(newLocation.getLengthX())+", "
+                                +lengthConverter.convertForward(newLocation.getLengthY())+" "
+                                +newLocation.getUnits().getShortName(),
+                                1500);
             }
 
             Logger.debug("{} located at {}", partSettingsHolder.getId(), newLocation);
@@ -49,6 +49,7 @@ public class ReferenceMachineConfigurationWizard extends AbstractConfigurationWi
     private JCheckBox parkAfterHomed;
     private JCheckBox poolScriptingEngines;
     private JCheckBox autoLoadMostRecentJob;
+    private JTextField asyncScriptingEvents;
 
     public ReferenceMachineConfigurationWizard(ReferenceMachine machine) {
         this.machine = machine;
@@ -81,6 +82,8 @@ public class ReferenceMachineConfigurationWizard extends AbstractConfigurationWi
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
+                FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,}));
         
         JLabel lblHomeAfterEnabled = new JLabel(Translations.getString(
@@ -145,6 +148,16 @@ public class ReferenceMachineConfigurationWizard extends AbstractConfigurationWi
         autoLoadMostRecentJob = new JCheckBox("");
         panelGeneral.add(autoLoadMostRecentJob, "4, 16");
 
+        JLabel lblAsyncScriptingEvents = new JLabel(Translations.getString(
+                "ReferenceMachineConfigurationWizard.PanelGeneral.AsyncScriptingEventsLabel.text")); //$NON-NLS-1$
+        lblAsyncScriptingEvents.setToolTipText(Translations.getString(
+                "ReferenceMachineConfigurationWizard.PanelGeneral.AsyncScriptingEventsLabel.toolTipText")); //$NON-NLS-1$
+        panelGeneral.add(lblAsyncScriptingEvents, "2, 18, right, default");
+
+        asyncScriptingEvents = new JTextField();
+        panelGeneral.add(asyncScriptingEvents, "4, 18, 3, 1, fill, default");
+        asyncScriptingEvents.setColumns(30);
+
         JPanel panelLocations = new JPanel();
         panelLocations.setBorder(new TitledBorder(null, Translations.getString(
                 "ReferenceMachineConfigurationWizard.PanelLocations.Border.title"), //$NON-NLS-1$
@@ -254,6 +267,7 @@ public class ReferenceMachineConfigurationWizard extends AbstractConfigurationWi
 
         addWrappedBinding(machine, "poolScriptingEngines", poolScriptingEngines, "selected");
         addWrappedBinding(machine, "autoLoadMostRecentJob", autoLoadMostRecentJob, "selected");
+        addWrappedBinding(machine, "asyncScriptingEvents", asyncScriptingEvents, "text");
 
         MutableLocationProxy discardLocation = new MutableLocationProxy();
         bind(UpdateStrategy.READ_WRITE, machine, "discardLocation", discardLocation, "location");
@@ -66,6 +66,7 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
     private JTextField machineTableZ;
     private JTextField simulatedVibrationDuration;
     private JCheckBox replacingDrivers;
+    private JCheckBox virtualTime;
 
     public SimulationModeMachineConfigurationWizard(SimulationModeMachine machine) {
         this.machine = machine;
@@ -80,6 +81,8 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
                 FormSpecs.RELATED_GAP_COLSPEC,
                 ColumnSpec.decode("max(50dlu;default)"),},
             new RowSpec[] {
+                FormSpecs.RELATED_GAP_ROWSPEC,
+                FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
                 FormSpecs.DEFAULT_ROWSPEC,
                 FormSpecs.RELATED_GAP_ROWSPEC,
@@ -98,6 +101,13 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
         replacingDrivers = new JCheckBox("");
         panelGeneral.add(replacingDrivers, "4, 4");
 
+        JLabel lblVirtualTime = new JLabel("As Fast As Possible?");
+        lblVirtualTime.setToolTipText("<html>\nRun the simulation in virtual time: dwells, settle times and simulated motion<br/>\nadvance the clock instantly instead of waiting, but still count as exact simulated durations.<br/>\nUse this to estimate job cycle times or regression test the planner in seconds.\n</html>");
+        panelGeneral.add(lblVirtualTime, "2, 6, right, default");
+
+        virtualTime = new JCheckBox("");
+        panelGeneral.add(virtualTime, "4, 6");
+
         JPanel panelLocations = new JPanel();
         panelLocations.setBorder(new TitledBorder(null, "Simulated Imperfections", TitledBorder.LEADING,
                 TitledBorder.TOP, null, null));
@@ -274,6 +284,7 @@ public class SimulationModeMachineConfigurationWizard extends AbstractConfigurat
 
         addWrappedBinding(machine, "simulationMode", simulationMode, "selectedItem");
         addWrappedBinding(machine, "replacingDrivers", replacingDrivers, "selected");
+        addWrappedBinding(machine, "virtualTime", virtualTime, "selected");
 
         addWrappedBinding(machine, "simulatedNonSquarenessFactor", simulatedNonSquarenessFactor, "text", doubleConverter);
 
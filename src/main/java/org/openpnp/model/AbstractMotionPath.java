@@ -156,6 +156,12 @@ public abstract class AbstractMotionPath implements Iterable<MotionProfile []> {
         }
         int dimensions = unitVector[0].length;
 
+        // Path velocity at the junction into move i, planned by lookahead. Zero means still-stand. 
+        double [] junctionVelocity = new double[size + 1];
+        if (getLookahead() > 0) {
+            planJunctionVelocities(leadAxis, unitVector, colinearWithPrev, simplified, junctionVelocity);
+        }
+
         for (int iteration = 0; iteration < iterations; iteration++) {
             int iNext;
             boolean hasUncoordinated = false;
@@ -202,7 +208,7 @@ public abstract class AbstractMotionPath implements Iterable<MotionProfile []> {
                         if (prevProfiles != null) {
                             if (MotionProfile.isCoordinated(prevProfiles)) { 
                                 // If the previous profiles are coordinated they cannot be positively co-linear/same speed, otherwise they would be in the sequence.
-                                // This means we have a corner. Start from zero velocity/acceleration. 
+                                // This means we have a corner. Start from the planned junction velocity, zero acceleration. 
                             }
                             else { // Uncoordinated previous.
                                 if (unitVector[i][lead] > 0) {
@@ -224,13 +230,14 @@ public abstract class AbstractMotionPath implements Iterable<MotionProfile []> {
                                     }
                                 }
                             }
-                            solverProfile.v[0] = 0;
+                            solverProfile.v[0] = (MotionProfile.isCoordinated(prevProfiles) ? 
+                                    junctionVelocity[i]*unitVector[i][lead] : 0);
                             solverProfile.a[0] = 0;
                         }
                         if (nextProfiles != null) {
                             if (MotionProfile.isCoordinated(nextProfiles)) { 
                                 // If the next profiles are coordinated they cannot be positively co-linear/same speed, otherwise they would be in the sequence.
-                                // This means we have a corner. Stop to zero velocity/acceleration. 
+                                // This means we have a corner. Stop to the planned junction velocity, zero acceleration. 
                             }
                             else { // Uncoordinated next.
                                 if (unitVector[i][lead] < 0) {
@@ -252,7 +259,8 @@ public abstract class AbstractMotionPath implements Iterable<MotionProfile []> {
                                     }
                                 }
                             }
-                            solverProfile.v[segments] = 0;
+                            solverProfile.v[segments] = (MotionProfile.isCoordinated(nextProfiles) ? 
+                                    junctionVelocity[iNext]*unitVector[i][lead] : 0);
                             solverProfile.a[segments] = 0;
                         }
                         if (iNext > last) { 
@@ -274,12 +282,16 @@ public abstract class AbstractMotionPath implements Iterable<MotionProfile []> {
                     }
                     //validate("["+i+"]["+lead+"]", solverProfile);
 
-                    // Cut this along the sequence.
-                    double t0 = solverProfile.getForwardCrossingTime(profiles[lead].s[0], false);
+                    // Cut this along the sequence. Where the sequence ends coincide with the solver profile ends, take the 
+                    // exact times, otherwise the numerical crossing time would make it a cropped profile, e.g. on blended corners.
+                    double t0 = (solverProfile.s[0] == profiles[lead].s[0] ? 0 
+                            : solverProfile.getForwardCrossingTime(profiles[lead].s[0], false));
                     for (int j = i; j < iNext; j++) {
                         MotionProfile [] seqProfiles = get(j);
                         // Note, we can always use forward crossing time, because in coordinated moves there is no sign reversal.
-                        double t1 = solverProfile.getForwardCrossingTime(seqProfiles[lead].s[segments], false);
+                        double t1 = (j == iNext - 1 && solverProfile.s[segments] == seqProfiles[lead].s[segments] ? 
+                                solverProfile.time 
+                                : solverProfile.getForwardCrossingTime(seqProfiles[lead].s[segments], false));
                         seqProfiles[lead].extractProfileSectionFrom(solverProfile, t0, t1);
                         // TODO: if the extracted move has reached solverProfile.vMax on entry/exit it may be re-optimized using its higher
                         // vMax i.e. while pinching down entry/exit velocity and acceleration, we can re-solve it.
@@ -435,6 +447,215 @@ public abstract class AbstractMotionPath implements Iterable<MotionProfile []> {
         }
     }
 
+    /**
+     * @return The number of coordinated move sequences the lookahead considers, when back-propagating junction 
+     * velocities. Zero disables the lookahead, i.e. corners between coordinated moves are passed at still-stand.
+     * Junctions with uncoordinated moves, such as in the Safe Z zone of a pick sequence, are not affected, these
+     * are already blended by expanding the coordinated moves into the uncoordinated zone.
+     */
+    public int getLookahead() {
+        return 0;
+    }
+
+    /**
+     * The junction deviation determines the velocity at which the corner into move i can be passed, with 
+     * the same meaning as used by motion controllers, i.e. the distance from the corner to an imagined arc
+     * that is taken at the acceleration limit.  
+     * 
+     * @param i
+     * @return The junction deviation in millimeters, or zero if the junction must be passed at still-stand. 
+     */
+    public double getJunctionDeviation(int i) {
+        return 0;
+    }
+
+    /**
+     * Lookahead for corners between coordinated moves. The maximum velocity in each corner is computed from the 
+     * junction deviation and acceleration limits, then it is back-propagated so the following moves (up to the 
+     * lookahead) can still decelerate to still-stand, and forward-propagated so it can be reached from the 
+     * previous junction, respecting acceleration and jerk limits. Finally, each blended sequence is test solved 
+     * and junctions of sequences that cannot be solved are reverted to still-stand.  
+     * 
+     * Co-linear coordinated moves are combined into sequences the same way {@link #solve(double, int)} does.
+     * 
+     * @param leadAxis
+     * @param unitVector
+     * @param colinearWithPrev
+     * @param simplified
+     * @param junctionVelocity Receives the path velocity at the junction into the move that starts a sequence.
+     */
+    protected void planJunctionVelocities(int [] leadAxis, double [][] unitVector, int [] colinearWithPrev, 
+            boolean [] simplified, double [] junctionVelocity) {
+        int size = size();
+        int lookahead = getLookahead();
+        // Determine the sequences and their path limits.
+        int [] sequenceStart = new int[size + 1];
+        boolean [] blendable = new boolean[size];
+        double [] length = new double[size];
+        double [] vMax = new double[size];
+        double [] aMax = new double[size];
+        double [] jMax = new double[size];
+        int n = 0;
+        for (int i = 0; i < size; i = sequenceStart[n]) {
+            MotionProfile [] profiles = get(i);
+            int lead = leadAxis[i];
+            int iNext = i + 1;
+            if (!simplified[i] && MotionProfile.isCoordinated(profiles)) {
+                while (iNext < size 
+                        && MotionProfile.isCoordinated(get(iNext)) && colinearWithPrev[iNext] == 1) {
+                    iNext++;
+                }
+            }
+            MotionProfile entryProfile = profiles[lead];
+            MotionProfile exitProfile = get(iNext - 1)[lead];
+            double u = Math.abs(unitVector[i][lead]);
+            sequenceStart[n] = i;
+            length[n] = (u > 0 ? Math.abs(exitProfile.s[segments] - entryProfile.s[0])/u : 0);
+            blendable[n] = !simplified[i] && MotionProfile.isCoordinated(profiles) && length[n] > 0;
+            if (blendable[n]) {
+                vMax[n] = Math.min(entryProfile.getVelocityMax(), exitProfile.getVelocityMax())/u;
+                aMax[n] = Math.min(entryProfile.getEntryAccelerationMax(), exitProfile.getExitAccelerationMax())/u;
+                jMax[n] = (entryProfile.isConstantAcceleration() ? 
+                        Double.POSITIVE_INFINITY : entryProfile.getJerkMax()/u);
+                blendable[n] = vMax[n] > 0 && aMax[n] > 0;
+            }
+            sequenceStart[++n] = iNext;
+        }
+        // Maximum junction velocities from the junction deviation, zero on path entry and exit.
+        double [] vJunctionMax = new double[n + 1];
+        for (int k = 1; k < n; k++) {
+            int i = sequenceStart[k];
+            double deviation = (blendable[k - 1] && blendable[k]) ? getJunctionDeviation(i) : 0;
+            if (deviation > 0) {
+                // Same as in motion controllers, the cosine of the angle between the reversed entry and the exit vector.
+                double cosTheta = -MotionProfile.dotProduct(unitVector[i - 1], unitVector[i]);
+                double vLimit;
+                if (cosTheta > 1.0 - MotionProfile.eps) {
+                    // Reversal.
+                    vLimit = 0;
+                }
+                else if (cosTheta < -1.0 + MotionProfile.eps) {
+                    // Straight.
+                    vLimit = Double.POSITIVE_INFINITY;
+                }
+                else {
+                    double sinThetaHalf = Math.sqrt(0.5*(1.0 - cosTheta));
+                    vLimit = Math.sqrt(Math.min(aMax[k - 1], aMax[k])*deviation*sinThetaHalf/(1.0 - sinThetaHalf));
+                }
+                vJunctionMax[k] = Math.min(vLimit, Math.min(vMax[k - 1], vMax[k]));
+            }
+        }
+        boolean [] failed = new boolean[n];
+        boolean retry;
+        do {
+            retry = false;
+            // Back-propagate, so the sequences up to the lookahead can still decelerate to still-stand.
+            double [] vJunction = new double[n + 1];
+            for (int k = 1; k < n; k++) {
+                if (vJunctionMax[k] > 0) {
+                    double v = 0;
+                    for (int m = Math.min(k + lookahead, n) - 1; m > k; m--) {
+                        v = Math.min(vJunctionMax[m], 
+                                getReachableVelocity(v, length[m], vMax[m], aMax[m], jMax[m]));
+                    }
+                    vJunction[k] = Math.min(vJunctionMax[k], 
+                            getReachableVelocity(v, length[k], vMax[k], aMax[k], jMax[k]));
+                }
+            }
+            // Forward-propagate, so the junction velocity can be reached from the previous junction. 
+            for (int k = 1; k < n; k++) {
+                vJunction[k] = Math.min(vJunction[k], 
+                        getReachableVelocity(vJunction[k - 1], length[k - 1], vMax[k - 1], aMax[k - 1], jMax[k - 1]));
+            }
+            // Test solve the blended sequences, revert junctions of those that cannot be solved.
+            for (int k = 0; k < n; k++) {
+                if (vJunction[k] > 0 || vJunction[k + 1] > 0) {
+                    int i0 = sequenceStart[k];
+                    int i1 = sequenceStart[k + 1] - 1;
+                    int lead = leadAxis[i0];
+                    MotionProfile testProfile = new MotionProfile(get(i0)[lead]);
+                    testProfile.s[segments] = get(i1)[lead].s[segments];
+                    testProfile.v[0] = vJunction[k]*unitVector[i0][lead];
+                    testProfile.a[0] = 0;
+                    testProfile.v[segments] = vJunction[k + 1]*unitVector[i0][lead];
+                    testProfile.a[segments] = 0;
+                    testProfile.clearOption(ProfileOption.Solved);
+                    testProfile.solve();
+                    if (testProfile.checkValidity() != null && !failed[k]) {
+                        failed[k] = true;
+                        vJunctionMax[k] = 0;
+                        vJunctionMax[k + 1] = 0;
+                        retry = true;
+                    }
+                }
+            }
+            if (!retry) {
+                for (int k = 0; k < n; k++) {
+                    junctionVelocity[sequenceStart[k]] = vJunction[k];
+                }
+            }
+        }
+        while (retry);
+    }
+
+    /**
+     * Get the maximum velocity at one end of a coordinated sequence that can still be changed into the given 
+     * velocity at the other end, i.e. accelerating or decelerating over the length of the sequence. Jerk 
+     * limited profiles are accounted for with their S-curve from/to zero acceleration.
+     *  
+     * @param v Velocity at the other end.
+     * @param length
+     * @param vMax
+     * @param aMax
+     * @param jMax
+     * @return
+     */
+    protected static double getReachableVelocity(double v, double length, double vMax, double aMax, double jMax) {
+        if (v >= vMax) {
+            return vMax;
+        }
+        if (getVelocityChangeDistance(v, vMax, aMax, jMax) <= length) {
+            return vMax;
+        }
+        // Bisection, as the distance is monotonous in the velocity.
+        double v0 = v;
+        double v1 = vMax;
+        for (int iter = 0; iter < 50 && v1 - v0 > MotionProfile.eps; iter++) {
+            double vMid = (v0 + v1)*0.5;
+            if (getVelocityChangeDistance(v, vMid, aMax, jMax) <= length) {
+                v0 = vMid;
+            }
+            else {
+                v1 = vMid;
+            }
+        }
+        return v0;
+    }
+
+    /**
+     * @param v0
+     * @param v1
+     * @param aMax
+     * @param jMax
+     * @return The distance needed to change velocity from v0 to v1, from/to zero acceleration. 
+     */
+    protected static double getVelocityChangeDistance(double v0, double v1, double aMax, double jMax) {
+        double dv = Math.abs(v1 - v0);
+        double time;
+        if (!Double.isFinite(jMax)) {
+            time = dv/aMax;
+        }
+        else if (dv >= aMax*aMax/jMax) {
+            // Reaches the acceleration limit.
+            time = dv/aMax + aMax/jMax;
+        }
+        else {
+            time = 2*Math.sqrt(dv/jMax);
+        }
+        // Symmetric S-curve (or constant acceleration), average velocity is the mean.
+        return (v0 + v1)*0.5*time;
+    }
+
     /**
      * Helper for the optimizer: reduces excess overshoot into uncoordinated moves. This is a simple
      * heuristic controlled by excess time detected in the uncoordinated move. Excess time is assumed
@@ -500,6 +721,21 @@ public abstract class AbstractMotionPath implements Iterable<MotionProfile []> {
         final double aErr = MotionProfile.atol*0.1;
         for (MotionProfile [] profiles : this) {
             MotionProfile.validateProfiles(profiles);
+            // Corners between coordinated moves may be blended, i.e. the direction changes within the junction 
+            // deviation, but the path velocity must still be continuous.
+            boolean corner = prevProfiles != null 
+                    && MotionProfile.isCoordinated(prevProfiles) && MotionProfile.isCoordinated(profiles);
+            if (corner) {
+                double vEntrySq = 0;
+                double vExitSq = 0;
+                for (int axis = 0; axis < profiles.length; axis++) {
+                    vEntrySq += profiles[axis].v[0]*profiles[axis].v[0];
+                    vExitSq += prevProfiles[axis].v[segments]*prevProfiles[axis].v[segments];
+                }
+                if (MotionProfile.mismatch(Math.sqrt(vEntrySq), Math.sqrt(vExitSq), vErr)) {
+                    throw new Exception(title+": path velocity discontinous into move "+i);
+                }
+            }
             for (int axis = 0; axis < profiles.length; axis++) {
                 if (prevProfiles == null) {
                     if (profiles[axis].v[0] != 0) {
@@ -513,7 +749,7 @@ public abstract class AbstractMotionPath implements Iterable<MotionProfile []> {
                     if ( MotionProfile.mismatch(profiles[axis].s[0], prevProfiles[axis].s[segments], sErr)) {
                         throw new Exception(title+": axis "+axis+" location discontinous into move "+i);
                     }
-                    if ( MotionProfile.mismatch(profiles[axis].v[0], prevProfiles[axis].v[segments], vErr)) {
+                    if (!corner && MotionProfile.mismatch(profiles[axis].v[0], prevProfiles[axis].v[segments], vErr)) {
                         throw new Exception(title+": axis "+axis+" velocity discontinous into move "+i);
                     }
                     if (!profiles[axis].isConstantAcceleration() 
@@ -21,15 +21,18 @@
 
 package org.openpnp.model;
 
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashMap;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
 
 import org.openpnp.spi.Axis;
@@ -37,6 +40,7 @@ import org.openpnp.spi.ControllerAxis;
 import org.openpnp.spi.CoordinateAxis;
 import org.openpnp.spi.Driver;
 import org.openpnp.spi.Machine;
+import org.openpnp.spi.base.AbstractAxis;
 import org.openpnp.util.Triplet;
 
 /**
@@ -59,11 +63,128 @@ import org.openpnp.util.Triplet;
  * AxesLocations preserve the order of the axes. In particular the Configuration order of axis definitions is 
  * sometimes used to treat axes in their "natural" order, where it may matter.  
  * 
+ * AxesLocations are created in huge numbers in motion planning, therefore they are stored densely as parallel
+ * Axis and double arrays in insertion order, rather than in a map with boxed coordinates. Machines have only a 
+ * handful of axes, so a linear search is faster than hashing. Each axis has a unique index in the axis index 
+ * registry, which is used to maintain a bitmask of the contained axes, so the common case of an axis not being 
+ * contained is decided without searching.
+ * 
  */
 public class AxesLocation {
-    final private LinkedHashMap<Axis, Double> location;
+    private final Axis[] axes;
+    private final double[] coordinates;
+    private final int size;
+    private final long mask;
+
+    private static final Axis[] noAxes = new Axis[0];
+    private static final double[] noCoordinates = new double[0];
+
     final public static AxesLocation zero = new AxesLocation();
 
+    private static final AtomicInteger axisIndexCounter = new AtomicInteger();
+
+    /**
+     * Register a new axis with the axis index registry. 
+     * 
+     * @return The unique index of the axis.
+     */
+    public static int registerAxis() {
+        return axisIndexCounter.getAndIncrement();
+    }
+
+    private static long axisBit(Axis axis) {
+        // The index is folded into the 64 bits of the mask. With more than 64 axes registered, e.g. after
+        // many axes were created and deleted, the mask is no longer exact, but still a valid filter. 
+        // Axes not derived from AbstractAxis are not registered, their identity hash is just as good 
+        // for a filter, and they are not referenced beyond the AxesLocations that contain them. 
+        int index = (axis instanceof AbstractAxis ? 
+                ((AbstractAxis) axis).getAxisIndex() : System.identityHashCode(axis));
+        return 1L << (index & 63);
+    }
+
+    /**
+     * @return The position of the axis in the arrays, or -1 if not contained. 
+     */
+    private static int indexOf(Axis[] axes, int size, long mask, Axis axis) {
+        if ((mask & axisBit(axis)) != 0) {
+            for (int i = 0; i < size; i++) {
+                if (axes[i] == axis) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Collects the axes and coordinates while constructing an AxesLocation, as the AxesLocation itself is 
+     * immutable. 
+     */
+    private static class Builder {
+        private Axis[] axes;
+        private double[] coordinates;
+        private int size;
+        private long mask;
+
+        Builder(int capacity) {
+            axes = (capacity > 0 ? new Axis[capacity] : noAxes);
+            coordinates = (capacity > 0 ? new double[capacity] : noCoordinates);
+        }
+
+        Builder(AxesLocation axesLocation, int capacity) {
+            this(capacity);
+            System.arraycopy(axesLocation.axes, 0, axes, 0, axesLocation.size);
+            System.arraycopy(axesLocation.coordinates, 0, coordinates, 0, axesLocation.size);
+            size = axesLocation.size;
+            mask = axesLocation.mask;
+        }
+
+        int indexOf(Axis axis) {
+            return AxesLocation.indexOf(axes, size, mask, axis);
+        }
+
+        /**
+         * Put the axis coordinate. Like in a LinkedHashMap, a new axis is appended, an existing axis keeps 
+         * its position. 
+         * 
+         * @param axis
+         * @param coordinate
+         * @return this Builder.
+         */
+        Builder put(Axis axis, double coordinate) {
+            int index = indexOf(axis);
+            if (index >= 0) {
+                coordinates[index] = coordinate;
+                return this;
+            }
+            if (size == axes.length) {
+                int capacity = Math.max(4, size*2);
+                axes = Arrays.copyOf(axes, capacity);
+                coordinates = Arrays.copyOf(coordinates, capacity);
+            }
+            axes[size] = axis;
+            coordinates[size] = coordinate;
+            size++;
+            mask |= axisBit(axis);
+            return this;
+        }
+
+        void removeAt(int index) {
+            System.arraycopy(axes, index + 1, axes, index, size - index - 1);
+            System.arraycopy(coordinates, index + 1, coordinates, index, size - index - 1);
+            size--;
+            axes[size] = null;
+            mask = 0;
+            for (int i = 0; i < size; i++) {
+                mask |= axisBit(axes[i]);
+            }
+        }
+
+        AxesLocation build() {
+            return new AxesLocation(this);
+        }
+    }
+
     /**
      * All coordinates of AxesLoactions are handled as Millimeters to speed up calculations and allow for 
      * multi-axis transforms across drivers with different units and other universal vector math. This unit-less 
@@ -83,7 +204,7 @@ public class AxesLocation {
      */
     public AxesLocation() {
         // Empty.
-        location = new LinkedHashMap<>(0);
+        this(new Builder(0));
     }
     /**
      * Create a single Axis/coordinate pair AxesLocation.  
@@ -92,10 +213,7 @@ public class AxesLocation {
      * @param coordinate
      */
     public AxesLocation(Axis axis, double coordinate) {
-        location = new LinkedHashMap<>(1);
-        if (axis != null) {
-            location.put(axis, coordinate);
-        }
+        this(axis != null ? new Builder(1).put(axis, coordinate) : new Builder(0));
     }
     /**
      * Create a single Axis/Length coordinate pair AxesLocation.  
@@ -114,10 +232,7 @@ public class AxesLocation {
      * @param axes
      */
     public AxesLocation(CoordinateAxis... axis) {
-        location = new LinkedHashMap<>(axis.length);
-        for (CoordinateAxis oneAxis : axis) {
-            location.put(oneAxis, oneAxis.getLengthCoordinate().convertToUnits(getUnits()).getValue());
-        }
+        this(Arrays.asList(axis), (oneAxis) -> oneAxis.getLengthCoordinate());
     }
     /**
      * Create an AxesLocation with the given Axis List and initialize to the current 
@@ -136,13 +251,7 @@ public class AxesLocation {
      * @param initializer
      */
     public <T extends Axis> AxesLocation(Iterable<T> axes, Function<T, Length> initializer) {
-        location = new LinkedHashMap<>();
-        for (T axis : axes) {
-            Length coordinate = initializer.apply(axis);
-            if (coordinate != null) {
-                location.put(axis, coordinate.convertToUnits(getUnits()).getValue());
-            }
-        }
+        this(build(axes, initializer));
     }
     /**
      * Create an AxesLoaction over all the ControllerAxes of the machine and initialize to the current 
@@ -161,15 +270,7 @@ public class AxesLocation {
      * @param initializer
      */
     public AxesLocation(Machine machine, Function<CoordinateAxis, Length> initializer) {
-        location = new LinkedHashMap<>();
-        for (Axis axis : machine.getAxes()) {
-            if (axis instanceof CoordinateAxis) {
-                Length coordinate = initializer.apply((CoordinateAxis) axis);
-                if (coordinate != null) {
-                    location.put(axis, coordinate.convertToUnits(getUnits()).getValue());
-                }
-            }
-        }
+        this(build(machine.getAxes(), CoordinateAxis.class, initializer));
     }
     /**
      * Create an AxesLoaction over all the ControllerAxes of the machine (in Machine Setup order) and with the given driver.
@@ -180,67 +281,168 @@ public class AxesLocation {
      * @param initializer
      */
     public AxesLocation(Machine machine, Driver driver, Function<ControllerAxis, Length> initializer) {
-        location = new LinkedHashMap<>();
-        for (Axis axis : machine.getAxes()) {
-            if (axis instanceof ControllerAxis) {
-                if (((ControllerAxis) axis).getDriver() == driver) {
-                    Length coordinate = initializer.apply((ControllerAxis) axis);
-                    if (coordinate != null) {
-                        location.put(axis, coordinate.convertToUnits(getUnits()).getValue());
-                    }
-                }
-            }
-        }
+        this(build(machine.getAxes(), ControllerAxis.class, 
+                (axis) -> (axis.getDriver() == driver ? initializer.apply(axis) : null)));
     }
     /**
-     * Using the given binary function, aggregate the given axesLocation argument list.  
+     * Using the given binary function, aggregate the given axesLocation argument list. Like Map.merge(), a 
+     * null result removes the axis.
      * 
      * @param function
      * @param axesLocation
      */
     public AxesLocation(BiFunction<Double, Double, Double> function, AxesLocation... axesLocation) {
-        location = new LinkedHashMap<>();
+        this(merge(function, axesLocation));
+    }
+    /**
+     * Create a new AxesLocation with the given function applied to the coordinates of axesLocation. 
+     * Axes for which the function returns null are left out.
+     *  
+     * @param function
+     * @param axesLocation
+     */
+    public AxesLocation(Function<Double, Double> function, AxesLocation axesLocation) {
+        this(map(function, axesLocation));
+    }
+
+    private AxesLocation(Builder builder) {
+        this.axes = builder.axes;
+        this.coordinates = builder.coordinates;
+        this.size = builder.size;
+        this.mask = builder.mask;
+    }
+
+    private static <T extends Axis> Builder build(Iterable<T> axes, Function<T, Length> initializer) {
+        Builder builder = new Builder(8);
+        for (T axis : axes) {
+            Length coordinate = initializer.apply(axis);
+            if (coordinate != null) {
+                builder.put(axis, coordinate.convertToUnits(getUnits()).getValue());
+            }
+        }
+        return builder;
+    }
+
+    private static <T extends Axis> Builder build(List<Axis> axes, Class<T> axisClass, 
+            Function<T, Length> initializer) {
+        Builder builder = new Builder(axes.size());
+        for (Axis axis : axes) {
+            if (axisClass.isInstance(axis)) {
+                Length coordinate = initializer.apply(axisClass.cast(axis));
+                if (coordinate != null) {
+                    builder.put(axis, coordinate.convertToUnits(getUnits()).getValue());
+                }
+            }
+        }
+        return builder;
+    }
+
+    private static Builder merge(BiFunction<Double, Double, Double> function, AxesLocation... axesLocation) {
+        Builder builder = new Builder(totalSize(axesLocation));
         for (AxesLocation oneAxesLocation : axesLocation) {
             if (oneAxesLocation != null) {
-                for (Axis axis : oneAxesLocation.getAxes()) {
-                    location.merge(axis, oneAxesLocation.getCoordinate(axis), function);
+                for (int i = 0; i < oneAxesLocation.size; i++) {
+                    Axis axis = oneAxesLocation.axes[i];
+                    double coordinate = oneAxesLocation.coordinates[i];
+                    int index = builder.indexOf(axis);
+                    if (index < 0) {
+                        builder.put(axis, coordinate);
+                    }
+                    else {
+                        Double merged = function.apply(builder.coordinates[index], coordinate);
+                        if (merged == null) {
+                            builder.removeAt(index);
+                        }
+                        else {
+                            builder.coordinates[index] = merged;
+                        }
+                    }
                 }
             }
         }
+        return builder;
     }
+
     /**
-     * Create a new AxesLocation with the given function applied to the coordinates of axesLocation.
-     *  
-     * @param function
-     * @param axesLocation
+     * Using the given binary operator, merge the two AxesLocations. Same as the BiFunction merge but 
+     * without boxing.
      */
-    public AxesLocation(Function<Double, Double> function, AxesLocation axesLocation) {
-        location = new LinkedHashMap<>();
-        for (Axis axis : axesLocation.getAxes()) {
-            location.put(axis, function.apply(axesLocation.getCoordinate(axis)));
+    private static AxesLocation merge(DoubleBinaryOperator operator, AxesLocation axesLocation0, AxesLocation axesLocation1) {
+        Builder builder = new Builder(axesLocation0, 
+                axesLocation0.size + (axesLocation1 != null ? axesLocation1.size : 0));
+        if (axesLocation1 != null) {
+            for (int i = 0; i < axesLocation1.size; i++) {
+                Axis axis = axesLocation1.axes[i];
+                double coordinate = axesLocation1.coordinates[i];
+                int index = builder.indexOf(axis);
+                if (index < 0) {
+                    builder.put(axis, coordinate);
+                }
+                else {
+                    builder.coordinates[index] = operator.applyAsDouble(builder.coordinates[index], coordinate);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    private static Builder map(Function<Double, Double> function, AxesLocation axesLocation) {
+        Builder builder = new Builder(axesLocation.size);
+        for (int i = 0; i < axesLocation.size; i++) {
+            Double coordinate = function.apply(axesLocation.coordinates[i]);
+            if (coordinate != null) {
+                builder.put(axesLocation.axes[i], coordinate);
+            }
+        }
+        return builder;
+    }
+
+    private static int totalSize(AxesLocation... axesLocation) {
+        int size = 0;
+        for (AxesLocation oneAxesLocation : axesLocation) {
+            if (oneAxesLocation != null) {
+                size += oneAxesLocation.size;
+            }
         }
+        return size;
+    }
+
+    /**
+     * @param axis
+     * @return The position of the axis in the arrays, or -1 if not contained. 
+     */
+    private int indexOf(Axis axis) {
+        return indexOf(axes, size, mask, axis);
     }
 
     public AxesLocation add(AxesLocation other) {
-        return new AxesLocation((a, b) -> (a + b), this, other);
+        return merge((double a, double b) -> (a + b), this, other);
     }
 
     public AxesLocation subtract(AxesLocation other) {
-        return new AxesLocation((a, b) -> (a - b), this, other);
+        return merge((double a, double b) -> (a - b), this, other);
     }
 
     public AxesLocation multiply(double factor) {
-        return new AxesLocation((a) -> (a*factor), this);
+        Builder result = new Builder(this, size);
+        for (int i = 0; i < size; i++) {
+            result.coordinates[i] *= factor;
+        }
+        return result.build();
     }
 
     public AxesLocation put(AxesLocation other) {
-        return new AxesLocation((a, b) -> (b), this, other);
+        return merge((double a, double b) -> (b), this, other);
     }
 
     public AxesLocation remove(Axis other) {
-        return new AxesLocation(this.getControllerAxes(), 
-                (axis) -> (axis.equals(other) ? 
-                        null : this.getLengthCoordinate(axis)));
+        Builder result = new Builder(size);
+        for (int i = 0; i < size; i++) {
+            if (axes[i] instanceof ControllerAxis && !axes[i].equals(other)) {
+                result.put(axes[i], coordinates[i]);
+            }
+        }
+        return result.build();
     }
 
     /**
@@ -251,8 +453,8 @@ public class AxesLocation {
      */
     public double dotProduct(AxesLocation other) {
         double dot = 0;
-        for (Entry<Axis, Double> entry : this.location.entrySet()) {
-            dot += entry.getValue()*other.getCoordinate(entry.getKey());
+        for (int i = 0; i < size; i++) {
+            dot += coordinates[i]*other.getCoordinate(axes[i]);
         }
         return dot;
     }
@@ -286,7 +488,14 @@ public class AxesLocation {
      * @return
      */
     public AxesLocation drivenBy(Driver driver) {
-        return new AxesLocation(getAxes(driver), (axis) -> (getLengthCoordinate(axis)));
+        Builder result = new Builder(size);
+        for (int i = 0; i < size; i++) {
+            if (axes[i] instanceof ControllerAxis 
+                    && (driver == null || ((ControllerAxis) axes[i]).getDriver() == driver)) {
+                result.put(axes[i], coordinates[i]);
+            }
+        }
+        return result.build();
     }
 
     /**
@@ -296,19 +505,56 @@ public class AxesLocation {
      * @return
      */
     public AxesLocation byType(Axis.Type... types) {
-        final List<Axis.Type> typeList = Arrays.asList(types);
-        return  new AxesLocation(getAxes(), 
-                (axis) -> (typeList.contains(axis.getType()) ? 
-                        getLengthCoordinate(axis) : null)); 
+        Builder result = new Builder(size);
+        for (int i = 0; i < size; i++) {
+            Axis.Type type = axes[i].getType();
+            for (Axis.Type t : types) {
+                if (t == type) {
+                    result.put(axes[i], coordinates[i]);
+                    break;
+                }
+            }
+        }
+        return result.build();
     }
 
     /**
      * Return all the axes from the AxesLocation.
      * 
-     * @return
+     * @return An unmodifiable Set view of the axes, in order.
      */
     public Set<Axis> getAxes() {
-        return location.keySet();
+        return new AbstractSet<Axis>() {
+            @Override
+            public Iterator<Axis> iterator() {
+                return new Iterator<Axis>() {
+                    int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < size;
+                    }
+
+                    @Override
+                    public Axis next() {
+                        if (i >= size) {
+                            throw new NoSuchElementException();
+                        }
+                        return axes[i++];
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof Axis && indexOf((Axis) o) >= 0;
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
     }
 
     /**
@@ -319,8 +565,10 @@ public class AxesLocation {
      */
     public LinkedHashSet<ControllerAxis> getAxes(Driver driver) {
         LinkedHashSet<ControllerAxis> axes = new LinkedHashSet<>();
-        for (ControllerAxis axis : getAxes(ControllerAxis.class)) {
-            if (driver == null || ((ControllerAxis) axis).getDriver() == driver) {
+        for (int i = 0; i < size; i++) {
+            Axis axis = this.axes[i];
+            if (axis instanceof ControllerAxis 
+                    && (driver == null || ((ControllerAxis) axis).getDriver() == driver)) {
                 axes.add((ControllerAxis) axis);
             }
         }
@@ -336,7 +584,8 @@ public class AxesLocation {
     @SuppressWarnings("unchecked")
     public <T extends Axis> LinkedHashSet<T> getAxes(Class<T> axisClass) {
         LinkedHashSet<T> axes = new LinkedHashSet<>();
-        for (Axis axis : getAxes()) {
+        for (int i = 0; i < size; i++) {
+            Axis axis = this.axes[i];
             if (axisClass.isInstance(axis)) {
                 axes.add((T) axis);
             }
@@ -358,7 +607,7 @@ public class AxesLocation {
         if (axis == null) {
             return true;
         }
-        return (location.containsKey(axis));
+        return indexOf(axis) >= 0;
     }
 
     /**
@@ -386,11 +635,11 @@ public class AxesLocation {
     }
 
     public int size() {
-        return getAxes().size();
+        return size;
     }
 
     public boolean isEmpty() {
-        return getAxes().isEmpty();
+        return size == 0;
     }
 
     /**
@@ -421,9 +670,9 @@ public class AxesLocation {
      */
     public double getCoordinate(Axis axis) {
         if (axis != null) {
-            Double coordinate = location.get(axis);
-            if (coordinate != null) {
-                return coordinate;
+            int index = indexOf(axis);
+            if (index >= 0) {
+                return coordinates[index];
             }
         }
         return 0.0;
@@ -458,14 +707,13 @@ public class AxesLocation {
     public String toString() {
         StringBuilder str = new StringBuilder();
         str.append("(");
-        int i = 0;
-        for (Entry<Axis, Double> entry : location.entrySet()) {
-            if (i++ > 0) {
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
                 str.append(", ");
             }
-            str.append(entry.getKey().getName());
+            str.append(axes[i].getName());
             str.append(":");
-            str.append(String.format(Locale.US, "%f", entry.getValue())); 
+            str.append(String.format(Locale.US, "%f", coordinates[i])); 
         }
         str.append(")");
         return str.toString();
@@ -597,13 +845,18 @@ public class AxesLocation {
      * @return
      */
     public AxesLocation motionSegmentTo(AxesLocation location1) {
-        AxesLocation distance = new AxesLocation(getControllerAxes(), 
-                (a) -> ( location1.contains(a) ? 
-                        (!a.coordinatesMatch(getLengthCoordinate(a), location1.getLengthCoordinate(a)) ? 
-                                new Length(location1.getCoordinate(a) - getCoordinate(a), AxesLocation.getUnits())
-                                :null)
-                        :null));
-        return distance;
+        Builder distance = new Builder(size);
+        for (int i = 0; i < size; i++) {
+            if (axes[i] instanceof ControllerAxis) {
+                ControllerAxis a = (ControllerAxis) axes[i];
+                int index1 = location1.indexOf(a);
+                if (index1 >= 0 
+                        && !a.coordinatesMatch(getLengthCoordinate(a), location1.getLengthCoordinate(a))) {
+                    distance.put(a, location1.coordinates[index1] - coordinates[i]);
+                }
+            }
+        }
+        return distance.build();
     }
 
     /**
@@ -614,9 +867,9 @@ public class AxesLocation {
      */
     public double getEuclideanMetric() {
         double sumSq = 0;
-        for (Entry<Axis, Double> entry : location.entrySet()) {
-            if (entry.getKey() instanceof ControllerAxis) {
-                sumSq += Math.pow(entry.getValue(), 2);
+        for (int i = 0; i < size; i++) {
+            if (axes[i] instanceof ControllerAxis) {
+                sumSq += Math.pow(coordinates[i], 2);
             }
         }
         return Math.sqrt(sumSq);
@@ -23,23 +23,32 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.prefs.Preferences;
 
 import javax.swing.JOptionPane;
@@ -114,11 +123,18 @@ public class Configuration extends AbstractModelObject {
 
     private LinkedHashMap<String, Package> packages = new LinkedHashMap<>();
     private LinkedHashMap<String, Part> parts = new LinkedHashMap<>();
+    /**
+     * Suffix index of the parts, by their reversed id, so all the ids ending with a given suffix 
+     * form a contiguous range. 
+     */
+    private TreeMap<String, Part> partsByReversedId = new TreeMap<>();
+    private int partIdsWithSpaces;
     private LinkedHashMap<String, AbstractVisionSettings> visionSettings = new LinkedHashMap<>();
     private Machine machine;
     private LinkedHashMap<File, Panel> panels = new LinkedHashMap<>();
     private LinkedHashMap<File, Board> boards = new LinkedHashMap<>();
     private boolean loaded;
+    private boolean loadedDefaults;
     private Set<ConfigurationListener> listeners = Collections.synchronizedSet(new HashSet<>());
     private File configurationDirectory;
     private Preferences prefs;
@@ -406,117 +422,54 @@ public class Configuration extends AbstractModelObject {
     }
 
     public synchronized void load() throws Exception {
-        boolean forceSave = false;
+        loadedDefaults = false;
         boolean overrideUserConfig = Boolean.getBoolean("overrideUserConfig");
 
+        File packagesFile = getConfigurationFile("packages.xml", "packages", overrideUserConfig);
+        File partsFile = getConfigurationFile("parts.xml", "parts", overrideUserConfig);
+        File boardsFile = getConfigurationFile("boards.xml", "boards", overrideUserConfig);
+        File panelsFile = getConfigurationFile("panels.xml", "panels", overrideUserConfig);
+        File visionSettingsFile = getConfigurationFile("vision-settings.xml", "visionSettings", overrideUserConfig);
+        File machineFile = getConfigurationFile("machine.xml", "machine", overrideUserConfig);
+
+        // Parse the independent files concurrently. The objects are then added to the configuration in 
+        // dependency order on this thread: Packages before Parts, Parts before Boards, Panels and the Machine.
+        ExecutorService executor = Executors.newFixedThreadPool(3, (runnable) -> {
+            Thread thread = new Thread(runnable, "Configuration.load");
+            thread.setDaemon(true);
+            return thread;
+        });
         try {
-            File file = new File(configurationDirectory, "packages.xml");
-            if (overrideUserConfig || !file.exists()) {
-                Logger.info("No packages.xml found in configuration directory, loading defaults.");
-                file = File.createTempFile("packages", "xml");
-                FileUtils.copyURLToFile(ClassLoader.getSystemResource("config/packages.xml"), file);
-                forceSave = true;
-            }
-            loadPackages(file);
-        }
-        catch (Exception e) {
-            String message = e.getMessage();
-            if (e.getCause() != null && e.getCause().getMessage() != null) {
-                message = e.getCause().getMessage();
-            }
-            throw new Exception("Error while reading packages.xml (" + message + ")", e);
-        }
-
-
-        try {
-            File file = new File(configurationDirectory, "parts.xml");
-            if (overrideUserConfig || !file.exists()) {
-                Logger.info("No parts.xml found in configuration directory, loading defaults.");
-                file = File.createTempFile("parts", "xml");
-                FileUtils.copyURLToFile(ClassLoader.getSystemResource("config/parts.xml"), file);
-                forceSave = true;
-            }
-            loadParts(file);
-        }
-        catch (Exception e) {
-            String message = e.getMessage();
-            if (e.getCause() != null && e.getCause().getMessage() != null) {
-                message = e.getCause().getMessage();
-            }
-            throw new Exception("Error while reading parts.xml (" + message + ")", e);
-        }
-
-        try {
-            File file = new File(configurationDirectory, "boards.xml");
-            if (overrideUserConfig || !file.exists()) {
-                Logger.info("No boards.xml found in configuration directory, loading defaults.");
-                file = File.createTempFile("boards", "xml");
-                FileUtils.copyURLToFile(ClassLoader.getSystemResource("config/boards.xml"), file);
-                forceSave = true;
-            }
-            loadBoards(file);
-        }
-        catch (Exception e) {
-            String message = e.getMessage();
-            if (e.getCause() != null && e.getCause().getMessage() != null) {
-                message = e.getCause().getMessage();
-            }
-            throw new Exception("Error while reading boards.xml (" + message + ")", e);
-        }
-
-        try {
-            File file = new File(configurationDirectory, "panels.xml");
-            if (overrideUserConfig || !file.exists()) {
-                Logger.info("No panels.xml found in configuration directory, loading defaults.");
-                file = File.createTempFile("panels", "xml");
-                FileUtils.copyURLToFile(ClassLoader.getSystemResource("config/panels.xml"), file);
-                forceSave = true;
-            }
-            loadPanels(file);
-        }
-        catch (Exception e) {
-            String message = e.getMessage();
-            if (e.getCause() != null && e.getCause().getMessage() != null) {
-                message = e.getCause().getMessage();
+            Future<PackagesConfigurationHolder> packages = executor.submit(() -> 
+                readConfigurationFile("packages.xml", packagesFile, PackagesConfigurationHolder.class));
+            Future<PartsConfigurationHolder> parts = executor.submit(() -> 
+                readConfigurationFile("parts.xml", partsFile, PartsConfigurationHolder.class));
+            Future<VisionSettingsConfigurationHolder> visionSettings = executor.submit(() -> 
+                readConfigurationFile("vision-settings.xml", visionSettingsFile, VisionSettingsConfigurationHolder.class));
+
+            loadPackages(getLoaded(packages));
+            loadParts(getLoaded(parts));
+            loadVisionSettings(getLoaded(visionSettings));
+
+            // The Machine only references what is loaded by now, parse it while the Boards and Panels are loaded. 
+            Future<MachineConfigurationHolder> machine = executor.submit(() -> 
+                readConfigurationFile("machine.xml", machineFile, MachineConfigurationHolder.class));
+            try {
+                loadBoards(boardsFile);
             }
-            throw new Exception("Error while reading panels.xml (" + message + ")", e);
-        }
-
-        try {
-            File file = new File(configurationDirectory, "vision-settings.xml");
-            if (overrideUserConfig || !file.exists()) {
-                Logger.info("No vision-settings.xml found in configuration directory, loading defaults.");
-                file = File.createTempFile("visionSettings", "xml");
-                FileUtils.copyURLToFile(ClassLoader.getSystemResource("config/vision-settings.xml"), file);
-                forceSave = true;
+            catch (Exception e) {
+                throw loadError("boards.xml", e);
             }
-            loadVisionSettings(file);
-        }
-        catch (Exception e) {
-            String message = e.getMessage();
-            if (e.getCause() != null && e.getCause().getMessage() != null) {
-                message = e.getCause().getMessage();
+            try {
+                loadPanels(panelsFile);
             }
-            throw new Exception("Error while reading vision-settings.xml (" + message + ")", e);
-        }
-
-
-        try {
-            File file = new File(configurationDirectory, "machine.xml");
-            if (overrideUserConfig || !file.exists()) {
-                Logger.info("No machine.xml found in configuration directory, loading defaults.");
-                file = File.createTempFile("machine", "xml");
-                FileUtils.copyURLToFile(ClassLoader.getSystemResource("config/machine.xml"), file);
-                forceSave = true;
+            catch (Exception e) {
+                throw loadError("panels.xml", e);
             }
-            loadMachine(file);
+            loadMachine(getLoaded(machine));
         }
-        catch (Exception e) {
-            String message = e.getMessage();
-            if (e.getCause() != null && e.getCause().getMessage() != null) {
-                message = e.getCause().getMessage();
-            }
-            throw new Exception("Error while reading machine.xml (" + message + ")", e);
+        finally {
+            executor.shutdown();
         }
 
         loaded = true;
@@ -527,7 +480,7 @@ public class Configuration extends AbstractModelObject {
             listener.configurationLoaded(this);
         }
 
-        if (forceSave) {
+        if (loadedDefaults) {
             Logger.info("Defaults were loaded. Saving to configuration directory.");
             configurationDirectory.mkdirs();
             save();
@@ -538,46 +491,111 @@ public class Configuration extends AbstractModelObject {
         }
     }
 
+    /**
+     * Saves the configuration files. Each file is serialized once into a buffer and only written, if its 
+     * content has changed since it was last saved (or loaded from disk). Changed files are backed up and then 
+     * replaced atomically, so unchanged files neither cost a write nor pile up identical backups.
+     * 
+     * @throws Exception
+     */
     public synchronized void save() throws Exception {
         LocalDateTime now = LocalDateTime.now();
         try {
-           saveMachine(createBackedUpFile("machine.xml", now));
+           saveMachine(new ConfigurationFile("machine.xml", now));
         }
         catch (Exception e) {
             throw new Exception("Error while saving machine.xml (" + e.getMessage() + ")", e);
         }
         try {
-            savePackages(createBackedUpFile("packages.xml", now));
+            savePackages(new ConfigurationFile("packages.xml", now));
         }
         catch (Exception e) {
             throw new Exception("Error while saving packages.xml (" + e.getMessage() + ")", e);
         }
         try {
-            saveParts(createBackedUpFile("parts.xml", now));
+            saveParts(new ConfigurationFile("parts.xml", now));
         }
         catch (Exception e) {
             throw new Exception("Error while saving parts.xml (" + e.getMessage() + ")", e);
         }
         try {
-            saveBoards(createBackedUpFile("boards.xml", now));
+            saveBoards(new ConfigurationFile("boards.xml", now));
         }
         catch (Exception e) {
             throw new Exception("Error while saving boards.xml (" + e.getMessage() + ")", e);
         }
         try {
-            savePanels(createBackedUpFile("panels.xml", now));
+            savePanels(new ConfigurationFile("panels.xml", now));
         }
         catch (Exception e) {
             throw new Exception("Error while saving panels.xml (" + e.getMessage() + ")", e);
         }
         try {
-            saveVisionSettings(createBackedUpFile("vision-settings.xml", now));
+            saveVisionSettings(new ConfigurationFile("vision-settings.xml", now));
         }
         catch (Exception e) {
             throw new Exception("Error while saving vision-settings.xml (" + e.getMessage() + ")", e);
         }
     }
 
+    /**
+     * A configuration file to be saved, backed up with the given time stamp, if changed.
+     */
+    private class ConfigurationFile {
+        final String fileName;
+        final LocalDateTime now;
+
+        ConfigurationFile(String fileName, LocalDateTime now) {
+            this.fileName = fileName;
+            this.now = now;
+        }
+
+        void save(Object o) throws Exception {
+            byte[] content = serializeObject(o);
+            File file = new File(configurationDirectory, fileName);
+            byte[] digest = digest(content);
+            byte[] savedDigest = savedDigests.get(fileName);
+            if (savedDigest == null && file.exists()) {
+                // Not saved yet in this session, compare with the file on disk.  
+                savedDigest = digest(Files.readAllBytes(file.toPath()));
+            }
+            if (savedDigest != null && MessageDigest.isEqual(digest, savedDigest) && file.exists()) {
+                Logger.trace("{} unchanged, not saved.", fileName);
+            }
+            else {
+                createBackedUpFile(fileName, now);
+                writeAtomically(content, file);
+            }
+            savedDigests.put(fileName, digest);
+        }
+    }
+
+    private final Map<String, byte[]> savedDigests = new HashMap<>();
+
+    private static byte[] digest(byte[] content) throws NoSuchAlgorithmException {
+        return MessageDigest.getInstance("SHA-256").digest(content);
+    }
+
+    /**
+     * Write the content to a temporary file first and then move it over the file, so a crash or a full disk
+     * never leaves a partially written configuration file behind. 
+     * 
+     * @param content
+     * @param file
+     * @throws IOException
+     */
+    private static void writeAtomically(byte[] content, File file) throws IOException {
+        Path path = file.toPath();
+        Path tempPath = path.resolveSibling(file.getName()+".tmp");
+        Files.write(tempPath, content);
+        try {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
     protected File createBackedUpFile(String fileName, LocalDateTime now) throws Exception {
         File file = new File(configurationDirectory, fileName);
         if (file.exists()) {
@@ -630,19 +648,63 @@ public class Configuration extends AbstractModelObject {
         return Collections.unmodifiableList(new ArrayList<>(parts.values()));
     }
 
+    /**
+     * @param suffix
+     * @return The parts whose id ends with the given suffix (case-sensitive).
+     */
+    public List<Part> getPartsWithIdSuffix(String suffix) {
+        String reversedSuffix = new StringBuilder(suffix).reverse().toString();
+        List<Part> list = new ArrayList<>();
+        for (Part part : partsByReversedId.tailMap(reversedSuffix, true).values()) {
+            if (!part.getId().endsWith(suffix)) {
+                break;
+            }
+            list.add(part);
+        }
+        return list;
+    }
+
+    /**
+     * @return True if any of the part ids contains a space.
+     */
+    public boolean isAnyPartIdWithSpaces() {
+        return partIdsWithSpaces > 0;
+    }
+
     public void addPart(Part part) {
         if (null == part.getId()) {
             throw new Error("Part with null Id cannot be added to Configuration.");
         }
-        parts.put(part.getId().toUpperCase(), part);
+        Part oldPart = parts.put(part.getId().toUpperCase(), part);
+        if (oldPart != null) {
+            unindexPart(oldPart);
+        }
+        indexPart(part);
         firePropertyChange("parts", null, parts);
     }
 
     public void removePart(Part part) {
-        parts.remove(part.getId().toUpperCase());
+        Part oldPart = parts.remove(part.getId().toUpperCase());
+        if (oldPart != null) {
+            unindexPart(oldPart);
+        }
         firePropertyChange("parts", null, parts);
     }
 
+    private void indexPart(Part part) {
+        partsByReversedId.put(new StringBuilder(part.getId()).reverse().toString(), part);
+        if (part.getId().contains(" ")) {
+            partIdsWithSpaces++;
+        }
+    }
+
+    private void unindexPart(Part part) {
+        partsByReversedId.remove(new StringBuilder(part.getId()).reverse().toString());
+        if (part.getId().contains(" ")) {
+            partIdsWithSpaces--;
+        }
+    }
+
     public void addVisionSettings(AbstractVisionSettings visionSettings) {
         if (null == visionSettings.getId()) {
             throw new Error("Vision Settings with null Id cannot be added to Configuration.");
@@ -829,56 +891,103 @@ public class Configuration extends AbstractModelObject {
         return board;
     }
     
-    private static void serializeObject(Object o, File file) throws Exception {
-        Serializer serializer = createSerializer();
-        // This write forces any errors that will appear to happen before we start writing to
+    private static byte[] serializeObject(Object o) throws Exception {
+        Serializer serializer = getSerializer();
+        // Serializing into a buffer makes any errors appear before we start writing to
         // the file, which keeps us from writing a partial configuration to the real file.
-        serializer.write(o, new ByteArrayOutputStream());
-        FileOutputStream out = new FileOutputStream(file);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64*1024);
         serializer.write(o, out);
         out.write('\n');
-        out.close();
+        return out.toByteArray();
     }
 
-    private void loadMachine(File file) throws Exception {
-        Serializer serializer = createSerializer();
-        MachineConfigurationHolder holder = serializer.read(MachineConfigurationHolder.class, file);
+    /**
+     * Returns the configuration file of the given name. If it does not exist (or overrideUserConfig is set), 
+     * the defaults are copied from the resources into a temporary file, which is returned instead. 
+     * 
+     * @param fileName
+     * @param tempPrefix
+     * @param overrideUserConfig
+     * @return
+     * @throws Exception
+     */
+    private File getConfigurationFile(String fileName, String tempPrefix, boolean overrideUserConfig) throws Exception {
+        File file = new File(configurationDirectory, fileName);
+        if (overrideUserConfig || !file.exists()) {
+            Logger.info("No "+fileName+" found in configuration directory, loading defaults.");
+            try {
+                file = File.createTempFile(tempPrefix, "xml");
+                FileUtils.copyURLToFile(ClassLoader.getSystemResource("config/"+fileName), file);
+            }
+            catch (Exception e) {
+                throw loadError(fileName, e);
+            }
+            loadedDefaults = true;
+        }
+        return file;
+    }
+
+    private static <T> T readConfigurationFile(String fileName, File file, Class<T> holderClass) throws Exception {
+        try {
+            return getSerializer().read(holderClass, file);
+        }
+        catch (Exception e) {
+            throw loadError(fileName, e);
+        }
+    }
+
+    private static Exception loadError(String fileName, Exception e) {
+        String message = e.getMessage();
+        if (e.getCause() != null && e.getCause().getMessage() != null) {
+            message = e.getCause().getMessage();
+        }
+        return new Exception("Error while reading " + fileName + " (" + message + ")", e);
+    }
+
+    private static <T> T getLoaded(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private void loadMachine(MachineConfigurationHolder holder) throws Exception {
         machine = holder.machine;
     }
 
-    private void saveMachine(File file) throws Exception {
+    private void saveMachine(ConfigurationFile file) throws Exception {
         MachineConfigurationHolder holder = new MachineConfigurationHolder();
         holder.machine = machine;
-        serializeObject(holder, file);
+        file.save(holder);
     }
 
-    private void loadPackages(File file) throws Exception {
-        Serializer serializer = createSerializer();
-        PackagesConfigurationHolder holder =
-                serializer.read(PackagesConfigurationHolder.class, file);
+    private void loadPackages(PackagesConfigurationHolder holder) throws Exception {
         for (Package pkg : holder.packages) {
             addPackage(pkg);
         }
     }
 
-    private void savePackages(File file) throws Exception {
+    private void savePackages(ConfigurationFile file) throws Exception {
         PackagesConfigurationHolder holder = new PackagesConfigurationHolder();
         holder.packages = new ArrayList<>(packages.values());
-        serializeObject(holder, file);
+        file.save(holder);
     }
 
-    private void loadParts(File file) throws Exception {
-        Serializer serializer = createSerializer();
-        PartsConfigurationHolder holder = serializer.read(PartsConfigurationHolder.class, file);
+    private void loadParts(PartsConfigurationHolder holder) throws Exception {
         for (Part part : holder.parts) {
             addPart(part);
         }
     }
 
-    private void saveParts(File file) throws Exception {
+    private void saveParts(ConfigurationFile file) throws Exception {
         PartsConfigurationHolder holder = new PartsConfigurationHolder();
         holder.parts = new ArrayList<>(parts.values());
-        serializeObject(holder, file);
+        file.save(holder);
     }
 
     /**
@@ -888,7 +997,7 @@ public class Configuration extends AbstractModelObject {
      * @throws Exception - if the specified file can't be read successfully
      */
     private void loadBoards(File file) throws Exception {
-        Serializer serializer = createSerializer();
+        Serializer serializer = getSerializer();
         BoardsConfigurationHolder holder = serializer.read(BoardsConfigurationHolder.class, file);
         for (File boardFile : holder.boards) {
             try {
@@ -909,10 +1018,10 @@ public class Configuration extends AbstractModelObject {
      * @param file - the file in which to save the Boards
      * @throws Exception if the file can't be written successfully
      */
-    private void saveBoards(File file) throws Exception {
+    private void saveBoards(ConfigurationFile file) throws Exception {
         BoardsConfigurationHolder holder = new BoardsConfigurationHolder();
         holder.boards = new ArrayList<>(boards.keySet());
-        serializeObject(holder, file);
+        file.save(holder);
         
         for (Board board : getBoards()) {
             confirmSaveOfModified(board);
@@ -926,7 +1035,7 @@ public class Configuration extends AbstractModelObject {
      * @throws Exception - if the specified file can't be read successfully
      */
     private void loadPanels(File file) throws Exception {
-        Serializer serializer = createSerializer();
+        Serializer serializer = getSerializer();
         PanelsConfigurationHolder holder = serializer.read(PanelsConfigurationHolder.class, file);
         for (File panelFile : holder.panels) {
             try {
@@ -947,10 +1056,10 @@ public class Configuration extends AbstractModelObject {
      * @param file - the file in which to save the Panels
      * @throws Exception if the file can't be written successfully
      */
-    private void savePanels(File file) throws Exception {
+    private void savePanels(ConfigurationFile file) throws Exception {
         PanelsConfigurationHolder holder = new PanelsConfigurationHolder();
         holder.panels = new ArrayList<>(panels.keySet());
-        serializeObject(holder, file);
+        file.save(holder);
         
         for (Panel panel : getPanels()) {
             confirmSaveOfModified(panel);
@@ -984,19 +1093,16 @@ public class Configuration extends AbstractModelObject {
         }
     }
     
-    private void loadVisionSettings(File file) throws Exception {
-        Serializer serializer = createSerializer();
-        VisionSettingsConfigurationHolder holder =
-                serializer.read(VisionSettingsConfigurationHolder.class, file);
+    private void loadVisionSettings(VisionSettingsConfigurationHolder holder) throws Exception {
         for (AbstractVisionSettings visionSettings : holder.visionSettings) {
             addVisionSettings(visionSettings);
         }
     }
 
-    private void saveVisionSettings(File file) throws Exception {
+    private void saveVisionSettings(ConfigurationFile file) throws Exception {
         VisionSettingsConfigurationHolder holder = new VisionSettingsConfigurationHolder();
         holder.visionSettings = new ArrayList<>(visionSettings.values());
-        serializeObject(holder, file);
+        file.save(holder);
     }
 
     /**
@@ -1483,6 +1589,24 @@ public class Configuration extends AbstractModelObject {
         return board;
     }
 
+    private static volatile Serializer serializer;
+
+    /**
+     * Returns a shared Serializer for the configuration files. The Persister is thread-safe and caches 
+     * the reflective schema of the classes it has seen, so reusing it saves the analysis on every read 
+     * and write. 
+     * 
+     * @return
+     */
+    private static Serializer getSerializer() {
+        Serializer serializer = Configuration.serializer;
+        if (serializer == null) {
+            serializer = createSerializer();
+            Configuration.serializer = serializer;
+        }
+        return serializer;
+    }
+
     public static Serializer createSerializer() {
         Style style = new HyphenStyle();
         Format format = new Format(style);
@@ -249,6 +249,13 @@ public class MotionProfile {
         return solvingTime;
     }
 
+    /**
+     * @return The number of profile evaluations the solver needed, i.e. its iterations.
+     */
+    public int getEvaluations() {
+        return eval;
+    }
+
     public double getLowerSBoundary() {
         return sBound0;
     }
@@ -664,14 +671,14 @@ public class MotionProfile {
                 // tEntry=(v-v0)/a
                 // tExit=(v-v7)/a 
                 // sEntry=v0*tEntry + 1/2*a*tEntry^2
-                // sExit=v7*tEntry + 1/2*a*tExit^2
+                // sExit=v7*tExit + 1/2*a*tExit^2
                 // eq=(s==sEntry + sExit)
                 // solve(eq, v)
-                // [v == -sqrt(a*s + 1/2*v0^2 + v0*v7 - 1/2*v7^2), v == sqrt(a*s + 1/2*v0^2 + v0*v7 - 1/2*v7^2)]
+                // [v == -sqrt(a*s + 1/2*v0^2 + 1/2*v7^2), v == sqrt(a*s + 1/2*v0^2 + 1/2*v7^2)]
 
                 if (aMaxEntry == aMaxExit) {
                     double sd = signum*(s[segments]-s[0]);
-                    vInitialGuess = signum*Math.sqrt(aMaxEntry*sd + 1./2*Math.pow(v[0], 2) + v[0]*v[7] - 1./2*Math.pow(v[7], 2));
+                    vInitialGuess = signum*Math.sqrt(aMaxEntry*sd + 1./2*Math.pow(v[0], 2) + 1./2*Math.pow(v[7], 2));
                     trace("Analytical solution with constant acceleration profile = "+vInitialGuess);
                 }
             }
@@ -1,5 +1,11 @@
 package org.openpnp.scripting;
 
+import java.io.File;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineManager;
 
@@ -12,6 +18,13 @@ public class ScriptEngineKeyedPooledObjectFactory
         extends BaseKeyedPooledObjectFactory<String, ScriptEngine> {
     private final ScriptEngineManager manager;
 
+    /**
+     * Compiled scripts of the pooled engines. A compiled script is bound to the engine that compiled it,
+     * so the cache lives as long as the engine is in the pool, and is released when the engine is destroyed.
+     */
+    private final Map<ScriptEngine, Map<File, Scripting.CompiledScriptEntry>> compiledScripts =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
     public ScriptEngineKeyedPooledObjectFactory(ScriptEngineManager manager) {
         this.manager = manager;
     }
@@ -28,9 +41,31 @@ public class ScriptEngineKeyedPooledObjectFactory
         elapsedTimeNs = System.nanoTime() - startTimeNs;
         Logger.trace(engineName + "scripting engine created in " + elapsedTimeNs / 1E6
                 + " milliseconds");
+        compiledScripts.put(engine, new ConcurrentHashMap<>());
         return engine;
     }
 
+    @Override
+    public void destroyObject(String engineName, PooledObject<ScriptEngine> p) throws Exception {
+        compiledScripts.remove(p.getObject());
+    }
+
+    /**
+     * @param engine
+     * @return The compiled scripts cache of the pooled engine, or null if the engine is not pooled.
+     */
+    Map<File, Scripting.CompiledScriptEntry> getCompiledScripts(ScriptEngine engine) {
+        return compiledScripts.get(engine);
+    }
+
+    void clearCompiledScripts() {
+        synchronized (compiledScripts) {
+            for (Map<File, Scripting.CompiledScriptEntry> engineScripts : compiledScripts.values()) {
+                engineScripts.clear();
+            }
+        }
+    }
+
     @Override
     public PooledObject<ScriptEngine> wrap(ScriptEngine value) {
         return new DefaultPooledObject<ScriptEngine>(value);
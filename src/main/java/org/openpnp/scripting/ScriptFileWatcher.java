@@ -86,6 +86,7 @@ public class ScriptFileWatcher {
 
             @Override
             public void actionPerformed(ActionEvent e) {
+                scripting.refreshScripts();
                 synchronizeMenu(menu, scripting.getScriptsDirectory());
             }
         });
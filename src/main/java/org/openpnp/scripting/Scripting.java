@@ -2,18 +2,34 @@ package org.openpnp.scripting;
 
 import java.io.File;
 import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
 
 import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
@@ -22,6 +38,7 @@ import org.apache.commons.pool2.impl.GenericKeyedObjectPool;
 import org.openjdk.nashorn.api.scripting.NashornScriptEngineFactory;
 import org.openpnp.gui.MainFrame;
 import org.openpnp.model.Configuration;
+import org.openpnp.spi.Machine;
 import org.pmw.tinylog.Logger;
 
 import com.google.common.io.Files;
@@ -33,13 +50,117 @@ public class Scripting {
     private final File scriptsDirectory;
     private final File eventsDirectory;
     private final HashMap<String, String> extensionToEngineNameMap;
+    private final ScriptEngineKeyedPooledObjectFactory engineFactory;
     private final GenericKeyedObjectPool<String, ScriptEngine> enginePool;
 
+    /**
+     * Event name to event script files registry. Null if it needs to be rescanned.
+     */
+    private Map<String, List<File>> eventScripts;
+    private long eventsDirectoryLastModified;
+    private WatchService eventsWatcher;
+
+    /**
+     * Engine classes that claim to be Compilable but do not implement it.
+     */
+    private final Set<Class<?>> uncompilableEngines = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, EventStatistics> eventStatistics = new ConcurrentHashMap<>();
+
+    /**
+     * Maximum number of asynchronous event script invocations queued or running, before the caller is blocked.
+     */
+    private static final int asyncQueueCapacity = 256;
+    /**
+     * Maximum number of worker threads running asynchronous event scripts.
+     */
+    private static final int asyncWorkers = 4;
+    private final Semaphore asyncPermits = new Semaphore(asyncQueueCapacity);
+    /**
+     * The last asynchronous invocation of each event. The next one is chained to it, so the scripts
+     * of the same event run in order.
+     */
+    private final Map<String, CompletableFuture<Void>> asyncTails = new HashMap<>();
+    private ExecutorService asyncExecutor;
+
+    static class CompiledScriptEntry {
+        final long lastModified;
+        final long length;
+        final CompiledScript compiledScript;
+
+        CompiledScriptEntry(long lastModified, long length, CompiledScript compiledScript) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.compiledScript = compiledScript;
+        }
+    }
+
+    /**
+     * Invocation statistics of one event, i.e. what the event script hooks cost.
+     */
+    public static class EventStatistics {
+        private final String event;
+        private long invocations;
+        private long scriptExecutions;
+        private long totalTimeNs;
+        private long asyncInvocations;
+        private long asyncErrors;
+
+        public EventStatistics(String event) {
+            this.event = event;
+        }
+
+        synchronized void add(int scripts, long timeNs) {
+            invocations++;
+            scriptExecutions += scripts;
+            totalTimeNs += timeNs;
+        }
+
+        synchronized void addAsync(int scripts, long timeNs, boolean error) {
+            add(scripts, timeNs);
+            asyncInvocations++;
+            if (error) {
+                asyncErrors++;
+            }
+        }
+
+        public String getEvent() {
+            return event;
+        }
+
+        public synchronized long getInvocations() {
+            return invocations;
+        }
+
+        public synchronized long getScriptExecutions() {
+            return scriptExecutions;
+        }
+
+        public synchronized double getTotalTimeMs() {
+            return totalTimeNs/1E6;
+        }
+
+        public synchronized long getAsyncInvocations() {
+            return asyncInvocations;
+        }
+
+        public synchronized long getAsyncErrors() {
+            return asyncErrors;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return event + ": " + invocations + " invocations, " + scriptExecutions 
+                    + " script executions, " + totalTimeNs/1E6 + " milliseconds"
+                    + (asyncInvocations > 0 ? ", " + asyncInvocations + " asynchronous, " + asyncErrors + " errors" : "");
+        }
+    }
+
     public Scripting(File scriptsDirectory) {
         this.scriptsDirectory = scriptsDirectory;
         extensionToEngineNameMap = new HashMap<>();
-        enginePool = new GenericKeyedObjectPool<>(
-                new ScriptEngineKeyedPooledObjectFactory(this.manager));
+        engineFactory = new ScriptEngineKeyedPooledObjectFactory(this.manager);
+        enginePool = new GenericKeyedObjectPool<>(engineFactory);
         // Allow unlimited engines, but evict all but five per key after a short idle time
         enginePool.setMaxTotal(-1);
         enginePool.setMaxTotalPerKey(-1);
@@ -95,6 +216,18 @@ public class Scripting {
         if (!eventsDirectory.exists()) {
             eventsDirectory.mkdirs();
         }
+
+        // Watch the events directory, so the event scripts registry is only rescanned when scripts are 
+        // added or removed. 
+        try {
+            eventsWatcher = FileSystems.getDefault().newWatchService();
+            eventsDirectory.toPath().register(eventsWatcher, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+        }
+        catch (Exception e) {
+            Logger.warn(e, "Cannot watch the scripting events directory, it will be scanned for each event");
+            eventsWatcher = null;
+        }
     }
 
     public String[] getExtensions() {
@@ -176,8 +309,16 @@ public class Scripting {
 
         boolean execError = false;
         startTimeNs = System.nanoTime();
-        try (FileReader reader = new FileReader(script)) {
-            engine.eval(reader);
+        try {
+            CompiledScript compiledScript = getCompiledScript(engine, script);
+            if (compiledScript != null) {
+                compiledScript.eval();
+            }
+            else {
+                try (FileReader reader = new FileReader(script)) {
+                    engine.eval(reader);
+                }
+            }
         }
         catch (Exception e) {
             execError = true;
@@ -202,21 +343,214 @@ public class Scripting {
         }
     }
 
+    /**
+     * Get the compiled script for a pooled engine, if the engine supports compiling. Compiled scripts are 
+     * cached with the pooled engine and recompiled when the script file is modified. Engines that are not
+     * pooled are only used once, so compiling would not pay off.
+     * 
+     * @param engine
+     * @param script
+     * @return The compiled script or null if the engine is not pooled or cannot compile the script.
+     * @throws Exception
+     */
+    protected CompiledScript getCompiledScript(ScriptEngine engine, File script) throws Exception {
+        if (!(engine instanceof Compilable) || uncompilableEngines.contains(engine.getClass())) {
+            return null;
+        }
+        Map<File, CompiledScriptEntry> engineScripts = engineFactory.getCompiledScripts(engine);
+        if (engineScripts == null) {
+            return null;
+        }
+        File file = script.getAbsoluteFile();
+        long lastModified = file.lastModified();
+        long length = file.length();
+        CompiledScriptEntry entry = engineScripts.get(file);
+        if (entry != null && entry.lastModified == lastModified && entry.length == length) {
+            return entry.compiledScript;
+        }
+        CompiledScript compiledScript;
+        long startTimeNs = System.nanoTime();
+        try (FileReader reader = new FileReader(file)) {
+            compiledScript = ((Compilable) engine).compile(reader);
+        }
+        catch (ScriptException e) {
+            // Let eval() report the error from source.
+            Logger.debug("Script " + script.getName() + " cannot be compiled, evaluating from source: " + e);
+            return null;
+        }
+        catch (UnsupportedOperationException | Error e) {
+            // Some engines claim to be Compilable but do not implement it (Beanshell throws an Error). 
+            Logger.debug(engine + " scripting engine cannot compile scripts, evaluating from source: " + e);
+            uncompilableEngines.add(engine.getClass());
+            return null;
+        }
+        Logger.trace("Script " + script.getName() + " compiled in " + (System.nanoTime() - startTimeNs) / 1E6
+                + " milliseconds");
+        engineScripts.put(file, new CompiledScriptEntry(lastModified, length, compiledScript));
+        return compiledScript;
+    }
+
+    /**
+     * Get the event scripts from the registry. The registry is rescanned if scripts were added to or removed
+     * from the events directory.
+     * 
+     * @param event
+     * @return The script files for the event.
+     */
+    protected synchronized List<File> getEventScripts(String event) {
+        if (eventsWatcher == null) {
+            eventScripts = null;
+        }
+        else {
+            WatchKey key;
+            while ((key = eventsWatcher.poll()) != null) {
+                key.pollEvents();
+                key.reset();
+                eventScripts = null;
+            }
+        }
+        // The watcher may deliver with some delay (e.g. it is polling on macOS), so the directory time
+        // stamp is checked too.
+        long lastModified = eventsDirectory.lastModified();
+        if (eventScripts == null || lastModified != eventsDirectoryLastModified) {
+            eventsDirectoryLastModified = lastModified;
+            eventScripts = new HashMap<>();
+            for (File script : FileUtils.listFiles(eventsDirectory, getExtensions(), false)) {
+                if (!script.isFile()) {
+                    continue;
+                }
+                eventScripts.computeIfAbsent(FilenameUtils.getBaseName(script.getName()), 
+                        name -> new ArrayList<>())
+                    .add(script);
+            }
+        }
+        return eventScripts.getOrDefault(event, Collections.emptyList());
+    }
+
+    /**
+     * Forget the event scripts registry and the compiled scripts, so they are rescanned and recompiled.
+     */
+    public void refreshScripts() {
+        synchronized (this) {
+            eventScripts = null;
+        }
+        engineFactory.clearCompiledScripts();
+        uncompilableEngines.clear();
+    }
+
+    /**
+     * Stop watching the events directory and stop the asynchronous event script workers.
+     */
+    public void close() {
+        synchronized (this) {
+            if (eventsWatcher != null) {
+                try {
+                    eventsWatcher.close();
+                }
+                catch (IOException e) {
+                    Logger.warn(e, "Cannot close the scripting events directory watcher");
+                }
+                eventsWatcher = null;
+            }
+        }
+        synchronized (asyncTails) {
+            if (asyncExecutor != null) {
+                asyncExecutor.shutdown();
+                asyncExecutor = null;
+            }
+        }
+    }
+
     public void on(String event, Map<String, Object> globals) throws Exception {
         Logger.trace("Scripting.on " + event);
         if (eventsDirectory == null) {
             return;
         }
-        for (File script : FileUtils.listFiles(eventsDirectory, getExtensions(), false)) {
-            if (!script.isFile()) {
-                continue;
-            }
-            if (FilenameUtils.getBaseName(script.getName())
-                             .equals(event)) {
+        long startTimeNs = System.nanoTime();
+        List<File> scripts = getEventScripts(event);
+        if (!scripts.isEmpty() && isAsyncEvent(event)) {
+            dispatchAsync(event, scripts, globals);
+            return;
+        }
+        try {
+            for (File script : scripts) {
                 Logger.trace("Scripting.on found " + script.getName());
                 execute(script, globals);
             }
         }
+        finally {
+            eventStatistics.computeIfAbsent(event, EventStatistics::new)
+                .add(scripts.size(), System.nanoTime() - startTimeNs);
+        }
+    }
+
+    protected boolean isAsyncEvent(String event) {
+        Machine machine = Configuration.get().getMachine();
+        return machine != null && machine.isAsyncScriptingEvent(event);
+    }
+
+    /**
+     * Queue the event scripts for execution on a worker thread. The scripts of the same event are executed
+     * in order. If too many invocations are queued, the caller is blocked until there is room again. 
+     * 
+     * @param event
+     * @param scripts
+     * @param globals
+     * @throws InterruptedException
+     */
+    protected void dispatchAsync(String event, List<File> scripts, Map<String, Object> globals) 
+            throws InterruptedException {
+        // The caller may reuse the globals map, so take a copy.
+        Map<String, Object> asyncGlobals = (globals != null ? new HashMap<>(globals) : null);
+        if (!asyncPermits.tryAcquire()) {
+            Logger.warn("Scripting.on " + event + " asynchronous queue is full, waiting");
+            asyncPermits.acquire();
+        }
+        synchronized (asyncTails) {
+            if (asyncExecutor == null) {
+                asyncExecutor = Executors.newFixedThreadPool(asyncWorkers, runnable -> {
+                    Thread thread = new Thread(runnable, "Scripting.async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            CompletableFuture<Void> tail = asyncTails.getOrDefault(event, CompletableFuture.completedFuture(null));
+            asyncTails.put(event, tail.exceptionally(e -> null)
+                    .thenRunAsync(() -> executeAsync(event, scripts, asyncGlobals), asyncExecutor));
+        }
+    }
+
+    private void executeAsync(String event, List<File> scripts, Map<String, Object> globals) {
+        long startTimeNs = System.nanoTime();
+        boolean error = false;
+        try {
+            for (File script : scripts) {
+                Logger.trace("Scripting.on found " + script.getName() + ", executing asynchronously");
+                try {
+                    execute(script, globals);
+                }
+                catch (Exception e) {
+                    error = true;
+                    Logger.error(e, "Asynchronous event script " + script.getName() + " failed");
+                }
+            }
+        }
+        finally {
+            asyncPermits.release();
+            eventStatistics.computeIfAbsent(event, EventStatistics::new)
+                .addAsync(scripts.size(), System.nanoTime() - startTimeNs, error);
+        }
+    }
+
+    /**
+     * @return The invocation statistics of the events, sorted by event name.
+     */
+    public Map<String, EventStatistics> getEventStatistics() {
+        return new TreeMap<>(eventStatistics);
+    }
+
+    public void resetEventStatistics() {
+        eventStatistics.clear();
     }
 
     public void clearScriptingEnginePool() {
@@ -22,9 +22,11 @@ package org.openpnp.spi;
 import java.awt.image.BufferedImage;
 import java.io.Closeable;
 
+import org.opencv.core.Mat;
 import org.openpnp.CameraListener;
 import org.openpnp.model.Length;
 import org.openpnp.model.Location;
+import org.openpnp.util.OpenCvUtils;
 
 /**
  * Represents a Camera attached to the system and allows a caller to retrieve images from it.
@@ -120,6 +122,28 @@ public interface Camera extends HeadMountable, WizardConfigurable,
     
     public BufferedImage captureRaw();
 
+    /**
+     * Same as capture() but returns the image as an OpenCV Mat, ready for computer vision. The caller owns the
+     * Mat and must release() it. Cameras that transform their images natively in Mat should override this to 
+     * avoid the round trip through BufferedImage.
+     * 
+     * @return
+     * @throws Exception
+     */
+    public default Mat captureMat() throws Exception {
+        return OpenCvUtils.toMat(capture());
+    }
+
+    /**
+     * Same as captureTransformed() but returns the image as an OpenCV Mat, owned by the caller.
+     * 
+     * @return
+     */
+    public default Mat captureTransformedMat() {
+        BufferedImage image = captureTransformed();
+        return image == null ? null : OpenCvUtils.toMat(image);
+    }
+
     public enum SettleOption {
         Skip,
         Settle,
@@ -144,6 +168,17 @@ public interface Camera extends HeadMountable, WizardConfigurable,
         return settleAndCapture(SettleOption.Settle);
     }
 
+    /**
+     * Same as settleAndCapture() but returns the image as an OpenCV Mat, owned by the caller. 
+     * @param settleOption Determines how thorough the settling is.
+     * 
+     * @return
+     * @throws Exception
+     */
+    public default Mat settleAndCaptureMat(SettleOption settleOption) throws Exception {
+        return OpenCvUtils.toMat(settleAndCapture(settleOption));
+    }
+
     /**
      * Same as capture(), but lights and settles the camera before capturing. Uses default lighting.
      * 
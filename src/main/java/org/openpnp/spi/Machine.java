@@ -398,6 +398,13 @@ public interface Machine extends WizardConfigurable, PropertySheetHolder, Closea
      */
     public boolean isPoolScriptingEngines();
 
+    /**
+     * @param event
+     * @return True if the scripts of the given scripting event should be run asynchronously, i.e. without 
+     * blocking the caller. Events that must gate the machine should never be asynchronous.
+     */
+    public boolean isAsyncScriptingEvent(String event);
+
     /**
      * @return True if automatic loading of most recent job at start has been enabled.
      */
@@ -57,6 +57,9 @@ public abstract class AbstractAxis extends AbstractModelObject implements Axis {
     @Attribute(required = false)
     protected Axis.Type type;
 
+    // Unique index in the axis index registry, used by AxesLocation. 
+    private final int axisIndex = AxesLocation.registerAxis();
+
     public AbstractAxis() {
         this.id = Configuration.createId("AXS");
         this.name = getClass().getSimpleName();
@@ -79,6 +82,13 @@ public abstract class AbstractAxis extends AbstractModelObject implements Axis {
         firePropertyChange("name", oldValue, name);
     }
 
+    /**
+     * @return The unique index of the axis in the axis index registry. 
+     */
+    public int getAxisIndex() {
+        return axisIndex;
+    }
+
     @Override
     public Axis.Type getType() {
         return type;
@@ -21,6 +21,7 @@ import org.openpnp.spi.Machine;
 import org.openpnp.spi.MachineListener;
 import org.openpnp.spi.Nozzle;
 import org.openpnp.util.IdentifiableList;
+import org.openpnp.util.NanosecondTime;
 import org.pmw.tinylog.Logger;
 import org.simpleframework.xml.Attribute;
 import org.simpleframework.xml.Element;
@@ -431,7 +432,7 @@ public abstract class AbstractHead extends AbstractModelObject implements Head {
                         pump.actuate(on);
                         if (on) {
                             Logger.trace(getName()+" dwell for pump on "+getPumpOnWaitMilliseconds()+"ms");
-                            Thread.sleep(getPumpOnWaitMilliseconds());
+                            NanosecondTime.sleep(getPumpOnWaitMilliseconds());
                         }
                     }
                     break;
@@ -442,7 +443,7 @@ public abstract class AbstractHead extends AbstractModelObject implements Head {
                         if (pump.isActuated() == null || !pump.isActuated()) {
                             pump.actuate(on);
                             Logger.trace(getName()+" dwell for pump on, keep running "+getPumpOnWaitMilliseconds()+"ms");
-                            Thread.sleep(getPumpOnWaitMilliseconds());
+                            NanosecondTime.sleep(getPumpOnWaitMilliseconds());
                         }
                     }
                     break;
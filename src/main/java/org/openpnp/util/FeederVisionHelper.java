@@ -26,12 +26,10 @@ package org.openpnp.util;
 import java.awt.Color;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import org.apache.commons.io.IOUtils;
 import org.opencv.core.KeyPoint;
 import org.opencv.core.Mat;
 import org.opencv.core.Point;
@@ -49,6 +47,7 @@ import org.openpnp.vision.FluentCv;
 import org.openpnp.vision.Ransac;
 import org.openpnp.vision.Ransac.Line;
 import org.openpnp.vision.pipeline.CvPipeline;
+import org.openpnp.vision.pipeline.CvPipelineTemplates;
 import org.openpnp.vision.pipeline.CvStage;
 import org.openpnp.vision.pipeline.CvStage.Result;
 import org.openpnp.vision.pipeline.stages.SimpleOcr;
@@ -76,13 +75,11 @@ public class FeederVisionHelper {
     // default CV pipelines are defined as XML resources
     // if the feeder class doesn't set the pipeline, the default ones are used depending on the pipelineType
     public static CvPipeline createDefaultPipeline(PipelineType type) {
-      try {
-            String xml = IOUtils.toString(FeederVisionHelper.class.getResource("FeederVisionHelper-"+type.toString()+"-Pipeline.xml"), Charset.defaultCharset());
-            return new CvPipeline(xml);
-        }
-        catch (Exception e) {
-            throw new Error(e);
-        }
+        return CvPipelineTemplates.create(getPipelineTemplate(type));
+    }
+
+    public static String getPipelineTemplate(PipelineType type) {
+        return CvPipelineTemplates.getTemplateId(FeederVisionHelper.class, "FeederVisionHelper-"+type.toString()+"-Pipeline.xml");
     }
 
         // class to store all the inbound parameters
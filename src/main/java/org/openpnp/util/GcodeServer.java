@@ -14,6 +14,7 @@ import java.util.TreeMap;
 import org.openpnp.Main;
 import org.openpnp.machine.reference.ReferenceMachine;
 import org.openpnp.machine.reference.SimulationModeMachine;
+import org.openpnp.machine.reference.driver.GcodeTrafficCapture;
 import org.openpnp.model.AxesLocation;
 import org.openpnp.model.Configuration;
 import org.openpnp.model.LengthUnit;
@@ -41,6 +42,11 @@ public class GcodeServer extends Thread {
 
     private long maxDwellTimeMilliseconds = 20000;
 
+    /**
+     * If set, the commands are answered from a traffic capture, instead of being interpreted. 
+     */
+    private GcodeTrafficCapture.Replay replay;
+
     static final String firmware = "FIRMWARE_NAME:GcodeServer, FIRMWARE_URL:http%3A//openpnp.org, X-SOURCE_CODE_URL:https%3A//github.com/openpnp/openpnp, FIRMWARE_VERSION:"+Main.getVersion()+", "
             +"X-FIRMWARE_BUILD_DATE:Oct 23 2020 00:00:00";
 
@@ -93,6 +99,14 @@ public class GcodeServer extends Thread {
         return machineLocation;
     }
 
+    public GcodeTrafficCapture.Replay getReplay() {
+        return replay;
+    }
+
+    public void setReplay(GcodeTrafficCapture.Replay replay) {
+        this.replay = replay;
+    }
+
     public void addCommandResponse(String command, String response) {
         commandResponses.put(command, response);
     }
@@ -204,6 +218,12 @@ public class GcodeServer extends Thread {
                         if (response != null) {
                             write(response);
                         }
+                        else if (replay != null) {
+                            // Answer from the traffic capture. 
+                            if (!replay.respond(input, this::write)) {
+                                Logger.warn("Replay {} has no capture for command {}", replay.getFile(), input);
+                            }
+                        }
                         else if (driver != null) {
                             try {
                                 // No canned responses. Try to interpret.
@@ -633,7 +653,7 @@ public class GcodeServer extends Thread {
                         dwellMilliseconds = maxDwellTimeMilliseconds;
                     }
                     Logger.trace("Waiting "+dwellMilliseconds+"ms");
-                    Thread.sleep(dwellMilliseconds);
+                    NanosecondTime.sleep(dwellMilliseconds);
 
                     // Remove old stuff.
                     double time = NanosecondTime.getRuntimeSeconds() - 30;
@@ -0,0 +1,90 @@
+package org.openpnp.util;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import org.opencv.core.Mat;
+
+/**
+ * A small pool of reusable OpenCV Mat buffers. Image transformations that run on every camera frame can
+ * take their destination buffers from the pool and recycle their source buffers into it, instead of
+ * allocating and releasing native memory for each step and each frame.
+ *
+ * Buffers are matched by size and type, so a chain of transformations that changes the image geometry
+ * (crop, scale, rotate) still finds its buffers on the next frame. The pool is thread-safe, but each taken
+ * Mat is exclusively owned by the taker until it is recycled. A taken Mat may also be handed on to a caller
+ * that does not know about the pool, which must then release() it as usual.
+ */
+public class MatPool {
+    private final int capacity;
+    private final ArrayDeque<Mat> free = new ArrayDeque<>();
+
+    /**
+     * @param capacity The maximum number of free buffers retained. Recycled buffers beyond this are
+     * released.
+     */
+    public MatPool(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Takes a buffer of the given geometry from the pool. A free buffer of the same size and type is
+     * preferred, otherwise any free buffer is reallocated, or a new one is created. The content is
+     * undefined.
+     *
+     * @param rows
+     * @param cols
+     * @param type
+     * @return
+     */
+    public Mat take(int rows, int cols, int type) {
+        Mat mat = null;
+        synchronized (this) {
+            for (Iterator<Mat> iterator = free.iterator(); iterator.hasNext(); ) {
+                Mat candidate = iterator.next();
+                if (candidate.rows() == rows && candidate.cols() == cols && candidate.type() == type) {
+                    iterator.remove();
+                    mat = candidate;
+                    break;
+                }
+            }
+            if (mat == null) {
+                mat = free.pollFirst();
+            }
+        }
+        if (mat == null) {
+            mat = new Mat();
+        }
+        // This is a no-op if the geometry already matches.
+        mat.create(rows, cols, type);
+        return mat;
+    }
+
+    /**
+     * Returns a buffer to the pool. The caller must no longer use it.
+     *
+     * @param mat
+     */
+    public void recycle(Mat mat) {
+        if (mat == null) {
+            return;
+        }
+        synchronized (this) {
+            if (free.size() < capacity) {
+                free.addFirst(mat);
+                return;
+            }
+        }
+        mat.release();
+    }
+
+    /**
+     * Releases all the free buffers.
+     */
+    public synchronized void clear() {
+        for (Mat mat : free) {
+            mat.release();
+        }
+        free.clear();
+    }
+}
@@ -23,6 +23,8 @@ package org.openpnp.util;
 
 import java.math.BigInteger;
 
+import org.pmw.tinylog.Logger;
+
 /**
  * Simple Nanosecond time-keeper. Combines real-time (epoch) with nanosecond resolution by using BigInteger math.
  * Converted to String this makes for ideal ordered IDs.
@@ -32,8 +34,75 @@ import java.math.BigInteger;
 public class NanosecondTime implements Comparable<NanosecondTime> {
 
     private static long nanosecondsLast = Long.MIN_VALUE;
-    public static long getRuntime() {
-        long nanoTime = System.nanoTime();
+
+    /**
+     * In virtual time, {@link #sleep(long)} does not actually sleep, but advances the runtime clock 
+     * instantly. All the time-keeping that uses the runtime, such as motion planning, the GcodeServer and 
+     * the simulated cameras, then sees the exact simulated durations, but a simulation runs as fast as 
+     * possible. Only to be used in simulation.
+     */
+    private static volatile boolean virtualTime;
+    private static volatile long virtualOffset;
+
+    public static boolean isVirtualTime() {
+        return virtualTime;
+    }
+
+    public static void setVirtualTime(boolean virtualTime) {
+        if (NanosecondTime.virtualTime != virtualTime) {
+            NanosecondTime.virtualTime = virtualTime;
+            Logger.debug("Runtime clock switched to {} time", virtualTime ? "virtual" : "real");
+        }
+    }
+
+    /**
+     * @return The total nanoseconds that the runtime clock was advanced in virtual time, i.e. that were 
+     * simulated, but not actually slept.  
+     */
+    public static long getVirtualOffset() {
+        return virtualOffset;
+    }
+
+    /**
+     * Sleep for the given time. In virtual time the runtime clock is advanced instead, see 
+     * {@link #setVirtualTime(boolean)}.
+     * 
+     * @param milliseconds
+     * @throws InterruptedException
+     */
+    public static void sleep(long milliseconds) throws InterruptedException {
+        if (milliseconds <= 0) {
+            return;
+        }
+        if (virtualTime) {
+            advanceUntil(System.nanoTime() + virtualOffset + milliseconds*1000000);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        else {
+            Thread.sleep(milliseconds);
+        }
+    }
+
+    /**
+     * Advance the virtual runtime clock to the given runtime, unless it is already there. The target runtime
+     * is taken by the caller when the sleep starts, so the sleeps of concurrent threads overlap like real 
+     * sleeps would, i.e. the clock is advanced to the latest target, not by the sum of the sleeps. Sleeps 
+     * that happen one after another on the machine task thread, such as dwells, settle times and controller 
+     * waits, still add up. 
+     * 
+     * @param runtime
+     */
+    private static synchronized void advanceUntil(long runtime) {
+        long now = System.nanoTime() + virtualOffset;
+        if (runtime > now) {
+            virtualOffset += runtime - now;
+        }
+    }
+
+    public static synchronized long getRuntime() {
+        long nanoTime = System.nanoTime() + virtualOffset;
         if (nanoTime <= nanosecondsLast) {
             // Make it unique even if the calls are more frequent than the underlying nanoTime timer resolution. 
             nanoTime = ++nanosecondsLast;
@@ -51,7 +120,7 @@ public class NanosecondTime implements Comparable<NanosecondTime> {
     }
 
     private static NanosecondTime systemStartTime = null;
-    public static NanosecondTime get() {
+    public static synchronized NanosecondTime get() {
         if (systemStartTime == null) {
             // Initialize
             systemStartTime = new NanosecondTime(BigInteger.valueOf(System.currentTimeMillis())
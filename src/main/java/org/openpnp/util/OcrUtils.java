@@ -107,25 +107,17 @@ public class OcrUtils {
         }
         pos = ocrText.indexOf(' ');
         if (pos >= 0) {
-            boolean allowSpace = false;
-            for (Part part : cfg.getParts()) {
-                if (part.getId().contains(" ")) {
-                    allowSpace = true;
-                    break;
-                }
-            }
-            if (!allowSpace) {
+            if (!cfg.isAnyPartIdWithSpaces()) {
                 ocrText = ocrText.substring(0, pos);
             }
         }
-        Part ocrPart = null;
-        for (Part part : cfg.getParts()) {
-            if (part.getId().equals(ocrText)) {
-                // Direct match
-                ocrPart = part;
-                break;
-            }
-            else if (part.getId().endsWith("-"+ocrText)) { 
+        Part ocrPart = cfg.getPart(ocrText);
+        if (ocrPart != null && !ocrPart.getId().equals(ocrText)) {
+            // Only matches ignoring case.
+            ocrPart = null;
+        }
+        if (ocrPart == null) {
+            for (Part part : cfg.getPartsWithIdSuffix("-"+ocrText)) { 
                 // Partial match
                 if (ocrPart != null) {
                     // Uh-oh, ambiguous!
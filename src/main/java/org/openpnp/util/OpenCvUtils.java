@@ -77,6 +77,18 @@ public class OpenCvUtils {
     }
 
     public static Mat toMat(BufferedImage img) {
+        return toMat(img, new Mat());
+    }
+
+    /**
+     * Converts the BufferedImage into the given Mat, which is (re-)allocated to the image geometry, if
+     * needed. This allows converting into pooled buffers.
+     * 
+     * @param img
+     * @param mat
+     * @return The given mat.
+     */
+    public static Mat toMat(BufferedImage img, Mat mat) {
         Integer type = null;
         if (img.getType() == BufferedImage.TYPE_BYTE_GRAY) {
             type = CvType.CV_8UC1;
@@ -88,7 +100,7 @@ public class OpenCvUtils {
             img = ImageUtils.convertBufferedImage(img, BufferedImage.TYPE_3BYTE_BGR);
             type = CvType.CV_8UC3;
         }
-        Mat mat = new Mat(img.getHeight(), img.getWidth(), type);
+        mat.create(img.getHeight(), img.getWidth(), type);
         mat.put(0, 0, ((DataBufferByte) img.getRaster().getDataBuffer()).getData());
         return mat;
     }
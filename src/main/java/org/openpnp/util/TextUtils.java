@@ -19,11 +19,18 @@
 
 package org.openpnp.util;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.pmw.tinylog.Logger;
+
 public class TextUtils {
+    private static final Pattern variablePattern = Pattern.compile("\\{(\\w+)(?::(.+?))?\\}");
+
     /**
      * Find matches of variables in the format {Name:Format} and replace them with the specified
      * value formatted using String.format with the specified Format. Format is optional and
@@ -34,7 +41,7 @@ public class TextUtils {
             return template;
         }
         StringBuffer sb = new StringBuffer();
-        Matcher matcher = Pattern.compile("\\{(\\w+)(?::(.+?))?\\}").matcher(template);
+        Matcher matcher = variablePattern.matcher(template);
         while (matcher.find()) {
             String n = matcher.group(1);
             if (!n.equals(name)) {
@@ -54,4 +61,117 @@ public class TextUtils {
         matcher.appendTail(sb);
         return sb.toString();
     }
+
+    /**
+     * Get the named capturing groups of a regular expression with their group index, so matched
+     * groups can be accessed by index rather than by name. 
+     * 
+     * Named groups are determined by counting the capturing groups in the regex, skipping escaped 
+     * characters, quotes, character classes and (?x) comments. As this is not a full regex parser, the 
+     * counted groups are verified against the compiled pattern. If they do not agree, an empty map is 
+     * returned, so the caller falls back to accessing the groups by name.
+     * 
+     * @param pattern
+     * @return Map of group name to group index.
+     */
+    public static Map<String, Integer> getNamedGroups(Pattern pattern) {
+        Map<String, Integer> namedGroups = new HashMap<>();
+        int groups = countGroups(pattern.pattern(), (pattern.flags() & Pattern.COMMENTS) != 0, namedGroups);
+        if (groups != pattern.matcher("").groupCount()) {
+            Logger.debug("Capturing groups of regex {} counted as {}, but the pattern has {}, using names.",
+                    pattern.pattern(), groups, pattern.matcher("").groupCount());
+            return Collections.emptyMap();
+        }
+        return namedGroups;
+    }
+
+    public static Map<String, Integer> getNamedGroups(String regex) {
+        return getNamedGroups(Pattern.compile(regex));
+    }
+
+    /**
+     * Count the capturing groups of the regex and collect the named ones.
+     * 
+     * @param regex
+     * @param comments True if the regex is compiled with the COMMENTS flag. 
+     * @param namedGroups Map of group name to group index that is filled in.
+     * @return The number of capturing groups.
+     */
+    static int countGroups(String regex, boolean comments, Map<String, Integer> namedGroups) {
+        int group = 0;
+        int classDepth = 0;
+        int length = regex.length();
+        for (int i = 0; i < length; i++) {
+            char ch = regex.charAt(i);
+            if (ch == '\\') {
+                if (i + 1 < length && regex.charAt(i + 1) == 'Q') {
+                    // Quoted section, skip to \E.
+                    int end = regex.indexOf("\\E", i + 2);
+                    i = (end < 0 ? length : end + 1);
+                }
+                else {
+                    // Skip the escaped character.
+                    i++;
+                }
+            }
+            else if (ch == '[') {
+                classDepth++;
+                // A leading ] (or ^]) is a literal inside the class. 
+                if (i + 1 < length && regex.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (i + 1 < length && regex.charAt(i + 1) == ']') {
+                    i++;
+                }
+            }
+            else if (ch == ']') {
+                if (classDepth > 0) {
+                    classDepth--;
+                }
+            }
+            else if (classDepth > 0) {
+                // Literal inside the character class.
+            }
+            else if (ch == '#' && comments) {
+                // Comment, skip to the end of the line.
+                int end = regex.indexOf('\n', i);
+                i = (end < 0 ? length : end);
+            }
+            else if (ch == '(') {
+                if (i + 1 < length && regex.charAt(i + 1) == '?') {
+                    // Only (?<name>...) is capturing, not (?<=...) or (?<!...).
+                    if (i + 2 < length && regex.charAt(i + 2) == '<'
+                            && i + 3 < length 
+                            && regex.charAt(i + 3) != '=' && regex.charAt(i + 3) != '!') {
+                        int end = regex.indexOf('>', i + 3);
+                        if (end > 0) {
+                            group++;
+                            namedGroups.put(regex.substring(i + 3, end), group);
+                        }
+                    }
+                    else {
+                        // Inline flags like (?x) or (?-x:...). The scope of the flags is not tracked,
+                        // the verification against the compiled pattern catches that. 
+                        boolean on = true;
+                        for (int j = i + 2; j < length; j++) {
+                            char flag = regex.charAt(j);
+                            if (flag == '-') {
+                                on = false;
+                            }
+                            else if (flag == 'x') {
+                                comments = on;
+                            }
+                            else if (!Character.isLetter(flag)) {
+                                break;
+                            }
+                        }
+                    }
+                }
+                else {
+                    group++;
+                }
+            }
+        }
+        return group;
+    }
 }
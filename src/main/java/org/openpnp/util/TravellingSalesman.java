@@ -22,6 +22,8 @@ package org.openpnp.util;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.openpnp.model.LengthUnit;
 import org.openpnp.model.Location;
@@ -43,6 +45,9 @@ import org.openpnp.model.Location;
  * solutions a lot, because it allows the solver to quickly "untwist" routes at (or near) crossing points. These crossing 
  * points appear frequently for the rectangularly arrayed Location patterns assumed to be typically found on a PNP machine. 
  * 
+ * Optionally, multiple independent annealing chains can be run in parallel, each seeded differently, and the best 
+ * route is taken. Given the same seed and number of chains, and no time budget, the result is repeatable.  
+ * 
  * @param <T> The class of the objects to be travelled to. Use a Locator<T> to query the Location from these objects.  
  */
 public class TravellingSalesman<T> {
@@ -60,15 +65,34 @@ public class TravellingSalesman<T> {
         // register the problem
         this.travelInput = travelInput;
         this.locator = locator;
-        // convert to the working List
-        this.travel = new ArrayList<>();
         this.travelSize = travelInput.size();
+        // convert to the working nodes, node 0 is the start, node travelSize+1 the end Location
+        this.nodes = new TravelLocation[this.travelSize + 2];
+        this.nodes[0] = startLocation != null ? new TravelLocation(-1, startLocation) : null;
+        for (int i = 0; i < this.travelSize; i++) {
+            this.nodes[i + 1] = new TravelLocation(i, this.locator.getLocation(travelInput.get(i)));
+        }
+        this.nodes[this.travelSize + 1] = endLocation != null ? new TravelLocation(this.travelSize, endLocation) : null;
+        this.startLocation = this.nodes[0];
+        this.endLocation = this.nodes[this.travelSize + 1];
+        // precompute the distances between all nodes
+        this.stride = this.travelSize + 2;
+        this.distances = new double[this.stride*this.stride];
+        for (int a = 0; a < this.stride; a++) {
+            for (int b = a + 1; b < this.stride; b++) {
+                TravelLocation la = this.nodes[a];
+                TravelLocation lb = this.nodes[b];
+                // no start and/or end location, so the distance is just 0.0
+                double distance = (la == null || lb == null) ? 0.0 : la.getLinearDistanceTo(lb);
+                this.distances[a*this.stride + b] = distance;
+                this.distances[b*this.stride + a] = distance;
+            }
+        }
+        // the working travel is initially in input order
+        this.travel = new int[this.travelSize];
         for (int i = 0; i < this.travelSize; i++) {
-            this.travel.add(new TravelLocation(i, this.locator.getLocation(travelInput.get(i))));
+            this.travel[i] = i + 1;
         }
-        // register start/end Locations
-        this.startLocation = startLocation != null ? new TravelLocation(-1, startLocation) : null;
-        this.endLocation = endLocation != null ? new TravelLocation(this.travelSize, endLocation) : null;
     }
     
     public interface Locator<T> {
@@ -115,137 +139,149 @@ public class TravellingSalesman<T> {
     private final Locator<? super T> locator;
     private final TravelLocation startLocation;
     private final TravelLocation endLocation;
-    private final List<TravelLocation> travel;
-    
+    private final TravelLocation[] nodes;
+    /**
+     * Distance matrix of all the nodes, row by row. 
+     */
+    private final double[] distances;
+    private final int stride;
+    /**
+     * The working travel as node indices. 
+     */
+    private int[] travel;
+
+    private int chains = 1;
+    private long seed = 0;
+    private long timeBudgetMs = 0;
+
     private long solverDuration = 0; 
 
     private TravelLocation getLocation(int i) {
+        return this.nodes[getNode(this.travel, i)];
+    }
+
+    private int getNode(int[] travel, int i) {
         if (i < 0) {
-            return this.startLocation;
+            return 0;
         }
         else if (i >= this.travelSize) {
-            return this.endLocation;
-        }
-        return this.travel.get(i);
-    }
-
-    private double getDistance(int a, int b) {
-        TravelLocation la = this.getLocation(a);
-        TravelLocation lb = this.getLocation(b);
-        if (la == null || lb == null) {
-            // no start and/or end location, so the distance is just 0.0
-            return 0.0;
+            return this.travelSize + 1;
         }
-        return la.getLinearDistanceTo(lb);
+        return travel[i];
     }
 
-    public double getTravellingDistance() {
+    private double getTravellingDistance(int[] travel) {
         double distance = 0.0;
         for (int i = 0; i <= this.travelSize; i++) {
-            distance += this.getDistance(i-1,  i);
+            distance += this.distances[getNode(travel, i-1)*this.stride + getNode(travel, i)];
         }
         return distance;
     }
 
-    private double getSwapDistance(int a, int b, boolean twist) {
-        if (a > b) {
-            // a must come before b
-            int s = a;
-            a = b;
-            b = s;
-        }
-        if (twist) {
-            // twist the loop around
-            double oldSegmentDistance = 
-                    this.getDistance(a-1, a) + this.getDistance(b, b+1);
-            double newSegmentDistance = 
-                    this.getDistance(a-1, b) + this.getDistance(a, b+1);
-            return newSegmentDistance - oldSegmentDistance;
-        }
-        else {
-            // swap out the locations
-            if (a + 1 == b ) {
-                // consecutive
-                double oldSegmentDistance = 
-                        this.getDistance(a-1, a) + this.getDistance(a, b) + this.getDistance(b, b+1);
-                double newSegmentDistance = 
-                        this.getDistance(a-1, b) + this.getDistance(b, a) + this.getDistance(a, b+1);
-                return newSegmentDistance - oldSegmentDistance;
-            }
-            else {
-                // apart
-                double oldSegmentDistance = 
-                        this.getDistance(a-1, a) + this.getDistance(a, a+1) 
-                        +  this.getDistance(b-1, b) + this.getDistance(b, b+1);
-                double newSegmentDistance = 
-                        this.getDistance(a-1, b) + this.getDistance(b, a+1) 
-                        +  this.getDistance(b-1, a) + this.getDistance(a, b+1);
-                return newSegmentDistance - oldSegmentDistance;
-            }
-        }
+    public double getTravellingDistance() {
+        return getTravellingDistance(this.travel);
     }
 
-    private void swap(int a, int b) {
-        TravelLocation la = this.travel.get(a);
-        TravelLocation lb = this.travel.get(b);
-        this.travel.set(a, lb);
-        this.travel.set(b, la);
-    }
+    /**
+     * One annealing chain, working on its own copy of the travel, with its own random generator. 
+     */
+    private class Annealing {
+        private final int[] travel;
+        private final Random rnd;
+        private int[] bestTravel;
+        private double bestDistance;
+        private int iterations;
+        private int swaps = 0, twists = 0, copies = 0;
+
+        private Annealing(long seed) {
+            this.travel = TravellingSalesman.this.travel.clone();
+            this.rnd = new Random(seed);
+        }
 
-    private void swapLocations(int a, int b, boolean twist) {
-        if (twist) {
+        private double getDistance(int a, int b) {
+            return distances[getNode(this.travel, a)*stride + getNode(this.travel, b)];
+        }
+
+        private double getSwapDistance(int a, int b, boolean twist) {
             if (a > b) {
                 // a must come before b
                 int s = a;
                 a = b;
                 b = s;
             }
-            // twist the loop around
-            for (int i = 0; i < (b - a + 1)/2; i++) {
-                this.swap(a+i, b-i);
+            if (twist) {
+                // twist the loop around
+                double oldSegmentDistance = 
+                        this.getDistance(a-1, a) + this.getDistance(b, b+1);
+                double newSegmentDistance = 
+                        this.getDistance(a-1, b) + this.getDistance(a, b+1);
+                return newSegmentDistance - oldSegmentDistance;
+            }
+            else {
+                // swap out the locations
+                if (a + 1 == b ) {
+                    // consecutive
+                    double oldSegmentDistance = 
+                            this.getDistance(a-1, a) + this.getDistance(a, b) + this.getDistance(b, b+1);
+                    double newSegmentDistance = 
+                            this.getDistance(a-1, b) + this.getDistance(b, a) + this.getDistance(a, b+1);
+                    return newSegmentDistance - oldSegmentDistance;
+                }
+                else {
+                    // apart
+                    double oldSegmentDistance = 
+                            this.getDistance(a-1, a) + this.getDistance(a, a+1) 
+                            +  this.getDistance(b-1, b) + this.getDistance(b, b+1);
+                    double newSegmentDistance = 
+                            this.getDistance(a-1, b) + this.getDistance(b, a+1) 
+                            +  this.getDistance(b-1, a) + this.getDistance(a, b+1);
+                    return newSegmentDistance - oldSegmentDistance;
+                }
             }
         }
-        else {
-            // swap out the two locations
-            this.swap(a, b);
-        }
-    }
 
-    @SuppressWarnings("unused")
-    public double simulateAnnealing(double startingTemperature, double coolingRate, int maxIterations) {
-        long startTime = System.currentTimeMillis();
-        if (debugLevel > 0) {
-            System.out.println("Simulated Annealing, size: "+this.travelSize+" temperature: " + startingTemperature + ", max iterations: " + maxIterations + ", cooling rate: " + coolingRate);
+        private void swap(int a, int b) {
+            int na = this.travel[a];
+            this.travel[a] = this.travel[b];
+            this.travel[b] = na;
         }
-        int i = maxIterations;
-        int swaps = 0, twists = 0, copies = 0;
-        double bestDistance = getTravellingDistance();
-        double t = startingTemperature;
-        if (debugLevel > 0) {
-            System.out.println("Initial distance of travel: " + bestDistance);
+
+        private void swapLocations(int a, int b, boolean twist) {
+            if (twist) {
+                if (a > b) {
+                    // a must come before b
+                    int s = a;
+                    a = b;
+                    b = s;
+                }
+                // twist the loop around
+                for (int i = 0; i < (b - a + 1)/2; i++) {
+                    this.swap(a+i, b-i);
+                }
+            }
+            else {
+                // swap out the two locations
+                this.swap(a, b);
+            }
         }
-        if (this.travelSize > 1) {
-            List<TravelLocation> globalTravel = new ArrayList<>(this.travel);           // global best route
-            double globalBestDistance = globalBestDistanceScalingFactor * bestDistance; // cost of global best route
 
-            // make this repeatable by seeding the random generator
-            Random rnd = new java.util.Random(0);
+        @SuppressWarnings("unused")
+        private void run(double startingTemperature, double coolingRate, int maxIterations, long deadline) {
+            int i = maxIterations;
+            double distance = getTravellingDistance(this.travel);
+            double t = startingTemperature;
+            this.bestTravel = this.travel.clone();                                  // global best route
+            this.bestDistance = distance;
+            double globalBestDistance = globalBestDistanceScalingFactor * distance; // cost of global best route
             for (; i > 0; i--) {
                 if (t > 0.1) {
-                    int a = rnd.nextInt(this.travelSize);
+                    int a = rnd.nextInt(travelSize);
                     int b;
                     do {
-                        b = rnd.nextInt(this.travelSize);
+                        b = rnd.nextInt(travelSize);
                     }
                     while (b == a);
-                    /* creates a locale emphasis when swapping
-                    do {
-
-                        b = (int) (Math.pow(rnd.nextDouble()*2.0-1.0, 3.0) * this.travelSize);
-                    }
-                    while(b < 0 || a == b || b > this.travelSize );
-                     */
-                    boolean twist = false;//(i % 2 == 0);
+                    boolean twist = false;
                     double swapDistance = getSwapDistance(a, b, false);
                     double twistDistance = getSwapDistance(a, b, true);
                     // choose the better option
@@ -256,9 +292,9 @@ public class TravellingSalesman<T> {
 
                     if (debugLevel > 1) {
                         // validate the differential swapDistance
-                        double oldDistance = getTravellingDistance();
+                        double oldDistance = getTravellingDistance(this.travel);
                         this.swapLocations(a, b, twist);
-                        double newDistance = getTravellingDistance();
+                        double newDistance = getTravellingDistance(this.travel);
                         this.swapLocations(a, b, twist);
                         if (Math.abs((newDistance - oldDistance) - swapDistance) > 0.1) {
                             System.err.println("** Swap distance wrong - newDistance: " + newDistance + ", oldDistance: " + oldDistance +", swapDistance: "+swapDistance + " != "+(newDistance - oldDistance)+", twist: "+twist);
@@ -268,12 +304,12 @@ public class TravellingSalesman<T> {
                     if (swapDistance < 0.0 || (Math.exp(-swapDistance / t) >= rnd.nextDouble())) {
                         // better or within annealing probability
                         this.swapLocations(a, b, twist);
-                        bestDistance += swapDistance;   // keep bestDistance up-to-date
+                        distance += swapDistance;   // keep distance up-to-date
                         // if the new route is better then the best, remember it
-                        if (bestDistance < globalBestDistance) {
+                        if (distance < globalBestDistance) {
                             // remember slightly worth distance do avoid excessive copies due to rounding effects
-                            globalBestDistance = globalBestDistanceScalingFactor * bestDistance;
-                            globalTravel = new ArrayList<>(this.travel);
+                            globalBestDistance = globalBestDistanceScalingFactor * distance;
+                            System.arraycopy(this.travel, 0, this.bestTravel, 0, travelSize);
                             copies++;
                         }
                         if (twist) {
@@ -286,29 +322,58 @@ public class TravellingSalesman<T> {
                 } else {
                     break;
                 }
+                if (deadline > 0 && (i & 0x3FF) == 0 && System.currentTimeMillis() > deadline) {
+                    // time budget used up
+                    break;
+                }
                 if (debugLevel > 0) {
                     if (i % 100000 == 0) {
-                        double distance = getTravellingDistance();
                         System.out.println("Iterations #" + i +", temperature: "+t+", distance of travel: " + distance + ", best distance to travel: " + globalBestDistance + ", swaps: "+swaps+", twists: "+twists+", copies: "+copies);
-                        //System.out.println(this.asSvg());
                     }
                 }
             }
-            // log if global best route is better then last best route
-            if (globalBestDistance < globalBestDistanceScalingFactor * bestDistance) {
-                System.out.println("Simulated Annealing: global best route better then last best route");
-            }
+            this.iterations = maxIterations - i;
             // global best route is always the best route we have
-            this.travel.clear();
-            this.travel.addAll(globalTravel);
+            this.bestDistance = getTravellingDistance(this.bestTravel);
         }
-        bestDistance = getTravellingDistance();
+    }
+
+    @SuppressWarnings("unused")
+    public double simulateAnnealing(double startingTemperature, double coolingRate, int maxIterations) {
+        long startTime = System.currentTimeMillis();
         if (debugLevel > 0) {
-            System.out.println("Iterations #" + i +", temperature: "+t+",  distance of travel: " + bestDistance+", swaps: "+swaps+", twists: "+twists+", copies: "+copies);
+            System.out.println("Simulated Annealing, size: "+this.travelSize+" temperature: " + startingTemperature + ", max iterations: " + maxIterations + ", cooling rate: " + coolingRate+", chains: "+this.chains);
+            System.out.println("Initial distance of travel: " + getTravellingDistance());
+        }
+        if (this.travelSize > 1) {
+            long deadline = this.timeBudgetMs > 0 ? startTime + this.timeBudgetMs : 0;
+            IntStream chainStream = IntStream.range(0, Math.max(1, this.chains));
+            if (this.chains > 1) {
+                chainStream = chainStream.parallel();
+            }
+            // make this repeatable by seeding the random generators
+            List<Annealing> annealings = chainStream
+                    .mapToObj((c) -> {
+                        Annealing annealing = new Annealing(this.seed + c);
+                        annealing.run(startingTemperature, coolingRate, maxIterations, deadline);
+                        return annealing;
+                    })
+                    .collect(Collectors.toList());
+            // take the best chain, the first one on a tie
+            Annealing best = annealings.get(0);
+            for (Annealing annealing : annealings) {
+                if (annealing.bestDistance < best.bestDistance) {
+                    best = annealing;
+                }
+            }
+            if (debugLevel > 0) {
+                System.out.println("Iterations #" + best.iterations +", distance of travel: " + best.bestDistance+", swaps: "+best.swaps+", twists: "+best.twists+", copies: "+best.copies);
+            }
+            this.travel = best.bestTravel;
         }
         long endTime = System.currentTimeMillis();
         this.solverDuration = endTime - startTime;
-        return bestDistance;
+        return getTravellingDistance();
     }
 
     public double solve() {
@@ -320,8 +385,8 @@ public class TravellingSalesman<T> {
     public List<T> getTravel() {
         // convert the working list back to a list of the input objects using the now rearranged t.index order. 
         List<T> travelOutput = new ArrayList<>();
-        for (TravelLocation t : this.travel) {
-            travelOutput.add(this.travelInput.get(t.index));
+        for (int node : this.travel) {
+            travelOutput.add(this.travelInput.get(this.nodes[node].index));
         }
         return travelOutput;
     }
@@ -338,6 +403,41 @@ public class TravellingSalesman<T> {
         return solverDuration;
     }
 
+    public int getChains() {
+        return chains;
+    }
+
+    /**
+     * @param chains The number of independent annealing chains to run in parallel. The best route of all the chains
+     * is taken.
+     */
+    public void setChains(int chains) {
+        this.chains = chains;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @param seed The seed of the random generator for the first chain, subsequent chains use subsequent seeds.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getTimeBudgetMs() {
+        return timeBudgetMs;
+    }
+
+    /**
+     * @param timeBudgetMs The maximum time the chains are allowed to anneal, or 0 for no limit. Note, a limited 
+     * solve is no longer repeatable. 
+     */
+    public void setTimeBudgetMs(long timeBudgetMs) {
+        this.timeBudgetMs = timeBudgetMs;
+    }
+
     public String asSvg() {
         double minX = Double.NaN, minY = Double.NaN;
         double maxX = Double.NaN, maxY = Double.NaN;
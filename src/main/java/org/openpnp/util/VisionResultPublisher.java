@@ -0,0 +1,153 @@
+package org.openpnp.util;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.opencv.core.Mat;
+import org.openpnp.gui.MainFrame;
+import org.openpnp.gui.components.CameraView;
+import org.openpnp.spi.Camera;
+import org.pmw.tinylog.Logger;
+
+/**
+ * Publishes vision results to the camera views, off the machine task thread. The task thread just hands
+ * over a reference to the result Mat, i.e. a new Mat header sharing the reference counted pixel data,
+ * without copying or converting it. A background thread converts the latest result per camera to a
+ * BufferedImage and shows it, at most at display rate. If the display lags behind, the older results of
+ * the same camera are dropped, without ever being converted.
+ *
+ * Note, the published Mat must no longer be modified in place after publishing. The caller still owns
+ * and releases its own Mat as usual.
+ */
+public class VisionResultPublisher {
+    private static final long displayIntervalMilliseconds = 33;
+
+    private static class Result {
+        final Camera camera;
+        final Mat image;
+        final String text;
+        final long milliseconds;
+
+        Result(Camera camera, Mat image, String text, long milliseconds) {
+            this.camera = camera;
+            this.image = image;
+            this.text = text;
+            this.milliseconds = milliseconds;
+        }
+    }
+
+    private static final Map<Camera, Result> pending = new LinkedHashMap<>();
+    private static Thread thread;
+    private static long publishedResults;
+    private static long droppedResults;
+
+    /**
+     * Show the image in the camera view of the camera for the given time, with an optional text.
+     * Returns immediately, the display happens asynchronously.
+     *
+     * @param camera
+     * @param image
+     * @param text
+     * @param milliseconds
+     */
+    public static void publish(Camera camera, Mat image, String text, long milliseconds) {
+        if (camera == null || image == null || image.empty() || MainFrame.get() == null) {
+            // Nothing to show or running outside of the UI.
+            return;
+        }
+        // Share the pixel data, the reference count keeps it alive after the caller releases its Mat.
+        Mat reference = image.submat(0, image.rows(), 0, image.cols());
+        Result dropped;
+        synchronized (pending) {
+            dropped = pending.put(camera, new Result(camera, reference, text, milliseconds));
+            publishedResults++;
+            if (dropped != null) {
+                droppedResults++;
+            }
+            if (thread == null) {
+                thread = new Thread(VisionResultPublisher::run, "VisionResultPublisher");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            pending.notifyAll();
+        }
+        if (dropped != null) {
+            dropped.image.release();
+        }
+    }
+
+    public static void publish(Camera camera, Mat image, long milliseconds) {
+        publish(camera, image, null, milliseconds);
+    }
+
+    /**
+     * @return The number of results published so far.
+     */
+    public static long getPublishedResults() {
+        synchronized (pending) {
+            return publishedResults;
+        }
+    }
+
+    /**
+     * @return The number of results that were dropped, because a newer result of the same camera was
+     * published before they could be displayed.
+     */
+    public static long getDroppedResults() {
+        synchronized (pending) {
+            return droppedResults;
+        }
+    }
+
+    private static void run() {
+        while (true) {
+            List<Result> results;
+            try {
+                synchronized (pending) {
+                    while (pending.isEmpty()) {
+                        pending.wait();
+                    }
+                    results = new ArrayList<>(pending.values());
+                    pending.clear();
+                }
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+            for (Result result : results) {
+                try {
+                    display(result);
+                }
+                catch (Exception e) {
+                    Logger.warn(e, "Cannot display vision result");
+                }
+                finally {
+                    result.image.release();
+                }
+            }
+            try {
+                // Limit to display rate, further results pile up and are dropped in the meantime.
+                Thread.sleep(displayIntervalMilliseconds);
+            }
+            catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static void display(Result result) {
+        MainFrame mainFrame = MainFrame.get();
+        if (mainFrame == null) {
+            return;
+        }
+        CameraView cameraView = mainFrame.getCameraViews().getCameraView(result.camera);
+        if (cameraView == null) {
+            return;
+        }
+        BufferedImage image = OpenCvUtils.toBufferedImage(result.image);
+        cameraView.showFilteredImage(image, result.text, result.milliseconds);
+    }
+}
@@ -7,8 +7,10 @@ import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.opencv.core.CvType;
@@ -16,6 +18,7 @@ import org.opencv.core.Mat;
 import org.opencv.core.Point;
 import org.opencv.core.Scalar;
 import org.opencv.imgproc.Imgproc;
+import org.openpnp.util.OpenCvUtils;
 import org.openpnp.vision.FluentCv.ColorSpace;
 import org.openpnp.vision.pipeline.CvStage.Result;
 import org.pmw.tinylog.Logger;
@@ -32,7 +35,8 @@ import org.simpleframework.xml.stream.Style;
  * A CvPipeline performs computer vision operations on a working image by processing in series a
  * list of CvStage instances. Each CvStage instance can modify the working image and return a new
  * image along with data extracted from the image. After processing the image callers can get access
- * to the images and models from each stage.
+ * to the models from each stage, and to the images of the stages referenced by other stages, or of all
+ * stages when processed with retainAllImages.
  * 
  * CvPipeline is serializable using toXmlString and fromXmlString. This makes it easy to export
  * pipelines and exchange them with others.
@@ -70,6 +74,8 @@ public class CvPipeline implements AutoCloseable {
     private long totalProcessingTimeNs;
 
     private BufferedImage lastCapturedImage;
+    private Mat lastCapturedMat;
+    private boolean retainingLastCapturedImage;
 
     private int currentShot;
 
@@ -256,13 +262,32 @@ public class CvPipeline implements AutoCloseable {
       this.totalProcessingTimeNs = totalProcessingTimeNs;
     }
 
+    /**
+     * Process the pipeline in production mode, i.e. only the result images of stages referenced by other stages
+     * are retained. 
+     * 
+     * @throws Exception
+     */
     public void process() throws Exception {
+        process(false);
+    }
+
+    /**
+     * Process the pipeline. 
+     * 
+     * @param retainAllImages If true, a copy of the image is retained as the result of each stage, as needed by the
+     * pipeline editor. Otherwise, only the stages referenced by other stages (see {@link CvStage#isReferencing(CvStage)})
+     * retain their images, saving a full image copy per stage.  
+     * @throws Exception
+     */
+    public void process(boolean retainAllImages) throws Exception {
         terminalException = null;
         totalProcessingTimeNs = 0;
         release();
         for (CvStage stage : stages) {
             stage.processPrepare(this);
         }
+        Set<CvStage> retainingStages = retainAllImages ? null : getImageRetainingStages();
         for (CvStage stage : stages) {
             // Process and time the stage and get the result.
             long processingTimeNs = System.nanoTime();
@@ -301,10 +326,12 @@ public class CvPipeline implements AutoCloseable {
             if(stage.isEnabled() && colorSpace != null) {
                 workingColorSpace = colorSpace;
             }
+            // Subsequent stages may modify the working image in place, so a retained image must be a copy.
+            boolean retainImage = (retainingStages == null || retainingStages.contains(stage));
             // If the result image is null and there is a working image,
             // replace the result image with a clone of the working image.
             if (image == null) {
-                if (workingImage != null) {
+                if (workingImage != null && retainImage) {
                     image = workingImage.clone();
                 }
             }
@@ -317,7 +344,7 @@ public class CvPipeline implements AutoCloseable {
                     workingImage.release();
                 }
                 workingImage = image;
-                image = image.clone();
+                image = retainImage ? image.clone() : null;
             }
 
             // If the result colorSpace is null and there is a working colorSpace,
@@ -335,6 +362,22 @@ public class CvPipeline implements AutoCloseable {
         }
     }
 
+    /**
+     * @return The stages whose result images are referenced by other stages. 
+     */
+    protected Set<CvStage> getImageRetainingStages() {
+        Set<CvStage> retainingStages = new HashSet<>();
+        for (CvStage stage : stages) {
+            for (CvStage referencingStage : stages) {
+                if (referencingStage != stage && referencingStage.isReferencing(stage)) {
+                    retainingStages.add(stage);
+                    break;
+                }
+            }
+        }
+        return retainingStages;
+    }
+
     /**
      * Reset all the modified parameters to default values
      * (we do not want the parameters to permanently modify the pipeline). 
@@ -362,6 +405,7 @@ public class CvPipeline implements AutoCloseable {
         }
         workingModel = null;
         results.clear();
+        releaseLastCapturedMat();
     }
     
     @Override
@@ -468,14 +512,57 @@ public class CvPipeline implements AutoCloseable {
         return serializer;
     }
 
+    /**
+     * @return True if image capturing stages should retain the last captured image, see
+     * {@link #setRetainingLastCapturedImage(boolean)}.
+     */
+    public boolean isRetainingLastCapturedImage() {
+        return retainingLastCapturedImage;
+    }
+
+    /**
+     * Request the image capturing stages to retain the last captured image, for 
+     * {@link #getLastCapturedImage()}. As subsequent stages may modify the working image in place, this 
+     * may cost a full image copy per capture, so it should only be requested when the image is actually 
+     * going to be read.
+     * 
+     * @param retainingLastCapturedImage
+     */
+    public void setRetainingLastCapturedImage(boolean retainingLastCapturedImage) {
+        this.retainingLastCapturedImage = retainingLastCapturedImage;
+    }
+
     public BufferedImage getLastCapturedImage() {
+        if (lastCapturedImage == null && lastCapturedMat != null) {
+            lastCapturedImage = OpenCvUtils.toBufferedImage(lastCapturedMat);
+        }
         return lastCapturedImage;
     }
 
     public void setLastCapturedImage(BufferedImage lastCapturedImage) {
+        releaseLastCapturedMat();
         this.lastCapturedImage = lastCapturedImage;
     }
 
+    /**
+     * Sets the last captured image as a Mat. The pipeline takes ownership of the Mat. It is only converted to 
+     * a BufferedImage when getLastCapturedImage() is actually called. 
+     * 
+     * @param lastCapturedMat
+     */
+    public void setLastCapturedImage(Mat lastCapturedMat) {
+        releaseLastCapturedMat();
+        this.lastCapturedImage = null;
+        this.lastCapturedMat = lastCapturedMat;
+    }
+
+    private void releaseLastCapturedMat() {
+        if (lastCapturedMat != null) {
+            lastCapturedMat.release();
+            lastCapturedMat = null;
+        }
+    }
+
     public abstract class PipelineShot {
         private Map<String, Object> properties;
         private final int index; 
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2011 Jason von Nieda <jason@vonnieda.org>
+ *
+ * This file is part of OpenPnP.
+ *
+ * OpenPnP is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * OpenPnP is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without even
+ * the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU General
+ * Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with OpenPnP. If not, see
+ * <http://www.gnu.org/licenses/>.
+ *
+ * For more information about OpenPnP visit http://openpnp.org
+ */
+
+package org.openpnp.vision.pipeline;
+
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Registry of the stock pipeline templates, that are stored as XML resources. A template is identified
+ * by its resource path, e.g. "org/openpnp/util/FeederVisionHelper-ColorKeyed-Pipeline.xml".
+ *
+ * Each template is read and normalized only once and then shared. Feeders that use an unmodified stock
+ * pipeline only store the template id in the configuration instead of the full pipeline, and only
+ * instantiate the pipeline from the template on first use. Feeder specific tuning is done through
+ * pipeline parameter assignments, i.e. the values of the CvAbstractParameterStage stages, so the
+ * pipeline itself can stay unmodified.
+ *
+ * The comparison is deliberately not cached: stage properties are edited in place, e.g. in the
+ * (non-modal) pipeline editor, so a cached outcome could drop unsaved edits on the next save.
+ */
+public class CvPipelineTemplates {
+    private static final Map<String, String> templates = new ConcurrentHashMap<>();
+
+    /**
+     * Get the template id of a pipeline resource.
+     *
+     * @param resourceClass The class the resource is relative to.
+     * @param resource The resource name.
+     * @return
+     */
+    public static String getTemplateId(Class<?> resourceClass, String resource) {
+        String packagePath = resourceClass.getPackage().getName().replace('.', '/');
+        return packagePath + "/" + resource;
+    }
+
+    /**
+     * Create a new pipeline instance from the template.
+     *
+     * @param templateId
+     * @return
+     */
+    public static CvPipeline create(String templateId) {
+        return new CvPipeline(getXml(templateId));
+    }
+
+    /**
+     * @param templateId
+     * @return True if the template resource exists. Use this to validate template ids loaded from the
+     * configuration, before they fail on first use.
+     */
+    public static boolean exists(String templateId) {
+        return templateId != null && (templates.containsKey(templateId)
+                || CvPipelineTemplates.class.getClassLoader().getResource(templateId) != null);
+    }
+
+    /**
+     * Find the template the pipeline is equal to.
+     *
+     * @param pipeline
+     * @param templateIds The candidate templates.
+     * @return The id of the template the pipeline is equal to, or null if the pipeline is modified
+     * from all the candidates.
+     */
+    public static String findTemplate(CvPipeline pipeline, String... templateIds) {
+        String xml;
+        try {
+            xml = pipeline.toXmlString();
+        }
+        catch (Exception e) {
+            return null;
+        }
+        for (String templateId : templateIds) {
+            if (templateId != null && xml.equals(getXml(templateId))) {
+                return templateId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param templateId
+     * @return The normalized XML of the template, i.e. as written by CvPipeline.toXmlString(), so it
+     * can be compared with the XML of a pipeline.
+     */
+    protected static String getXml(String templateId) {
+        return templates.computeIfAbsent(templateId, (id) -> {
+            URL url = CvPipelineTemplates.class.getClassLoader().getResource(id);
+            if (url == null) {
+                throw new Error("Pipeline template "+id+" not found.");
+            }
+            try (CvPipeline pipeline = new CvPipeline(IOUtils.toString(url, StandardCharsets.UTF_8))) {
+                return pipeline.toXmlString();
+            }
+            catch (Exception e) {
+                throw new Error(e);
+            }
+        });
+    }
+}
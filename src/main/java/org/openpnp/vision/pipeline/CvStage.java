@@ -9,6 +9,8 @@ import java.beans.Introspector;
 import java.beans.MethodDescriptor;
 import java.beans.PropertyDescriptor;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -82,6 +84,58 @@ public abstract class CvStage {
         return propertyOverrides == null ? null : propertyOverrides.get(name);
     }
 
+    /**
+     * Returns true if this stage may read the result of the given stage. By default, any String field of the stage 
+     * holding the name of the given stage, is taken as a reference. Stages that access results in other ways must 
+     * override this.
+     * 
+     * @param stage
+     * @return
+     */
+    public boolean isReferencing(CvStage stage) {
+        String stageName = stage.getName();
+        if (stageName == null) {
+            return false;
+        }
+        for (Field field : stringFields.get(getClass())) {
+            try {
+                if (stageName.equals(field.get(this))) {
+                    return true;
+                }
+            }
+            catch (Exception e) {
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The accessible non-static String fields of each stage class, including those of super classes, as 
+     * potential stage name references for {@link #isReferencing(CvStage)}. Determined once per class.
+     */
+    private static final ClassValue<Field[]> stringFields = new ClassValue<Field[]>() {
+        @Override
+        protected Field[] computeValue(Class<?> type) {
+            List<Field> fields = new ArrayList<>();
+            Class<?> cls = type;
+            while (cls != null && cls != CvStage.class) {
+                for (Field field : cls.getDeclaredFields()) {
+                    if (field.getType() == String.class && !Modifier.isStatic(field.getModifiers())) {
+                        try {
+                            field.setAccessible(true);
+                            fields.add(field);
+                        }
+                        catch (Exception e) {
+                        }
+                    }
+                }
+                // Also look in super classes.
+                cls = cls.getSuperclass();
+            }
+            return fields.toArray(new Field[fields.size()]);
+        }
+    };
+
     public String getCategory() {
         try {
             Stage a = getClass().getAnnotation(Stage.class);
@@ -24,8 +24,11 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import org.opencv.core.Mat;
+import org.opencv.imgproc.Imgproc;
 import org.openpnp.model.Length;
 import org.openpnp.model.Location;
 import org.openpnp.model.Point;
@@ -123,6 +126,22 @@ public class DetectCircularSymmetry extends CvStage {
             + "If set, these will override the properties configured here.")
     private String propertyName = "";
 
+    @Attribute(required = false)
+    @Property(description = "Number of image pyramid levels used for a coarse search first, each level halving the resolution "
+            + "(0 = no pyramid).<br/>"
+            + "The best candidates found on the downsampled image are then refined locally at full resolution. "
+            + "This speeds up wide search distances considerably. The levels are automatically limited for small diameters.")
+    private int pyramidLevels = 0;
+
+    @Attribute(required = false)
+    @Property(description = "Number of the best candidates from the coarse pyramid search that are refined at full resolution. "
+            + "At least the maximum number of targets is refined.")
+    private int pyramidCandidates = 4;
+
+    @Attribute(required = false)
+    @Property(description = "Search on multiple cores in parallel. The result is the same.")
+    private boolean parallel = true;
+
     @Attribute(required = false)
     @Property(description = "Display matches with circle and cross-hairs.")
     private boolean diagnostics = false;
@@ -195,6 +214,30 @@ public class DetectCircularSymmetry extends CvStage {
         this.superSampling = superSampling;
     }
 
+    public int getPyramidLevels() {
+        return pyramidLevels;
+    }
+
+    public void setPyramidLevels(int pyramidLevels) {
+        this.pyramidLevels = pyramidLevels;
+    }
+
+    public int getPyramidCandidates() {
+        return pyramidCandidates;
+    }
+
+    public void setPyramidCandidates(int pyramidCandidates) {
+        this.pyramidCandidates = pyramidCandidates;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     public boolean isDiagnostics() {
         return diagnostics;
     }
@@ -303,9 +346,10 @@ public class DetectCircularSymmetry extends CvStage {
             searchHeight = maxDistance*2;
         }
 
-        List<Result.Circle> circles = findCircularSymmetry(mat, (int)center.x, (int)center.y, 
+        List<Result.Circle> circles = findCircularSymmetryPyramid(mat, (int)center.x, (int)center.y, 
                 minDiameter, maxDiameter, maxDistance*2, searchWidth, searchHeight, maxTargetCount, minSymmetry, corrSymmetry, 
-                subSampling, superSampling, symmetryScore, diagnostics, heatMap, new ScoreRange());
+                subSampling, superSampling, symmetryScore, pyramidLevels, pyramidCandidates, 
+                parallel, diagnostics, heatMap, new ScoreRange());
         return new Result(null, circles);
     }
 
@@ -324,6 +368,13 @@ public class DetectCircularSymmetry extends CvStage {
                 n++;
             }
         }
+        void add(ScoreRange other) {
+            minScore = Math.min(minScore, other.minScore); 
+            maxScore = Math.max(maxScore, other.maxScore);
+            finalScore = Math.max(finalScore, other.finalScore);
+            sumScore += other.sumScore;
+            n += other.n;
+        }
         private double scoreHeat(double score) {
             double range = maxScore - minScore;
             double avg = (sumScore/n - minScore)/range;
@@ -355,6 +406,38 @@ public class DetectCircularSymmetry extends CvStage {
         }
     }
 
+    /**
+     * The search result of one band of rows. 
+     */
+    private static class SearchBand {
+        private double scoreBest = Double.NEGATIVE_INFINITY;
+        private double xBest;
+        private double yBest;
+        private int rContrastBest;
+        private final ScoreRange scoreRange = new ScoreRange();
+    }
+
+    /**
+     * Minimum search work (pixel samples x search positions) to go parallel. 
+     */
+    static final private long parallelMinWork = 1 << 16;
+
+    /**
+     * Determines the number of bands to partition the search rows into. 
+     * 
+     * @param parallel  Whether a parallel search is wanted.
+     * @param rows      Number of search rows.
+     * @param work      Search work, in pixel samples x search positions.
+     * @return          The number of bands, 1 for a sequential search.
+     */
+    static int getSearchBands(boolean parallel, int rows, long work) {
+        if (!parallel || work < parallelMinWork) {
+            return 1;
+        }
+        // Use more bands than cores, to balance the circular search area. 
+        return Math.max(1, Math.min(rows, ForkJoinPool.getCommonPoolParallelism()*4));
+    }
+
     /**
      * The detection will recurse into a local search with finer subSampling. A range of iterationRadius*subSampling 
      * pixels around the preliminary best location will be searched.  
@@ -380,6 +463,107 @@ public class DetectCircularSymmetry extends CvStage {
      * The candidate targets kept for iteration, as a factor of the requested target count.
      */
     private static final int iterationTargetsFactor = 2;
+    /**
+     * The minimum maximum diameter, in pixels, still searched on a downsampled pyramid level.
+     */
+    private static final int pyramidMinDiameter = 16;
+
+    /**
+     * Determines the effective number of pyramid levels, so the searched diameter remains large enough 
+     * on the most downsampled level.
+     * 
+     * @param pyramidLevels     The wanted number of pyramid levels.
+     * @param maxDiameter       Maximum diameter at full resolution.
+     * @return                  The number of levels that can be used, 0 for no pyramid.
+     */
+    static int getEffectivePyramidLevels(int pyramidLevels, int maxDiameter) {
+        int levels = 0;
+        while (levels < pyramidLevels && (maxDiameter >> (levels + 1)) >= pyramidMinDiameter) {
+            levels++;
+        }
+        return levels;
+    }
+
+    /**
+     * Downsamples the image by the given number of pyramid levels, each level halving the resolution.
+     * 
+     * @param image
+     * @param levels
+     * @return  A new Mat, to be released by the caller.
+     */
+    static Mat pyramidDown(Mat image, int levels) {
+        Mat pyramid = image.clone();
+        for (int level = 0; level < levels; level++) {
+            Mat down = new Mat();
+            Imgproc.pyrDown(pyramid, down);
+            pyramid.release();
+            pyramid = down;
+        }
+        return pyramid;
+    }
+
+    /**
+     * Like {@link #findCircularSymmetry(Mat, int, int, int, int, int, int, int, int, double, double, int, int, SymmetryScore, boolean, boolean, boolean, ScoreRange)}
+     * but searches the wide range on a downsampled image pyramid level first. The best candidates found there are 
+     * then refined locally at full resolution. If nothing is found on the downsampled image, the full resolution 
+     * search is performed, like in {@link DetectRectlinearSymmetry#findReclinearSymmetryPyramid}. 
+     * 
+     * @param pyramidLevels     Number of pyramid levels, each halving the resolution. If 0 or if the diameter is 
+     *                          too small, the full resolution search is performed directly.
+     * @param pyramidCandidates Number of best coarse candidates refined at full resolution (at least maxTargetCount).
+     * @see #findCircularSymmetry(Mat, int, int, int, int, int, int, int, int, double, double, int, int, SymmetryScore, boolean, boolean, boolean, ScoreRange)
+     */
+    public static List<Result.Circle> findCircularSymmetryPyramid(Mat image, int xCenter, int yCenter,
+            int minDiameter, int maxDiameter, int searchDiameter, int searchWidth, 
+            int searchHeight, int maxTargetCount, double minSymmetry,
+            double corrSymmetry, int subSampling, int superSampling, 
+            SymmetryScore symmetryScore, int pyramidLevels, int pyramidCandidates, 
+            boolean parallel, boolean diagnostics, boolean heatMap, ScoreRange scoreRange) throws Exception {
+        int levels = getEffectivePyramidLevels(pyramidLevels, maxDiameter);
+        if (levels == 0) {
+            return findCircularSymmetry(image, xCenter, yCenter, minDiameter, maxDiameter, 
+                    searchDiameter, searchWidth, searchHeight, maxTargetCount, minSymmetry, corrSymmetry, 
+                    subSampling, superSampling, symmetryScore, parallel, diagnostics, heatMap, scoreRange);
+        }
+        final int scale = 1 << levels;
+        // Coarse search on the downsampled image. Only a lenient minimum symmetry is applied here, the 
+        // final decision is made at full resolution.
+        List<Result.Circle> coarse;
+        Mat pyramid = pyramidDown(image, levels);
+        try {
+            coarse = findCircularSymmetry(pyramid, xCenter/scale, yCenter/scale, 
+                    minDiameter/scale, (maxDiameter + scale - 1)/scale, 
+                    searchDiameter/scale, searchWidth/scale, searchHeight/scale, 
+                    Math.max(maxTargetCount, pyramidCandidates), absoluteMinSymmetry, 0.0, 
+                    Math.max(1, subSampling/scale), 1, symmetryScore, parallel, false, false, new ScoreRange());
+        }
+        finally {
+            pyramid.release();
+        }
+        if (coarse.isEmpty()) {
+            // Small or low contrast features may be lost in downsampling.
+            return findCircularSymmetry(image, xCenter, yCenter, minDiameter, maxDiameter, 
+                    searchDiameter, searchWidth, searchHeight, maxTargetCount, minSymmetry, corrSymmetry, 
+                    subSampling, superSampling, symmetryScore, parallel, diagnostics, heatMap, scoreRange);
+        }
+        // Refine each candidate locally at full resolution. The coarse result is precise to half a 
+        // downsampled pixel, so the local search is sized like a recursion from subSampling = scale.
+        List<SymmetryCircle> refined = new ArrayList<>();
+        int localSearchRange = scale*iterationRadius;
+        for (Result.Circle candidate : coarse) {
+            List<Result.Circle> localRet = findCircularSymmetry(image, 
+                    (int)(candidate.x*scale), (int)(candidate.y*scale), minDiameter, maxDiameter, 
+                    localSearchRange, localSearchRange, localSearchRange, 1,
+                    minSymmetry, corrSymmetry, Math.min(subSampling, scale), superSampling, symmetryScore, 
+                    parallel, diagnostics, heatMap, scoreRange);
+            if (localRet.size() > 0) { 
+                refined.add((SymmetryCircle) localRet.get(0));
+            }
+        }
+        // Different candidates may have converged on the same target.
+        refined = filterOverlaps(refined, maxDiameter);
+        return new ArrayList<>(sortAndLimit(refined, maxTargetCount, corrSymmetry));
+    }
 
     /**
      * Find the circle that has its center at the greatest circular symmetry in the given image,
@@ -402,6 +586,7 @@ public class DetectCircularSymmetry extends CvStage {
      *                          examined on the first pass. 
      * @param superSampling     Super-sampling pixel fraction, i.e. the result will have 1/superSampling sub-pixel accuracy.
      * @param symmetryScore     The symmetry score function used to judge circular symmetry.
+     * @param parallel          If true, searches on multiple cores in parallel.
      * @param diagnostics       If true, draws diagnostic match circles and cross hairs into the image. 
      * @param heatMap           If true, overlays a diagnostic heat map onto the image.
      * @param scoreRange        Outputs the score range of all the sampled center candidates.
@@ -412,7 +597,7 @@ public class DetectCircularSymmetry extends CvStage {
             int minDiameter, int maxDiameter, int searchDiameter, int searchWidth, 
             int searchHeight, int maxTargetCount, double minSymmetry,
             double corrSymmetry, int subSampling, int superSampling, 
-            SymmetryScore symmetryScore, boolean diagnostics, boolean heatMap, ScoreRange scoreRange) throws Exception {
+            SymmetryScore symmetryScore, boolean parallel, boolean diagnostics, boolean heatMap, ScoreRange scoreRange) throws Exception {
         boolean outermost = !Double.isFinite(scoreRange.finalScore);
         // Image properties.
         final int channels = image.channels();
@@ -498,14 +683,11 @@ public class DetectCircularSymmetry extends CvStage {
         int [] idxPixelData = new int[maxPixelDataDim]; // Index into the pixel data, relative from the left upper corner.
         int [] idxHistogram = new int[maxPixelDataDim]; // Index into the result histogram.
         int [] rRing = new int [rDim];
-        double [] segmentValues = new double[angleDim]; 
         for (int ri = 0; ri < rDim; ri++) {
             rRing[ri] = r0 + ri*subSamplingEff;
         }
         int [] histogramN = new int[histogramDim];
         double [] histogramFactor = new double[histogramDim];
-        long [] histogramSum = new long[histogramDim]; 
-        long [] histogramSumSq = new long[histogramDim]; 
 
         // Outer super-sampling loop. 
         for (double xOffset : superSamplingOffsets) {
@@ -545,140 +727,176 @@ public class DetectCircularSymmetry extends CvStage {
                     histogramFactor[i] = histogramN[i] > 0 ? 1.0/histogramN[i] : 0;
                 }
 
-                // Now iterate through all the pixel offsets and find the maximum circular symmetry.
-                for (int yi = 0, yis = 0; yi < hSearchRange; yi += subSamplingEff, yis++) {
-                    for (int xi = 0, xis = 0, idxOffset = (yi*width + x0SearchRange) * channels; 
-                            xi < wSearchRange; 
-                            xi += subSamplingEff, xis++, idxOffset += channels*subSamplingEff) {
-                        int distSq = (xi - xSearch)*(xi - xSearch) + (yi - ySearch)*(yi - ySearch);
-                        if (distSq <= rSearchSq) {
-                            Arrays.fill(histogramSum, 0);
-                            Arrays.fill(histogramSumSq, 0);
-                            for (int i = 0; i < samples; i++) {
-                                int idxPixel = idxPixelData[i];
-                                int idxHisto = idxHistogram[i];
-                                int pixel = Byte.toUnsignedInt(pixelSamples[idxOffset + idxPixel]);
-                                histogramSum[idxHisto] += pixel;
-                                histogramSumSq[idxHisto] += pixel*pixel;
-                            }
+                // Now iterate through all the pixel offsets and find the maximum circular symmetry. The search rows 
+                // are partitioned into bands, that can be searched in parallel. 
+                final int samplesEff = samples;
+                final int minDiameterEff = minDiameter;
+                final double[] scoreMapEff = scoreMap;
+                final int[] radiusMapEff = radiusMap;
+                final double[] xOffsetMapEff = xOffsetMap;
+                final double[] yOffsetMapEff = yOffsetMap;
+                final int rows = (hSearchRange + subSamplingEff - 1)/subSamplingEff;
+                final int bands = getSearchBands(parallel, rows, (long)rows*wSearchRangeMap*samples);
+                IntStream bandStream = IntStream.range(0, bands);
+                if (bands > 1) {
+                    bandStream = bandStream.parallel();
+                }
+                SearchBand[] bandResults = bandStream.mapToObj((band) -> {
+                    SearchBand result = new SearchBand();
+                    // Per band working buffers.
+                    long [] histogramSum = new long[histogramDim]; 
+                    long [] histogramSumSq = new long[histogramDim]; 
+                    double [] segmentValues = new double[angleDim]; 
+                    double [] sumAcross = new double[channels];
+                    double [] sumSqAcross = new double[channels];
+                    double [] lastAvg = new double[channels];
+                    int [] nAcross = new int[channels];
+                    for (int yis = band*rows/bands, yi = yis*subSamplingEff; yis < (band + 1)*rows/bands; yi += subSamplingEff, yis++) {
+                        for (int xi = 0, xis = 0, idxOffset = (yi*width + x0SearchRange) * channels; 
+                                xi < wSearchRange; 
+                                xi += subSamplingEff, xis++, idxOffset += channels*subSamplingEff) {
+                            int distSq = (xi - xSearch)*(xi - xSearch) + (yi - ySearch)*(yi - ySearch);
+                            if (distSq <= rSearchSq) {
+                                Arrays.fill(histogramSum, 0);
+                                Arrays.fill(histogramSumSq, 0);
+                                for (int i = 0; i < samplesEff; i++) {
+                                    int idxPixel = idxPixelData[i];
+                                    int idxHisto = idxHistogram[i];
+                                    int pixel = Byte.toUnsignedInt(pixelSamples[idxOffset + idxPixel]);
+                                    histogramSum[idxHisto] += pixel;
+                                    histogramSumSq[idxHisto] += pixel*pixel;
+                                }
 
-                            // Analyze the ring sums to find the circular symmetry score, which is ratio between radial 
-                            // and circular variance.
-                            // We use the naive formula
-                            //    Var = (SumSq − (Sum × Sum) / n) / (n − 1), 
-                            // See https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Na%C3%AFve_algorithm
-                            // But we weigh all our variances by the pixel count, so we do not divide by (n - 1).
-                            final double div0Guard = 0.1;
-                            double score;
-                            double contrastBest = Double.NEGATIVE_INFINITY;
-                            int riContrastBest = 0;
-                            double varianceRing = 0;
-                            double [] sumAcross = new double[channels];
-                            double [] sumSqAcross = new double[channels];
-                            double [] lastAvg = new double[channels];
-                            int [] nAcross = new int[channels];
-                            for (int idxR = 0; idxR < rDim; idxR++) {
-                                double contrast = 0;
-                                for (int ch = 0; ch < channels; ch++) {
-                                    double sumRing = 0;
-                                    double sumSqRing = 0;
-
-                                    int nRing = 0;
-                                    switch (symmetryScore) { 
-                                        case OverallVarianceVsRingVarianceSum:
-                                        {
-                                            int idxHisto = (idxR*angleDim + 0)*channels + ch;
-                                            sumRing += histogramSum[idxHisto];
-                                            sumSqRing += histogramSumSq[idxHisto];
-                                            nRing += histogramN[idxHisto];
-                                            double variance = (sumSqRing - Math.pow(sumRing, 2)/nRing);
-                                            varianceRing += variance;
-                                            sumAcross[ch] += sumRing;
-                                            sumSqAcross[ch] += sumSqRing;
-                                        }
-                                        break;
-                                        case RingAvgeragesVarianceVsRingVarianceSum:
-                                        {
-                                            for (int idxAngle = 0; idxAngle < angleDim; idxAngle++) {
-                                                int idxHisto = (idxR*angleDim + idxAngle)*channels + ch;
-                                                int n = histogramN[idxHisto];
-                                                double segmentAvg = histogramSum[idxHisto]*histogramFactor[idxHisto];
-                                                double segmentAvgSq = Math.pow(segmentAvg, 2);
+                                // Analyze the ring sums to find the circular symmetry score, which is ratio between radial 
+                                // and circular variance.
+                                // We use the naive formula
+                                //    Var = (SumSq − (Sum × Sum) / n) / (n − 1), 
+                                // See https://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#Na%C3%AFve_algorithm
+                                // But we weigh all our variances by the pixel count, so we do not divide by (n - 1).
+                                final double div0Guard = 0.1;
+                                double score;
+                                double contrastBest = Double.NEGATIVE_INFINITY;
+                                int riContrastBest = 0;
+                                double varianceRing = 0;
+                                Arrays.fill(sumAcross, 0);
+                                Arrays.fill(sumSqAcross, 0);
+                                Arrays.fill(lastAvg, 0);
+                                Arrays.fill(nAcross, 0);
+                                for (int idxR = 0; idxR < rDim; idxR++) {
+                                    double contrast = 0;
+                                    for (int ch = 0; ch < channels; ch++) {
+                                        double sumRing = 0;
+                                        double sumSqRing = 0;
+
+                                        int nRing = 0;
+                                        switch (symmetryScore) { 
+                                            case OverallVarianceVsRingVarianceSum:
+                                            {
+                                                int idxHisto = (idxR*angleDim + 0)*channels + ch;
                                                 sumRing += histogramSum[idxHisto];
                                                 sumSqRing += histogramSumSq[idxHisto];
-                                                sumSqAcross[ch] += segmentAvgSq*n;
-                                                nRing += n;
+                                                nRing += histogramN[idxHisto];
+                                                double variance = (sumSqRing - Math.pow(sumRing, 2)/nRing);
+                                                varianceRing += variance;
+                                                sumAcross[ch] += sumRing;
+                                                sumSqAcross[ch] += sumSqRing;
                                             }
-                                            sumAcross[ch] += sumRing;
-                                            double variance = (sumSqRing - Math.pow(sumRing, 2)/nRing);
-                                            varianceRing += variance;
-                                        }
-                                        break;
-                                        case RingMedianVarianceVsRingVarianceSum: 
-                                        {
-                                            int slotAngle = 0; 
-                                            for (int idxAngle = 0; idxAngle < angleDim; idxAngle++) {
-                                                int idxHisto = (idxR*angleDim + idxAngle)*channels + ch;
-                                                int n = histogramN[idxHisto];
-                                                if (n > 0) {
+                                            break;
+                                            case RingAvgeragesVarianceVsRingVarianceSum:
+                                            {
+                                                for (int idxAngle = 0; idxAngle < angleDim; idxAngle++) {
+                                                    int idxHisto = (idxR*angleDim + idxAngle)*channels + ch;
+                                                    int n = histogramN[idxHisto];
                                                     double segmentAvg = histogramSum[idxHisto]*histogramFactor[idxHisto];
-                                                    //double segmentAvgSq = Math.pow(segmentAvg, 2);
-                                                    segmentValues[slotAngle++] = segmentAvg;
+                                                    double segmentAvgSq = Math.pow(segmentAvg, 2);
                                                     sumRing += histogramSum[idxHisto];
-                                                    sumSqRing += /*segmentAvgSq*n;*/histogramSumSq[idxHisto];
+                                                    sumSqRing += histogramSumSq[idxHisto];
+                                                    sumSqAcross[ch] += segmentAvgSq*n;
                                                     nRing += n;
                                                 }
+                                                sumAcross[ch] += sumRing;
+                                                double variance = (sumSqRing - Math.pow(sumRing, 2)/nRing);
+                                                varianceRing += variance;
+                                            }
+                                            break;
+                                            case RingMedianVarianceVsRingVarianceSum: 
+                                            {
+                                                int slotAngle = 0; 
+                                                for (int idxAngle = 0; idxAngle < angleDim; idxAngle++) {
+                                                    int idxHisto = (idxR*angleDim + idxAngle)*channels + ch;
+                                                    int n = histogramN[idxHisto];
+                                                    if (n > 0) {
+                                                        double segmentAvg = histogramSum[idxHisto]*histogramFactor[idxHisto];
+                                                        //double segmentAvgSq = Math.pow(segmentAvg, 2);
+                                                        segmentValues[slotAngle++] = segmentAvg;
+                                                        sumRing += histogramSum[idxHisto];
+                                                        sumSqRing += /*segmentAvgSq*n;*/histogramSumSq[idxHisto];
+                                                        nRing += n;
+                                                    }
+                                                }
+                                                Arrays.sort(segmentValues, 0, slotAngle);
+                                                double median = (segmentValues[Math.max(0, slotAngle/2 - 1)] + segmentValues[slotAngle/2])*0.5;
+                                                double medianSq = Math.pow(median, 2);
+                                                sumAcross[ch] += median*nRing;
+                                                sumSqAcross[ch] += medianSq*nRing;
+                                                double variance = (sumSqRing - Math.pow(sumRing, 2)/nRing);
+                                                varianceRing += variance;
                                             }
-                                            Arrays.sort(segmentValues, 0, slotAngle);
-                                            double median = (segmentValues[Math.max(0, slotAngle/2 - 1)] + segmentValues[slotAngle/2])*0.5;
-                                            double medianSq = Math.pow(median, 2);
-                                            sumAcross[ch] += median*nRing;
-                                            sumSqAcross[ch] += medianSq*nRing;
-                                            double variance = (sumSqRing - Math.pow(sumRing, 2)/nRing);
-                                            varianceRing += variance;
+                                            break;
                                         }
-                                        break;
+                                        nAcross[ch] += nRing;
+                                        double avg1 = sumRing/nRing;
+                                        contrast += Math.pow(lastAvg[ch] - avg1, 2);
+                                        lastAvg[ch] = avg1;
                                     }
-                                    nAcross[ch] += nRing;
-                                    double avg1 = sumRing/nRing;
-                                    contrast += Math.pow(lastAvg[ch] - avg1, 2);
-                                    lastAvg[ch] = avg1;
-                                }
-                                if (rRing[idxR]*2 >= minDiameter) {
-                                    if (contrastBest < contrast) {
-                                        contrastBest = contrast;
-                                        riContrastBest = rRing[idxR];
+                                    if (rRing[idxR]*2 >= minDiameterEff) {
+                                        if (contrastBest < contrast) {
+                                            contrastBest = contrast;
+                                            riContrastBest = rRing[idxR];
+                                        }
                                     }
                                 }
-                            }
-                            double varianceAcross = 0;
-                            for (int ch = 0; ch < channels; ch++) {
-                                varianceAcross += (sumSqAcross[ch] - Math.pow(sumAcross[ch], 2) / nAcross[ch]);
-                            }
-                            score = (varianceAcross + div0Guard)/(varianceRing + div0Guard);
-                            scoreRange.add(score);
-                            if (scoreBestSampling < score) {
-                                scoreBestSampling = score;
-                                xBestSampling = xi + x0SearchRange + r + 0.5 + xOffset;
-                                yBestSampling = yi + y0SearchRange + r + 0.5 + yOffset;
-                                if (scoreBest < score) {
-                                    scoreBest = score;
-                                    xBest = xBestSampling;
-                                    yBest = yBestSampling;
-                                    rContrastBest = riContrastBest;
+                                double varianceAcross = 0;
+                                for (int ch = 0; ch < channels; ch++) {
+                                    varianceAcross += (sumSqAcross[ch] - Math.pow(sumAcross[ch], 2) / nAcross[ch]);
                                 }
-                            }
-                            if (scoreMap != null) {
-                                int idx = yis*wSearchRangeMap + xis;
-                                if (scoreMap[idx] < score) {
-                                    scoreMap[idx] = score;
-                                    radiusMap[idx] = riContrastBest;
-                                    xOffsetMap[idx] = xOffset;
-                                    yOffsetMap[idx] = yOffset;
+                                score = (varianceAcross + div0Guard)/(varianceRing + div0Guard);
+                                result.scoreRange.add(score);
+                                if (result.scoreBest < score) {
+                                    result.scoreBest = score;
+                                    result.xBest = xi + x0SearchRange + r + 0.5 + xOffset;
+                                    result.yBest = yi + y0SearchRange + r + 0.5 + yOffset;
+                                    result.rContrastBest = riContrastBest;
+                                }
+                                if (scoreMapEff != null) {
+                                    // Each band writes its own rows only.
+                                    int idx = yis*wSearchRangeMap + xis;
+                                    if (scoreMapEff[idx] < score) {
+                                        scoreMapEff[idx] = score;
+                                        radiusMapEff[idx] = riContrastBest;
+                                        xOffsetMapEff[idx] = xOffset;
+                                        yOffsetMapEff[idx] = yOffset;
+                                    }
                                 }
                             }
                         }
                     }
+                    return result;
+                }).toArray(SearchBand[]::new);
+                // Merge the bands in row order, so the result is the same as if searched sequentially.
+                for (SearchBand result : bandResults) {
+                    scoreRange.add(result.scoreRange);
+                    if (scoreBestSampling < result.scoreBest) {
+                        scoreBestSampling = result.scoreBest;
+                        xBestSampling = result.xBest;
+                        yBestSampling = result.yBest;
+                        if (scoreBest < result.scoreBest) {
+                            scoreBest = result.scoreBest;
+                            xBest = result.xBest;
+                            yBest = result.yBest;
+                            rContrastBest = result.rContrastBest;
+                        }
+                    }
                 }
                 if (DEBUG >= 1) {
                     Logger.trace("best circular symmetry at subSampling "+subSamplingEff+", range W"+wSearchRange+" H"+hSearchRange
@@ -731,26 +949,7 @@ public class DetectCircularSymmetry extends CvStage {
                     maxima.add(new SymmetryCircle(xBest, yBest, rContrastBest * 2, scoreBest));
                 }
                 // Take only those with no better-scoring overlaps.
-                List<SymmetryCircle> maximaFiltered = new ArrayList<SymmetryCircle>();
-                int sqMinDistance = maxDiameter*maxDiameter;
-                for (SymmetryCircle cand : maxima) {
-                    boolean noBetterOverlap = true;
-                    for (SymmetryCircle other : maxima) {
-                        if (other.score > cand.score) {
-                            double dx = cand.x - other.x;
-                            double dy = cand.y - other.y;
-                            double dSq = dx*dx + dy*dy;
-                            if (dSq < sqMinDistance) {
-                                // Better-scoring overlap.
-                                noBetterOverlap = false;
-                                break;
-                            }
-                        }
-                    }
-                    if (noBetterOverlap) {
-                        maximaFiltered.add(cand);
-                    }
-                }
+                List<SymmetryCircle> maximaFiltered = filterOverlaps(maxima, maxDiameter);
                 maximaFiltered = sortAndLimit(maximaFiltered, maxTargetCount*iterationTargetsFactor, corrSymmetry);
                 List<SymmetryCircle> samplingFiltered = new ArrayList<SymmetryCircle>();
                 if (finalSamplingPass) {
@@ -763,7 +962,7 @@ public class DetectCircularSymmetry extends CvStage {
                         int localSearchRange = subSamplingEff*iterationRadius;
                         List<CvStage.Result.Circle> localRet = findCircularSymmetry(image, (int)localBest.x, (int)localBest.y, minDiameter, maxDiameter, 
                                 localSearchRange, localSearchRange, localSearchRange, 1,
-                                minSymmetry, corrSymmetry, subSamplingEff/iterationDivision, superSampling, symmetryScore, diagnostics, heatMap, scoreRange);
+                                minSymmetry, corrSymmetry, subSamplingEff/iterationDivision, superSampling, symmetryScore, parallel, diagnostics, heatMap, scoreRange);
                         if (localRet.size() > 0) { 
                             samplingFiltered.add((SymmetryCircle) localRet.get(0));
                         }
@@ -792,7 +991,7 @@ public class DetectCircularSymmetry extends CvStage {
                 // Recursion into finer subSampling and local search.
                 ret = findCircularSymmetry(image, (int)(xBest), (int)(yBest), minDiameter, maxDiameter, 
                         subSamplingEff*iterationRadius, subSamplingEff*iterationRadius, subSamplingEff*iterationRadius, 1,
-                        minSymmetry, corrSymmetry, subSamplingEff/iterationDivision, superSampling, symmetryScore, diagnostics, heatMap, scoreRange);
+                        minSymmetry, corrSymmetry, subSamplingEff/iterationDivision, superSampling, symmetryScore, parallel, diagnostics, heatMap, scoreRange);
             }
         }
 
@@ -912,6 +1111,37 @@ public class DetectCircularSymmetry extends CvStage {
         return ret;
     }
 
+    /**
+     * Filters out the circles that have a better-scoring overlap.
+     * 
+     * @param circles
+     * @param minDistance   The minimum distance between circle centers to not count as overlapping.
+     * @return
+     */
+    protected static List<SymmetryCircle> filterOverlaps(List<SymmetryCircle> circles, int minDistance) {
+        List<SymmetryCircle> ret = new ArrayList<SymmetryCircle>();
+        int sqMinDistance = minDistance*minDistance;
+        for (SymmetryCircle cand : circles) {
+            boolean noBetterOverlap = true;
+            for (SymmetryCircle other : circles) {
+                if (other.score > cand.score) {
+                    double dx = cand.x - other.x;
+                    double dy = cand.y - other.y;
+                    double dSq = dx*dx + dy*dy;
+                    if (dSq < sqMinDistance) {
+                        // Better-scoring overlap.
+                        noBetterOverlap = false;
+                        break;
+                    }
+                }
+            }
+            if (noBetterOverlap) {
+                ret.add(cand);
+            }
+        }
+        return ret;
+    }
+
     protected static List<SymmetryCircle> sortAndLimit(List<SymmetryCircle> circles,
             int maxTargetCount, double corrSymmetry) {
         // Sort best results first.
@@ -23,6 +23,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.stream.IntStream;
 
 import org.opencv.core.Mat;
 import org.opencv.core.RotatedRect;
@@ -143,6 +144,17 @@ public class DetectRectlinearSymmetry extends CvStage {
             + "This is used to remove masking imperfections, i.e. image specks and impurities up to a certain size and frequency.")
     private double minFeatureSize = 40;
 
+    @Attribute(required = false)
+    @Property(description = "Number of image pyramid levels used for a coarse search first, each level halving the resolution "
+            + "(0 = no pyramid).<br/>"
+            + "The subject found on the downsampled image is then refined locally at full resolution. "
+            + "This speeds up wide search distances considerably. The levels are automatically limited for small subjects.")
+    private int pyramidLevels = 0;
+
+    @Attribute(required = false)
+    @Property(description = "Search on multiple cores in parallel. The result is the same.")
+    private boolean parallel = true;
+
     @Attribute(required = false)
     @Property(description = "Display the detection with cross-hairs and bounds.")
     private boolean diagnostics = false;
@@ -293,6 +305,22 @@ public class DetectRectlinearSymmetry extends CvStage {
         this.propertyName = propertyName;
     }
 
+    public int getPyramidLevels() {
+        return pyramidLevels;
+    }
+
+    public void setPyramidLevels(int pyramidLevels) {
+        this.pyramidLevels = pyramidLevels;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
     public boolean isDiagnostics() {
         return diagnostics;
     }
@@ -440,14 +468,14 @@ public class DetectRectlinearSymmetry extends CvStage {
                     propertyName + ".superSampling", Integer.class, Double.class, Length.class);
         }
 
-        RotatedRect rect = findReclinearSymmetry(mat, (int)center.x, (int)center.y, expectedAngle, 
+        RotatedRect rect = findReclinearSymmetryPyramid(mat, (int)center.x, (int)center.y, expectedAngle, 
                 maxWidth, maxHeight, searchDistance, searchAngle, 
                 minSymmetry, 
                 (symmetricLeftRight ? getSymmetricFunction() :  getAsymmetricFunction()), 
                 (symmetricUpperLower ? getSymmetricFunction() :  getAsymmetricFunction()), 
                 minFeatureSize,
                 subSampling, superSampling, smoothing, gamma,
-                threshold, diagnostics, diagnosticsMap, new ScoreRange());
+                threshold, pyramidLevels, parallel, diagnostics, diagnosticsMap, new ScoreRange());
         return new Result(null, rect);
     }
 
@@ -464,6 +492,18 @@ public class DetectRectlinearSymmetry extends CvStage {
         }
     }
 
+    /**
+     * The search result of one band of angles. 
+     */
+    private static class AngleBand {
+        private double scoreBest = Double.NEGATIVE_INFINITY;
+        private double angleBest = Double.NaN;
+        private double [] xBestCrossSection;
+        private double [] yBestCrossSection;
+        private double [] xBestCrossSectionMasked;
+        private double [] yBestCrossSectionMasked;
+    }
+
     /**
      * The detection will recurse into a local search with finer subSampling. An angle of iterationAngle*step 
      * around the preliminary best angle will be searched.  
@@ -482,11 +522,100 @@ public class DetectRectlinearSymmetry extends CvStage {
      * Minimum subject size in pixels. Very small subject need to be kept larger in iteration.
      */
     static final private int iterationMinSize = 64;
+    /**
+     * Minimum subject size in pixels still searched on a downsampled pyramid level.
+     */
+    static final private int pyramidMinSize = 32;
     /**
      * Some extra debugging stuff used for development, that might be useful again in the future. DEBUG has levels 1 and 2.  
      */
     static final int DEBUG = 0;
 
+    /**
+     * Like {@link #findReclinearSymmetry(Mat, int, int, double, double, double, double, double, double, SymmetryFunction, SymmetryFunction, double, int, int, int, double, int, boolean, boolean, boolean, ScoreRange)}
+     * but searches the wide range on a downsampled image pyramid level first. The subject found there is then refined
+     * locally at full resolution. If nothing is found on the downsampled image, the full resolution search is performed. 
+     * 
+     * @param pyramidLevels         Number of pyramid levels, each halving the resolution. If 0 or if the subject is 
+     *                              too small, the full resolution search is performed directly.
+     * @see #findReclinearSymmetry(Mat, int, int, double, double, double, double, double, double, SymmetryFunction, SymmetryFunction, double, int, int, int, double, int, boolean, boolean, boolean, ScoreRange)
+     */
+    public static RotatedRect findReclinearSymmetryPyramid(Mat image, int xCenter, int yCenter, double expectedAngle,
+            double maxWidth, double maxHeight, double searchDistance, double searchAngle,  
+            double minSymmetry, SymmetryFunction xSymmetryFunction, SymmetryFunction ySymmetryFunction, double minFeatureSize,
+            int subSampling, int superSampling, int gaussianSmoothing, double gamma,
+            int threshold, int pyramidLevels, boolean parallel, boolean diagnostics, boolean diagnosticMap, ScoreRange scoreRange) throws Exception {
+        int levels = 0;
+        int widthLevel = image.cols();
+        int heightLevel = image.rows();
+        while (levels < pyramidLevels 
+                && Math.min(maxWidth, maxHeight)/(2 << levels) >= pyramidMinSize) {
+            // Only descend, if the downsampled image is still large enough for the search. 
+            int scaleNext = 2 << levels;
+            widthLevel = (widthLevel + 1)/2;
+            heightLevel = (heightLevel + 1)/2;
+            if (!isSearchable(widthLevel, heightLevel, maxWidth/scaleNext, maxHeight/scaleNext, 
+                    searchDistance/scaleNext, Math.max(1, subSampling/scaleNext))) {
+                break;
+            }
+            levels++;
+        }
+        RotatedRect coarse = null;
+        final int scale = 1 << levels;
+        if (levels > 0) {
+            Mat pyramid = DetectCircularSymmetry.pyramidDown(image, levels);
+            try {
+                coarse = findReclinearSymmetry(pyramid, xCenter/scale, yCenter/scale, expectedAngle, 
+                        maxWidth/scale, maxHeight/scale, searchDistance/scale, searchAngle, 
+                        minSymmetry, xSymmetryFunction, ySymmetryFunction, minFeatureSize/scale, 
+                        Math.max(1, subSampling/scale), 1, gaussianSmoothing, gamma, 
+                        threshold, parallel, false, false, new ScoreRange());
+            }
+            finally {
+                pyramid.release();
+            }
+        }
+        if (coarse == null) {
+            return findReclinearSymmetry(image, xCenter, yCenter, expectedAngle, 
+                    maxWidth, maxHeight, searchDistance, searchAngle, 
+                    minSymmetry, xSymmetryFunction, ySymmetryFunction, minFeatureSize, 
+                    subSampling, superSampling, gaussianSmoothing, gamma, 
+                    threshold, parallel, diagnostics, diagnosticMap, scoreRange);
+        }
+        // Refine locally at full resolution, sized like a recursion from subSampling = scale. The angle
+        // is less precise on the smoothed, downsampled image, so twice the angle error is searched.
+        double wCoarse = coarse.size.width*scale;
+        double hCoarse = coarse.size.height*scale;
+        double angleError = 2*scale/Math.max(wCoarse, hCoarse);
+        return findReclinearSymmetry(image, (int)(coarse.center.x*scale), (int)(coarse.center.y*scale), -coarse.angle, 
+                Math.min(maxWidth, Math.max(iterationMinSize, wCoarse)+scale*iterationRadius*2), 
+                Math.min(maxHeight, Math.max(iterationMinSize, hCoarse)+scale*iterationRadius*2), 
+                scale*iterationRadius, 
+                Math.toDegrees(angleError)*iterationAngle,  
+                minSymmetry, xSymmetryFunction, ySymmetryFunction, minFeatureSize,
+                Math.min(subSampling, scale), superSampling, gaussianSmoothing, gamma,  
+                threshold, parallel, diagnostics, diagnosticMap, scoreRange);
+    }
+
+    /**
+     * @param width                 Image width.
+     * @param height                Image height.
+     * @param maxWidth
+     * @param maxHeight
+     * @param searchDistance
+     * @param subSampling
+     * @return True if the image is large enough to search for the given subject size and search distance. 
+     */
+    static boolean isSearchable(int width, int height, double maxWidth, double maxHeight, double searchDistance, 
+            int subSampling) {
+        int maxDim = Math.min(width, height);
+        maxWidth = Math.min(maxWidth, maxDim - subSampling*4);
+        maxHeight = Math.min(maxHeight, maxDim - subSampling*4);
+        double maxSpan  = Math.max(maxWidth, maxHeight);
+        searchDistance = Math.min(searchDistance, maxDim - maxSpan);
+        return searchDistance >= subSampling;
+    }
+
     /**
      * Find the angle, location and bounds of the subject with largest rectlinear symmetry. 
      * 
@@ -510,6 +639,7 @@ public class DetectRectlinearSymmetry extends CvStage {
      *                              smoothing with a kernel of this size, this is remedied. 
      * @param gamma                 Pixel luminance is raised to the power of gamma. Choosing > 1 gammas allows for boosting bright areas.
      * @param threshold             Pixel luminance threshold for the {@link SymmetryFunction} OutlineSymmetryMasked option.
+     * @param parallel              Search the angles on multiple cores in parallel.
      * @param diagnostics           Overlay diagnostic cross-hairs and bounds on top of the image.
      * @param diagnosticMap         Overlay diagnostic maps for angular contrast and cross-section profiles on top of the image.
      * @param scoreRange            Returns symmetry score ranges.
@@ -520,13 +650,16 @@ public class DetectRectlinearSymmetry extends CvStage {
             double maxWidth, double maxHeight, double searchDistance, double searchAngle,  
             double minSymmetry, SymmetryFunction xSymmetryFunction, SymmetryFunction ySymmetryFunction, double minFeatureSize,
             int subSampling, int superSampling, int gaussianSmoothing, double gamma,
-            int threshold, boolean diagnostics, boolean diagnosticMap, ScoreRange scoreRange) throws Exception {
+            int threshold, boolean parallel, boolean diagnostics, boolean diagnosticMap, ScoreRange scoreRange) throws Exception {
         boolean innermost = subSampling <= Math.max(1, -superSampling);
         // Image properties.
         final int channels = image.channels();
         final int width = image.cols();
         final int height = image.rows();
         // Some sanity checks.
+        if (!isSearchable(width, height, maxWidth, maxHeight, searchDistance, subSampling)) {
+            throw new Exception("Image too small for maxWidth, maxHeight");
+        }
         int maxDim = Math.min(width, height);
         maxWidth = Math.min(maxWidth, maxDim - subSampling*4);
         maxHeight = Math.min(maxHeight, maxDim - subSampling*4);
@@ -534,9 +667,6 @@ public class DetectRectlinearSymmetry extends CvStage {
         final int maxDiagonal = 2*(int) Math.ceil(Math.sqrt(maxWidth*maxWidth + maxHeight*maxHeight)/2);
         double maxSpan  = Math.max(maxWidth, maxHeight);
         searchDistance = Math.min(searchDistance, maxDim - maxSpan);
-        if (searchDistance < subSampling) {
-            throw new Exception("Image too small for maxWidth, maxHeight");
-        }
         final int subSamplingEff = Math.max(1, Math.min(subSampling, Math.min(maxDiagonal/16, (int)searchDistance/2)));
         // Super sampling seems to only work reliably with 2. Sampling vs. pixel grid interference seems to be a big problem.
         final int superSamplingEff = (subSamplingEff == 1 ? Math.max(1, Math.min(maxDiagonal/100, superSampling)) : 1);
@@ -566,14 +696,6 @@ public class DetectRectlinearSymmetry extends CvStage {
         // Running best results.
         double scoreBest = Double.NEGATIVE_INFINITY;
         double angleBest = Double.NaN;
-        double [] xCrossSection = new double[wCross*channels];
-        double [] yCrossSection = new double[hCross*channels];
-        double [] xCrossSectionN = new double[wCross];
-        double [] yCrossSectionN = new double[hCross];
-        double [] xCrossSectionMasked = new double[wCross];
-        double [] yCrossSectionMasked = new double[hCross];
-        double [] xCrossSectionFiltered = new double[wCross*channels];
-        double [] yCrossSectionFiltered = new double[hCross*channels];
         double [] xBestCrossSection = new double[wCross*channels];
         double [] yBestCrossSection = new double[hCross*channels];
         double [] xBestCrossSectionMasked = new double[wCross];
@@ -589,123 +711,164 @@ public class DetectRectlinearSymmetry extends CvStage {
         double[] kernel = KernelUtils.getGaussianKernel(superSamplingEff, 0, (gaussianSmoothing*superSamplingEff)|1);
         double thresholdLuminance = Math.pow(threshold, gamma)*channels;
 
-        // Determine the angle with the largest rectlinear cross-section contrast.
+        // Determine the angle with the largest rectlinear cross-section contrast. The angles are partitioned into
+        // bands, that can be searched in parallel.
+        int angleCount = 0;
         for (double angle = a0; angle <= a1; angle += angleStep) {
-            // Note, this is the reverse rotation, i.e. angle is negative.
-            double s = superSamplingEff*Math.sin(-angle)/subSamplingEff;
-            double c = superSamplingEff*Math.cos(-angle)/subSamplingEff;
-            // Reset cross-sections. 
-            Arrays.fill(xCrossSection, 0);
-            Arrays.fill(yCrossSection, 0);
-            Arrays.fill(xCrossSectionN, 0);
-            Arrays.fill(yCrossSectionN, 0);
-            Arrays.fill(xCrossSectionMasked, 0);
-            Arrays.fill(yCrossSectionMasked, 0);
-            // Calculate the cross-sections from the pixels.
-            for (int y = 0, dy = -cyPixels, iy = 0; y < hPixels; y += subSamplingEff, dy += subSamplingEff, iy += width*channels*subSamplingEff) {
-                double sy = s*dy;
-                double cy = c*dy;
-                for (int x = 0, dx = -cxPixels, idx = iy + x0Pixels*channels; x < wPixels; x += subSamplingEff, dx += subSamplingEff, idx += channels*subSamplingEff) {
-                    double sx = s*dx;
-                    double cx = c*dx;
-                    // Note: this is a left-handed coordinate system, i.e. y pointing down.
-                    double xCross = cx + sy + cxCross;
-                    double yCross = -sx + cy + cyCross;
-                    int ixCross = (int) Math.round(xCross);
-                    int iyCross = (int) Math.round(yCross);
-                    double xWeight1 = xCross + 0.5 - ixCross;
-                    double xWeight0 = 1 - xWeight1;
-                    double yWeight1 = yCross + 0.5 - iyCross;
-                    double yWeight0 = 1 - yWeight1;
-                    if (iyCross > 1 && iyCross < hCross) {
-                        if (ixCross > 1 && ixCross < wCross) {
-                            /*int dSq = dx*dx + dy*dy;
-                            if (dSq < rSq)*/ {
-                                double luminance = 0;
-                                for (int ch = 0; ch < channels; ch++) {
-                                    int xai = ixCross*channels + ch;
-                                    int yai = iyCross*channels + ch;
-                                    double pixel = Math.pow(Byte.toUnsignedInt(pixelSamples[idx + ch]), gamma);
-                                    luminance += pixel;
-                                    xCrossSection[xai] += pixel*xWeight1;
-                                    xCrossSection[xai - channels] += pixel*xWeight0;
-                                    yCrossSection[yai] += pixel*yWeight1;
-                                    yCrossSection[yai - channels] += pixel*yWeight0;
-                                    if (DEBUG >= 2) {
-                                        if (Math.abs(angle - (a0+a1)/2) < angleStep) {
-                                            byte [] pixelData = new byte[channels];
-                                            image.get(y0Pixels + y, x0Pixels + x, pixelData);
-                                            if (ch == 2) {
-                                                pixelData[ch] = (byte)(127.0*ixCross/wCross + pixelData[ch]/2);
-                                            }
-                                            else if (ch == 1) {
-                                                pixelData[ch] = (byte)(127.0*iyCross/hCross + pixelData[ch]/2);
+            angleCount++;
+        }
+        final double [] angles = new double[angleCount];
+        final double [] angleContrast = new double[angleCount];
+        {
+            int i = 0;
+            for (double angle = a0; angle <= a1; angle += angleStep) {
+                angles[i++] = angle;
+            }
+        }
+        final int bands = DetectCircularSymmetry.getSearchBands(parallel, angleCount, 
+                (long)angleCount*(hPixels/subSamplingEff)*(wPixels/subSamplingEff)*channels);
+        IntStream bandStream = IntStream.range(0, bands);
+        if (bands > 1) {
+            bandStream = bandStream.parallel();
+        }
+        AngleBand[] bandResults = bandStream.mapToObj((band) -> {
+            AngleBand result = new AngleBand();
+            // Per band working buffers.
+            double [] xCrossSection = new double[wCross*channels];
+            double [] yCrossSection = new double[hCross*channels];
+            double [] xCrossSectionN = new double[wCross];
+            double [] yCrossSectionN = new double[hCross];
+            double [] xCrossSectionMasked = new double[wCross];
+            double [] yCrossSectionMasked = new double[hCross];
+            double [] xCrossSectionFiltered = new double[wCross*channels];
+            double [] yCrossSectionFiltered = new double[hCross*channels];
+            for (int ia = band*angles.length/bands; ia < (band + 1)*angles.length/bands; ia++) {
+                double angle = angles[ia];
+                // Note, this is the reverse rotation, i.e. angle is negative.
+                double s = superSamplingEff*Math.sin(-angle)/subSamplingEff;
+                double c = superSamplingEff*Math.cos(-angle)/subSamplingEff;
+                // Reset cross-sections. 
+                Arrays.fill(xCrossSection, 0);
+                Arrays.fill(yCrossSection, 0);
+                Arrays.fill(xCrossSectionN, 0);
+                Arrays.fill(yCrossSectionN, 0);
+                Arrays.fill(xCrossSectionMasked, 0);
+                Arrays.fill(yCrossSectionMasked, 0);
+                // Calculate the cross-sections from the pixels.
+                for (int y = 0, dy = -cyPixels, iy = 0; y < hPixels; y += subSamplingEff, dy += subSamplingEff, iy += width*channels*subSamplingEff) {
+                    double sy = s*dy;
+                    double cy = c*dy;
+                    for (int x = 0, dx = -cxPixels, idx = iy + x0Pixels*channels; x < wPixels; x += subSamplingEff, dx += subSamplingEff, idx += channels*subSamplingEff) {
+                        double sx = s*dx;
+                        double cx = c*dx;
+                        // Note: this is a left-handed coordinate system, i.e. y pointing down.
+                        double xCross = cx + sy + cxCross;
+                        double yCross = -sx + cy + cyCross;
+                        int ixCross = (int) Math.round(xCross);
+                        int iyCross = (int) Math.round(yCross);
+                        double xWeight1 = xCross + 0.5 - ixCross;
+                        double xWeight0 = 1 - xWeight1;
+                        double yWeight1 = yCross + 0.5 - iyCross;
+                        double yWeight0 = 1 - yWeight1;
+                        if (iyCross > 1 && iyCross < hCross) {
+                            if (ixCross > 1 && ixCross < wCross) {
+                                /*int dSq = dx*dx + dy*dy;
+                                if (dSq < rSq)*/ {
+                                    double luminance = 0;
+                                    for (int ch = 0; ch < channels; ch++) {
+                                        int xai = ixCross*channels + ch;
+                                        int yai = iyCross*channels + ch;
+                                        double pixel = Math.pow(Byte.toUnsignedInt(pixelSamples[idx + ch]), gamma);
+                                        luminance += pixel;
+                                        xCrossSection[xai] += pixel*xWeight1;
+                                        xCrossSection[xai - channels] += pixel*xWeight0;
+                                        yCrossSection[yai] += pixel*yWeight1;
+                                        yCrossSection[yai - channels] += pixel*yWeight0;
+                                        if (DEBUG >= 2) {
+                                            if (Math.abs(angle - (a0+a1)/2) < angleStep) {
+                                                synchronized (image) {
+                                                    byte [] pixelData = new byte[channels];
+                                                    image.get(y0Pixels + y, x0Pixels + x, pixelData);
+                                                    if (ch == 2) {
+                                                        pixelData[ch] = (byte)(127.0*ixCross/wCross + pixelData[ch]/2);
+                                                    }
+                                                    else if (ch == 1) {
+                                                        pixelData[ch] = (byte)(127.0*iyCross/hCross + pixelData[ch]/2);
+                                                    }
+                                                    image.put(y0Pixels + y, x0Pixels + x, pixelData);
+                                                }
                                             }
-                                            image.put(y0Pixels + y, x0Pixels + x, pixelData);
                                         }
                                     }
-                                }
-                                xCrossSectionN[ixCross] += xWeight1;
-                                xCrossSectionN[ixCross - 1] += xWeight0;
-                                yCrossSectionN[iyCross] += yWeight1;
-                                yCrossSectionN[iyCross - 1] += yWeight0;
-                                if (luminance > thresholdLuminance) {
-                                    xCrossSectionMasked[ixCross] += xWeight1;
-                                    xCrossSectionMasked[ixCross - 1] += xWeight0;
-                                    yCrossSectionMasked[iyCross] += yWeight1;
-                                    yCrossSectionMasked[iyCross - 1] += yWeight0;
+                                    xCrossSectionN[ixCross] += xWeight1;
+                                    xCrossSectionN[ixCross - 1] += xWeight0;
+                                    yCrossSectionN[iyCross] += yWeight1;
+                                    yCrossSectionN[iyCross - 1] += yWeight0;
+                                    if (luminance > thresholdLuminance) {
+                                        xCrossSectionMasked[ixCross] += xWeight1;
+                                        xCrossSectionMasked[ixCross - 1] += xWeight0;
+                                        yCrossSectionMasked[iyCross] += yWeight1;
+                                        yCrossSectionMasked[iyCross - 1] += yWeight0;
+                                    }
                                 }
                             }
                         }
                     }
                 }
-            }
-            // Normalize
-            for (int x = 0; x < wCross; x++) {
-                if (xCrossSectionN[x] > 0) {
-                    for (int ch = 0; ch < channels; ch++) {
-                        xCrossSection[x*channels + ch] /= xCrossSectionN[x];
+                // Normalize
+                for (int x = 0; x < wCross; x++) {
+                    if (xCrossSectionN[x] > 0) {
+                        for (int ch = 0; ch < channels; ch++) {
+                            xCrossSection[x*channels + ch] /= xCrossSectionN[x];
+                        }
                     }
                 }
-            }
-            for (int y = 0; y < hCross; y++) {
-                if (yCrossSectionN[y] > 0) {
-                    for (int ch = 0; ch < channels; ch++) {
-                        yCrossSection[y*channels + ch] /= yCrossSectionN[y];
+                for (int y = 0; y < hCross; y++) {
+                    if (yCrossSectionN[y] > 0) {
+                        for (int ch = 0; ch < channels; ch++) {
+                            yCrossSection[y*channels + ch] /= yCrossSectionN[y];
+                        }
                     }
                 }
-            }
-            // We're using a gaussian kernel to get rid of sampling interferences especially at the 45° step angles.
-            KernelUtils.applyKernel(channels, wCross, xCrossSection, kernel, xCrossSectionFiltered); 
-            KernelUtils.applyKernel(channels, hCross, yCrossSection, kernel, yCrossSectionFiltered); 
-            // Analyze cross-sections contrast.
-            double sumContrast = 
-                    sumContrast(channels, wCross, xCrossSectionFiltered, xCrossSectionN)
-                    + sumContrast(channels, hCross, yCrossSectionFiltered, yCrossSectionN);
-            if (DEBUG >= 1) {
-                System.out.print("subSampling "+subSamplingEff+(superSamplingEff > 1 ? " superSampling "+superSamplingEff : "")
-                        +" angle "+Math.toDegrees(angle)+"° contrast "+sumContrast);
-            }
-            if (angleScore != null) {
-                angleScore.put(angle, sumContrast);
-            }
-            // Take the best:
-            if (scoreBest < sumContrast) {
-                scoreBest = sumContrast;
-                angleBest = angle;
-                xBestCrossSection = xCrossSectionFiltered.clone();
-                yBestCrossSection = yCrossSectionFiltered.clone();
-                xBestCrossSectionMasked = xCrossSectionMasked.clone();
-                yBestCrossSectionMasked = yCrossSectionMasked.clone();
+                // We're using a gaussian kernel to get rid of sampling interferences especially at the 45° step angles.
+                KernelUtils.applyKernel(channels, wCross, xCrossSection, kernel, xCrossSectionFiltered); 
+                KernelUtils.applyKernel(channels, hCross, yCrossSection, kernel, yCrossSectionFiltered); 
+                // Analyze cross-sections contrast.
+                double sumContrast = 
+                        sumContrast(channels, wCross, xCrossSectionFiltered, xCrossSectionN)
+                        + sumContrast(channels, hCross, yCrossSectionFiltered, yCrossSectionN);
                 if (DEBUG >= 1) {
-                    System.out.println(" * ");
+                    System.out.println("subSampling "+subSamplingEff+(superSamplingEff > 1 ? " superSampling "+superSamplingEff : "")
+                            +" angle "+Math.toDegrees(angle)+"° contrast "+sumContrast);
                 }
-            }
-            else {
-                if (DEBUG >= 1) {
-                    System.out.println("");
+                angleContrast[ia] = sumContrast;
+                // Take the best:
+                if (result.scoreBest < sumContrast) {
+                    result.scoreBest = sumContrast;
+                    result.angleBest = angle;
+                    result.xBestCrossSection = xCrossSectionFiltered.clone();
+                    result.yBestCrossSection = yCrossSectionFiltered.clone();
+                    result.xBestCrossSectionMasked = xCrossSectionMasked.clone();
+                    result.yBestCrossSectionMasked = yCrossSectionMasked.clone();
                 }
             }
+            return result;
+        }).toArray(AngleBand[]::new);
+        // Merge the bands in angle order, so the result is the same as if searched sequentially.
+        for (AngleBand result : bandResults) {
+            if (scoreBest < result.scoreBest) {
+                scoreBest = result.scoreBest;
+                angleBest = result.angleBest;
+                xBestCrossSection = result.xBestCrossSection;
+                yBestCrossSection = result.yBestCrossSection;
+                xBestCrossSectionMasked = result.xBestCrossSectionMasked;
+                yBestCrossSectionMasked = result.yBestCrossSectionMasked;
+            }
+        }
+        if (angleScore != null) {
+            for (int ia = 0; ia < angleCount; ia++) {
+                angleScore.put(angles[ia], angleContrast[ia]);
+            }
         }
 
         if (xSymmetryFunction.isMasked()) {
@@ -769,7 +932,7 @@ public class DetectRectlinearSymmetry extends CvStage {
                             Math.toDegrees(angleError)*iterationAngle,  
                             minSymmetry, xSymmetryFunction, ySymmetryFunction, minFeatureSize,
                             subSamplingEff/iterationDivision, superSampling, gaussianSmoothing, gamma,  
-                            threshold, diagnostics, diagnosticMap, scoreRange);
+                            threshold, parallel, diagnostics, diagnosticMap, scoreRange);
                 }
             }
         }
@@ -1,14 +1,12 @@
 package org.openpnp.vision.pipeline.stages;
 
-import java.awt.image.BufferedImage;
-
 import org.opencv.core.Core;
 import org.opencv.core.CvType;
 import org.opencv.core.Mat;
+import org.opencv.core.Range;
 import org.openpnp.spi.Actuator;
 import org.openpnp.spi.Camera;
 import org.openpnp.spi.Camera.SettleOption;
-import org.openpnp.util.OpenCvUtils;
 import org.openpnp.vision.FluentCv.ColorSpace;
 import org.openpnp.vision.pipeline.CvPipeline;
 import org.openpnp.vision.pipeline.CvStage;
@@ -99,22 +97,30 @@ public class ImageCapture extends CvStage {
             // Light, settle and capture the image. Keep the lights on for possible averaging.
             camera.actuateLightBeforeCapture((defaultLight ? null : getLight()));
             try {
-                BufferedImage bufferedImage = camera.settleAndCapture(settleOption); 
-                // Remember the last captured image. This specifically records the native camera image, 
-                // i.e. it does not apply averaging (we want an unaltered raw image for analysis purposes).
-                pipeline.setLastCapturedImage(bufferedImage);
-                Mat image = OpenCvUtils.toMat(bufferedImage);
+                Mat image = camera.settleAndCaptureMat(settleOption); 
+                // Remember the last captured image, if requested. This specifically records the native camera 
+                // image, i.e. it does not apply averaging (we want an unaltered raw image for analysis purposes).
+                boolean retainImage = pipeline.isRetainingLastCapturedImage();
                 if (count <= 1) { 
+                    if (retainImage) {
+                        // Subsequent stages may modify the working image in place, so this must be a copy.
+                        pipeline.setLastCapturedImage(image.clone());
+                    }
                     return new Result(image, ColorSpace.Bgr);
                 }
                 else {
+                    if (retainImage) {
+                        // The averaging converts into newly allocated data, so the captured data can be 
+                        // shared by reference count, instead of being copied.
+                        pipeline.setLastCapturedImage(new Mat(image, Range.all()));
+                    }
                     // Perform averaging in channel type double.
                     image.convertTo(image, CvType.CV_64F);
                     Mat avgImage = image;
                     double beta = 1.0 / count;
                     Core.addWeighted(avgImage, 0, image, beta, 0, avgImage); // avgImage = image/count
                     for (int i = 1; i < count; i++) {
-                        image = OpenCvUtils.toMat(camera.capture());
+                        image = camera.captureMat();
                         image.convertTo(image, CvType.CV_64F);
                         Core.addWeighted(avgImage, 1, image, beta, 0, avgImage); // avgImage = avgImag + image/count
                         // Release the additional image.
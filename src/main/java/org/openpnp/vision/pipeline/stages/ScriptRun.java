@@ -67,4 +67,10 @@ public class ScriptRun extends CvStage {
             return null;
         }
     }
+
+    @Override
+    public boolean isReferencing(CvStage stage) {
+        // The script may read any result.
+        return true;
+    }
 }
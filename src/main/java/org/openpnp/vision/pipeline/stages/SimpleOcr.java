@@ -29,10 +29,16 @@ import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.imageio.ImageIO;
 
@@ -292,14 +298,15 @@ public class SimpleOcr extends CvStage {
         // Note, the following is an ugly HACK, to get this functionality within the constraints of pipeline processing
         if (autoDetectSize) {
             autoDetectSize = false;
-            // very crude and brute force 
+            // Coarse-to-fine search: first sweep the range in coarse steps, then refine around the best 
+            // size with ever smaller steps. 
             OcrModel bestRes = null;
             double bestSize = Double.NaN;
+            double step = autoDetectCoarseStep;
             for (double testSize = getFontSizePt()*0.5;
                     testSize < getFontSizePt()*2.0;
-                    testSize *= 1.05) {  // 5% steps
-                Logger.debug("["+getClass().getName()+"] auto-detecting at font size = "+testSize+"pt");
-                OcrModel res = (OcrModel)performOcr(pipeline, camera, fontName, testSize, alphabet).model;
+                    testSize *= step) {
+                OcrModel res = autoDetectOcr(pipeline, camera, fontName, testSize, alphabet);
                 if (res.overallScore > 0.0) {
                     if (bestRes == null ||  bestRes.overallScore < res.overallScore) {
                         bestRes = res;
@@ -308,6 +315,18 @@ public class SimpleOcr extends CvStage {
                     }
                 }
             }
+            while (bestRes != null && step > autoDetectFineStep) {
+                step = Math.sqrt(step);
+                double centerSize = bestSize;
+                for (double testSize : new double[] { centerSize/step, centerSize*step }) {
+                    OcrModel res = autoDetectOcr(pipeline, camera, fontName, testSize, alphabet);
+                    if (bestRes.overallScore < res.overallScore) {
+                        bestRes = res;
+                        bestSize = testSize;
+                        Logger.debug("["+getClass().getName()+"] new best font size = "+testSize+"pt, overallScore = "+bestRes.overallScore+", text = "+bestRes.text);
+                    }
+                }
+            }
             if (bestRes != null) {
                 setFontSizePt(Math.round(bestSize*100.0)/100.0); 
                 fontSizePt = bestSize;
@@ -317,6 +336,106 @@ public class SimpleOcr extends CvStage {
         return performOcr(pipeline, camera, fontName, fontSizePt, alphabet);
     }
 
+    /**
+     * Coarse step factor of the font size auto-detection sweep.
+     */
+    private static final double autoDetectCoarseStep = 1.2;
+    /**
+     * Finest step factor of the font size auto-detection refinement.
+     */
+    private static final double autoDetectFineStep = 1.015;
+
+    private OcrModel autoDetectOcr(CvPipeline pipeline, Camera camera, String fontName, double testSize, String alphabet) 
+            throws Error, IOException {
+        Logger.debug("["+getClass().getName()+"] auto-detecting at font size = "+testSize+"pt");
+        return (OcrModel)performOcr(pipeline, camera, fontName, testSize, alphabet).model;
+    }
+
+    /**
+     * The rendered character templates of one font, at one pixel size and for one image type. 
+     */
+    protected static class GlyphTemplates {
+        private final Font font;
+        private final int type;
+        private final FontMetrics fm;
+        private final int maxAscent;
+        private final int fontHeight;
+        private final Map<Character, Mat> templates = new HashMap<>();
+
+        public GlyphTemplates(String fontName, int fontPixelSize, int type) {
+            this.font = new Font(fontName, Font.PLAIN, fontPixelSize);
+            this.type = type;
+            // Create a pseudo graphics context to get font metrics 
+            Graphics2D gfm = new BufferedImage(1, 1, type).createGraphics();
+            this.fm = gfm.getFontMetrics(font);
+            gfm.dispose();
+            this.maxAscent = fm.getAscent();// fm.getMaxAscent();
+            this.fontHeight = maxAscent+fm.getDescent();//fm.getHeight();
+        }
+
+        public int getMaxAscent() {
+            return maxAscent;
+        }
+
+        public int getFontHeight() {
+            return fontHeight;
+        }
+
+        /**
+         * @param ch
+         * @return The template image of the character. It is shared and must not be modified or released.
+         */
+        public synchronized Mat getTemplate(char ch) {
+            Mat template = templates.get(ch);
+            if (template == null) {
+                // create a template image of the character
+                String character = new String(new char[] { ch });
+                int width = fm.stringWidth(character);
+                BufferedImage templateImage =
+                        new BufferedImage(width, fontHeight, type);
+                Graphics2D g2d = (Graphics2D) templateImage.getGraphics();
+                g2d.setColor(Color.white);
+                g2d.fillRect(0, 0, width, fontHeight);
+                g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2d.setColor(Color.black);
+                g2d.setFont(font);
+                g2d.drawString(character, 0, maxAscent);
+                g2d.dispose();
+                template = OpenCvUtils.toMat(templateImage);
+                templates.put(ch, template);
+            }
+            return template;
+        }
+    }
+
+    /**
+     * Maximum number of fonts/sizes kept in the glyph template cache. 
+     */
+    private static final int glyphCacheCapacity = 32;
+
+    /**
+     * Rendered glyph templates, by font name, pixel size and image type, least recently used first. Evicted 
+     * templates are not released explicitly, as they may still be in use, they are left to the garbage collector.
+     */
+    private static final Map<String, GlyphTemplates> glyphCache = new LinkedHashMap<String, GlyphTemplates>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, GlyphTemplates> eldest) {
+            return size() > glyphCacheCapacity;
+        }
+    };
+
+    protected static GlyphTemplates getGlyphTemplates(String fontName, int fontPixelSize, int type) {
+        String key = fontName+"/"+fontPixelSize+"/"+type;
+        synchronized (glyphCache) {
+            GlyphTemplates glyphTemplates = glyphCache.get(key);
+            if (glyphTemplates == null) {
+                glyphTemplates = new GlyphTemplates(fontName, fontPixelSize, type);
+                glyphCache.put(key, glyphTemplates);
+            }
+            return glyphTemplates;
+        }
+    }
+
     public static class OcrModel {
         private String text;
         private int numChars;
@@ -397,78 +516,45 @@ public class SimpleOcr extends CvStage {
                     textImage.type(), textImage.channels(), textImage.depth()));
         }
 
-        // create the font
-        Font font = new Font(fontName, Font.PLAIN, (int)Math.round(scalePt*fontSizePt));
-        // Create a pseudo graphics context to get font metrics 
-        Graphics2D gfm = new BufferedImage(1, 1, type).createGraphics();
-        FontMetrics fm = gfm.getFontMetrics(font);
-        final int maxAscent = fm.getAscent();// fm.getMaxAscent();
-        final int fontHeight = maxAscent+fm.getDescent();//fm.getHeight();
-        final int margin = 0; // tests have shown that no margin is best
-        final int height = fontHeight+2*margin;
+        // get the (cached) glyph templates of the font
+        GlyphTemplates glyphTemplates = getGlyphTemplates(fontName, (int)Math.round(scalePt*fontSizePt), type);
+        final int fontHeight = glyphTemplates.getFontHeight();
+        final int height = fontHeight; // tests have shown that no margin is best
         if (fontHeight < 5 || fontHeight >= textImage.rows()) {
             // dud
             return new Result(textImage, new OcrModel("", 0, 0.0));
         }
 
-        // try find each character of the alphabet in the text image 
-        List<CharacterMatch> matches = new ArrayList<>();
-        for (char ch : alphabet.toCharArray()) {
-            if (ch == ' ' ) {
-                // we can't search for nothing :-) 
-                // spaces will be recognized by discontinuity
-                continue;
-            }
-            String character = new String(new char[] { ch });
-            String characterTag = (Character.isLetterOrDigit(ch) ? character : String.valueOf((int)ch))+"-";
-            // create a template image of the current character
-            int width = fm.stringWidth(character)+2*margin;
-            BufferedImage templateImage =
-                    new BufferedImage(width, height, type);
-            Graphics2D g2d = (Graphics2D) templateImage.getGraphics();
-            g2d.setColor(Color.white);
-            g2d.fillRect(0, 0, width, height);
-            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-            g2d.setColor(Color.black);
-            g2d.setFont(font);
-            g2d.drawString(character, margin, margin+maxAscent);
-            g2d.dispose();
-            Mat template = OpenCvUtils.toMat(templateImage);
-            if (debug) {
-                File file = Configuration.get().createResourceFile(getClass(), "character-"+characterTag, ".png");
-                Imgcodecs.imwrite(file.getAbsolutePath(), template);
-            }
-
-            // do the actual template match
-            Mat matchMap = new Mat();
-            Imgproc.matchTemplate(textImage, template, matchMap, Imgproc.TM_CCOEFF_NORMED);
-
-            // determine the range
-            MinMaxLocResult mmr = Core.minMaxLoc(matchMap);
-            double maxVal = mmr.maxVal;
-            double rangeMin = threshold;
-            double rangeMax = maxVal;
-
-            // create the matches
-            for (Point point : OpenCvUtils.matMaxima(matchMap, rangeMin, rangeMax)) {
-                int x = point.x;
-                int y = point.y;
-                CharacterMatch match = new CharacterMatch(ch, 
-                        x, y, template.cols(), template.rows(),
-                        matchMap.get(y, x)[0]);
-                matches.add(match);
-            }
-
-            if (debug) {
-                File file = Configuration.get().createResourceFile(getClass(), "match-map-"+characterTag, ".png");
-                // this is a 3x32bit image, cannot save this as .png, need to convert to known image format first
-                BufferedImage img = OpenCvUtils.toBufferedImage(matchMap);
-                ImageIO.write(img, "png", file);
-            }
+        // we can't search for nothing :-) 
+        // spaces will be recognized by discontinuity
+        final char [] characters = alphabet.replace(" ", "").toCharArray();
+        final Mat [] templates = new Mat[characters.length];
+        for (int i = 0; i < characters.length; i++) {
+            templates[i] = glyphTemplates.getTemplate(characters[i]);
+        }
 
-            // cleanup
-            matchMap.release();
-            template.release();
+        // try find each character of the alphabet in the text image, on multiple cores unless debugging
+        final Mat searchImage = textImage;
+        IntStream characterStream = IntStream.range(0, characters.length);
+        if (!debug) {
+            characterStream = characterStream.parallel();
+        }
+        List<CharacterMatch> matches;
+        try {
+            matches = characterStream
+                    .<List<CharacterMatch>>mapToObj(i -> {
+                        try {
+                            return matchCharacter(searchImage, characters[i], templates[i]);
+                        }
+                        catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList());
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
         }
 
         // ready to harvest
@@ -663,6 +749,47 @@ public class SimpleOcr extends CvStage {
         return new Result(textImage, new OcrModel(text.toString(), numChars, overallScore));
     }
 
+    private List<CharacterMatch> matchCharacter(Mat textImage, char ch, Mat template) throws IOException {
+        List<CharacterMatch> matches = new ArrayList<>();
+        String character = new String(new char[] { ch });
+        String characterTag = (Character.isLetterOrDigit(ch) ? character : String.valueOf((int)ch))+"-";
+        if (debug) {
+            File file = Configuration.get().createResourceFile(getClass(), "character-"+characterTag, ".png");
+            Imgcodecs.imwrite(file.getAbsolutePath(), template);
+        }
+
+        // do the actual template match
+        Mat matchMap = new Mat();
+        Imgproc.matchTemplate(textImage, template, matchMap, Imgproc.TM_CCOEFF_NORMED);
+
+        // determine the range
+        MinMaxLocResult mmr = Core.minMaxLoc(matchMap);
+        double maxVal = mmr.maxVal;
+        double rangeMin = threshold;
+        double rangeMax = maxVal;
+
+        // create the matches
+        for (Point point : OpenCvUtils.matMaxima(matchMap, rangeMin, rangeMax)) {
+            int x = point.x;
+            int y = point.y;
+            CharacterMatch match = new CharacterMatch(ch, 
+                    x, y, template.cols(), template.rows(),
+                    matchMap.get(y, x)[0]);
+            matches.add(match);
+        }
+
+        if (debug) {
+            File file = Configuration.get().createResourceFile(getClass(), "match-map-"+characterTag, ".png");
+            // this is a 3x32bit image, cannot save this as .png, need to convert to known image format first
+            BufferedImage img = OpenCvUtils.toBufferedImage(matchMap);
+            ImageIO.write(img, "png", file);
+        }
+
+        // cleanup (the template is cached)
+        matchMap.release();
+        return matches;
+    }
+
     private Result decodeBarcode(CvPipeline pipeline) {
         Mat workingImage = pipeline.getWorkingImage();
         BufferedImage image = OpenCvUtils.toBufferedImage(workingImage);
@@ -222,7 +222,8 @@ public class CvPipelineEditor extends JPanel {
     }
 
     public void process() {
-        UiUtils.messageBoxOnException(() -> getPipeline().process());
+        // Retain all the stage images for display.
+        UiUtils.messageBoxOnException(() -> getPipeline().process(true));
         resultsPanel.refresh();
     }
 
@@ -19,4 +19,10 @@ for each (var factory in factories) {
 	print('      Language: ' + factory.getLanguageName() + ' (' + factory.getLanguageVersion() + ')');
 	print('      Extensions: ' + factory.getExtensions());
 }
+
+// Show what the event script hooks have cost so far.
+print('  Event Statistics');
+for each (var statistics in scripting.getEventStatistics().values()) {
+	print('    ' + statistics);
+}
 print();
@@ -21,3 +21,8 @@ for factory in factories:
     print('      Language: {} ({})'.format(factory.getLanguageName(),
                                            factory.getLanguageVersion()))
     print('      Extensions: {}'.format(factory.getExtensions()))
+
+# Show what the event script hooks have cost so far.
+print('  Event Statistics')
+for statistics in scripting.getEventStatistics().values():
+    print('    {}'.format(statistics))
@@ -19,6 +19,9 @@
  * For more information about OpenPnP visit http://openpnp.org
  */
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -245,12 +248,30 @@ public class AdvancedMotionTest {
         private final List<MotionProfile []> path = new ArrayList<>();
         private final double jerk;
         private final boolean sCurves;
+        private int lookahead = 0;
+        private double junctionDeviation = 0;
 
         public PlannerPath(double jerk, boolean sCurves) {
             this.jerk = jerk;
             this.sCurves = sCurves;
         }
 
+        public PlannerPath(double jerk, boolean sCurves, int lookahead, double junctionDeviation) {
+            this(jerk, sCurves);
+            this.lookahead = lookahead;
+            this.junctionDeviation = junctionDeviation;
+        }
+
+        @Override
+        public int getLookahead() {
+            return lookahead;
+        }
+
+        @Override
+        public double getJunctionDeviation(int i) {
+            return junctionDeviation;
+        }
+
         public void add(MotionProfile [] profiles) {
             path.add(profiles);
         }
@@ -460,4 +481,81 @@ public class AdvancedMotionTest {
             }
         }
     }
+
+    static double getPathVelocity(MotionProfile [] profiles, int segment) {
+        double vSq = 0;
+        for (MotionProfile profile : profiles) {
+            vSq += profile.getVelocity(segment)*profile.getVelocity(segment);
+        }
+        return Math.sqrt(vSq);
+    }
+
+    PlannerPath createPolylinePath(double jerk, int lookahead) {
+        PlannerPath path = new PlannerPath(jerk, false, lookahead, 0.05);
+        // Coordinated polyline below Safe Z, with shallow and sharp corners.
+        path.moveTo(0, 0, safeZ, 1);
+        path.moveTo(0, 0, za, 1);
+        for (int i = 1; i <= 8; i++) {
+            double angle = Math.toRadians(20*i);
+            path.moveTo(10*i*Math.sin(angle), 10*i*(1 - Math.cos(angle)), za, 1);
+        }
+        path.moveTo(100, 100, za, 1);
+        path.moveTo(100, 100, safeZ, 1);
+        return path;
+    }
+
+    @Test 
+    public void testLookaheadPaths() throws Exception {
+        for (double jerk : new double[] { 90000, 30000, 0 }) {
+            PlannerPath stopping = createPolylinePath(jerk, 0);
+            stopping.solve();
+            stopping.validate("No lookahead, jerk "+jerk);
+            PlannerPath blending = createPolylinePath(jerk, 8);
+            blending.solve();
+            blending.validate("Lookahead, jerk "+jerk);
+
+            assertEquals(stopping.size(), blending.size());
+            int blendedCorners = 0;
+            for (int i = 1; i < blending.size(); i++) {
+                // All the moves are coordinated, so each junction is a corner. 
+                String corner = "Jerk "+jerk+", corner into move "+i;
+                assertEquals(0.0, getPathVelocity(stopping.get(i), 0), 1e-6, corner+" without lookahead");
+                double vExit = getPathVelocity(blending.get(i - 1), MotionProfile.segments);
+                double vEntry = getPathVelocity(blending.get(i), 0);
+                assertEquals(vExit, vEntry, 1e-3, corner+" path velocity continuous");
+                if (vEntry > 1e-6) {
+                    blendedCorners++;
+                }
+            }
+            // The path enters and exits at still-stand.
+            assertEquals(0.0, getPathVelocity(blending.get(0), 0), 1e-6);
+            assertEquals(0.0, getPathVelocity(blending.get(blending.size() - 1), MotionProfile.segments), 1e-6);
+            assertTrue(blendedCorners > 0, "Jerk "+jerk+" has blended corners");
+            assertTrue(blending.getOverallTime() < stopping.getOverallTime(), 
+                    "Jerk "+jerk+" lookahead reduces the move time");
+        }
+    }
+
+    @Test 
+    public void testPickSequenceBlending() throws Exception {
+        // The pick sequence moves up to Safe Z, across in the Safe Z zone, and down again. The move across is 
+        // uncoordinated, and blending into/out of it is done by the solver expanding the coordinated Z moves 
+        // into the Safe Z zone. This does not need the lookahead.
+        for (double jerk : new double[] { 90000, 30000, 0 }) {
+            PlannerPath path = new PlannerPath(jerk, false);
+            path.moveTo(0, 0, za, 1);
+            path.moveTo(0, 0, safeZ, 1);
+            path.moveTo(100, 0, safeZ, 1);
+            path.moveTo(100, 0, za, 1);
+            path.solve();
+            path.validate("Pick sequence, jerk "+jerk);
+            // Z still rising when the move across starts. 
+            assertTrue(path.get(0)[2].getVelocity(MotionProfile.segments) > 0, "Jerk "+jerk+" Z up blended");
+            // Z already descending when the move across ends.
+            assertTrue(path.get(1)[2].getVelocity(MotionProfile.segments) < 0, "Jerk "+jerk+" Z down blended");
+            // X still-stand in the coordinated Z moves.
+            assertEquals(0.0, path.get(0)[0].getVelocity(MotionProfile.segments), 1e-6);
+            assertEquals(0.0, path.get(2)[0].getVelocity(0), 1e-6);
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,114 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.axis.ReferenceControllerAxis;
+import org.openpnp.model.AxesLocation;
+import org.openpnp.spi.Axis;
+
+public class AxesLocationTest {
+    static ReferenceControllerAxis createAxis(String name, Axis.Type type) {
+        ReferenceControllerAxis axis = new ReferenceControllerAxis();
+        axis.setName(name);
+        axis.setType(type);
+        axis.setLetter(name);
+        return axis;
+    }
+
+    final ReferenceControllerAxis x = createAxis("X", Axis.Type.X);
+    final ReferenceControllerAxis y = createAxis("Y", Axis.Type.Y);
+    final ReferenceControllerAxis z = createAxis("Z", Axis.Type.Z);
+
+    AxesLocation location(Object... axisCoordinates) {
+        AxesLocation location = AxesLocation.zero;
+        for (int i = 0; i < axisCoordinates.length; i += 2) {
+            location = location.put(new AxesLocation((Axis) axisCoordinates[i], (double) axisCoordinates[i + 1]));
+        }
+        return location;
+    }
+
+    static void assertLocation(AxesLocation location, Object... axisCoordinates) {
+        List<Axis> expectedAxes = new ArrayList<>();
+        for (int i = 0; i < axisCoordinates.length; i += 2) {
+            Axis axis = (Axis) axisCoordinates[i];
+            expectedAxes.add(axis);
+            assertTrue(location.contains(axis), axis.getName()+" contained in "+location);
+            assertEquals((double) axisCoordinates[i + 1], location.getCoordinate(axis), 1e-12,
+                    axis.getName()+" coordinate in "+location);
+        }
+        assertEquals(expectedAxes, new ArrayList<>(location.getAxes()), "axes in order");
+        assertEquals(expectedAxes.size(), location.size());
+    }
+
+    @Test
+    public void testAddSubtractMismatchedAxes() {
+        AxesLocation a = location(x, 1.0, y, 2.0);
+        AxesLocation b = location(y, 3.0, z, 4.0);
+        assertLocation(a.add(b), x, 1.0, y, 5.0, z, 4.0);
+        // Like Map.merge(), an axis only contained in the other location is taken as is, not negated. 
+        assertLocation(a.subtract(b), x, 1.0, y, -1.0, z, 4.0);
+        assertLocation(b.subtract(a), y, 1.0, z, 4.0, x, 1.0);
+        assertLocation(a.add(null), x, 1.0, y, 2.0);
+        assertLocation(a.put(b), x, 1.0, y, 3.0, z, 4.0);
+        assertLocation(a.multiply(2), x, 2.0, y, 4.0);
+        // The operands are unchanged.
+        assertLocation(a, x, 1.0, y, 2.0);
+        assertLocation(b, y, 3.0, z, 4.0);
+    }
+
+    @Test
+    public void testFunctionsWithNullResults() {
+        AxesLocation a = location(x, 1.0, y, 2.0, z, 3.0);
+        // A null result leaves the axis out.
+        assertLocation(new AxesLocation((Double c) -> (c > 1.5 ? c*10 : null), a), y, 20.0, z, 30.0);
+        // Like Map.merge(), a null merge result removes the axis.
+        AxesLocation b = location(y, 2.0, z, 5.0);
+        assertLocation(new AxesLocation((Double c0, Double c1) -> (c0.equals(c1) ? null : c0 + c1), a, b),
+                x, 1.0, z, 8.0);
+    }
+
+    @Test
+    public void testMatches() {
+        AxesLocation a = location(x, 1.0, y, 2.0);
+        AxesLocation b = location(x, 1.00001, y, 2.0, z, 9.0);
+        // Within resolution, and the extra axis of the other location is ignored.
+        assertTrue(a.matches(b));
+        // The extra axis is compared against 0.0.
+        assertFalse(b.matches(a));
+        assertTrue(b.matches(location(x, 1.0, y, 2.0, z, 9.0)));
+        assertFalse(a.matches(location(x, 1.1, y, 2.0)));
+    }
+
+    @Test
+    public void testMaskWithManyAxes() {
+        // More than 64 axes, so the bits of the mask are shared.
+        List<ReferenceControllerAxis> axes = new ArrayList<>();
+        for (int i = 0; i < 130; i++) {
+            axes.add(createAxis("A"+i, Axis.Type.Rotation));
+        }
+        AxesLocation location = new AxesLocation(axes.get(0), 1.0);
+        for (int i = 1; i < axes.size(); i++) {
+            assertFalse(location.contains(axes.get(i)), axes.get(i).getName());
+            assertEquals(0.0, location.getCoordinate(axes.get(i)));
+        }
+        AxesLocation all = AxesLocation.zero;
+        for (int i = 0; i < axes.size(); i++) {
+            all = all.put(new AxesLocation(axes.get(i), i));
+        }
+        assertEquals(axes.size(), all.size());
+        for (int i = 0; i < axes.size(); i++) {
+            assertEquals(i, all.getCoordinate(axes.get(i)));
+        }
+        AxesLocation removed = all.remove(axes.get(64));
+        assertEquals(axes.size() - 1, removed.size());
+        assertFalse(removed.contains(axes.get(64)));
+        assertTrue(removed.contains(axes.get(0)));
+        assertTrue(removed.contains(axes.get(128)));
+        assertEquals(Arrays.asList(axes.get(0)), new ArrayList<>(location.getAxes()));
+    }
+}
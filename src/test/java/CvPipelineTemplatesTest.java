@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.feeder.ReferenceStripFeeder;
+import org.openpnp.vision.pipeline.CvPipeline;
+import org.openpnp.vision.pipeline.CvPipelineTemplates;
+import org.openpnp.vision.pipeline.CvStage;
+import org.openpnp.vision.pipeline.stages.DetectEdgesCanny;
+
+public class CvPipelineTemplatesTest {
+    static final String templateId = CvPipelineTemplates.getTemplateId(ReferenceStripFeeder.class,
+            "ReferenceStripFeeder-DefaultPipeline.xml");
+
+    @Test
+    public void testExists() {
+        assertTrue(CvPipelineTemplates.exists(templateId));
+        assertFalse(CvPipelineTemplates.exists("org/openpnp/machine/reference/feeder/Unknown-Pipeline.xml"));
+        assertFalse(CvPipelineTemplates.exists(null));
+    }
+
+    @Test
+    public void testFindTemplate() throws Exception {
+        CvPipeline pipeline = CvPipelineTemplates.create(templateId);
+        assertEquals(templateId, CvPipelineTemplates.findTemplate(pipeline, templateId));
+        String xml = pipeline.toXmlString();
+
+        // A loaded pipeline is compared to the template.
+        CvPipeline loaded = new CvPipeline(xml);
+        assertEquals(templateId, CvPipelineTemplates.findTemplate(loaded, templateId));
+        assertNull(CvPipelineTemplates.findTemplate(loaded));
+
+        // Modifying the pipeline is detected.
+        CvStage stage = pipeline.getStages().get(0);
+        pipeline.remove(stage);
+        assertNull(CvPipelineTemplates.findTemplate(pipeline, templateId));
+        pipeline.insert(stage, 0);
+        assertEquals(templateId, CvPipelineTemplates.findTemplate(pipeline, templateId));
+        pipeline.fromXmlString(xml);
+        assertEquals(templateId, CvPipelineTemplates.findTemplate(pipeline, templateId));
+    }
+
+    /**
+     * Stage properties are edited in place, e.g. in the non-modal pipeline editor, while the
+     * configuration may be saved in between. An earlier match must not hide the later edit.
+     */
+    @Test
+    public void testStagePropertyEditAfterMatch() throws Exception {
+        CvPipeline pipeline = CvPipelineTemplates.create(templateId);
+        assertEquals(templateId, CvPipelineTemplates.findTemplate(pipeline, templateId));
+
+        DetectEdgesCanny stage = (DetectEdgesCanny) pipeline.getStage("find-edges");
+        stage.setThreshold1(stage.getThreshold1() + 1);
+        assertNull(CvPipelineTemplates.findTemplate(pipeline, templateId));
+
+        stage.setThreshold1(stage.getThreshold1() - 1);
+        assertEquals(templateId, CvPipelineTemplates.findTemplate(pipeline, templateId));
+        CvStage blur = pipeline.getStage("predetect-2");
+        blur.setEnabled(!blur.isEnabled());
+        assertNull(CvPipelineTemplates.findTemplate(pipeline, templateId));
+    }
+}
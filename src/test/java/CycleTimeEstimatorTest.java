@@ -0,0 +1,87 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.CycleTimeEstimator;
+import org.openpnp.machine.reference.CycleTimeEstimator.Phase;
+
+import com.google.common.io.Files;
+
+public class CycleTimeEstimatorTest {
+
+    @Test
+    public void testUsage() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PrintStream out = new PrintStream(output, true);
+        assertEquals(2, CycleTimeEstimator.run(new String[] { "configurationDirectory" }, out));
+        assertEquals(2, CycleTimeEstimator.run(new String[] { "configurationDirectory", "jobFile", "-xml", "file" }, out));
+        assertTrue(output.toString().contains("Usage:"));
+    }
+
+    /**
+     * Estimates the pnp-test sample job on the default (simulated) machine configuration.
+     */
+    @Test
+    public void testSampleJobEstimate() throws Exception {
+        File testDirectory = Files.createTempDir();
+        File workingDirectory = new File(testDirectory, ".openpnp");
+        File jobFile = new File(new File(new File("samples"), "pnp-test"), "pnp-test.job.xml");
+        File csvFile = new File(testDirectory, "estimate.csv");
+        File jsonFile = new File(testDirectory, "estimate.json");
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        int status = CycleTimeEstimator.run(new String[] {
+                workingDirectory.getPath(), jobFile.getPath(),
+                "-csv", csvFile.getPath(), "-json", jsonFile.getPath() },
+                new PrintStream(output, true));
+        assertEquals(0, status, output.toString());
+        assertTrue(jsonFile.length() > 0, "JSON report written");
+
+        List<String> lines = Files.readLines(csvFile, StandardCharsets.UTF_8);
+        assertEquals("phase,count,total_s,average_s,max_s,share_percent", lines.get(0));
+        Map<Phase, Double> phaseSeconds = new EnumMap<>(Phase.class);
+        Map<Phase, Integer> phaseCounts = new EnumMap<>(Phase.class);
+        double sumSeconds = 0;
+        double sumShare = 0;
+        for (String line : lines.subList(1, lines.size() - 1)) {
+            String [] fields = line.split(",", -1);
+            assertEquals(6, fields.length, line);
+            Phase phase = Phase.valueOf(fields[0]);
+            int count = Integer.parseInt(fields[1]);
+            double total = Double.parseDouble(fields[2]);
+            double average = Double.parseDouble(fields[3]);
+            double max = Double.parseDouble(fields[4]);
+            assertTrue(count > 0, line);
+            assertEquals(total/count, average, 0.001, line);
+            assertTrue(max <= total + 0.001 && max >= average - 0.001, line);
+            phaseSeconds.put(phase, total);
+            phaseCounts.put(phase, count);
+            sumSeconds += total;
+            sumShare += Double.parseDouble(fields[5]);
+        }
+        String [] totals = lines.get(lines.size() - 1).split(",", -1);
+        assertEquals("Total", totals[0]);
+        int placements = Integer.parseInt(totals[1]);
+        double totalSeconds = Double.parseDouble(totals[2]);
+        assertTrue(placements > 0, "parts placed");
+        assertTrue(totalSeconds > 0, "job takes time");
+        // The phases break down the total.
+        assertEquals(totalSeconds, sumSeconds, 0.01);
+        assertEquals(100.0, sumShare, 0.1*phaseSeconds.size());
+        for (Phase phase : new Phase[] { Phase.Preparation, Phase.Planning, Phase.Pick, Phase.Align, Phase.Place, Phase.Cleanup }) {
+            assertTrue(phaseCounts.containsKey(phase), phase+" phase estimated");
+        }
+        // Each placement is picked and placed in its own step.
+        assertTrue(phaseCounts.get(Phase.Pick) >= placements);
+        assertTrue(phaseCounts.get(Phase.Place) >= placements);
+        assertTrue(phaseSeconds.get(Phase.Place) > 0);
+    }
+}
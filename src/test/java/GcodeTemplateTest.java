@@ -0,0 +1,61 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.driver.GcodeTemplate;
+import org.openpnp.util.TextUtils;
+
+public class GcodeTemplateTest {
+    static final String[] templates = new String[] {
+            "{Acceleration:M204 S%.1f} G0 {XL}{X:%.4f} {YL}{Y:%.4f} {ZL}{Z:%.4f} {RotationL}{Rotation:%.4f} {FeedRate:F%.1f} ; Send standard Gcode move",
+            "G1 {X:X%.4f} {Y:Y%.4f} {Z:Z%.4f} {FeedRate:F%.0f} {Unknown} {Id} ; move {Name}",
+            "{XDecreasing:G1 X<((XBacklash:%%.4f))>} G0 {X:X%.4f}", // Nested, legacy path.
+            "M400",
+            "",
+    };
+
+    static String substituteSequentially(String template, Object... nameValues) {
+        for (int i = 0; i < nameValues.length; i += 2) {
+            template = TextUtils.substituteVar(template, (String) nameValues[i], nameValues[i+1]);
+        }
+        return template;
+    }
+
+    static String substituteTemplate(String template, Object... nameValues) {
+        GcodeTemplate.Substitution substitution = new GcodeTemplate(template).substitution();
+        for (int i = 0; i < nameValues.length; i += 2) {
+            substitution.set((String) nameValues[i], nameValues[i+1]);
+        }
+        return substitution.render(new StringBuilder());
+    }
+
+    @Test
+    public void testSameAsSequentialSubstitution() {
+        Object[][] substitutions = new Object[][] {
+            { "XDecreasing", true, "XBacklash", 9.5, "Id", "N1", "Name", "N1", "FeedRate", 5000.0, 
+                "Acceleration", 2000.0, "X", 10.0, "XL", "X", "Y", -5.25, "YL", "Y", "Z", null, "ZL", null,
+                "Rotation", 45.0, "RotationL", "A" },
+            { "FeedRate", null, "Acceleration", null, "X", 1.0, "X", 2.0, "XDecreasing", null },
+            { },
+        };
+        for (String template : templates) {
+            for (Object[] nameValues : substitutions) {
+                assertEquals(substituteSequentially(template, nameValues),
+                        substituteTemplate(template, nameValues),
+                        "Template: "+template);
+            }
+        }
+    }
+
+    @Test
+    public void testHasVariable() {
+        GcodeTemplate template = new GcodeTemplate(templates[0]);
+        assertTrue(template.hasVariable("XL"));
+        assertFalse(template.hasVariable("BacklashFeedRate"));
+        GcodeTemplate.Substitution substitution = template.substitution();
+        assertTrue(substitution.hasVariable("X"));
+        substitution.set("X", 1.0);
+        assertFalse(substitution.hasVariable("X"));
+    }
+}
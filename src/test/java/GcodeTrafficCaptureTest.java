@@ -0,0 +1,99 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.machine.reference.driver.GcodeTrafficCapture;
+import org.openpnp.machine.reference.driver.GcodeTrafficCapture.Direction;
+import org.openpnp.machine.reference.driver.GcodeTrafficCapture.Entry;
+
+import com.google.common.io.Files;
+
+public class GcodeTrafficCaptureTest {
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        File file = new File(Files.createTempDir(), "traffic.bin");
+        try (GcodeTrafficCapture capture = new GcodeTrafficCapture(file)) {
+            capture.sent("G1 X10 Y20");
+            capture.received("ok");
+            capture.sent("M114");
+            capture.received("X:10.0000 Y:20.0000 Z:0.0000 A:0.0000 Count X:10.0000 Y:20.0000 Z:0.0000");
+            capture.received("ok");
+            capture.sent("M400 ; \u00fcmlaut");
+            capture.received("ok");
+            assertEquals(7, capture.getEntries());
+        }
+        List<Entry> entries = GcodeTrafficCapture.read(file);
+        assertEquals(7, entries.size());
+        assertEquals(Direction.Sent, entries.get(0).getDirection());
+        assertEquals("G1 X10 Y20", entries.get(0).getLine());
+        assertEquals(Direction.Received, entries.get(3).getDirection());
+        assertEquals("X:10.0000 Y:20.0000 Z:0.0000 A:0.0000 Count X:10.0000 Y:20.0000 Z:0.0000", entries.get(3).getLine());
+        assertEquals("M400 ; \u00fcmlaut", entries.get(5).getLine());
+        for (int i = 1; i < entries.size(); i++) {
+            assertTrue(entries.get(i).getNanoTime() >= entries.get(i - 1).getNanoTime(), "time stamps monotonic");
+        }
+
+        GcodeTrafficCapture.Statistics statistics = new GcodeTrafficCapture.Statistics(entries, "^ok.*");
+        assertEquals(3, statistics.getSentLines());
+        assertEquals(4, statistics.getReceivedLines());
+        assertEquals(3, statistics.getConfirmations());
+        assertEquals(1, statistics.getMaxQueueDepth());
+    }
+
+    @Test
+    public void testReadWhileCapturing() throws Exception {
+        File file = new File(Files.createTempDir(), "traffic.bin");
+        try (GcodeTrafficCapture capture = new GcodeTrafficCapture(file, 10)) {
+            assertEquals(0, GcodeTrafficCapture.read(file).size());
+            capture.sent("G28");
+            capture.received("ok");
+            // The periodic flush makes the entries readable without closing the capture.
+            List<Entry> entries = null;
+            for (int i = 0; i < 500; i++) {
+                entries = GcodeTrafficCapture.read(file);
+                if (entries.size() == 2) {
+                    break;
+                }
+                Thread.sleep(10);
+            }
+            assertEquals(2, entries.size());
+            capture.sent("G1 X1");
+            capture.flush();
+            assertEquals(3, GcodeTrafficCapture.read(file).size());
+        }
+    }
+
+    @Test
+    public void testReplay() throws Exception {
+        File file = new File(Files.createTempDir(), "traffic.bin");
+        try (GcodeTrafficCapture capture = new GcodeTrafficCapture(file)) {
+            capture.sent("G21");
+            capture.received("ok");
+            capture.sent("M114");
+            capture.received("X:1.0000 Y:2.0000");
+            capture.received("ok");
+            capture.sent("G1 X5");
+            capture.received("ok");
+        }
+        GcodeTrafficCapture.Replay replay = new GcodeTrafficCapture.Replay(file);
+        List<String> responses = new ArrayList<>();
+        assertTrue(replay.respond("G21", responses::add));
+        assertEquals(Arrays.asList("ok"), responses);
+        responses.clear();
+        assertTrue(replay.respond(" M114 ", responses::add));
+        assertEquals(Arrays.asList("X:1.0000 Y:2.0000", "ok"), responses);
+        responses.clear();
+        // Already replayed commands are not found again.
+        assertFalse(replay.respond("G21", responses::add));
+        assertTrue(responses.isEmpty());
+        assertTrue(replay.respond("G1 X5", responses::add));
+        assertEquals(Arrays.asList("ok"), responses);
+    }
+}
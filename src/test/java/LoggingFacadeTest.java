@@ -0,0 +1,45 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.logging.Logger;
+import org.pmw.tinylog.Configurator;
+import org.pmw.tinylog.Level;
+
+public class LoggingFacadeTest {
+
+    @Test
+    public void testPackageLevels() {
+        // Restore the configuration used by the other tests afterwards.
+        Configurator saved = Configurator.currentConfig();
+        try {
+            AtomicInteger composed = new AtomicInteger();
+            // Global level restricts, the override for this class enables trace.
+            Configurator.currentConfig()
+                .level(Level.INFO)
+                .level(LoggingFacadeTest.class, Level.TRACE)
+                .activate();
+            assertTrue(Logger.isTraceEnabled());
+            assertTrue(Logger.isDebugEnabled());
+            Logger.trace(() -> "composed " + composed.incrementAndGet());
+            assertEquals(1, composed.get());
+
+            // Global level enables trace, the override for this class restricts.
+            Configurator.currentConfig()
+                .level(Level.TRACE)
+                .level(LoggingFacadeTest.class, Level.INFO)
+                .activate();
+            assertFalse(Logger.isTraceEnabled());
+            assertFalse(Logger.isDebugEnabled());
+            Logger.trace(() -> "composed " + composed.incrementAndGet());
+            Logger.debug(() -> "composed " + composed.incrementAndGet());
+            assertEquals(1, composed.get());
+        }
+        finally {
+            saved.activate();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.opencv.core.CvType;
+import org.opencv.core.Mat;
+import org.opencv.core.MatOfPoint;
+import org.opencv.core.Point;
+import org.opencv.core.RotatedRect;
+import org.opencv.core.Scalar;
+import org.opencv.imgproc.Imgproc;
+import org.openpnp.vision.pipeline.CvStage.Result;
+import org.openpnp.vision.pipeline.stages.DetectCircularSymmetry;
+import org.openpnp.vision.pipeline.stages.DetectCircularSymmetry.SymmetryScore;
+import org.openpnp.vision.pipeline.stages.DetectRectlinearSymmetry;
+import org.openpnp.vision.pipeline.stages.DetectRectlinearSymmetry.SymmetryFunction;
+
+public class SymmetryPyramidTest {
+    static {
+        nu.pattern.OpenCV.loadLocally();
+    }
+
+    /**
+     * Fractional bits used to draw the synthetic subjects at sub-pixel positions.
+     */
+    static final int shift = 4;
+    static final int superSampling = 8;
+
+    @Test
+    public void testCircularPyramid() throws Exception {
+        // Pixel centers are at integer coordinates when drawing, the detected location is on the pixel grid,
+        // i.e. pixel centers are at + 0.5.
+        double x = 200.3125;
+        double y = 190.625;
+        Mat image = new Mat(400, 400, CvType.CV_8UC1, new Scalar(32));
+        try {
+            Imgproc.circle(image, new Point(x*(1 << shift), y*(1 << shift)), 50*(1 << shift),
+                    new Scalar(224), -1, Imgproc.LINE_AA, shift);
+            Result.Circle full = findCircle(image, 0);
+            Result.Circle pyramid = findCircle(image, 2);
+            assertEquals(x + 0.5, full.x, 0.5);
+            assertEquals(y + 0.5, full.y, 0.5);
+            assertEquals(full.x, pyramid.x, 1.0/superSampling);
+            assertEquals(full.y, pyramid.y, 1.0/superSampling);
+        }
+        finally {
+            image.release();
+        }
+    }
+
+    /**
+     * The subject is made of concentric one pixel rings, over a gradient background. Downsampling
+     * smooths the rings away, leaving only the gradient, which has no circular symmetry. The pyramid
+     * search must then fall back to the full resolution search.
+     */
+    @Test
+    public void testCircularPyramidCoarseNothing() throws Exception {
+        int size = 320;
+        int center = size/2;
+        byte[] pixels = new byte[size*size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                double value = 20 + 0.4*x;
+                long d = Math.round(Math.hypot(x - center, y - center));
+                if (d <= 48) {
+                    value += (d % 2 == 0) ? 40 : -40;
+                }
+                pixels[y*size + x] = (byte) Math.round(value);
+            }
+        }
+        Mat image = new Mat(size, size, CvType.CV_8UC1);
+        Mat coarse = new Mat();
+        try {
+            image.put(0, 0, pixels);
+            Imgproc.pyrDown(image, coarse);
+            Imgproc.pyrDown(coarse, coarse);
+            // Like the coarse search of the pyramid, i.e. scaled down by 4 and with the lenient minimum symmetry.
+            List<Result.Circle> coarseCircles = DetectCircularSymmetry.findCircularSymmetry(coarse,
+                    center/4, center/4, 10/4, 160/4, 40/4, 40/4, 40/4, 4, 0.1, 0.0, 1, 1,
+                    SymmetryScore.OverallVarianceVsRingVarianceSum, false, false, false,
+                    new DetectCircularSymmetry.ScoreRange());
+            assertTrue(coarseCircles.isEmpty());
+
+            List<Result.Circle> circles = DetectCircularSymmetry.findCircularSymmetryPyramid(image,
+                    center, center, 10, 160, 40, 40, 40, 1, 1.2, 0.0, 1, 1,
+                    SymmetryScore.OverallVarianceVsRingVarianceSum, 2, 4, false, false, false,
+                    new DetectCircularSymmetry.ScoreRange());
+            assertEquals(1, circles.size());
+            assertEquals(center + 0.5, circles.get(0).x, 0.5);
+            assertEquals(center + 0.5, circles.get(0).y, 0.5);
+        }
+        finally {
+            coarse.release();
+            image.release();
+        }
+    }
+
+    @Test
+    public void testRectlinearPyramid() throws Exception {
+        // The detected location is given in drawing coordinates, i.e. pixel centers are at integer coordinates.
+        double x = 200.375;
+        double y = 190.625;
+        double width = 120;
+        double height = 80;
+        Mat image = new Mat(400, 400, CvType.CV_8UC1, new Scalar(32));
+        MatOfPoint corners = new MatOfPoint(
+                scaled(x - width/2, y - height/2),
+                scaled(x + width/2, y - height/2),
+                scaled(x + width/2, y + height/2),
+                scaled(x - width/2, y + height/2));
+        try {
+            Imgproc.fillConvexPoly(image, corners, new Scalar(224), Imgproc.LINE_AA, shift);
+            RotatedRect full = findRect(image, 0);
+            RotatedRect pyramid = findRect(image, 2);
+            assertNotNull(full);
+            assertNotNull(pyramid);
+            assertEquals(x, full.center.x, 0.5);
+            assertEquals(y, full.center.y, 0.5);
+            assertEquals(full.center.x, pyramid.center.x, 1.0/superSampling);
+            assertEquals(full.center.y, pyramid.center.y, 1.0/superSampling);
+        }
+        finally {
+            corners.release();
+            image.release();
+        }
+    }
+
+    private static Point scaled(double x, double y) {
+        return new Point(Math.round(x*(1 << shift)), Math.round(y*(1 << shift)));
+    }
+
+    private static Result.Circle findCircle(Mat image, int pyramidLevels) throws Exception {
+        List<Result.Circle> circles = DetectCircularSymmetry.findCircularSymmetryPyramid(image,
+                200, 190, 20, 140, 60, 60, 60, 1, 1.2, 0.0, 8, superSampling,
+                SymmetryScore.OverallVarianceVsRingVarianceSum, pyramidLevels, 4, false, false, false,
+                new DetectCircularSymmetry.ScoreRange());
+        assertEquals(1, circles.size());
+        return circles.get(0);
+    }
+
+    private static RotatedRect findRect(Mat image, int pyramidLevels) throws Exception {
+        return DetectRectlinearSymmetry.findReclinearSymmetryPyramid(image, 200, 190, 0,
+                180, 180, 40, 10, 10, SymmetryFunction.FullSymmetry, SymmetryFunction.FullSymmetry, 0,
+                8, superSampling, 5, 2.5, 128, pyramidLevels, false, false, false,
+                new DetectRectlinearSymmetry.ScoreRange());
+    }
+}
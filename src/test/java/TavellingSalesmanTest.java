@@ -91,4 +91,45 @@ public class TavellingSalesmanTest {
             }
         }
     }
+
+    /**
+     * Test the parallel annealing chains of org.openpnp.util.TravellingSalesman<T>. With the same seed, the solution must
+     * be repeatable and it must never be worse than the single chain solution. 
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testParallelTravellingSalesman() throws Exception {
+        Random rnd = new java.util.Random(42);
+        List<Location> list = new ArrayList<Location>();
+        for (int i = 0; i < 60; i++) {
+            list.add(new Location(LengthUnit.Millimeters, rnd.nextDouble()*1000.0, rnd.nextDouble()*500.0, rnd.nextDouble()*20.0, 0.0));
+        }
+        double singleDistance = solve(list, 1, 0);
+        double parallelDistance = solve(list, 4, 0);
+        double repeatedDistance = solve(list, 4, 0);
+        System.out.println("TavellingSalesmanTest.testParallelTravellingSalesman() single chain distance: "+Math.round(singleDistance)+"mm, 4 chains distance: "+Math.round(parallelDistance)+"mm");
+        if (parallelDistance > singleDistance) {
+            throw new Exception("Parallel chains distance "+parallelDistance+" is greater than single chain distance "+singleDistance);
+        }
+        if (parallelDistance != repeatedDistance) {
+            throw new Exception("Parallel chains distance "+parallelDistance+" is not repeatable, got "+repeatedDistance);
+        }
+    }
+
+    private double solve(List<Location> list, int chains, long seed) {
+        TravellingSalesman<Location> tsm = new TravellingSalesman<>(
+                list, 
+                new TravellingSalesman.Locator<Location>() { 
+                    @Override
+                    public Location getLocation(Location locatable) {
+                        return locatable;
+                    }
+                }, 
+                new Location(LengthUnit.Millimeters), 
+                null);
+        tsm.setChains(chains);
+        tsm.setSeed(seed);
+        return tsm.solve();
+    }
 }
@@ -0,0 +1,73 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.openpnp.util.TextUtils;
+
+public class TextUtilsTest {
+    static Map<String, Integer> assertNamedGroups(Pattern pattern, String input, String... names) {
+        Map<String, Integer> namedGroups = TextUtils.getNamedGroups(pattern);
+        Matcher matcher = pattern.matcher(input);
+        assertTrue(matcher.matches(), pattern.pattern()+" matches "+input);
+        assertEquals(names.length, namedGroups.size(), "named groups of "+pattern.pattern());
+        for (String name : names) {
+            assertEquals(matcher.group(name), matcher.group(namedGroups.get(name)),
+                    "group "+name+" of "+pattern.pattern());
+        }
+        return namedGroups;
+    }
+
+    static Map<String, Integer> assertNamedGroups(String regex, String input, String... names) {
+        return assertNamedGroups(Pattern.compile(regex), input, names);
+    }
+
+    @Test
+    public void testNestedGroups() {
+        Map<String, Integer> namedGroups = assertNamedGroups(
+                "^(?<X>-?\\d+(\\.\\d+)?)\\s(?<Y>(-)?\\d+(?<Yfraction>\\.\\d+)?)$", "-1.5 -2.25",
+                "X", "Y", "Yfraction");
+        assertEquals(1, namedGroups.get("X"));
+        assertEquals(3, namedGroups.get("Y"));
+        assertEquals(5, namedGroups.get("Yfraction"));
+    }
+
+    @Test
+    public void testNonCapturingGroups() {
+        Map<String, Integer> namedGroups = assertNamedGroups(
+                "(?:ok )?X:(?<X>[0-9.]+)(?=\\s)\\s(?i:y):(?>(?<Y>[0-9.]+))(?<!x)(?<=\\d)", "ok X:1.0 y:2.0",
+                "X", "Y");
+        assertEquals(1, namedGroups.get("X"));
+        assertEquals(2, namedGroups.get("Y"));
+    }
+
+    @Test
+    public void testCommentsFlag() {
+        // Parentheses in comments are not groups.
+        assertNamedGroups("(?x) X: (?<X>[0-9.]+) # the (X) coordinate\n \\s Y: (?<Y>[0-9.]+) # (Y) (Z)",
+                "X:1 Y:2", "X", "Y");
+        assertNamedGroups(Pattern.compile("X: (?<X>[0-9.]+) # (X)\n \\s Y: (?<Y>[0-9.]+) # (Y)", Pattern.COMMENTS),
+                "X:1 Y:2", "X", "Y");
+        // Without the flag, # is a literal.
+        assertNamedGroups("X:(?<X>[0-9.]+)#(?<Y>[0-9.]+)", "X:1#2", "X", "Y");
+    }
+
+    @Test
+    public void testEscapedParentheses() {
+        Map<String, Integer> namedGroups = assertNamedGroups(
+                "\\Q(x)\\E\\((?<X>[0-9.]+)\\)[(](\\[)(?<Y>[)(0-9.\\]]+)\\]", "(x)(1)([2)]]",
+                "X", "Y");
+        assertEquals(1, namedGroups.get("X"));
+        assertEquals(3, namedGroups.get("Y"));
+    }
+
+    @Test
+    public void testMiscountFallsBackToNames() {
+        // The scope of (?x:...) is not tracked, so the counter takes the # as a comment and misses the group.
+        // This must be detected, and an empty map returned, so the groups are accessed by name.
+        assertNamedGroups("(?x: a )#(?<b>b)", "a#b");
+    }
+}